@@ -0,0 +1,93 @@
+#!/usr/bin/env bash
+# no-tang-doc-core 启动时间基准
+# 以同一镜像按不同模式各启动 N 次，记录从 docker run 到 /actuator/health 返回 UP 的时间，
+# 以及应用自身上报的 application.started.time / application.ready.time，结果追加到 CSV 便于长期对比
+#
+# 模式：
+#   baseline    - 环境 profile，不使用 Spring AOT 与 JVM AOT 缓存（启动时运行 Liquibase）
+#   aot-cache   - 环境 profile，仅使用 JVM AOT 缓存
+#   fast-start  - 环境 profile + fast-start，Spring AOT + JVM AOT 缓存 + 延迟初始化（镜像默认）
+#
+# 用法：
+#   ENV_FILE=core.env ./load-tests/startup-benchmark.sh [镜像] [次数]
+#   ENV_FILE 为 docker --env-file 格式，至少包含数据源、Keycloak 与 Spaces 配置（可参考 docker-compose.yml）
+#   可选：NETWORK=<docker 网络>  BASE_PROFILE=dev  MODES="baseline fast-start"  RESULTS=<csv 路径>  PORT=18070
+set -euo pipefail
+
+IMAGE="${1:-ntdoc:test}"
+RUNS="${2:-5}"
+ENV_FILE="${ENV_FILE:?需要 ENV_FILE（docker --env-file 格式）}"
+BASE_PROFILE="${BASE_PROFILE:-dev}"
+MODES="${MODES:-baseline aot-cache fast-start}"
+PORT="${PORT:-18070}"
+TIMEOUT="${TIMEOUT:-180}"
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+RESULTS="${RESULTS:-$SCRIPT_DIR/results/startup.csv}"
+GIT_SHA="$(git -C "$SCRIPT_DIR" rev-parse --short HEAD 2>/dev/null || echo unknown)"
+NAME="ntdoc-startup-bench"
+
+if [[ ! -f "$RESULTS" ]]; then
+  echo "timestamp,git_sha,image,mode,run,wall_seconds,started_seconds,ready_seconds" > "$RESULTS"
+fi
+
+cleanup() { docker rm -f "$NAME" >/dev/null 2>&1 || true; }
+trap cleanup EXIT
+
+now() { date +%s.%N; }
+
+# 从 Prometheus 端点读取 Spring Boot 上报的启动耗时（秒）
+metric() {
+  curl -fs "http://localhost:$PORT/actuator/prometheus" \
+    | awk -v name="$1" '$1 ~ "^"name"[{ ]" { print $2; exit }'
+}
+
+run_once() {
+  local mode="$1" run="$2" profiles aot_opts
+  case "$mode" in
+    baseline)   profiles="$BASE_PROFILE";            aot_opts="" ;;
+    aot-cache)  profiles="$BASE_PROFILE";            aot_opts="-XX:AOTCache=/app/app.aot" ;;
+    fast-start) profiles="$BASE_PROFILE,fast-start"; aot_opts="-XX:AOTCache=/app/app.aot -Dspring.aot.enabled=true" ;;
+    *) echo "未知模式: $mode" >&2; exit 1 ;;
+  esac
+
+  cleanup
+  local start end
+  start="$(now)"
+  docker run -d --name "$NAME" ${NETWORK:+--network "$NETWORK"} -p "$PORT:8070" \
+    --env-file "$ENV_FILE" -e SPRING_PROFILES_ACTIVE="$profiles" -e JAVA_AOT_OPTS="$aot_opts" \
+    "$IMAGE" >/dev/null
+
+  until curl -fs "http://localhost:$PORT/actuator/health" | grep -q '"UP"'; do
+    if [[ "$(docker inspect -f '{{.State.Running}}' "$NAME")" != "true" ]] \
+       || (( $(echo "$(now) - $start > $TIMEOUT" | bc) )); then
+      echo "[$mode#$run] 启动失败或超时，最近日志：" >&2
+      docker logs --tail 50 "$NAME" >&2
+      exit 1
+    fi
+    sleep 0.1
+  done
+  end="$(now)"
+
+  local wall started ready
+  wall="$(echo "$end - $start" | bc)"
+  started="$(metric application_started_time_seconds)"
+  ready="$(metric application_ready_time_seconds)"
+  printf '%s,%s,%s,%s,%s,%.3f,%s,%s\n' "$(date -u +%Y-%m-%dT%H:%M:%SZ)" "$GIT_SHA" "$IMAGE" \
+    "$mode" "$run" "$wall" "${started:-}" "${ready:-}" >> "$RESULTS"
+  printf '[%s#%s] wall=%.3fs started=%ss ready=%ss\n' "$mode" "$run" "$wall" "${started:-?}" "${ready:-?}"
+}
+
+for mode in $MODES; do
+  for run in $(seq 1 "$RUNS"); do
+    run_once "$mode" "$run"
+  done
+done
+
+# 汇总本次运行：各模式 wall_seconds 的中位数
+echo
+echo "mode,runs,median_wall_seconds"
+batch="$(tail -n "$(( $(wc -w <<< "$MODES") * RUNS ))" "$RESULTS")"
+for mode in $MODES; do
+  awk -F, -v m="$mode" '$4 == m { print $6 }' <<< "$batch" | sort -n \
+    | awk -v m="$mode" '{ v[NR] = $1 } END { printf "%s,%d,%s\n", m, NR, v[int((NR + 1) / 2)] }'
+done
@@ -456,14 +456,10 @@ def start_mcp_server(
             headers={"Authorization": authorization}
         ) as client:
             response = await client.get(
-                f"{base_url}/api/v1/documents/download/{document_id}",
+                f"{base_url}/api/v1/documents/{document_id}/content",
             )
             response.raise_for_status()
-            download_url = response.json()["data"]["downloadUrl"]
-            async with httpx.AsyncClient() as client:
-                response = await client.get(download_url)
-                response.raise_for_status()
-                return response.content
+            return response.content
 
     @mcp.tool(
         name="delete-document",
@@ -547,6 +543,56 @@ def start_mcp_server(
             response.raise_for_status()
             return response.json()
 
+    @mcp.tool(
+        name="get-changes",
+        title="get-changes",
+        description=(
+            "Fetch changes to documents, tags, comments and teams since a cursor. "
+            "Start with since=0 and pass back the returned cursor; "
+            "if resetRequired is true, refetch full lists and continue from cursor."
+        ),
+    )
+    async def get_api_v1_changes(
+        ctx: Context[ServerSession, None],
+        since: int = 0,
+        limit: int | None = None,
+    ) -> Any:
+        params = {}
+        params["since"] = since
+        if limit is not None:
+            params["limit"] = limit
+        authorization = ctx.request_context.request.headers["authorization"]
+        async with httpx.AsyncClient(
+            headers={"Authorization": authorization}
+        ) as client:
+            response = await client.get(
+                f"{base_url}/api/v1/changes",
+                params=params,
+            )
+            response.raise_for_status()
+            return response.json()
+
+    @mcp.tool(
+        name="get-storage-usage",
+        title="get-storage-usage",
+        description=(
+            "Fetch the authenticated user's storage usage: used bytes, "
+            "document count, quota and remaining bytes."
+        ),
+    )
+    async def get_api_v1_storage_usage(
+        ctx: Context[ServerSession, None],
+    ) -> Any:
+        authorization = ctx.request_context.request.headers["authorization"]
+        async with httpx.AsyncClient(
+            headers={"Authorization": authorization}
+        ) as client:
+            response = await client.get(
+                f"{base_url}/api/v1/storage/usage",
+            )
+            response.raise_for_status()
+            return response.json()
+
     @mcp.tool(
         name="get-api-auth-me",
         title="get-api-auth-me",
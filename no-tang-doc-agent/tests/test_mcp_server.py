@@ -392,27 +392,15 @@ class TestMCPTools:
     async def test_download_document_content(
         self, mock_httpx, mock_mcp, mock_context, url
     ):
-        # Create first client for metadata request
-        metadata_client, metadata_response = create_mock_client(
-            {"data": {"downloadUrl": "http://cdn.example.com/file.txt"}}
-        )
-        # Create second client for content download
-        content_client, content_response = create_mock_client(
-            content=b"file content here"
-        )
-
-        # Setup mock to return different clients for each call
-        mock_httpx.side_effect = [metadata_client, content_client]
+        client, response = create_mock_client(content=b"file content here")
+        mock_httpx.return_value = client
 
         download = setup_capture(mock_mcp, "download-document-content")
         start_mcp_server(base_url=url, mcp_settings=FastMCPSettings())
         result = await download()(mock_context, document_id=456)
 
-        # Verify both calls
-        metadata_client.get.assert_called_once_with(
-            f"{url}/api/v1/documents/download/456"
-        )
-        content_client.get.assert_called_once_with("http://cdn.example.com/file.txt")
+        client.get.assert_called_once_with(f"{url}/api/v1/documents/456/content")
+        response.raise_for_status.assert_called_once()
         assert result == b"file content here"
 
     @patch("no_tang_doc_agent.mcp_server.mcp_server.FastMCP")
@@ -477,6 +465,30 @@ class TestMCPTools:
         client.post.assert_called_once_with(f"{url}/api/v1/logs/count", params={})
         response.raise_for_status.assert_called_once()
 
+    @patch("no_tang_doc_agent.mcp_server.mcp_server.FastMCP")
+    @patch("no_tang_doc_agent.mcp_server.mcp_server.httpx.AsyncClient")
+    async def test_get_changes(self, mock_httpx, mock_mcp, mock_context, url):
+        client, response = create_mock_client({"changes": [], "cursor": 42})
+        mock_httpx.return_value = client
+        get = setup_capture(mock_mcp, "get-changes")
+        start_mcp_server(base_url=url, mcp_settings=FastMCPSettings())
+        await get()(mock_context, since=40, limit=50)
+        client.get.assert_called_once_with(
+            f"{url}/api/v1/changes", params={"since": 40, "limit": 50}
+        )
+        response.raise_for_status.assert_called_once()
+
+    @patch("no_tang_doc_agent.mcp_server.mcp_server.FastMCP")
+    @patch("no_tang_doc_agent.mcp_server.mcp_server.httpx.AsyncClient")
+    async def test_get_storage_usage(self, mock_httpx, mock_mcp, mock_context, url):
+        client, response = create_mock_client({"usedBytes": 10, "quotaBytes": 100})
+        mock_httpx.return_value = client
+        get = setup_capture(mock_mcp, "get-storage-usage")
+        start_mcp_server(base_url=url, mcp_settings=FastMCPSettings())
+        await get()(mock_context)
+        client.get.assert_called_once_with(f"{url}/api/v1/storage/usage")
+        response.raise_for_status.assert_called_once()
+
     # Auth related tests
     @patch("no_tang_doc_agent.mcp_server.mcp_server.FastMCP")
     @patch("no_tang_doc_agent.mcp_server.mcp_server.httpx.AsyncClient")
@@ -495,4 +507,4 @@ class TestStartMCPServer:
     def test_default_settings(self, mock_mcp):
         mock_mcp.return_value.run = Mock()
         start_mcp_server()
-        assert mock_mcp.return_value.tool.call_count == 20
+        assert mock_mcp.return_value.tool.call_count == 22
@@ -1,9 +1,12 @@
 package com.ntdoc.notangdoccore;
 
+import com.ntdoc.notangdoccore.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class NoTangDocCoreApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,39 @@
+package com.ntdoc.notangdoccore.config;
+
+import com.ntdoc.notangdoccore.service.cache.CacheInvalidationBus;
+import com.ntdoc.notangdoccore.service.cache.CacheInvalidationService;
+import com.ntdoc.notangdoccore.service.cache.LoopbackCacheInvalidationBus;
+import com.ntdoc.notangdoccore.service.cache.UdpCacheInvalidationBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 跨实例缓存失效总线：默认进程内分发，多副本部署时使用 UDP 单播（对端来自 headless Service）
+ */
+@Configuration
+@EnableConfigurationProperties(CacheInvalidationProperties.class)
+public class CacheInvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ntdoc.cache.invalidation", name = "bus", havingValue = "local", matchIfMissing = true)
+    public CacheInvalidationBus loopbackCacheInvalidationBus() {
+        return new LoopbackCacheInvalidationBus();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ntdoc.cache.invalidation", name = "bus", havingValue = "udp")
+    public UdpCacheInvalidationBus udpCacheInvalidationBus(CacheInvalidationProperties properties,
+                                                           MeterRegistry meterRegistry) {
+        return new UdpCacheInvalidationBus(properties.getUdp(), meterRegistry);
+    }
+
+    // 延迟初始化（fast-start）时仍在启动时创建，保证启动后立即接收其他实例的失效消息
+    @Bean
+    public static LazyInitializationExcludeFilter cacheInvalidationExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(CacheInvalidationBus.class, CacheInvalidationService.class);
+    }
+}
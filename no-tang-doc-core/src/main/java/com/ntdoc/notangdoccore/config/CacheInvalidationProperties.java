@@ -0,0 +1,29 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "ntdoc.cache.invalidation")
+@Data
+public class CacheInvalidationProperties {
+    // 广播方式：local 只在进程内分发（单实例）；udp 向 peers 解析出的全部实例发送
+    private String bus = "local";
+
+    private Udp udp = new Udp();
+
+    @Data
+    public static class Udp {
+        // 监听与发送的端口，所有实例一致
+        private int port = 7071;
+        // 对端 host 或 host:port，通常是 Kubernetes headless Service，解析为全部 Pod IP（包含本实例，自己的消息会被忽略）
+        private List<String> peers = new ArrayList<>();
+        // 重新解析 peers 的间隔，新扩容的实例最多延迟该时长开始接收消息
+        private Duration peerRefresh = Duration.ofSeconds(10);
+        // 消息 HMAC 密钥，所有实例一致；不匹配的报文直接丢弃
+        private String secret;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ntdoc.changes")
+@Data
+public class ChangeFeedProperties {
+    // 流水保留时长；客户端游标早于保留范围时需要全量刷新
+    private Duration retention = Duration.ofDays(30);
+    // 每次拉取的默认条数与上限
+    private int defaultLimit = 100;
+    private int maxLimit = 500;
+    // 过期清理的 cron（由 @Scheduled 读取）
+    private String pruneCron = "0 15 4 * * *";
+}
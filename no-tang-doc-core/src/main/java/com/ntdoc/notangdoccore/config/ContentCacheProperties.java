@@ -0,0 +1,43 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ntdoc.content.cache")
+@Data
+public class ContentCacheProperties {
+    private boolean enabled = true;
+    // 缓存目录；文件放在其下的 objects 子目录，启动时只清理其中的缓存文件
+    private String dir = System.getProperty("java.io.tmpdir") + "/ntdoc-content-cache";
+    // 缓存总大小上限
+    private DataSize maxSize = DataSize.ofGigabytes(2);
+    // 超过该大小的对象不进入缓存，直接流式转发（上限 2GB）
+    private DataSize maxObjectSize = DataSize.ofMegabytes(200);
+    // 下载次数达到该值的文档视为热点，读取时写入本地缓存
+    private int hotThreshold = 3;
+    // 对象元数据（ETag、长度）缓存条数与空闲过期时间，命中时省去一次 HEAD 请求
+    private long metadataMaxEntries = 100_000;
+    private Duration metadataTtl = Duration.ofHours(6);
+    // sendfile 由容器在 Servlet 返回后按路径打开文件；期间被淘汰的文件延迟到该时长后再删除
+    private Duration sendfileLease = Duration.ofMinutes(1);
+
+    private Warmup warmup = new Warmup();
+
+    /**
+     * 按下载次数预热：定期把下载最多的文档拉取到本地缓存
+     */
+    @Data
+    public static class Warmup {
+        private boolean enabled = true;
+        // 每轮最多预热的文档数
+        private int topN = 100;
+        // 预热占用不超过缓存容量的该比例，给运行期的热点留出空间
+        private double maxFraction = 0.5;
+        // 启动后首次预热的延迟与之后的间隔（由 @Scheduled 读取）
+        private Duration initialDelay = Duration.ofSeconds(30);
+        private Duration interval = Duration.ofMinutes(30);
+    }
+}
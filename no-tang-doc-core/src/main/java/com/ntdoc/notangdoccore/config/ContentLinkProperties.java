@@ -0,0 +1,11 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "ntdoc.content.link")
+@Data
+public class ContentLinkProperties {
+    // 签名内容链接的 HMAC-SHA256 密钥，多实例必须一致；为空时启动时随机生成，链接只在签发实例上有效
+    private String secret;
+}
@@ -0,0 +1,73 @@
+package com.ntdoc.notangdoccore.config;
+
+import com.ntdoc.notangdoccore.metrics.DbQueryMetricsListener;
+import com.ntdoc.notangdoccore.metrics.EndpointCommentStatementInspector;
+import com.ntdoc.notangdoccore.metrics.EndpointDbMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * 按接口统计数据库访问：代理 DataSource 采集每条 SQL，拦截器按请求汇总，Hibernate 注释标记 SQL 来源
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(DbMetricsProperties.class)
+@ConditionalOnProperty(prefix = "ntdoc.db.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DbMetricsConfig {
+
+    @Bean
+    public DbQueryMetricsListener dbQueryMetricsListener(MeterRegistry meterRegistry, DbMetricsProperties properties) {
+        return new DbQueryMetricsListener(meterRegistry, properties);
+    }
+
+    // BeanPostProcessor 需为 static，依赖延迟获取，避免提前初始化 MeterRegistry 等 Bean
+    @Bean
+    public static BeanPostProcessor dbMetricsDataSourcePostProcessor(ObjectProvider<DbQueryMetricsListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    DbQueryMetricsListener metricsListener = listener.getObject();
+                    log.info("Wrapping DataSource '{}' with query metrics proxy", beanName);
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(metricsListener)
+                            .methodListener(metricsListener)
+                            .proxyResultSet()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer dbMetricsWebMvcConfigurer(MeterRegistry meterRegistry) {
+        EndpointDbMetricsInterceptor interceptor = new EndpointDbMetricsInterceptor(meterRegistry);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor).addPathPatterns("/api/**");
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ntdoc.db.metrics", name = "comment-sql", havingValue = "true", matchIfMissing = true)
+    public HibernatePropertiesCustomizer endpointCommentStatementInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new EndpointCommentStatementInspector());
+    }
+}
@@ -0,0 +1,21 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ntdoc.db.metrics")
+@Data
+public class DbMetricsProperties {
+    // 总开关：关闭后不代理 DataSource
+    private boolean enabled = true;
+    // 在 SQL 前追加 /* Controller#method */ 注释，便于在 MySQL processlist / 慢日志中定位来源
+    private boolean commentSql = true;
+    // 超过该耗时的 SQL 视为慢查询
+    private Duration slowQueryThreshold = Duration.ofMillis(500);
+    // 慢查询日志采样率 0.0 ~ 1.0
+    private double slowQuerySampleRate = 1.0;
+    // 日志中 SQL 的最大长度
+    private int maxLoggedSqlLength = 1000;
+}
@@ -0,0 +1,85 @@
+package com.ntdoc.notangdoccore.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.ntdoc.notangdoccore.service.cache.EntityCacheInvalidation;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate 二级缓存：Team、Tag、User 的 READ_WRITE 实体缓存与查询缓存（JCache + Caffeine）
+ * 所有区域在此按 ntdoc.db.cache 显式创建并限定容量，Hibernate 遇到未配置的区域时启动失败，不会悄悄创建无界缓存；
+ * 命中率等统计经 Hibernate Statistics 导出为 hibernate.second.level.cache.* / hibernate.cache.query.* 指标；
+ * 多实例之间的失效由 {@link EntityCacheInvalidation} 经缓存失效总线广播
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(EntityCacheProperties.class)
+public class EntityCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(EntityCacheProperties properties) {
+        // 每个应用上下文使用独立的 CacheManager，测试中多个上下文共存时区域不会冲突
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("ntdoc-entity-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+        if (!properties.isEnabled()) {
+            return cacheManager;
+        }
+        properties.getRegions().forEach((name, region) -> createRegion(cacheManager, name, region));
+        if (properties.isQueryCache()) {
+            createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                    properties.getQueryResults());
+            // 每张表一条最近更新时间戳，不能先于查询结果被淘汰
+            createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, null);
+        }
+        log.info("Hibernate second-level cache regions: {}", cacheManager.getCacheNames());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheHibernateProperties(EntityCacheProperties properties,
+                                                                        CacheManager entityCacheManager,
+                                                                        ObjectProvider<EntityCacheInvalidation> invalidation) {
+        return hibernateProperties -> {
+            // hibernate-jcache 在类路径上时 Hibernate 默认启用二级缓存，关闭时需显式设置
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, properties.isEnabled());
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, properties.isEnabled() && properties.isQueryCache());
+            if (!properties.isEnabled()) {
+                return;
+            }
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            invalidation.ifAvailable(integrator -> hibernateProperties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> List.of(integrator)));
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, EntityCacheProperties.Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate 缓存的是拆解后的不可变状态，按引用存取即可，省去每次读写的序列化拷贝
+        configuration.setStoreByValue(false);
+        if (region != null) {
+            configuration.setMaximumSize(OptionalLong.of(region.getMaxEntries()));
+            configuration.setExpireAfterWrite(OptionalLong.of(region.getTtl().toNanos()));
+        }
+        cacheManager.createCache(name, configuration);
+    }
+}
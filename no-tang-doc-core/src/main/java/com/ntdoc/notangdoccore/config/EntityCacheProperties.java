@@ -0,0 +1,35 @@
+package com.ntdoc.notangdoccore.config;
+
+import com.ntdoc.notangdoccore.entity.EntityCacheRegions;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "ntdoc.db.cache")
+@Data
+public class EntityCacheProperties {
+    // Hibernate 二级缓存与查询缓存总开关
+    private boolean enabled = true;
+    // 查询缓存（findByKcUserId、findByTag 等标记为可缓存的查询）
+    private boolean queryCache = true;
+    // 各实体缓存区域的容量与写入后过期时间；多实例部署时各实例缓存独立，ttl 即其他实例的最大陈旧时间
+    private Map<String, Region> regions = new LinkedHashMap<>(Map.of(
+            EntityCacheRegions.USER, new Region(50_000, Duration.ofMinutes(10)),
+            EntityCacheRegions.TEAM, new Region(20_000, Duration.ofMinutes(10)),
+            EntityCacheRegions.TAG, new Region(20_000, Duration.ofMinutes(10))));
+    // 查询结果区域；结果只保存 id，实体本身从上面的区域读取
+    private Region queryResults = new Region(50_000, Duration.ofMinutes(10));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Region {
+        private long maxEntries;
+        private Duration ttl;
+    }
+}
@@ -0,0 +1,137 @@
+package com.ntdoc.notangdoccore.config;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.jwk.source.OutageTolerantJWKSetSource;
+import com.nimbusds.jose.jwk.source.RefreshAheadCachingJWKSetSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.ntdoc.notangdoccore.security.CachingJwtDecoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.*;
+import org.springframework.util.StringUtils;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * 资源服务器的 JwtDecoder
+ * JWKS 显式缓存并在过期前后台刷新，Keycloak 短暂不可用时沿用已有密钥；未知 kid（密钥轮换）时按限速重新获取；
+ * 外层缓存已验证的令牌，避免同一令牌在每个请求上重复验签
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(JwtDecoderProperties.class)
+public class JwtDecoderConfig {
+
+    @Bean
+    public JWKSource<SecurityContext> jwkSource(OAuth2ResourceServerProperties resourceServerProperties,
+                                                JwtDecoderProperties properties,
+                                                MeterRegistry meterRegistry) throws MalformedURLException {
+        String jwkSetUri = resourceServerProperties.getJwt().getJwkSetUri();
+        DefaultResourceRetriever retriever = new DefaultResourceRetriever(
+                (int) properties.getJwksConnectTimeout().toMillis(),
+                (int) properties.getJwksReadTimeout().toMillis(),
+                JWKSourceBuilder.DEFAULT_HTTP_SIZE_LIMIT);
+        JWKSourceBuilder<SecurityContext> builder = JWKSourceBuilder.<SecurityContext>create(URI.create(jwkSetUri).toURL(), retriever)
+                .cache(properties.getJwksTtl().toMillis(), properties.getJwksRefreshTimeout().toMillis())
+                .refreshAheadCache(properties.getJwksRefreshAhead().toMillis(), true, event -> {
+                    if (event instanceof RefreshAheadCachingJWKSetSource.ScheduledRefreshFailed<SecurityContext> failed) {
+                        meterRegistry.counter("security.jwks.refresh", "outcome", "failed").increment();
+                        log.warn("Scheduled JWKS refresh failed: {}", failed.getException().getMessage());
+                    } else if (event instanceof RefreshAheadCachingJWKSetSource.ScheduledRefreshCompletedEvent<SecurityContext>) {
+                        meterRegistry.counter("security.jwks.refresh", "outcome", "success").increment();
+                    }
+                })
+                .retrying(true);
+        if (properties.getJwksOutageTolerance().isPositive()) {
+            builder.outageTolerant(properties.getJwksOutageTolerance().toMillis(), event -> {
+                if (event instanceof OutageTolerantJWKSetSource.OutageEvent<SecurityContext> outage) {
+                    meterRegistry.counter("security.jwks.refresh", "outcome", "outage").increment();
+                    log.warn("JWKS endpoint unavailable, using cached keys for up to {} ms: {}",
+                            outage.getRemainingTime(), outage.getException().getMessage());
+                }
+            });
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource,
+                                 OAuth2ResourceServerProperties resourceServerProperties,
+                                 JwtDecoderProperties properties,
+                                 MeterRegistry meterRegistry) {
+        OAuth2ResourceServerProperties.Jwt jwtProperties = resourceServerProperties.getJwt();
+        Set<JWSAlgorithm> algorithms = jwtProperties.getJwsAlgorithms().stream()
+                .map(JWSAlgorithm::parse)
+                .collect(Collectors.toSet());
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(algorithms, jwkSource));
+        // 声明由 Spring 的 OAuth2TokenValidator 校验
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder nimbus = new NimbusJwtDecoder(processor);
+        nimbus.setJwtValidator(validator(jwtProperties));
+        if (properties.getTokenCacheMaxEntries() <= 0) {
+            return nimbus;
+        }
+        return new CachingJwtDecoder(nimbus, properties.getTokenCacheMaxEntries(), properties.getTokenCacheMaxTtl(),
+                meterRegistry);
+    }
+
+    /**
+     * 启动完成后在后台预取 JWKS，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpJwks(ApplicationReadyEvent event) {
+        JwtDecoderProperties properties = event.getApplicationContext().getBean(JwtDecoderProperties.class);
+        if (!properties.isWarmUp()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        JWKSource<SecurityContext> jwkSource = event.getApplicationContext().getBean("jwkSource", JWKSource.class);
+        CompletableFuture.runAsync(() -> {
+            try {
+                int keys = jwkSource.get(new JWKSelector(new JWKMatcher.Builder().build()), null).size();
+                log.info("JWKS prefetched: {} keys", keys);
+            } catch (Exception e) {
+                log.warn("JWKS prefetch failed, keys will be fetched on first request: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 与 Spring Boot 默认解码器相同的校验：时间戳，以及配置了 issuer-uri / audiences 时的签发者与受众
+     */
+    private static OAuth2TokenValidator<Jwt> validator(OAuth2ResourceServerProperties.Jwt jwtProperties) {
+        List<OAuth2TokenValidator<Jwt>> validators = new ArrayList<>();
+        validators.add(StringUtils.hasText(jwtProperties.getIssuerUri())
+                ? JwtValidators.createDefaultWithIssuer(jwtProperties.getIssuerUri())
+                : JwtValidators.createDefault());
+        if (!jwtProperties.getAudiences().isEmpty()) {
+            validators.add(new JwtClaimValidator<List<String>>(JwtClaimNames.AUD,
+                    aud -> aud != null && aud.stream().anyMatch(jwtProperties.getAudiences()::contains)));
+        }
+        return new DelegatingOAuth2TokenValidator<>(validators);
+    }
+}
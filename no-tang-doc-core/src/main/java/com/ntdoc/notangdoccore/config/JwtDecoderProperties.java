@@ -0,0 +1,25 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ntdoc.security.jwt")
+@Data
+public class JwtDecoderProperties {
+    // JWKS 本地缓存时间；过期前 refresh-ahead 时在后台刷新，请求线程不等待远程获取
+    private Duration jwksTtl = Duration.ofMinutes(15);
+    private Duration jwksRefreshAhead = Duration.ofMinutes(1);
+    // 缓存为空或过期时，请求线程等待其他线程完成获取的最长时间
+    private Duration jwksRefreshTimeout = Duration.ofSeconds(5);
+    // Keycloak 不可用时继续使用最后一次获取的密钥的时间，0 表示不容忍
+    private Duration jwksOutageTolerance = Duration.ofHours(4);
+    private Duration jwksConnectTimeout = Duration.ofSeconds(2);
+    private Duration jwksReadTimeout = Duration.ofSeconds(3);
+    // 启动完成后在后台预取 JWKS，首个请求不需要等待远程获取
+    private boolean warmUp = true;
+    // 已验证令牌缓存：按令牌哈希缓存到令牌过期（不超过 token-cache-max-ttl），0 表示关闭
+    private long tokenCacheMaxEntries = 50_000;
+    private Duration tokenCacheMaxTtl = Duration.ofMinutes(10);
+}
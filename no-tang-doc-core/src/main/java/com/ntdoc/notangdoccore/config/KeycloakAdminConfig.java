@@ -0,0 +1,45 @@
+package com.ntdoc.notangdoccore.config;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.keycloak.OAuth2Constants;
+import org.keycloak.admin.client.JacksonProvider;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.KeycloakBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keycloak 管理客户端
+ * 单例复用：连接池与 TLS 会话在调用之间保持，管理令牌由 TokenManager 缓存并在过期前刷新；
+ * 构建时不连接 Keycloak，首次调用时才获取令牌
+ */
+@Configuration
+public class KeycloakAdminConfig {
+
+    @Bean(destroyMethod = "close")
+    public Keycloak keycloakAdmin(KeycloakProperties props) {
+        KeycloakProperties.Admin admin = props.getAdmin();
+        Client client = ((ResteasyClientBuilder) ClientBuilder.newBuilder())
+                .connectionPoolSize(admin.getConnectionPoolSize())
+                .maxPooledPerRoute(admin.getConnectionPoolSize())
+                .connectTimeout(admin.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(admin.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .register(JacksonProvider.class, 100)
+                .build();
+        Keycloak keycloak = KeycloakBuilder.builder()
+                .serverUrl(props.getAuthServerUrl())
+                .realm(admin.getRealm())
+                .grantType(OAuth2Constants.PASSWORD)
+                .clientId(admin.getClientId())
+                .username(admin.getUsername())
+                .password(admin.getPassword())
+                .resteasyClient(client)
+                .build();
+        keycloak.tokenManager().setMinTokenValidity(admin.getMinTokenValidity().toSeconds());
+        return keycloak;
+    }
+}
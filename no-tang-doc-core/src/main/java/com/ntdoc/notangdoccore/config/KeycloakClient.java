@@ -2,24 +2,41 @@ package com.ntdoc.notangdoccore.config;
 
 import com.ntdoc.notangdoccore.dto.keycloak.AuthExchangeRequest;
 import com.ntdoc.notangdoccore.exception.KeycloakClientException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.converter.FormHttpMessageConverter;
 import org.springframework.security.oauth2.client.endpoint.*;
+import org.springframework.security.oauth2.client.http.OAuth2ErrorResponseErrorHandler;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.security.oauth2.core.*;
 import org.springframework.security.oauth2.core.endpoint.*;
+import org.springframework.security.oauth2.core.http.converter.OAuth2AccessTokenResponseHttpMessageConverter;
 import org.springframework.stereotype.Component;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.RestClient;
 
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Component
 @Slf4j
@@ -27,7 +44,10 @@ public class KeycloakClient {
     private final ClientRegistration clientRegistration;
     private final OAuth2AccessTokenResponseClient<OAuth2AuthorizationCodeGrantRequest> authCodeClient;
     private final OAuth2AccessTokenResponseClient<OAuth2RefreshTokenGrantRequest> refreshTokenClient;
-    private final RestTemplate restTemplate;
+    // 令牌交换、刷新与登出共用一个 HTTP 客户端，连接（HTTP/2 多路复用或 HTTP/1.1 keep-alive）在请求之间复用
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+    private final MeterRegistry meterRegistry;
 
     private final String issuerUri;
     private final String clientId;
@@ -36,7 +56,10 @@ public class KeycloakClient {
     public KeycloakClient(ClientRegistrationRepository registrations,
                           @Value("${spring.security.oauth2.client.registration.keycloak.client-id}") String clientId,
                           @Value("${spring.security.oauth2.client.registration.keycloak.client-secret}") String clientSecret,
-                          @Value("${spring.security.oauth2.client.provider.keycloak.issuer-uri}") String issuerUri) {
+                          @Value("${spring.security.oauth2.client.provider.keycloak.issuer-uri}") String issuerUri,
+                          KeycloakProperties keycloakProperties,
+                          RestClient.Builder restClientBuilder,
+                          MeterRegistry meterRegistry) {
         log.info("[KeycloakClient:init] Starting initialization. issuerUri={}, incomingClientId={}", issuerUri, clientId);
         ClientRegistration reg = registrations.findByRegistrationId("keycloak");
         if (reg == null) {
@@ -44,9 +67,34 @@ public class KeycloakClient {
             throw new IllegalStateException("Client registration 'keycloak' not found");
         }
         this.clientRegistration = reg;
-        this.authCodeClient = new RestClientAuthorizationCodeTokenResponseClient();
-        this.refreshTokenClient = new RestClientRefreshTokenTokenResponseClient();
-        this.restTemplate = new RestTemplate();
+        KeycloakProperties.Http http = keycloakProperties.getHttp();
+        this.readTimeout = http.getReadTimeout();
+        this.meterRegistry = meterRegistry;
+        // 明文 http:// 上 JDK 客户端会以 Upgrade: h2c 发起 HTTP/2，Keycloak 与多数代理不支持且会拖慢首个请求，只在 TLS 下启用
+        boolean http2 = http.isHttp2() && "https".equalsIgnoreCase(URI.create(reg.getProviderDetails().getTokenUri()).getScheme());
+        this.httpClient = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(http.getConnectTimeout())
+                .executor(responseExecutor(http.getMaxThreads()))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        // 与 Spring Security 默认令牌客户端相同的转换器与错误处理，只替换底层 HTTP 客户端
+        RestClient tokenRestClient = restClientBuilder
+                .requestFactory(requestFactory)
+                .messageConverters(converters -> {
+                    converters.clear();
+                    converters.add(new FormHttpMessageConverter());
+                    converters.add(new OAuth2AccessTokenResponseHttpMessageConverter());
+                })
+                .defaultStatusHandler(new OAuth2ErrorResponseErrorHandler())
+                .build();
+        RestClientAuthorizationCodeTokenResponseClient authCode = new RestClientAuthorizationCodeTokenResponseClient();
+        authCode.setRestClient(tokenRestClient);
+        RestClientRefreshTokenTokenResponseClient refresh = new RestClientRefreshTokenTokenResponseClient();
+        refresh.setRestClient(tokenRestClient);
+        this.authCodeClient = authCode;
+        this.refreshTokenClient = refresh;
         this.issuerUri = issuerUri;
         this.clientId = clientId;
         this.clientSecret = clientSecret;
@@ -80,8 +128,11 @@ public class KeycloakClient {
         OAuth2AuthorizationExchange exchange = new OAuth2AuthorizationExchange(authorizationRequest, authorizationResponse);
         OAuth2AuthorizationCodeGrantRequest grantRequest = new OAuth2AuthorizationCodeGrantRequest(clientRegistration, exchange);
         log.info("[exchangeCode:tokenRequest] Sending authorization_code grant to tokenUri={}", clientRegistration.getProviderDetails().getTokenUri());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             OAuth2AccessTokenResponse tokenResponse = authCodeClient.getTokenResponse(grantRequest);
+            outcome = "success";
             logTokenResponse("exchangeCode:success", tokenResponse);
             return toMap(tokenResponse);
         } catch (OAuth2AuthorizationException ex) {
@@ -91,6 +142,7 @@ public class KeycloakClient {
                     err != null ? err.getDescription() : ex.getMessage());
             throw wrap("authorization_code", ex);
         } finally {
+            record(sample, "exchange_code", outcome);
             log.info("[exchangeCode:end] Completed code exchange flow");
         }
     }
@@ -107,8 +159,11 @@ public class KeycloakClient {
         OAuth2RefreshTokenGrantRequest refreshRequest = new OAuth2RefreshTokenGrantRequest(
                 clientRegistration, dummyAccessToken, refreshToken);
         log.info("[refresh:tokenRequest] Sending refresh_token grant to tokenUri={}", clientRegistration.getProviderDetails().getTokenUri());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             OAuth2AccessTokenResponse tokenResponse = refreshTokenClient.getTokenResponse(refreshRequest);
+            outcome = "success";
             logTokenResponse("refresh:success", tokenResponse);
             return toMap(tokenResponse);
         } catch (OAuth2AuthorizationException ex) {
@@ -118,39 +173,55 @@ public class KeycloakClient {
                     err != null ? err.getDescription() : ex.getMessage());
             throw wrap("refresh_token", ex);
         } finally {
+            record(sample, "refresh", outcome);
             log.info("[refresh:end] Completed refresh flow");
         }
     }
 
+    /**
+     * 异步登出：请求发出后立即返回，结果只记录日志与指标
+     */
     public void logout(String refreshToken, String idToken) {
         log.info("[logout:start] Enter. refreshTokenPresent={} idTokenPresent={}", refreshToken != null && !refreshToken.isBlank(), idToken != null && !idToken.isBlank());
         String logoutEndpoint = issuerUri + "/protocol/openid-connect/logout";
         log.info("logout endpoint: {}", logoutEndpoint);
-        MultiValueMap<String,String> form = new LinkedMultiValueMap<>();
-        form.add("client_id", clientId);
+        Map<String,String> form = new LinkedHashMap<>();
+        form.put("client_id", clientId);
         if (clientSecret != null && !clientSecret.isBlank()) {
-            form.add("client_secret", clientSecret);
+            form.put("client_secret", clientSecret);
         }
         boolean usingRefresh = false;
         if (refreshToken != null && !refreshToken.isBlank()) {
-            form.add("refresh_token", refreshToken);
+            form.put("refresh_token", refreshToken);
             usingRefresh = true;
         } else if (idToken != null && !idToken.isBlank()) {
-            form.add("id_token_hint", idToken);
+            form.put("id_token_hint", idToken);
         } else {
             log.warn("[logout:validate] Both refreshToken & idToken are blank – nothing to send");
         }
         log.info("[logout:build] endpoint={} method=POST using={} formKeys={}", logoutEndpoint, usingRefresh ? "refresh_token" : "id_token_hint", form.keySet());
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-        HttpEntity<MultiValueMap<String,String>> entity = new HttpEntity<>(form, headers);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(logoutEndpoint))
+                .timeout(readTimeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(urlEncode(form)))
+                .build();
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            restTemplate.postForEntity(logoutEndpoint, entity, Void.class);
-            log.info("[logout:success] Logout request accepted by server");
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (error != null) {
+                    record(sample, "logout", "error");
+                    log.error("[logout:error] Logout request failed: {}", error.getMessage());
+                } else if (response.statusCode() >= 400) {
+                    record(sample, "logout", "error");
+                    log.error("[logout:error] Logout request rejected: status={}", response.statusCode());
+                } else {
+                    record(sample, "logout", "success");
+                    log.info("[logout:success] Logout request accepted by server");
+                }
+            });
         } catch (Exception e) {
+            record(sample, "logout", "error");
             log.error("[logout:error] Logout request failed: {}", e.getMessage());
-        } finally {
-            log.info("[logout:end] Completed logout flow");
         }
     }
 
@@ -193,6 +264,32 @@ public class KeycloakClient {
         return map;
     }
 
+    private void record(Timer.Sample sample, String operation, String outcome) {
+        sample.stop(Timer.builder("keycloak.client.requests")
+                .description("Keycloak 令牌交换、刷新与登出耗时")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private static String urlEncode(Map<String,String> form) {
+        return form.entrySet().stream()
+                .map(e -> URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8) + "=" + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+    }
+
+    private static ExecutorService responseExecutor(int maxThreads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "keycloak-http-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     private KeycloakClientException wrap(String grantType, OAuth2AuthorizationException ex) {
         OAuth2Error err = ex.getError();
         String errorCode = err != null ? err.getErrorCode() : "oauth2_error";
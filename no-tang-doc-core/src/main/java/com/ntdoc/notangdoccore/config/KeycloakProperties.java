@@ -3,6 +3,8 @@ package com.ntdoc.notangdoccore.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @Data
 @ConfigurationProperties(prefix = "keycloak")
 public class KeycloakProperties {
@@ -10,6 +12,7 @@ public class KeycloakProperties {
     private String authServerUrl;
     private Admin admin = new Admin();
     private Client client = new Client();
+    private Http http = new Http();
 
     @Data
     public static class Admin {
@@ -17,6 +20,14 @@ public class KeycloakProperties {
         private String username;
         private String password;
         private String clientId = "admin-cli"; // 使用内置 admin-cli
+        // 管理客户端为单例，HTTP 连接池在调用之间复用
+        private int connectionPoolSize = 20;
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration readTimeout = Duration.ofSeconds(10);
+        // 管理令牌剩余有效期低于该值时提前刷新
+        private Duration minTokenValidity = Duration.ofSeconds(30);
+        // realm 角色列表缓存时间；请求的角色不在缓存中时会立即重新加载
+        private Duration rolesCacheTtl = Duration.ofMinutes(10);
     }
 
     @Data
@@ -24,5 +35,17 @@ public class KeycloakProperties {
         private String id;
         private String secret; // 可能为空（public client）
     }
-}
 
+    /**
+     * 令牌交换、刷新与登出使用的共享 HTTP 客户端（JDK HttpClient）
+     */
+    @Data
+    public static class Http {
+        // 优先 HTTP/2（仅 https 端点，经 ALPN 协商，单连接多路复用），服务端不支持或明文 http 时使用 HTTP/1.1 keep-alive
+        private boolean http2 = true;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(5);
+        // 处理响应的线程数上限
+        private int maxThreads = 8;
+    }
+}
@@ -0,0 +1,153 @@
+package com.ntdoc.notangdoccore.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.ntdoc.notangdoccore.service.outbox.OutboxPayloads;
+import com.ntdoc.notangdoccore.service.push.PushEvent;
+import org.jboss.resteasy.client.jaxrs.internal.proxy.ResteasyClientProxy;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RoleMappingResource;
+import org.keycloak.admin.client.resource.RoleScopeResource;
+import org.keycloak.admin.client.resource.RolesResource;
+import org.keycloak.admin.client.resource.UserResource;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.admin.client.token.TokenService;
+import org.keycloak.representations.AccessTokenResponse;
+import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.ErrorRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 原生镜像（-Pnative）的反射、资源与代理提示
+ * Spring AOT 已生成 Bean 定义、控制器参数与 JPA 托管类型的提示；这里补充运行时按名称或反射访问、AOT 无法推断的部分
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+    private static final String BASE_PACKAGE = "com.ntdoc.notangdoccore";
+
+    /**
+     * 变更日志中使用的 Liquibase 变更与前置条件类型，解析 YAML 时按属性名反射赋值
+     */
+    static final List<String> LIQUIBASE_TYPES = List.of(
+            "liquibase.change.core.AddColumnChange",
+            "liquibase.change.core.AddForeignKeyConstraintChange",
+            "liquibase.change.core.AddNotNullConstraintChange",
+            "liquibase.change.core.AddUniqueConstraintChange",
+            "liquibase.change.core.CreateIndexChange",
+            "liquibase.change.core.CreateTableChange",
+            "liquibase.change.core.DropColumnChange",
+            "liquibase.change.core.DropForeignKeyConstraintChange",
+            "liquibase.change.core.DropIndexChange",
+            "liquibase.change.core.DropNotNullConstraintChange",
+            "liquibase.change.core.DropTableChange",
+            "liquibase.change.core.DropUniqueConstraintChange",
+            "liquibase.change.core.RenameColumnChange",
+            "liquibase.change.core.RawSQLChange",
+            "liquibase.change.ColumnConfig",
+            "liquibase.change.AddColumnConfig",
+            "liquibase.change.ConstraintsConfig",
+            "liquibase.precondition.core.PreconditionContainer",
+            "liquibase.precondition.core.IndexExistsPrecondition",
+            "liquibase.precondition.core.NotPrecondition",
+            "liquibase.precondition.core.SqlPrecondition",
+            "liquibase.precondition.core.TableExistsPrecondition");
+
+    /**
+     * Keycloak Admin Client 通过 RESTEasy 生成的 JDK 代理访问的资源接口
+     */
+    static final List<Class<?>> KEYCLOAK_RESOURCES = List.of(
+            TokenService.class, RealmResource.class, UsersResource.class, UserResource.class,
+            RolesResource.class, RoleMappingResource.class, RoleScopeResource.class);
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        registerEntities(hints, classLoader);
+        registerJsonTypes(hints, classLoader);
+        registerLiquibase(hints);
+        registerKeycloakAdminClient(hints);
+        registerS3Client(hints);
+        registerEntityCache(hints);
+    }
+
+    /**
+     * Hibernate 实体、嵌入类型、枚举与转换器：字段访问、无参构造与代理生成
+     */
+    private void registerEntities(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : scan(BASE_PACKAGE + ".entity", classLoader)) {
+            hints.reflection().registerType(type, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+    }
+
+    /**
+     * 不经过控制器签名、由 ObjectMapper 直接读写的类型：DTO（推送事件数据）、outbox 载荷与推送事件
+     */
+    private void registerJsonTypes(RuntimeHints hints, ClassLoader classLoader) {
+        Stream.concat(scan(BASE_PACKAGE + ".dto", classLoader).stream(),
+                        Stream.of(PushEvent.class, OutboxPayloads.StorageDelete.class,
+                                OutboxPayloads.Rendition.class, OutboxPayloads.UserOperation.class))
+                .forEach(type -> bindingRegistrar.registerReflectionHints(hints.reflection(), type));
+    }
+
+    private void registerLiquibase(RuntimeHints hints) {
+        hints.resources().registerPattern("db/changelog/*.yaml");
+        for (String type : LIQUIBASE_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS);
+        }
+    }
+
+    private void registerKeycloakAdminClient(RuntimeHints hints) {
+        for (Class<?> resource : KEYCLOAK_RESOURCES) {
+            // JAX-RS 注解在调用时通过反射读取
+            hints.reflection().registerType(resource, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.proxies().registerJdkProxy(resource, ResteasyClientProxy.class);
+        }
+        bindingRegistrar.registerReflectionHints(hints.reflection(), AccessTokenResponse.class,
+                UserRepresentation.class, CredentialRepresentation.class, RoleRepresentation.class,
+                ErrorRepresentation.class);
+        // RESTEasy 按服务清单以类名加载 Provider
+        hints.resources().registerPattern("META-INF/services/jakarta.ws.rs.*");
+    }
+
+    /**
+     * AWS SDK 自带基础元数据（sdk-core、apache-client）；S3 的拦截器清单按资源路径加载
+     */
+    private void registerS3Client(RuntimeHints hints) {
+        hints.resources()
+                .registerPattern("software/amazon/awssdk/global/handlers/execution.interceptors")
+                .registerPattern("software/amazon/awssdk/services/s3/execution.interceptors")
+                .registerPattern("software/amazon/awssdk/awscore/internal/defaults/sdk-default-configuration.json")
+                .registerPattern("software/amazon/awssdk/regions/internal/region/endpoints.json");
+    }
+
+    /**
+     * 二级缓存：JCache 按类名加载 Caffeine 提供者，Caffeine 读取 reference.conf 中的默认配置
+     */
+    private void registerEntityCache(RuntimeHints hints) {
+        hints.reflection().registerType(CaffeineCachingProvider.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("reference.conf");
+    }
+
+    /**
+     * 构建时扫描包内全部具体的顶层与静态嵌套类型
+     */
+    private static List<Class<?>> scan(String basePackage, ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter((reader, factory) -> true);
+        return scanner.findCandidateComponents(basePackage).stream()
+                .<Class<?>>map(definition -> ClassUtils.resolveClassName(definition.getBeanClassName(), classLoader))
+                .toList();
+    }
+}
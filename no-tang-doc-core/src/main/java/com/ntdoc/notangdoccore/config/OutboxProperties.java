@@ -0,0 +1,27 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ntdoc.outbox")
+@Data
+public class OutboxProperties {
+    // 关闭后事件仍会写入 outbox，但本实例不执行中继
+    private boolean relayEnabled = true;
+    // 每批领取的事件数
+    private int batchSize = 100;
+    // 轮询间隔
+    private Duration pollInterval = Duration.ofSeconds(2);
+    // 领取后的租约：处理中途宕机的事件在租约到期后被重新领取
+    private Duration lease = Duration.ofMinutes(2);
+    // 超过该次数标记为 FAILED，需人工处理
+    private int maxAttempts = 10;
+    // 失败重试的指数退避
+    private Duration initialBackoff = Duration.ofSeconds(5);
+    private Duration maxBackoff = Duration.ofMinutes(10);
+    // DONE 事件的保留时长与清理间隔
+    private Duration retention = Duration.ofDays(7);
+    private Duration purgeInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,22 @@
+package com.ntdoc.notangdoccore.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+@EnableConfigurationProperties(PushProperties.class)
+public class PushConfig {
+
+    /**
+     * SSE 写出执行器：每个连接的发送在各自的虚拟线程上进行，同一时刻最多一个
+     * SseEmitter#send 是阻塞写，客户端停止读取时只挂起该连接的虚拟线程，不会占满共享线程池拖住其他连接
+     */
+    @Bean(name = "pushExecutor")
+    public Executor pushExecutor() {
+        return new VirtualThreadTaskExecutor("push-");
+    }
+}
@@ -0,0 +1,23 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ntdoc.push")
+@Data
+public class PushProperties {
+    // 事件分发方式：local 只推送给本实例的连接；多实例部署时替换为跨节点的 EventBroker 实现
+    private String broker = "local";
+    // 单个 SSE 连接的最长存活时间，到期后客户端自动重连
+    private Duration timeout = Duration.ofMinutes(30);
+    // 心跳间隔，需小于负载均衡/Ingress 的空闲超时（由 @Scheduled 读取）
+    private Duration heartbeatInterval = Duration.ofSeconds(25);
+    // 本实例的连接上限
+    private int maxConnections = 10_000;
+    // 单个连接待发送的事件上限，超出视为慢消费者并断开（客户端重连后重新拉取列表）
+    private int maxPendingEvents = 256;
+    // 单次写出的最长时间，超过视为客户端停止读取并断开（由 @Scheduled 按该间隔检查）
+    private Duration writeTimeout = Duration.ofSeconds(10);
+}
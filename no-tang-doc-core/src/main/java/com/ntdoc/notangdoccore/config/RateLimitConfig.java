@@ -0,0 +1,39 @@
+package com.ntdoc.notangdoccore.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.ratelimit.ConcurrencyLimiter;
+import com.ntdoc.notangdoccore.ratelimit.LocalRateLimitStore;
+import com.ntdoc.notangdoccore.ratelimit.RateLimitFilter;
+import com.ntdoc.notangdoccore.ratelimit.RateLimitStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 按用户限流：过滤器排在 Spring Security 过滤器链之后，此时已能取到 JWT 用户
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "ntdoc.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ntdoc.rate-limit", name = "store", havingValue = "local", matchIfMissing = true)
+    public RateLimitStore localRateLimitStore(RateLimitProperties properties) {
+        return new LocalRateLimitStore(properties.getMaxKeys(), properties.getIdleExpiry());
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties properties, RateLimitStore store,
+                                                                   MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        RateLimitFilter filter = new RateLimitFilter(properties, store, new ConcurrencyLimiter(), meterRegistry, objectMapper);
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
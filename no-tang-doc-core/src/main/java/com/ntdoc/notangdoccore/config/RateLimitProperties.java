@@ -0,0 +1,40 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "ntdoc.rate-limit")
+@Data
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // 令牌桶存储：local 为进程内（每个实例独立计数）；其他取值需提供对应的 RateLimitStore Bean
+    private String store = "local";
+    // 进程内令牌桶的最大用户数与空闲过期时间（过期时间不小于最长的 refill-period 时与不过期等价）
+    private long maxKeys = 100_000;
+    private Duration idleExpiry = Duration.ofMinutes(10);
+    // 按声明顺序匹配，请求只计入第一个匹配的策略
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    /**
+     * 单个接口组的限流策略，按 kcUserId 计数
+     */
+    @Data
+    public static class Policy {
+        // 为空时匹配所有方法
+        private List<String> methods = new ArrayList<>();
+        // Ant 风格路径，如 /api/v1/documents/*/content
+        private List<String> paths = new ArrayList<>();
+        // 突发容量：桶满时可连续发出的请求数
+        private int capacity = 60;
+        // 桶从空到满的时间，即平均速率为 capacity / refill-period
+        private Duration refillPeriod = Duration.ofMinutes(1);
+        // 同一用户同时处理中的请求上限，0 表示不限制（只在本实例内计数）
+        private int maxConcurrent = 0;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ntdoc.rendition")
+@Data
+public class RenditionProperties {
+    // 关闭后新上传的文档不再排队生成缩略图
+    private boolean enabled = true;
+    // 缩略图与预览图的最长边（像素）
+    private int thumbnailSize = 256;
+    private int previewSize = 1024;
+    private float jpegQuality = 0.8f;
+    // 超过该大小的源文件不生成衍生图
+    private DataSize maxSourceSize = DataSize.ofMegabytes(100);
+    // 列表与分享响应中缩略图/预览图预签名链接的有效期
+    private Duration urlExpiration = Duration.ofHours(1);
+}
@@ -0,0 +1,12 @@
+package com.ntdoc.notangdoccore.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+//定时任务支持配置（outbox 中继等）；测试环境不启用，避免后台线程访问未建表的数据库
+@EnableScheduling
+@Configuration
+@Profile("!test")
+public class SchedulingConfig {
+}
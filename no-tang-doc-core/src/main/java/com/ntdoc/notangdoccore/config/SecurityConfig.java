@@ -1,6 +1,7 @@
 package com.ntdoc.notangdoccore.config;
 
 import com.ntdoc.notangdoccore.security.KeycloakJwtGrantedAuthoritiesConverter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -40,6 +41,8 @@ public class SecurityConfig {
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // SSE/异步响应的后续分派：首次请求已完成鉴权
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Public endpoints
                         .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info", "/api/public/**", "/actuator/prometheus").permitAll()
                         // Allow preflight CORS requests
@@ -1,7 +1,10 @@
 package com.ntdoc.notangdoccore.config;
 
+import com.ntdoc.notangdoccore.metrics.MicrometerS3MetricPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
@@ -15,6 +18,8 @@ import java.net.URI;
 
 @Slf4j
 @Configuration
+@EnableConfigurationProperties({StorageReconcileProperties.class, ContentCacheProperties.class, RenditionProperties.class,
+        StorageCompressionProperties.class, StorageQuotaProperties.class, ContentLinkProperties.class})
 public class SpacesConfig {
     @Value("${digitalocean.spaces.endpoint}")
     private String endpoint;
@@ -28,8 +33,14 @@ public class SpacesConfig {
     @Value("${digitalocean.spaces.secret-key}")
     private String secretKey;
 
+    /**
+     * 路径风格寻址（endpoint/bucket/key），用于本地 S3 兼容服务；Spaces 使用虚拟主机风格
+     */
+    @Value("${digitalocean.spaces.path-style-access:false}")
+    private boolean pathStyleAccess;
+
     @Bean
-    public S3Client s3Client() {
+    public S3Client s3Client(MeterRegistry meterRegistry) {
         log.info("Initializing DigitalOcean Spaces S3 Client with endpoint: {}, region: {}", endpoint, region);
 
         AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKey, secretKey);
@@ -39,8 +50,10 @@ public class SpacesConfig {
                 .region(Region.of(region))
                 .credentialsProvider(StaticCredentialsProvider.create(credentials))
                 .serviceConfiguration(S3Configuration.builder()
-                        .pathStyleAccessEnabled(false)
+                        .pathStyleAccessEnabled(pathStyleAccess)
                         .build())
+                // SDK 指标（重试、连接获取、单次往返耗时）导出到 Prometheus
+                .overrideConfiguration(o -> o.addMetricPublisher(new MicrometerS3MetricPublisher(meterRegistry)))
                 .build();
     }
 
@@ -54,6 +67,9 @@ public class SpacesConfig {
                 .endpointOverride(URI.create(endpoint))
                 .region(Region.of(region))
                 .credentialsProvider(StaticCredentialsProvider.create(credentials))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(pathStyleAccess)
+                        .build())
                 .build();
     }
 }
\ No newline at end of file
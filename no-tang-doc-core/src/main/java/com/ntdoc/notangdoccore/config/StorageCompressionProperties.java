@@ -0,0 +1,35 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "ntdoc.storage.compression")
+@Data
+public class StorageCompressionProperties {
+    private boolean enabled = true;
+    // Deflate 压缩级别 1-9，见 StorageCodecBenchmark 的吞吐/CPU 对比
+    private int level = 6;
+    // 小于该大小的文件不压缩
+    private DataSize minSize = DataSize.ofKilobytes(1);
+    // 压缩后至少节省该比例才以压缩形式存储
+    private double minSavings = 0.1;
+    // 可压缩的 MIME 类型；以 / 结尾的表示前缀匹配。docx/xlsx 等本身是 zip，不在此列
+    private List<String> contentTypes = new ArrayList<>(List.of(
+            "text/",
+            "application/json",
+            "application/xml",
+            "application/rtf",
+            "application/msword",
+            "application/vnd.ms-excel",
+            "application/vnd.ms-powerpoint",
+            "application/x-yaml",
+            "application/javascript",
+            "application/x-sh",
+            "image/svg+xml",
+            "image/bmp"
+    ));
+}
@@ -0,0 +1,18 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "ntdoc.storage.quota")
+@Data
+public class StorageQuotaProperties {
+    // 关闭后仍维护用量汇总，只是不拒绝超出配额的上传
+    private boolean enabled = true;
+    // 未单独设置配额（user_storage_usage.quota_bytes 为空）的用户使用的配额
+    private DataSize defaultQuota = DataSize.ofGigabytes(10);
+    // 从 document 表重新统计用量的修复任务（由 @Scheduled 读取）
+    private String repairCron = "0 0 5 * * SUN";
+    // 修复任务每批处理的用户数；每个用户在独立的短事务中修复
+    private int repairBatchSize = 500;
+}
@@ -0,0 +1,37 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ntdoc.storage.reconcile")
+@Data
+public class StorageReconcileProperties {
+    // 多实例部署时只在一个实例上开启
+    private boolean enabled = false;
+    private String cron = "0 30 3 * * *";
+    private Mode mode = Mode.QUARANTINE;
+    // 只扫描该前缀下的对象
+    private String prefix = "documents/";
+    // 隔离区前缀，建议在存储桶上配置生命周期规则自动过期
+    private String quarantinePrefix = "quarantine/";
+    // 晚于该时长内修改的对象不处理：上传中的对象可能尚未写入文档表
+    private Duration minAge = Duration.ofHours(24);
+    // 布隆过滤器误判率；误判的孤儿对象本轮被跳过，下一轮换 seed 后大概率命中
+    private double falsePositiveRate = 0.01;
+    // ListObjectsV2 每页键数（上限1000）
+    private int pageSize = 1000;
+    // 删除/隔离的限速与单轮上限
+    private int actionsPerSecond = 50;
+    private int maxActionsPerRun = 10000;
+
+    public enum Mode {
+        // 只统计与记录日志
+        REPORT,
+        // 复制到隔离区后删除原对象
+        QUARANTINE,
+        // 直接删除
+        DELETE
+    }
+}
@@ -0,0 +1,52 @@
+package com.ntdoc.notangdoccore.controller;
+
+import com.ntdoc.notangdoccore.dto.change.ChangeFeedResponse;
+import com.ntdoc.notangdoccore.dto.common.ApiResponse;
+import com.ntdoc.notangdoccore.service.change.ChangeFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 增量同步：按游标拉取当前用户的文档、标签、评论、团队变更
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/changes")
+@RequiredArgsConstructor
+@Tag(name = "增量同步", description = "按游标拉取变更，替代反复拉取完整列表")
+public class ChangeFeedController {
+    private final ChangeFeedService changeFeedService;
+
+    /**
+     * 拉取 since 之后的变更
+     */
+    @GetMapping
+    @Operation(summary = "获取增量变更", description = "返回 since 之后的变更与下次使用的游标；resetRequired 为 true 时需全量刷新")
+    public ResponseEntity<ApiResponse<ChangeFeedResponse>> getChanges(
+            @Parameter(description = "上次响应中的 cursor，首次为 0")
+            @RequestParam(value = "since", defaultValue = "0") long since,
+            @Parameter(description = "最多返回条数")
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @AuthenticationPrincipal Jwt jwt) {
+        try {
+            String kcUserId = jwt.getClaimAsString("sub");
+            ChangeFeedResponse response = changeFeedService.changesSince(kcUserId, since, limit);
+            return ResponseEntity.ok(ApiResponse.success("获取变更成功", response));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid change feed request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to get changes since {}", since, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "获取变更失败: " + e.getMessage()));
+        }
+    }
+}
@@ -6,17 +6,20 @@ import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.DocumentComment;
 import com.ntdoc.notangdoccore.repository.DocumentRepository;
 import com.ntdoc.notangdoccore.service.DocumentCommentService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -32,6 +35,7 @@ public class DocumentCommentController {
 
     private final DocumentCommentService commentService;
     private final DocumentRepository documentRepository;
+    private final ResourceVersionService resourceVersionService;
 
     /**
      * 创建文档评论
@@ -91,12 +95,19 @@ public class DocumentCommentController {
             @PathVariable Long documentId,
             @Parameter(description = "团队ID（可选）")
             @RequestParam(value = "teamId", required = false) Long teamId,
-            @AuthenticationPrincipal Jwt jwt) {
+            @AuthenticationPrincipal Jwt jwt,
+            WebRequest webRequest) {
 
         try {
             log.info("Received request to get comments: documentId={}, teamId={}",
                     documentId, teamId);
 
+            // ETag 只会在一次成功（已鉴权）的响应中下发，304 不会泄露新内容
+            String eTag = resourceVersionService.eTag(ResourceVersionService.Scope.COMMENTS, documentId);
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
+
             String userKcId = jwt.getClaimAsString("sub");
 
             List<DocumentComment> comments = commentService.getDocumentComments(
@@ -115,7 +126,10 @@ public class DocumentCommentController {
             log.info("Retrieved {} comments for document: documentId={}",
                     comments.size(), documentId);
 
-            return ResponseEntity.ok(ApiResponse.success("获取评论列表成功", response));
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(ApiResponse.success("获取评论列表成功", response));
 
         } catch (SecurityException e) {
             log.warn("Access denied for getting comments: documentId={}", documentId);
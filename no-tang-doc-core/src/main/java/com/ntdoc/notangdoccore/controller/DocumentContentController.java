@@ -0,0 +1,142 @@
+package com.ntdoc.notangdoccore.controller;
+
+import com.ntdoc.notangdoccore.dto.common.ApiResponse;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.exception.DocumentException;
+import com.ntdoc.notangdoccore.service.DocumentService;
+import com.ntdoc.notangdoccore.service.storage.ContentLinkService;
+import com.ntdoc.notangdoccore.service.storage.DocumentContentService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文档内容代理下载：服务端直接流式返回内容，适合 Agent 等内部调用方一次请求取回内容
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "文档内容", description = "文档内容流式下载，支持断点续传")
+public class DocumentContentController {
+    private final DocumentService documentService;
+    private final DocumentContentService documentContentService;
+    private final ContentLinkService contentLinkService;
+
+    /**
+     * 流式返回文档内容，支持 Range / If-Range / If-None-Match
+     * 成功时直接写出响应体并返回 null；写出前的错误以 JSON 返回
+     */
+    @RequestMapping(value = "/api/v1/documents/{documentId}/content", method = {RequestMethod.GET, RequestMethod.HEAD})
+    @Operation(summary = "获取文档内容", description = "代理下载文档内容，支持 HTTP Range 断点续传与 ETag 条件请求")
+    public ResponseEntity<ApiResponse<Void>> getContent(
+            @Parameter(description = "文档ID", required = true)
+            @PathVariable Long documentId,
+            @AuthenticationPrincipal Jwt jwt,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        return stream(documentId, response, () -> {
+            String kcUserId = jwt.getClaimAsString("sub");
+            Document document = documentService.getDocumentById(documentId, kcUserId);
+
+            int status = documentContentService.serve(document, request, response);
+            if (status == HttpServletResponse.SC_OK && "GET".equals(request.getMethod())) {
+                documentService.incrementDownloadCount(documentId);
+            }
+        });
+    }
+
+    /**
+     * 签名内容链接：gzip 存储的文档的下载 / 分享链接指向此处，无需登录
+     * 下载次数已在签发下载链接时计入，这里不再累加
+     */
+    @RequestMapping(value = "/api/public/documents/{documentId}/content", method = {RequestMethod.GET, RequestMethod.HEAD})
+    @Operation(summary = "通过签名链接获取文档内容", description = "校验链接签名与有效期后代理下载文档内容，支持 HTTP Range 断点续传与 ETag 条件请求")
+    public ResponseEntity<ApiResponse<Void>> getLinkedContent(
+            @Parameter(description = "文档ID", required = true)
+            @PathVariable Long documentId,
+            @Parameter(description = "过期时间（epoch 秒）", required = true)
+            @RequestParam long expires,
+            @Parameter(description = "attachment 或 inline", required = true)
+            @RequestParam String disposition,
+            @Parameter(description = "链接签名", required = true)
+            @RequestParam String signature,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        return stream(documentId, response, () -> {
+            Document document = contentLinkService.resolve(documentId, expires, disposition, signature);
+            documentContentService.serve(document, ContentLinkService.ATTACHMENT.equals(disposition), request, response);
+        });
+    }
+
+    private ResponseEntity<ApiResponse<Void>> stream(Long documentId, HttpServletResponse response, ContentWriter writer) {
+        // 过滤器已写入的响应头（CORS、安全相关），写出内容失败重置响应时保留
+        Map<String, List<String>> filterHeaders = headersOf(response);
+        try {
+            writer.write();
+            return null;
+
+        } catch (SecurityException e) {
+            log.warn("Access denied for document content {}: {}", documentId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error(403, "无权访问该文档"));
+        } catch (DocumentException.DocumentNotFoundException e) {
+            log.warn("Document {} not found for content request", documentId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(404, "文档不存在"));
+        } catch (NoSuchKeyException e) {
+            log.warn("Content missing in storage for document {}", documentId);
+            resetKeeping(response, filterHeaders);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(404, "文档内容不存在"));
+        } catch (Exception e) {
+            if (response.isCommitted()) {
+                // 已开始写出响应体（如客户端中断），无法再返回错误信息
+                log.warn("Content stream for document {} aborted: {}", documentId, e.getMessage());
+                return null;
+            }
+            log.error("Failed to stream content for document: {}", documentId, e);
+            resetKeeping(response, filterHeaders);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "获取文档内容失败: " + e.getMessage()));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ContentWriter {
+        void write() throws Exception;
+    }
+
+    private static Map<String, List<String>> headersOf(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            headers.put(name, List.copyOf(response.getHeaders(name)));
+        }
+        return headers;
+    }
+
+    /**
+     * 丢弃已设置的内容状态与响应头（Content-Encoding、Content-Length、Content-Range 等），
+     * 避免错误 JSON 沿用这些响应头；未提交时才可重置
+     */
+    private static void resetKeeping(HttpServletResponse response, Map<String, List<String>> headers) {
+        if (response.isCommitted()) {
+            return;
+        }
+        response.reset();
+        headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+    }
+}
@@ -3,12 +3,17 @@ package com.ntdoc.notangdoccore.controller;
 import com.ntdoc.notangdoccore.dto.common.ApiResponse;
 import com.ntdoc.notangdoccore.dto.document.*;
 import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.exception.DocumentException;
 import com.ntdoc.notangdoccore.service.DocumentService;
 import com.ntdoc.notangdoccore.service.DocumentTagService;
+import com.ntdoc.notangdoccore.service.TagFacetService;
 import com.ntdoc.notangdoccore.service.UserSyncService;
 import com.ntdoc.notangdoccore.entity.Tag;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
 import com.ntdoc.notangdoccore.service.impl.UserSyncServiceImpl;
 import com.ntdoc.notangdoccore.service.FileStorageService;
+import com.ntdoc.notangdoccore.service.rendition.RenditionUrls;
+import com.ntdoc.notangdoccore.service.storage.ContentLinkService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -17,12 +22,14 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.net.URL;
@@ -41,6 +48,10 @@ public class DocumentController {
 
     private final FileStorageService digitalOceanSpacesService;
     private final DocumentTagService documentTagService;
+    private final TagFacetService tagFacetService;
+    private final RenditionUrls renditionUrls;
+    private final ResourceVersionService resourceVersionService;
+    private final ContentLinkService contentLinkService;
 
     //文档上传
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -86,6 +97,9 @@ public class DocumentController {
 
             return ResponseEntity.ok(ApiResponse.success("文件上传成功", response));
 
+        } catch (DocumentException.StorageQuotaExceededException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(ApiResponse.error(413, e.getMessage()));
         } catch (IllegalArgumentException e) {
             log.warn("Invalid upload request: {}", e.getMessage());
 
@@ -137,10 +151,17 @@ public class DocumentController {
     @GetMapping
     public ResponseEntity<DocumentListResponse> getUserDocuments(
             @AuthenticationPrincipal Jwt jwt,
-            @RequestParam(value = "status", required = false) Document.DocumentStatus status
+            @RequestParam(value = "status", required = false) Document.DocumentStatus status,
+            WebRequest webRequest
     ) {
         String kcUserId = jwt.getClaimAsString("sub"); // 从JWT中获取Keycloak用户ID（还需确定是否时sub）
 
+        // 列表未变化时直接返回 304，不查询数据库
+        String eTag = resourceVersionService.eTag(ResourceVersionService.Scope.DOCUMENTS, kcUserId);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
         List<Document> documents;
         // 根据是否提供状态参数，选择调用不同的方法
         if (status != null) {
@@ -150,9 +171,12 @@ public class DocumentController {
         }
 
         // 直接传 Document 列表，让 fromDocuments 内部转换
-        DocumentListResponse response = DocumentListResponse.fromDocuments(documents);
+        DocumentListResponse response = DocumentListResponse.fromDocuments(documents, renditionUrls::thumbnailUrl);
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(response);
     }
 
     /**
@@ -192,6 +216,29 @@ public class DocumentController {
         }
     }
 
+    /**
+     * 批量删除文档，逐个文档返回结果
+     */
+    @PostMapping("/batch-delete")
+    @Operation(summary = "批量删除文档", description = "一次删除多个文档，存储对象异步清理")
+    public ResponseEntity<ApiResponse<BulkDeleteResponse>> deleteDocuments(
+            @Valid @RequestBody BulkDeleteRequest request,
+            @AuthenticationPrincipal Jwt jwt) {
+        try {
+            String kcUserId = jwt.getClaimAsString("sub");
+            BulkDeleteResponse response = documentService.deleteDocuments(request.getDocumentIds(), kcUserId);
+            String message = response.getDeleted() == response.getRequested() ? "批量删除成功" : "部分文档删除失败";
+            return ResponseEntity.ok(ApiResponse.success(message, response));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid bulk delete request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to bulk delete documents: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "批量删除文档失败: " + e.getMessage()));
+        }
+    }
+
     // 生成分享链接
     @GetMapping("/share")
     public ResponseEntity<DocumentShareResponse> generatePreviewShareLink(
@@ -229,8 +276,8 @@ public class DocumentController {
                 );
             }
 
-            // 生成默认10分钟的有效预览链接
-            URL shareURL = digitalOceanSpacesService.generateShareUrl(s3Key, Duration.ofMinutes(expirationMinutes));
+            // 生成默认10分钟的有效预览链接（gzip 存储的文档为本服务的签名内容链接）
+            URL shareURL = contentLinkService.shareUrl(document, Duration.ofMinutes(expirationMinutes));
 
             DocumentShareResponse response = DocumentShareResponse.success(
                     shareURL.toString(),
@@ -238,6 +285,8 @@ public class DocumentController {
                     s3Key,
                     expirationMinutes
             );
+            response.setThumbnailUrl(renditionUrls.thumbnailUrl(document));
+            response.setPreviewUrl(renditionUrls.previewUrl(document));
 
             return ResponseEntity.ok(response);
         }catch (Exception e) {
@@ -320,7 +369,7 @@ public class DocumentController {
         try {
             String kcUserId = jwt.getClaimAsString("sub");
             List<Document> docs = documentTagService.getDocumentsByTag(tagName,kcUserId);
-            DocumentListResponse response = DocumentListResponse.fromDocuments(docs);
+            DocumentListResponse response = DocumentListResponse.fromDocuments(docs, renditionUrls::thumbnailUrl);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             log.error("Failed to get documents by tag '{}': {}", tagName, e.getMessage(), e);
@@ -328,6 +377,78 @@ public class DocumentController {
                     .body(DocumentListResponse.error("Get documents by tag fail: " + e.getMessage()));
         }
     }
+    /**
+     * 多标签布尔过滤：all 全部包含（AND），any 至少包含其一（OR），none 均不包含（NOT）
+     */
+    @GetMapping("/by-tags")
+    @Operation(summary = "按标签组合过滤文档")
+    public ResponseEntity<DocumentListResponse> getDocumentsByTags(
+            @RequestParam(value = "all", required = false) List<String> all,
+            @RequestParam(value = "any", required = false) List<String> any,
+            @RequestParam(value = "none", required = false) List<String> none,
+            @AuthenticationPrincipal Jwt jwt
+    ) {
+        try {
+            String kcUserId = jwt.getClaimAsString("sub");
+            List<Document> docs = tagFacetService.findDocumentsByTags(kcUserId, all, any, none);
+            return ResponseEntity.ok(DocumentListResponse.fromDocuments(docs, renditionUrls::thumbnailUrl));
+        } catch (Exception e) {
+            log.error("Failed to filter documents by tags all={} any={} none={}: {}", all, any, none, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(DocumentListResponse.error("Filter documents by tags fail: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 标签分面统计：在过滤结果内统计每个标签的文档数
+     */
+    @GetMapping("/tags/facets")
+    @Operation(summary = "获取标签分面统计")
+    public ResponseEntity<ApiResponse<TagFacetResponse>> getTagFacets(
+            @RequestParam(value = "all", required = false) List<String> all,
+            @RequestParam(value = "any", required = false) List<String> any,
+            @RequestParam(value = "none", required = false) List<String> none,
+            @AuthenticationPrincipal Jwt jwt
+    ) {
+        try {
+            String kcUserId = jwt.getClaimAsString("sub");
+            TagFacetResponse response = tagFacetService.getTagFacets(kcUserId, all, any, none);
+            return ResponseEntity.ok(ApiResponse.success("查询成功", response));
+        } catch (Exception e) {
+            log.error("Failed to get tag facets: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error(500, "标签统计失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 根据元数据谓词查询文档（EQ / PREFIX / RANGE，多个谓词为 AND）
+     */
+    @PostMapping("/metadata/query")
+    @Operation(summary = "按元数据查询文档")
+    public ResponseEntity<DocumentListResponse> queryByMetadata(
+            @Valid @RequestBody MetadataQueryRequest request,
+            @AuthenticationPrincipal Jwt jwt
+    ) {
+        try {
+            String kcUserId = jwt.getClaimAsString("sub");
+            List<Document> docs = documentService.queryByMetadata(kcUserId, request);
+            return ResponseEntity.ok(DocumentListResponse.fromDocuments(docs, renditionUrls::thumbnailUrl));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid metadata query: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(DocumentListResponse.builder()
+                            .code(400)
+                            .message(e.getMessage())
+                            .data(DocumentListResponse.Data.builder().build())
+                            .build());
+        } catch (Exception e) {
+            log.error("Failed to query documents by metadata: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(DocumentListResponse.error("Query documents by metadata fail: " + e.getMessage()));
+        }
+    }
+
     /**
      * 根据文件名搜索文档
      */
@@ -338,7 +459,7 @@ public class DocumentController {
     ) {
         String kcUserId = jwt.getClaimAsString("sub");
         List<Document> docs = documentService.searchDocumentsByFilename(kcUserId, keyword);
-        DocumentListResponse response = DocumentListResponse.fromDocuments(docs);
+        DocumentListResponse response = DocumentListResponse.fromDocuments(docs, renditionUrls::thumbnailUrl);
         return ResponseEntity.ok(response);
     }
 
@@ -359,7 +480,7 @@ public class DocumentController {
 
         List<Document> docs = documentService.filterDocuments(kcUserId, contentType, start, end);
 
-        DocumentListResponse response = DocumentListResponse.fromDocuments(docs);
+        DocumentListResponse response = DocumentListResponse.fromDocuments(docs, renditionUrls::thumbnailUrl);
         return ResponseEntity.ok(response);
     }
 
@@ -4,12 +4,14 @@ import com.ntdoc.notangdoccore.entity.Log;
 import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.service.LogService;
 import com.ntdoc.notangdoccore.service.UserSyncService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
 import com.ntdoc.notangdoccore.service.impl.UserSyncServiceImpl;
 import com.ntdoc.notangdoccore.service.impl.LogServiceImpl;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -19,6 +21,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -32,21 +35,30 @@ import java.util.Map;
 public class LogController {
     private final UserSyncService userSyncService;
     private final LogService logService;
+    private final ResourceVersionService resourceVersionService;
 
     /*
     * 获取当前用户的所有日志
     * */
     @GetMapping("/list")
-    public ResponseEntity<List<Log>> listLogs(@AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<List<Log>> listLogs(@AuthenticationPrincipal Jwt jwt, WebRequest webRequest) {
         try{
             log.info("Receive list all logs request");
+            String eTag = resourceVersionService.eTag(ResourceVersionService.Scope.LOGS,
+                    jwt != null ? jwt.getSubject() : null);
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
             User user = userSyncService.ensureFromJwt(jwt);
 
             List<Log> logList = logService.getAllLogsByUserId(user.getId());
 
             log.info("Get all logs successfully");
 
-            return ResponseEntity.ok(logList);
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(logList);
         }catch(Exception e){
             log.info("Get all logs failed",e);
 
@@ -0,0 +1,83 @@
+package com.ntdoc.notangdoccore.controller;
+
+import com.ntdoc.notangdoccore.dto.common.ApiResponse;
+import com.ntdoc.notangdoccore.service.push.PushSubscriptionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.function.Supplier;
+
+/**
+ * 实时推送（Server-Sent Events）
+ * 替代轮询评论列表：连接建立后服务端推送评论新增/修改/删除与文档状态变化；
+ * 断线重连后客户端应重新拉取一次列表（列表接口带 ETag，未变化时为 304）
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/push")
+@RequiredArgsConstructor
+@Tag(name = "实时推送", description = "基于 SSE 的评论与文档状态推送")
+public class PushController {
+
+    private final PushSubscriptionService pushSubscriptionService;
+
+    /**
+     * 订阅文档频道
+     */
+    @GetMapping("/documents/{documentId}")
+    @Operation(summary = "订阅文档动态", description = "推送 comment.created/updated/deleted 与 document.updated/deleted 事件")
+    public ResponseEntity<?> subscribeDocument(
+            @Parameter(description = "文档ID", required = true)
+            @PathVariable Long documentId,
+            @AuthenticationPrincipal Jwt jwt) {
+        return subscribe("document " + documentId,
+                () -> pushSubscriptionService.subscribeDocument(documentId, jwt.getClaimAsString("sub")));
+    }
+
+    /**
+     * 订阅团队频道
+     */
+    @GetMapping("/teams/{teamId}")
+    @Operation(summary = "订阅团队动态", description = "推送团队内的 comment.created/updated/deleted 事件，仅限团队成员")
+    public ResponseEntity<?> subscribeTeam(
+            @Parameter(description = "团队ID", required = true)
+            @PathVariable Long teamId,
+            @AuthenticationPrincipal Jwt jwt) {
+        return subscribe("team " + teamId,
+                () -> pushSubscriptionService.subscribeTeam(teamId, jwt.getClaimAsString("sub")));
+    }
+
+    private ResponseEntity<?> subscribe(String target, Supplier<SseEmitter> subscription) {
+        try {
+            SseEmitter emitter = subscription.get();
+            // 禁止反向代理缓冲事件流
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no")
+                    .body(emitter);
+        } catch (SecurityException e) {
+            log.warn("Push subscription denied for {}: {}", target, e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error(403, e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(404, e.getMessage()));
+        } catch (IllegalStateException e) {
+            log.warn("Push subscription rejected for {}: {}", target, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error(503, e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to subscribe {}", target, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "订阅失败: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.ntdoc.notangdoccore.controller;
+
+import com.ntdoc.notangdoccore.dto.common.ApiResponse;
+import com.ntdoc.notangdoccore.dto.document.StorageUsageResponse;
+import com.ntdoc.notangdoccore.service.storage.StorageQuotaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 存储用量：当前用户已用空间、文档数与配额
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/storage")
+@RequiredArgsConstructor
+@Tag(name = "存储用量", description = "查询当前用户的存储用量与配额")
+public class StorageUsageController {
+    private final StorageQuotaService storageQuotaService;
+
+    @GetMapping("/usage")
+    @Operation(summary = "获取存储用量", description = "返回已用字节、实际存储字节、文档数、配额与剩余空间")
+    public ResponseEntity<ApiResponse<StorageUsageResponse>> getUsage(@AuthenticationPrincipal Jwt jwt) {
+        try {
+            String kcUserId = jwt.getClaimAsString("sub");
+            return ResponseEntity.ok(ApiResponse.success("获取存储用量成功", storageQuotaService.getUsage(kcUserId)));
+        } catch (Exception e) {
+            log.error("Failed to get storage usage", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "获取存储用量失败: " + e.getMessage()));
+        }
+    }
+}
@@ -6,17 +6,20 @@ import com.ntdoc.notangdoccore.dto.team.TeamListResponse;
 import com.ntdoc.notangdoccore.dto.team.TeamResponse;
 import com.ntdoc.notangdoccore.entity.Team;
 import com.ntdoc.notangdoccore.service.TeamService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -28,6 +31,7 @@ import java.util.List;
 public class TeamController {
 
     private final TeamService teamService;
+    private final ResourceVersionService resourceVersionService;
 
     /**
      * 创建团队
@@ -70,12 +74,17 @@ public class TeamController {
     public ResponseEntity<ApiResponse<TeamListResponse>> getUserTeams(
             @Parameter(description = "是否只获取活跃团队")
             @RequestParam(value = "activeOnly", required = false, defaultValue = "true") boolean activeOnly,
-            @AuthenticationPrincipal Jwt jwt) {
+            @AuthenticationPrincipal Jwt jwt,
+            WebRequest webRequest) {
 
         try {
             log.info("Received request to get user teams: activeOnly={}", activeOnly);
 
             String kcUserId = jwt.getClaimAsString("sub");
+            String eTag = resourceVersionService.eTag(ResourceVersionService.Scope.TEAMS, kcUserId);
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
 
             List<Team> teams = activeOnly
                     ? teamService.getUserActiveTeams(kcUserId)
@@ -85,7 +94,10 @@ public class TeamController {
 
             log.info("Retrieved {} teams for user", teams.size());
 
-            return ResponseEntity.ok(ApiResponse.success("获取团队列表成功", response));
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(ApiResponse.success("获取团队列表成功", response));
 
         } catch (Exception e) {
             log.error("Failed to get user teams", e);
@@ -0,0 +1,32 @@
+package com.ntdoc.notangdoccore.dto.change;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 增量变更响应DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "增量变更")
+public class ChangeFeedResponse {
+
+    @Schema(description = "since 之后的变更，按 seq 升序")
+    private List<ChangeResponse> changes;
+
+    @Schema(description = "下次请求使用的游标", example = "42")
+    private Long cursor;
+
+    @Schema(description = "是否还有更多变更，为 true 时应立即用 cursor 继续拉取", example = "false")
+    private boolean hasMore;
+
+    @Schema(description = "游标已超出保留范围，客户端需全量刷新后从 cursor 继续", example = "false")
+    private boolean resetRequired;
+}
@@ -0,0 +1,50 @@
+package com.ntdoc.notangdoccore.dto.change;
+
+import com.ntdoc.notangdoccore.entity.ChangeFeedEntry;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 单条变更响应DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "单条变更")
+public class ChangeResponse {
+
+    @Schema(description = "用户内递增序号", example = "42")
+    private Long seq;
+
+    @Schema(description = "变更对象类型", example = "DOCUMENT")
+    private String entityType;
+
+    @Schema(description = "变更对象ID；TAG 类型为文档ID", example = "1")
+    private Long entityId;
+
+    @Schema(description = "变更动作", example = "CREATED")
+    private String action;
+
+    @Schema(description = "所属文档ID（评论、标签变更）", example = "1")
+    private Long documentId;
+
+    @Schema(description = "变更时间")
+    private Instant changedAt;
+
+    public static ChangeResponse fromEntity(ChangeFeedEntry entry) {
+        return ChangeResponse.builder()
+                .seq(entry.getSeq())
+                .entityType(entry.getEntityType().name())
+                .entityId(entry.getEntityId())
+                .action(entry.getAction().name())
+                .documentId(entry.getDocumentId())
+                .changedAt(entry.getCreatedAt())
+                .build();
+    }
+}
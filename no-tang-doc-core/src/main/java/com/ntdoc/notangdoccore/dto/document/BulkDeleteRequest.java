@@ -0,0 +1,27 @@
+package com.ntdoc.notangdoccore.dto.document;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量删除文档请求DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "批量删除文档请求")
+public class BulkDeleteRequest {
+
+    @NotEmpty(message = "文档ID列表不能为空")
+    @Size(max = 1000, message = "单次最多删除1000个文档")
+    @Schema(description = "文档ID列表", example = "[1, 2, 3]", requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<Long> documentIds;
+}
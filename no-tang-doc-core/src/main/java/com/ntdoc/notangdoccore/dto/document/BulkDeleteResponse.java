@@ -0,0 +1,56 @@
+package com.ntdoc.notangdoccore.dto.document;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量删除文档响应DTO
+ * 逐个文档给出结果；存储对象在事务提交后异步清理
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "批量删除文档响应")
+public class BulkDeleteResponse {
+
+    @Schema(description = "请求的文档数", example = "3")
+    private int requested;
+
+    @Schema(description = "成功删除的文档数", example = "2")
+    private int deleted;
+
+    @Schema(description = "逐个文档的删除结果")
+    private List<Result> results;
+
+    public enum Status {
+        DELETED,
+        NOT_FOUND,
+        FORBIDDEN
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "单个文档删除结果")
+    public static class Result {
+
+        @Schema(description = "文档ID", example = "1")
+        private Long documentId;
+
+        @Schema(description = "文件名", example = "report.pdf")
+        private String fileName;
+
+        @Schema(description = "结果：DELETED, NOT_FOUND, FORBIDDEN", example = "DELETED")
+        private Status status;
+
+        @Schema(description = "失败原因", example = "文档不存在")
+        private String message;
+    }
+}
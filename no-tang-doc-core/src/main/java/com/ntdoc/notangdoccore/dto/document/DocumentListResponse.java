@@ -5,6 +5,7 @@ import com.ntdoc.notangdoccore.entity.Tag;
 import lombok.*;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Getter
@@ -29,8 +30,15 @@ public class DocumentListResponse {
 
 
     public static DocumentListResponse fromDocuments(List<Document> documents) {
+        return fromDocuments(documents, d -> null);
+    }
+
+    /**
+     * @param thumbnailUrl 为每个文档生成缩略图链接
+     */
+    public static DocumentListResponse fromDocuments(List<Document> documents, Function<Document, String> thumbnailUrl) {
         List<DocumentTagResponse> responses = documents.stream()
-                .map(DocumentTagResponse::form)
+                .map(document -> DocumentTagResponse.form(document, thumbnailUrl))
                 .collect(Collectors.toList());
 
         return DocumentListResponse.builder()
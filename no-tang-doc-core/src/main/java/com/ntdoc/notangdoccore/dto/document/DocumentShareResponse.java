@@ -10,6 +10,9 @@ public class DocumentShareResponse {
     private String s3Key;
     private Integer expirationMinutes;
     private String message;
+    // 首页缩略图与低分辨率预览图，未生成时为 null
+    private String thumbnailUrl;
+    private String previewUrl;
 
     public static DocumentShareResponse success(String url,Long documentId,String s3Key,int expirationMinutes){
         DocumentShareResponse response = new DocumentShareResponse();
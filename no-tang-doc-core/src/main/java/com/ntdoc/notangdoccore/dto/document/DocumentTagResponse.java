@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Data
@@ -23,8 +24,15 @@ public class DocumentTagResponse {
     private String uploadTime;
     private String lastModified;
     private List<String> tags;
+    private String renditionStatus;
+    // 首页缩略图预签名链接，未生成时为 null
+    private String thumbnailUrl;
 
     public static DocumentTagResponse form(Document document) {
+        return form(document, d -> null);
+    }
+
+    public static DocumentTagResponse form(Document document, Function<Document, String> thumbnailUrl) {
         if (document == null) {
             return null;
         }
@@ -43,6 +51,8 @@ public class DocumentTagResponse {
                 .description(document.getDescription())
                 .uploadTime(document.getCreatedAt().toString())
                 .lastModified(document.getUpdatedAt().toString())
+                .renditionStatus(document.getRenditionStatus() != null ? document.getRenditionStatus().name() : null)
+                .thumbnailUrl(thumbnailUrl.apply(document))
                 .build();
     }
 }
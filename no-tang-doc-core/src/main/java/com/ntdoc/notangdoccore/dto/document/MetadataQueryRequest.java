@@ -0,0 +1,74 @@
+package com.ntdoc.notangdoccore.dto.document;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 元数据查询请求DTO
+ * 多个谓词之间为 AND 关系，可与文件类型、上传时间过滤组合
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "元数据查询请求")
+public class MetadataQueryRequest {
+
+    @NotEmpty(message = "元数据查询条件不能为空")
+    @Valid
+    @Schema(description = "元数据谓词列表（AND）", requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<Predicate> predicates;
+
+    @Schema(description = "文件类型", example = "application/pdf")
+    private String contentType;
+
+    @Schema(description = "上传起始时间", example = "2025-01-01T00:00:00Z")
+    private Instant startDate;
+
+    @Schema(description = "上传截止时间", example = "2025-12-31T23:59:59Z")
+    private Instant endDate;
+
+    public enum Operator {
+        // 值相等
+        EQ,
+        // 值前缀匹配
+        PREFIX,
+        // 数值范围（闭区间，min/max 可只给一个）
+        RANGE
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "元数据谓词")
+    public static class Predicate {
+
+        @NotBlank(message = "元数据键不能为空")
+        @Schema(description = "元数据键", example = "workflow.state", requiredMode = Schema.RequiredMode.REQUIRED)
+        private String key;
+
+        @NotNull(message = "操作符不能为空")
+        @Schema(description = "操作符：EQ, PREFIX, RANGE", example = "EQ", requiredMode = Schema.RequiredMode.REQUIRED)
+        private Operator op;
+
+        @Schema(description = "EQ / PREFIX 使用的值", example = "REVIEW")
+        private String value;
+
+        @Schema(description = "RANGE 下界（含）", example = "1")
+        private Double min;
+
+        @Schema(description = "RANGE 上界（含）", example = "10")
+        private Double max;
+    }
+}
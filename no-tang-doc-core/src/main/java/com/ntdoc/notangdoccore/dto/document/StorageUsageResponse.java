@@ -0,0 +1,18 @@
+package com.ntdoc.notangdoccore.dto.document;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 存储用量响应DTO
+ */
+@Data
+@Builder
+public class StorageUsageResponse {
+    private Long usedBytes;
+    private Long storedBytes;
+    private Long documentCount;
+    private Long quotaBytes;
+    private Long remainingBytes;
+    private Boolean enforced;
+}
@@ -0,0 +1,28 @@
+package com.ntdoc.notangdoccore.dto.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TagFacetResponse {
+    // 满足过滤条件的文档总数
+    private long total;
+    // 按文档数降序排列的标签分面
+    private List<Facet> facets;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Facet {
+        private String tag;
+        private long count;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ntdoc.notangdoccore.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Change feed entry entity class
+ * 按用户的变更流水：与业务数据在同一事务中写入，客户端按 seq 游标增量拉取
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "change_feed",
+        uniqueConstraints = {@UniqueConstraint(name = "uq_change_feed_user_seq", columnNames = {"kc_user_id", "seq"})},
+        indexes = {@Index(name = "idx_change_feed_created_at", columnList = "created_at")})
+public class ChangeFeedEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "kc_user_id", nullable = false, length = 64)
+    private String kcUserId;
+
+    // 用户内单调递增的序号，即增量拉取的游标
+    @Column(nullable = false)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Action action;
+
+    // 评论、标签变更所属的文档
+    @Column(name = "document_id")
+    private Long documentId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public enum EntityType {
+        DOCUMENT,
+        // 文档的标签集合，entityId 为文档ID
+        TAG,
+        COMMENT,
+        TEAM
+    }
+
+    public enum Action {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
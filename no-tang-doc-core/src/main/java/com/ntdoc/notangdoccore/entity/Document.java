@@ -2,6 +2,7 @@ package com.ntdoc.notangdoccore.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -21,7 +22,8 @@ import java.util.*;
 @Table(name = "document", indexes = {
         @Index(name = "idx_document_user_id", columnList = "user_id"),
         @Index(name = "idx_document_created_at", columnList = "created_at"),
-        @Index(name = "idx_document_status", columnList = "status")
+        @Index(name = "idx_document_status", columnList = "status"),
+        @Index(name = "idx_document_s3_key", columnList = "s3_key")
 })
 public class Document {
 
@@ -41,6 +43,14 @@ public class Document {
     @Column(name = "content_type", length = 100)
     private String contentType;
 
+    //存储编码：可压缩类型以 gzip 存储（对象带 Content-Encoding），fileSize 仍为原始大小
+    @Enumerated(EnumType.STRING)
+    @Column(name = "storage_codec", length = 16)
+    private StorageCodec storageCodec;
+
+    @Column(name = "stored_size")
+    private Long storedSize;
+
     @Column(name = "file_hash", length = 64)
     private String fileHash;
 
@@ -69,6 +79,7 @@ public class Document {
             inverseJoinColumns = @JoinColumn(name = "tag_id", foreignKey = @ForeignKey(name = "fk_document_tag_tag")),
             uniqueConstraints = @UniqueConstraint(name = "uk_document_tag", columnNames = {"document_id", "tag_id"})
     )
+    @BatchSize(size = 50)
     @Builder.Default
     private Set<Tag> tags = new LinkedHashSet<>();
 
@@ -95,6 +106,7 @@ public class Document {
     )
     @MapKeyColumn(name = "meta_key", length = 128)
     @Column(name = "meta_value", length = 1024, nullable = false)
+    @BatchSize(size = 50)
     @Builder.Default
     private Map<String, String> metadata = new LinkedHashMap<>();
 
@@ -104,6 +116,32 @@ public class Document {
         }
     }
 
+    //Renditions：首页缩略图与低分辨率预览图，与原文件存放在同一目录
+    @Column(name = "thumbnail_key", length = 500)
+    private String thumbnailKey;
+
+    @Column(name = "preview_key", length = 500)
+    private String previewKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "rendition_status", length = 20)
+    private RenditionStatus renditionStatus;
+
+    /**
+     * 文档占用的全部存储对象键（原文件及衍生对象），删除文档时一并删除
+     */
+    public List<String> storageKeys() {
+        List<String> keys = new ArrayList<>(3);
+        keys.add(s3Key);
+        if (thumbnailKey != null) {
+            keys.add(thumbnailKey);
+        }
+        if (previewKey != null) {
+            keys.add(previewKey);
+        }
+        return keys;
+    }
+
     @Column(name = "download_count", nullable = false)
     @Builder.Default
     private Integer downloadCount = 0;
@@ -122,4 +160,17 @@ public class Document {
         DELETED,
         PROCESSING
     }
+
+    public enum StorageCodec {
+        NONE,
+        GZIP
+    }
+
+    public enum RenditionStatus {
+        PENDING,
+        READY,
+        // 源文件无法解析，不再重试
+        FAILED,
+        UNSUPPORTED
+    }
 }
@@ -0,0 +1,13 @@
+package com.ntdoc.notangdoccore.entity;
+
+/**
+ * 二级缓存区域名称；容量与过期时间见 ntdoc.db.cache.regions
+ */
+public final class EntityCacheRegions {
+    public static final String TEAM = "team";
+    public static final String TAG = "tag";
+    public static final String USER = "user";
+
+    private EntityCacheRegions() {
+    }
+}
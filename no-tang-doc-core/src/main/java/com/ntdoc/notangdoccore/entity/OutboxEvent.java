@@ -0,0 +1,72 @@
+package com.ntdoc.notangdoccore.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Outbox event entity class
+ * 事务外发事件：与业务数据在同一事务中写入，由后台中继在事务外执行存储删除、事件发布等副作用
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_event", indexes = {
+        @Index(name = "idx_outbox_status_available", columnList = "status, available_at")
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 50)
+    private EventType eventType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+
+    public enum EventType {
+        // 删除对象存储中的文件
+        STORAGE_DELETE,
+        // 发布用户操作日志事件
+        USER_OPERATION,
+        // 生成缩略图与预览图
+        RENDITION
+    }
+
+    public enum Status {
+        PENDING,
+        DONE,
+        // 重试次数耗尽
+        FAILED
+    }
+}
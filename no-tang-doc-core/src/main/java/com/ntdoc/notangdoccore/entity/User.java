@@ -2,6 +2,8 @@ package com.ntdoc.notangdoccore.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.Instant;
 
@@ -10,6 +12,8 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheRegions.USER)
 @Table(name = "app_user",
         indexes = {@Index(name = "uq_app_user_username", columnList = "username", unique = true)},
         uniqueConstraints = {@UniqueConstraint(name = "uq_app_user_kc_user_id",columnNames="kc_user_id")}
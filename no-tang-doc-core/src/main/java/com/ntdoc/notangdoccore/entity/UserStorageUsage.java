@@ -0,0 +1,48 @@
+package com.ntdoc.notangdoccore.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+/**
+ * User storage usage entity class
+ * 按用户维护的存储用量汇总：上传、删除时在同一事务内增减，配额检查与用量查询都是主键读取
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_storage_usage")
+public class UserStorageUsage {
+
+    // 与 app_user.id 相同
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // 文档原始大小之和，计入配额
+    @Column(name = "used_bytes", nullable = false)
+    @Builder.Default
+    private Long usedBytes = 0L;
+
+    // 对象存储实际占用
+    @Column(name = "stored_bytes", nullable = false)
+    @Builder.Default
+    private Long storedBytes = 0L;
+
+    @Column(name = "document_count", nullable = false)
+    @Builder.Default
+    private Long documentCount = 0L;
+
+    // 单用户配额，为空时使用默认配额
+    @Column(name = "quota_bytes")
+    private Long quotaBytes;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -43,4 +43,14 @@ public class DocumentException extends RuntimeException {
             super("File upload failed: " + message, cause);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 存储配额不足异常
+     */
+    public static class StorageQuotaExceededException extends DocumentException {
+        public StorageQuotaExceededException(long usedBytes, long requestedBytes, long quotaBytes) {
+            super(String.format("存储空间不足：已用 %d 字节，本次上传 %d 字节，配额 %d 字节",
+                    usedBytes, requestedBytes, quotaBytes));
+        }
+    }
+}
@@ -1,14 +1,14 @@
 package com.ntdoc.notangdoccore.keycloak;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.ntdoc.notangdoccore.config.KeycloakProperties;
+import jakarta.ws.rs.NotAuthorizedException;
 import jakarta.ws.rs.core.Response;
-import lombok.RequiredArgsConstructor;
-import org.keycloak.OAuth2Constants;
+import lombok.extern.slf4j.Slf4j;
 import org.keycloak.admin.client.CreatedResponseUtil;
 import org.keycloak.admin.client.Keycloak;
-import org.keycloak.admin.client.KeycloakBuilder;
 import org.keycloak.admin.client.resource.RealmResource;
-import org.keycloak.admin.client.resource.UsersResource;
 import org.keycloak.representations.idm.CredentialRepresentation;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
@@ -16,67 +16,107 @@ import org.springframework.stereotype.Service;
 
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class KeycloakAdminService {
     private final KeycloakProperties props;
+    private final Keycloak keycloak;
+    // realm 角色名 -> 角色，避免每次注册都拉取完整角色列表
+    private final Cache<String, Map<String, RoleRepresentation>> realmRoles;
 
-    private Keycloak adminClient() {
-        return KeycloakBuilder.builder()
-                .serverUrl(props.getAuthServerUrl())
-                .realm(props.getAdmin().getRealm())
-                .grantType(OAuth2Constants.PASSWORD)
-                .clientId(props.getAdmin().getClientId())
-                .username(props.getAdmin().getUsername())
-                .password(props.getAdmin().getPassword())
+    public KeycloakAdminService(KeycloakProperties props, Keycloak keycloak) {
+        this.props = props;
+        this.keycloak = keycloak;
+        this.realmRoles = Caffeine.newBuilder()
+                .maximumSize(16)
+                .expireAfterWrite(props.getAdmin().getRolesCacheTtl())
                 .build();
     }
 
+    /**
+     * 创建用户、设置密码、分配角色分步调用，令牌失效只重试失败的那一步，不会重复创建用户
+     */
     public String createUser(String username, String email, String rawPassword, List<String> roles) {
-        try (Keycloak kc = adminClient()) {
-            RealmResource realm = kc.realm(props.getRealm());
-            UsersResource users = realm.users();
+        UserRepresentation user = new UserRepresentation();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setEnabled(true);
+        user.setEmailVerified(false);
 
-            UserRepresentation user = new UserRepresentation();
-            user.setUsername(username);
-            user.setEmail(email);
-            user.setEnabled(true);
-            user.setEmailVerified(false);
-
-            Response response = users.create(user);
-            if (response.getStatus() >= 300) {
-                throw new IllegalStateException("Create user failed status=" + response.getStatus());
+        // 401 表示请求被拒绝、用户未创建，重试是安全的
+        String userId = withRealm(realm -> {
+            try (Response response = realm.users().create(user)) {
+                if (response.getStatus() >= 300) {
+                    throw new IllegalStateException("Create user failed status=" + response.getStatus());
+                }
+                return CreatedResponseUtil.getCreatedId(response);
             }
-            String userId = CreatedResponseUtil.getCreatedId(response);
+        });
 
-            if (rawPassword != null && !rawPassword.isBlank()) {
-                CredentialRepresentation cred = new CredentialRepresentation();
-                cred.setTemporary(false);
-                cred.setType(CredentialRepresentation.PASSWORD);
-                cred.setValue(rawPassword);
-                users.get(userId).resetPassword(cred);
-            }
+        if (rawPassword != null && !rawPassword.isBlank()) {
+            CredentialRepresentation cred = new CredentialRepresentation();
+            cred.setTemporary(false);
+            cred.setType(CredentialRepresentation.PASSWORD);
+            cred.setValue(rawPassword);
+            withRealm(realm -> {
+                realm.users().get(userId).resetPassword(cred);
+                return null;
+            });
+        }
 
-            if (roles != null && !roles.isEmpty()) {
-                List<RoleRepresentation> all = realm.roles().list();
-                List<RoleRepresentation> attach = all.stream()
-                        .filter(r -> roles.contains(r.getName()))
-                        .toList();
-                if (!attach.isEmpty()) {
-                    users.get(userId).roles().realmLevel().add(attach);
-                }
+        if (roles != null && !roles.isEmpty()) {
+            List<RoleRepresentation> attach = withRealm(realm -> resolveRoles(realm, roles));
+            if (!attach.isEmpty()) {
+                withRealm(realm -> {
+                    realm.users().get(userId).roles().realmLevel().add(attach);
+                    return null;
+                });
             }
-            return userId;
         }
+        return userId;
     }
 
     public Optional<String> findUserIdByUsername(String username) {
-        try (Keycloak kc = adminClient()) {
-            List<UserRepresentation> list = kc.realm(props.getRealm()).users().search(username, true);
+        return withRealm(realm -> {
+            List<UserRepresentation> list = realm.users().search(username, true);
             return list.stream().filter(u -> username.equals(u.getUsername())).findFirst().map(UserRepresentation::getId);
+        });
+    }
+
+    /**
+     * 从缓存解析角色；有角色不在缓存中时（可能是新建的角色）重新加载一次
+     */
+    private List<RoleRepresentation> resolveRoles(RealmResource realm, List<String> roles) {
+        Supplier<Map<String, RoleRepresentation>> load = () -> realm.roles().list().stream()
+                .collect(Collectors.toUnmodifiableMap(RoleRepresentation::getName, Function.identity(), (a, b) -> a));
+        Map<String, RoleRepresentation> byName = realmRoles.get(props.getRealm(), realmName -> load.get());
+        if (!byName.keySet().containsAll(roles)) {
+            byName = load.get();
+            realmRoles.put(props.getRealm(), byName);
         }
+        Map<String, RoleRepresentation> known = byName;
+        return roles.stream().distinct().map(known::get).filter(Objects::nonNull).toList();
     }
-}
 
+    /**
+     * 管理令牌在 Keycloak 侧失效（会话被撤销、服务重启）时，丢弃缓存的令牌并重试一次
+     * action 只能包含单个幂等的管理调用：重试会重新执行整个 action
+     */
+    private <T> T withRealm(Function<RealmResource, T> action) {
+        RealmResource realm = keycloak.realm(props.getRealm());
+        try {
+            return action.apply(realm);
+        } catch (NotAuthorizedException e) {
+            log.warn("Keycloak admin token rejected, re-authenticating: {}", e.getMessage());
+            keycloak.tokenManager().invalidate(keycloak.tokenManager().getAccessTokenString());
+            return action.apply(realm);
+        }
+    }
+}
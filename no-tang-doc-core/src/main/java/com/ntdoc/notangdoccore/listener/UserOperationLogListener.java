@@ -3,6 +3,8 @@ package com.ntdoc.notangdoccore.listener;
 import com.ntdoc.notangdoccore.entity.Log;
 import com.ntdoc.notangdoccore.event.UserOperationEvent;
 import com.ntdoc.notangdoccore.repository.LogRepository;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
@@ -17,6 +19,8 @@ import java.time.Instant;
 @RequiredArgsConstructor
 public class UserOperationLogListener {
     private final LogRepository logRepository;
+    private final UserRepository userRepository;
+    private final ResourceVersionService resourceVersionService;
 
     @Async("taskExecutor")
     @EventListener
@@ -26,26 +30,39 @@ public class UserOperationLogListener {
         log.info("Async thread: {}",Thread.currentThread().getName());
 
         try{
-            Log logEntity = new Log();
-            logEntity.setUserId(event.getUserId());
-            logEntity.setTargetId(event.getTargetId());
-            logEntity.setActorType(event.getActorType());
-            logEntity.setActorName(event.getActorName());
-            logEntity.setOperationType(event.getOperationType());
-            logEntity.setTargetName(event.getTargetName());
-            logEntity.setOperationStatus(event.getOperationStatus());
-            logEntity.setMessage(event.getMessage());
-            logEntity.setTime(Instant.ofEpochMilli(event.getTimestamp()));
-
-            logRepository.save(logEntity);
-
-            log.info("User Log have been recorded: {} - {} - {} - {}",
-                    event.getActorName(),
-                    event.getOperationType(),
-                    event.getTargetName(),
-                    event.getOperationStatus());
+            record(event);
         }catch(Exception e){
             log.error("Failed to save user operation log", e);
         }
     }
+
+    /**
+     * 同步写入操作日志，失败时抛出；outbox 中继据此重试，直接发布的事件仍走上面的异步监听
+     */
+    @Transactional
+    public void record(UserOperationEvent event) {
+        Log logEntity = new Log();
+        logEntity.setUserId(event.getUserId());
+        logEntity.setTargetId(event.getTargetId());
+        logEntity.setActorType(event.getActorType());
+        logEntity.setActorName(event.getActorName());
+        logEntity.setOperationType(event.getOperationType());
+        logEntity.setTargetName(event.getTargetName());
+        logEntity.setOperationStatus(event.getOperationStatus());
+        logEntity.setMessage(event.getMessage());
+        logEntity.setTime(Instant.ofEpochMilli(event.getTimestamp()));
+
+        logRepository.save(logEntity);
+        if (event.getUserId() != null) {
+            // 日志列表按 kcUserId 做版本控制
+            userRepository.findById(event.getUserId()).ifPresent(user ->
+                    resourceVersionService.bump(ResourceVersionService.Scope.LOGS, user.getKcUserId()));
+        }
+
+        log.info("User Log have been recorded: {} - {} - {} - {}",
+                event.getActorName(),
+                event.getOperationType(),
+                event.getTargetName(),
+                event.getOperationStatus());
+    }
 }
@@ -0,0 +1,133 @@
+package com.ntdoc.notangdoccore.metrics;
+
+import com.ntdoc.notangdoccore.config.DbMetricsProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * datasource-proxy 监听器
+ * 每条 SQL：记录 db.query 计时（按接口、语句类型打标签），累加到当前请求统计，超阈值时采样打印慢查询
+ * ResultSet#next：累加读取行数
+ */
+@Slf4j
+public class DbQueryMetricsListener implements QueryExecutionListener, MethodExecutionListener {
+
+    // endpoint × type × outcome 标签组合较多，只发布固定的 SLO 桶，不发布百分位直方图
+    private static final Duration[] SLO = {
+            Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25),
+            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+            Duration.ofSeconds(1)
+    };
+
+    private final MeterRegistry meterRegistry;
+    private final DbMetricsProperties properties;
+
+    public DbQueryMetricsListener(MeterRegistry meterRegistry, DbMetricsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String endpoint = RequestDbStats.currentEndpoint();
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        long elapsed = execInfo.getElapsedTime();
+
+        Timer.builder("db.query")
+                .description("JDBC statement execution time")
+                .tag("endpoint", endpoint)
+                .tag("type", statementType(sql))
+                .tag("outcome", execInfo.isSuccess() ? "success" : "error")
+                .serviceLevelObjectives(SLO)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.MILLISECONDS);
+
+        RequestDbStats stats = RequestDbStats.current();
+        if (stats != null) {
+            stats.recordQuery(elapsed, updatedRows(execInfo.getResult()));
+        }
+
+        if (elapsed >= properties.getSlowQueryThreshold().toMillis()
+                && ThreadLocalRandom.current().nextDouble() < properties.getSlowQuerySampleRate()) {
+            log.warn("Slow query: endpoint={}, elapsed={}ms, batch={}, sql={}",
+                    endpoint, elapsed, execInfo.isBatch() ? execInfo.getBatchSize() : 0, abbreviate(sql));
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            RequestDbStats stats = RequestDbStats.current();
+            if (stats != null) {
+                stats.recordFetchedRow();
+            }
+        }
+    }
+
+    private long updatedRows(Object result) {
+        if (result instanceof Integer count) {
+            return Math.max(count, 0);
+        }
+        if (result instanceof Long count) {
+            return Math.max(count, 0);
+        }
+        if (result instanceof int[] counts) {
+            long sum = 0;
+            for (int c : counts) {
+                sum += Math.max(c, 0);
+            }
+            return sum;
+        }
+        return 0;
+    }
+
+    private String statementType(String sql) {
+        String trimmed = stripLeadingComment(sql).stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        String keyword = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "insert", "update", "delete" -> keyword;
+            default -> "other";
+        };
+    }
+
+    private String stripLeadingComment(String sql) {
+        String s = sql.stripLeading();
+        if (s.startsWith("/*")) {
+            int close = s.indexOf("*/");
+            return close >= 0 ? s.substring(close + 2) : s;
+        }
+        return s;
+    }
+
+    private String abbreviate(String sql) {
+        int max = properties.getMaxLoggedSqlLength();
+        return sql.length() <= max ? sql : sql.substring(0, max) + "...";
+    }
+}
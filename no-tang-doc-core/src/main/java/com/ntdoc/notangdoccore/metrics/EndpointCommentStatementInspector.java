@@ -0,0 +1,21 @@
+package com.ntdoc.notangdoccore.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 在 Hibernate 生成的 SQL 前追加调用接口（Controller#method）注释
+ * MySQL 的 processlist、慢查询日志和 performance_schema 中即可直接看到来源
+ */
+public class EndpointCommentStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestDbStats stats = RequestDbStats.current();
+        if (stats == null) {
+            return sql;
+        }
+        // 接口名由类名与方法名组成，不含注释结束符，这里仍做一次防御
+        String endpoint = stats.getEndpoint().replace("*/", "");
+        return "/* " + endpoint + " */ " + sql;
+    }
+}
@@ -0,0 +1,69 @@
+package com.ntdoc.notangdoccore.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以 Controller 方法为粒度绑定请求级数据库统计，请求结束后上报：
+ * http.server.db.queries / http.server.db.rows（分布）与 http.server.db.time（计时）
+ * 异步处理（SSE、StreamingResponseBody）的首次分派不会调用 afterCompletion，
+ * 在 afterConcurrentHandlingStarted 中上报并解绑，避免统计残留在线程池线程上；异步回派不再重复统计
+ */
+@RequiredArgsConstructor
+public class EndpointDbMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod && request.getDispatcherType() != DispatcherType.ASYNC) {
+            RequestDbStats.begin(handlerMethod.getBeanType().getSimpleName() + "#" + handlerMethod.getMethod().getName());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        report(RequestDbStats.end());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        report(RequestDbStats.end());
+    }
+
+    private void report(RequestDbStats stats) {
+        if (stats == null) {
+            return;
+        }
+        String endpoint = stats.getEndpoint();
+
+        DistributionSummary.builder("http.server.db.queries")
+                .description("SQL statements executed per request")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getQueries());
+        DistributionSummary.builder("http.server.db.rows")
+                .description("Rows fetched or affected per request")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getRows());
+        Timer.builder("http.server.db.time")
+                .description("Total SQL execution time per request")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getElapsedMillis(), TimeUnit.MILLISECONDS);
+    }
+}
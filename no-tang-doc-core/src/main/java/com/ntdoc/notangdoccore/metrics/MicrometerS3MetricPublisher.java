@@ -0,0 +1,102 @@
+package com.ntdoc.notangdoccore.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 将 AWS SDK 的请求指标桥接到 Micrometer
+ * s3.api.call（SDK 整体耗时，含重试与退避）与 s3.api.attempt（单次 HTTP 往返，即 Spaces 侧耗时）对比，
+ * 可区分延迟来自本服务还是对象存储；s3.http.acquire 反映连接池等待时间
+ */
+public class MicrometerS3MetricPublisher implements MetricPublisher {
+
+    private static final Duration[] SLO = {
+            Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ofSeconds(5)
+    };
+
+    private final MeterRegistry meterRegistry;
+
+    public MicrometerS3MetricPublisher(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void publish(MetricCollection apiCall) {
+        String operation = first(apiCall, CoreMetric.OPERATION_NAME, "unknown");
+        String outcome = Boolean.TRUE.equals(first(apiCall, CoreMetric.API_CALL_SUCCESSFUL, false)) ? "success" : "error";
+
+        Duration callDuration = first(apiCall, CoreMetric.API_CALL_DURATION, null);
+        if (callDuration != null) {
+            timer("s3.api.call", "AWS SDK API call duration including retries", operation, outcome).record(callDuration);
+        }
+
+        Integer retries = first(apiCall, CoreMetric.RETRY_COUNT, 0);
+        // SLO 边界必须大于 0，le=0.5 的桶即无重试的调用
+        DistributionSummary.builder("s3.api.retries")
+                .description("Retries per AWS SDK API call")
+                .tag("operation", operation)
+                .serviceLevelObjectives(0.5, 1, 2, 3)
+                .register(meterRegistry)
+                .record(retries);
+
+        for (MetricCollection attempt : apiCall.children()) {
+            Duration serviceCall = first(attempt, CoreMetric.SERVICE_CALL_DURATION, null);
+            if (serviceCall != null) {
+                Integer status = first(attempt, HttpMetric.HTTP_STATUS_CODE, 0);
+                timer("s3.api.attempt", "Single HTTP round trip to the object store", operation, statusClass(status))
+                        .record(serviceCall);
+            }
+            Duration backoff = first(attempt, CoreMetric.BACKOFF_DELAY_DURATION, null);
+            if (backoff != null && !backoff.isZero()) {
+                timer("s3.api.backoff", "Backoff delay before a retry attempt", operation, "retry").record(backoff);
+            }
+
+            for (MetricCollection http : attempt.children()) {
+                Duration acquire = first(http, HttpMetric.CONCURRENCY_ACQUIRE_DURATION, null);
+                if (acquire != null) {
+                    timer("s3.http.acquire", "Time waiting for an HTTP connection from the pool", operation, "success")
+                            .record(acquire);
+                }
+                Integer pending = first(http, HttpMetric.PENDING_CONCURRENCY_ACQUIRES, null);
+                if (pending != null) {
+                    DistributionSummary.builder("s3.http.pending")
+                            .description("Requests waiting for an HTTP connection")
+                            .register(meterRegistry)
+                            .record(pending);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private Timer timer(String name, String description, String operation, String outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .serviceLevelObjectives(SLO)
+                .register(meterRegistry);
+    }
+
+    private static <T> T first(MetricCollection collection, SdkMetric<T> metric, T defaultValue) {
+        List<T> values = collection.metricValues(metric);
+        return values.isEmpty() ? defaultValue : values.get(0);
+    }
+
+    private static String statusClass(int status) {
+        return status <= 0 ? "io_error" : (status / 100) + "xx";
+    }
+}
@@ -0,0 +1,67 @@
+package com.ntdoc.notangdoccore.metrics;
+
+/**
+ * 当前线程（请求）的数据库访问统计
+ * 由 EndpointDbMetricsInterceptor 在请求开始时绑定、结束时上报并清除
+ */
+public final class RequestDbStats {
+    public static final String NO_ENDPOINT = "none";
+
+    private static final ThreadLocal<RequestDbStats> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private long queries;
+    private long rows;
+    private long elapsedMillis;
+
+    private RequestDbStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public static RequestDbStats begin(String endpoint) {
+        RequestDbStats stats = new RequestDbStats(endpoint);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static RequestDbStats current() {
+        return CURRENT.get();
+    }
+
+    public static RequestDbStats end() {
+        RequestDbStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    public static String currentEndpoint() {
+        RequestDbStats stats = CURRENT.get();
+        return stats != null ? stats.endpoint : NO_ENDPOINT;
+    }
+
+    void recordQuery(long elapsedMillis, long affectedRows) {
+        this.queries++;
+        this.elapsedMillis += elapsedMillis;
+        this.rows += affectedRows;
+    }
+
+    void recordFetchedRow() {
+        this.rows++;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getQueries() {
+        return queries;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,41 @@
+package com.ntdoc.notangdoccore.migration;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * 独立的数据库迁移入口：只创建数据源并运行 Liquibase，完成后退出
+ * 与应用共用 application*.yaml；fast-start profile 关闭了启动时迁移并开启了延迟初始化，这里强制覆盖
+ * <pre>
+ * # 镜像内（解压后的 app.jar 通过清单 Class-Path 引用 lib/）
+ * java -cp /app/app.jar com.ntdoc.notangdoccore.migration.DatabaseMigration
+ * </pre>
+ * 不是 {@code @Configuration}，不会被应用的组件扫描加载
+ */
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, LiquibaseAutoConfiguration.class})
+public final class DatabaseMigration {
+
+    private DatabaseMigration() {
+    }
+
+    public static void main(String[] args) {
+        String[] arguments = Stream.concat(Arrays.stream(args), Stream.of("--spring.liquibase.enabled=true",
+                "--spring.main.lazy-initialization=false"))
+                // devtools 重启时会以追加后的参数再次调用 main
+                .distinct()
+                .toArray(String[]::new);
+        SpringApplication application = new SpringApplication(DatabaseMigration.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setBannerMode(Banner.Mode.OFF);
+        ConfigurableApplicationContext context = application.run(arguments);
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,52 @@
+package com.ntdoc.notangdoccore.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按 key 限制同时处理中的请求数（无锁信号量）
+ * 计数归零的条目被标记为 -1 后移除，保证移除时不会丢失并发获取的许可
+ */
+public class ConcurrencyLimiter {
+    private static final int RETIRED = -1;
+
+    private final ConcurrentMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+
+    public boolean tryAcquire(String key, int max) {
+        while (true) {
+            AtomicInteger counter = inFlight.computeIfAbsent(key, k -> new AtomicInteger());
+            int current = counter.get();
+            if (current == RETIRED) {
+                // 该条目正被移除，重新获取
+                continue;
+            }
+            if (current >= max) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                total.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    public void release(String key) {
+        AtomicInteger counter = inFlight.get(key);
+        if (counter == null) {
+            return;
+        }
+        total.decrementAndGet();
+        if (counter.decrementAndGet() == 0 && counter.compareAndSet(0, RETIRED)) {
+            inFlight.remove(key, counter);
+        }
+    }
+
+    /**
+     * 所有 key 当前持有的许可总数
+     */
+    public int inFlight() {
+        return total.get();
+    }
+}
@@ -0,0 +1,49 @@
+package com.ntdoc.notangdoccore.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 进程内令牌桶（GCRA 算法）
+ * 每个桶只保存一个“理论到达时间”，取令牌是一次 CAS，无锁且不需要后台补充线程
+ */
+public class LocalRateLimitStore implements RateLimitStore {
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier nanoClock;
+
+    public LocalRateLimitStore(long maxKeys, Duration idleExpiry) {
+        this(maxKeys, idleExpiry, System::nanoTime);
+    }
+
+    LocalRateLimitStore(long maxKeys, Duration idleExpiry, LongSupplier nanoClock) {
+        // 桶空闲超过 refill-period 后即为满桶，被淘汰与保留等价
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleExpiry)
+                .build();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public long tryAcquire(String key, int capacity, Duration refillPeriod) {
+        long interval = Math.max(1, refillPeriod.toNanos() / Math.max(1, capacity));
+        long burst = interval * capacity;
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(nanoClock.getAsLong()));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = tat.get();
+            long next = (current - now > 0 ? current : now) + interval;
+            long wait = next - burst - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.ntdoc.notangdoccore.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.config.RateLimitProperties;
+import com.ntdoc.notangdoccore.dto.common.ApiResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 上传、下载链接、搜索等接口的按用户限流
+ * 注册在 Spring Security 之后（已解析出 JWT 用户），在读取请求体之前拒绝，超限请求不会占用 multipart 解析与业务线程；
+ * 速率超限或并发超限返回 429 与 Retry-After
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final List<NamedPolicy> policies;
+    private final RateLimitStore store;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimitProperties properties, RateLimitStore store, ConcurrencyLimiter concurrencyLimiter,
+                           MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        this.policies = properties.getPolicies().entrySet().stream()
+                .map(entry -> new NamedPolicy(entry.getKey(), entry.getValue()))
+                .toList();
+        this.store = store;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        meterRegistry.gauge("http.server.ratelimit.inflight", concurrencyLimiter, ConcurrencyLimiter::inFlight);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        NamedPolicy matched = match(request);
+        if (matched == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RateLimitProperties.Policy policy = matched.policy();
+        String key = matched.name() + ":" + subject(request);
+
+        long waitNanos;
+        try {
+            waitNanos = store.tryAcquire(key, policy.getCapacity(), policy.getRefillPeriod());
+        } catch (RuntimeException e) {
+            // 共享存储不可用时放行，限流不应成为单点故障
+            log.warn("Rate limit store failed for policy {}: {}", matched.name(), e.getMessage());
+            record(matched.name(), "store_error");
+            waitNanos = 0;
+        }
+        if (waitNanos > 0) {
+            record(matched.name(), "rejected_rate");
+            long retryAfterSeconds = (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+            reject(response, retryAfterSeconds, "请求过于频繁，请稍后重试");
+            return;
+        }
+
+        if (policy.getMaxConcurrent() <= 0) {
+            record(matched.name(), "allowed");
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire(key, policy.getMaxConcurrent())) {
+            record(matched.name(), "rejected_concurrency");
+            reject(response, 1, "同时进行的请求过多，请等待当前请求完成");
+            return;
+        }
+        record(matched.name(), "allowed");
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                concurrencyLimiter.release(key);
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // 异步响应在真正结束时归还许可
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private NamedPolicy match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod().toUpperCase(Locale.ROOT);
+        for (NamedPolicy candidate : policies) {
+            RateLimitProperties.Policy policy = candidate.policy();
+            if (!policy.getMethods().isEmpty() && policy.getMethods().stream().noneMatch(method::equalsIgnoreCase)) {
+                continue;
+            }
+            for (String pattern : policy.getPaths()) {
+                if (PATH_MATCHER.match(pattern, path)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 限流主体：已认证请求为 JWT 的 sub（kcUserId），否则为客户端地址
+     */
+    private static String subject(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(HttpStatus.TOO_MANY_REQUESTS.value(), message));
+    }
+
+    private void record(String policy, String outcome) {
+        meterRegistry.counter("http.server.ratelimit", "policy", policy, "outcome", outcome).increment();
+    }
+
+    private record NamedPolicy(String name, RateLimitProperties.Policy policy) {
+    }
+
+    private record ReleasingAsyncListener(Runnable release) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 再次开始异步处理时监听器会被清除，需重新注册以沿用同一许可
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ntdoc.notangdoccore.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * 令牌桶存储
+ * 默认实现 {@link LocalRateLimitStore} 在进程内计数；多实例部署需要全局配额时，
+ * 提供基于共享存储（如 Redis）的实现并设置 ntdoc.rate-limit.store
+ */
+public interface RateLimitStore {
+
+    /**
+     * 尝试从 key 对应的桶中取一个令牌
+     *
+     * @param capacity     突发容量
+     * @param refillPeriod 桶从空到满的时间
+     * @return 0 表示放行；否则为下一个令牌可用前需等待的纳秒数
+     */
+    long tryAcquire(String key, int capacity, Duration refillPeriod);
+}
@@ -0,0 +1,45 @@
+package com.ntdoc.notangdoccore.repository;
+
+import com.ntdoc.notangdoccore.entity.ChangeFeedEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 变更流水数据访问层
+ */
+public interface ChangeFeedRepository extends JpaRepository<ChangeFeedEntry, Long> {
+
+    /**
+     * 为用户预留 count 个序号；UPDATE 持有 app_user 行锁直到事务结束，
+     * 同一用户的写事务按序号顺序提交，读取方不会跳过晚提交的小序号；
+     * change_seq 未映射到 User 实体，声明查询空间为 change_feed，避免原生 UPDATE 清空全部二级缓存
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_feed"))
+    @Query(value = "UPDATE app_user SET change_seq = change_seq + :count WHERE kc_user_id = :kcUserId", nativeQuery = true)
+    int reserveSequence(@Param("kcUserId") String kcUserId, @Param("count") int count);
+
+    @Query(value = "SELECT change_seq FROM app_user WHERE kc_user_id = :kcUserId", nativeQuery = true)
+    Long findCurrentSequence(@Param("kcUserId") String kcUserId);
+
+    List<ChangeFeedEntry> findByKcUserIdAndSeqGreaterThanOrderBySeqAsc(String kcUserId, Long seq, Pageable pageable);
+
+    @Query("SELECT MIN(c.seq) FROM ChangeFeedEntry c WHERE c.kcUserId = :kcUserId")
+    Long findMinSequence(@Param("kcUserId") String kcUserId);
+
+    /**
+     * 清理过期流水
+     */
+    @Modifying
+    @Query("DELETE FROM ChangeFeedEntry c WHERE c.createdAt < :before")
+    int deleteByCreatedAtBefore(@Param("before") Instant before);
+}
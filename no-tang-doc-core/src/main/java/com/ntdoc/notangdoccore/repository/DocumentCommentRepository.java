@@ -4,6 +4,7 @@ import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.DocumentComment;
 import com.ntdoc.notangdoccore.entity.Team;
 import com.ntdoc.notangdoccore.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -20,6 +21,7 @@ public interface DocumentCommentRepository extends JpaRepository<DocumentComment
     /**
      * 查询指定文档的所有活跃评论
      */
+    @EntityGraph(attributePaths = {"document", "user", "team", "parentComment"})
     List<DocumentComment> findByDocumentAndStatusOrderByCreatedAtDesc(
             Document document,
             DocumentComment.CommentStatus status
@@ -28,6 +30,7 @@ public interface DocumentCommentRepository extends JpaRepository<DocumentComment
     /**
      * 查询指定文档和团队的所有活跃评论
      */
+    @EntityGraph(attributePaths = {"document", "user", "team", "parentComment"})
     List<DocumentComment> findByDocumentAndTeamAndStatusOrderByCreatedAtDesc(
             Document document,
             Team team,
@@ -37,6 +40,7 @@ public interface DocumentCommentRepository extends JpaRepository<DocumentComment
     /**
      * 查询用户在指定文档下的所有评论
      */
+    @EntityGraph(attributePaths = {"document", "user", "team", "parentComment"})
     List<DocumentComment> findByDocumentAndUserOrderByCreatedAtDesc(
             Document document,
             User user
@@ -54,6 +58,7 @@ public interface DocumentCommentRepository extends JpaRepository<DocumentComment
     /**
      * 查询指定父评论的所有回复
      */
+    @EntityGraph(attributePaths = {"document", "user", "team", "parentComment"})
     List<DocumentComment> findByParentCommentAndStatusOrderByCreatedAtAsc(
             DocumentComment parentComment,
             DocumentComment.CommentStatus status
@@ -2,11 +2,16 @@ package com.ntdoc.notangdoccore.repository;
 
 import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,6 +42,7 @@ public interface DocumentRepository extends JpaRepository<Document, Long>, JpaSp
     /**
      * 根据原始文件名查找文件（模糊匹配、不区分大小写）
      */
+    @EntityGraph(attributePaths = "tags")
     List<Document> findByUploadedByAndOriginalFilenameContainingIgnoreCaseOrderByCreatedAtDesc(User uploadedBy, String partialFilename);
 
     /**
@@ -63,6 +69,64 @@ public interface DocumentRepository extends JpaRepository<Document, Long>, JpaSp
     /**
      * 查找用户最近上传的文档
      */
-    @Query("SELECT d FROM Document d WHERE d.uploadedBy = :user AND d.status = 'ACTIVE' ORDER BY d.createdAt DESC")
+    @Query("SELECT DISTINCT d FROM Document d LEFT JOIN FETCH d.tags WHERE d.uploadedBy = :user AND d.status = 'ACTIVE' ORDER BY d.createdAt DESC")
     List<Document> findRecentDocumentsByUser(@Param("user") User user);
+
+    /**
+     * 按条件过滤文档（filter / 元数据查询），同时抓取标签
+     */
+    @Override
+    @EntityGraph(attributePaths = "tags")
+    List<Document> findAll(Specification<Document> spec);
+
+    /**
+     * 查找用户全部文档ID（标签位图索引加载用）
+     */
+    @Query("SELECT d.id FROM Document d WHERE d.uploadedBy.kcUserId = :kcUserId")
+    List<Long> findIdsByUploaderKcUserId(@Param("kcUserId") String kcUserId);
+
+    /**
+     * 查找用户文档的 (标签名, 文档ID) 对（标签位图索引加载用）
+     */
+    @Query("SELECT t.tag, d.id FROM Document d JOIN d.tags t WHERE d.uploadedBy.kcUserId = :kcUserId")
+    List<Object[]> findTagDocumentPairsByUploaderKcUserId(@Param("kcUserId") String kcUserId);
+
+    /**
+     * 按ID游标分页读取 (文档ID, s3Key)（孤儿对象对账构建布隆过滤器用）
+     */
+    @Query("SELECT d.id, d.s3Key FROM Document d WHERE d.id > :afterId ORDER BY d.id")
+    List<Object[]> findS3KeysAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 返回给定键中仍被文档引用的键
+     */
+    @Query("SELECT d.s3Key FROM Document d WHERE d.s3Key IN :keys")
+    List<String> findExistingS3Keys(@Param("keys") Collection<String> keys);
+
+    /**
+     * 写入衍生图生成结果；文档已删除时返回 0
+     */
+    @Modifying
+    @Query("UPDATE Document d SET d.thumbnailKey = :thumbnailKey, d.previewKey = :previewKey, " +
+            "d.renditionStatus = :status WHERE d.id = :id")
+    int updateRendition(@Param("id") Long id,
+                        @Param("thumbnailKey") String thumbnailKey,
+                        @Param("previewKey") String previewKey,
+                        @Param("status") Document.RenditionStatus status);
+
+    /**
+     * 按下载次数倒序读取热点文档的 s3Key（内容缓存预热用）
+     */
+    @Query("SELECT d.s3Key FROM Document d WHERE d.status = 'ACTIVE' AND d.downloadCount >= :minDownloads " +
+            "ORDER BY d.downloadCount DESC")
+    List<String> findHotS3Keys(@Param("minDownloads") int minDownloads, Pageable pageable);
+
+    /**
+     * 按ID批量加载文档及其标签
+     */
+    @Query("SELECT DISTINCT d FROM Document d " +
+            "LEFT JOIN FETCH d.tags " +
+            "WHERE d.id IN :ids " +
+            "ORDER BY d.createdAt DESC")
+    List<Document> findWithTagsByIdIn(@Param("ids") Collection<Long> ids);
 }
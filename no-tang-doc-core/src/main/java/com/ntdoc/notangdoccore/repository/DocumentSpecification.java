@@ -2,11 +2,16 @@ package com.ntdoc.notangdoccore.repository;
 
 import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.User;
+import jakarta.persistence.criteria.*;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.Instant;
+import java.util.function.BiFunction;
 
 public class DocumentSpecification {
+    // 十进制数（可带符号、小数与指数），H2 与 MySQL 8 的 REGEXP_LIKE 均支持该语法
+    private static final String NUMERIC_PATTERN = "^[-+]?([0-9]+([.][0-9]*)?|[.][0-9]+)([eE][-+]?[0-9]+)?$";
+
     public static Specification<Document> uploadedBy(User user) {
         return (root, query, cb) -> cb.equal(root.get("uploadedBy"), user);
     }
@@ -23,4 +28,45 @@ public class DocumentSpecification {
         return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("createdAt"), end);
     }
 
+    // 元数据谓词均以 EXISTS 子查询实现，命中 document_metadata(meta_key, meta_value, document_id) 索引
+    public static Specification<Document> metadataEquals(String key, String value) {
+        return metadataExists(key, (m, cb) -> cb.equal(m.value(), value));
+    }
+
+    public static Specification<Document> metadataStartsWith(String key, String prefix) {
+        String pattern = prefix.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+        return metadataExists(key, (m, cb) -> cb.like(m.value(), pattern, '\\'));
+    }
+
+    /**
+     * 数值范围（闭区间），min/max 为 null 表示不限；该键下的非数值值不参与比较
+     * 先用正则判断再 CAST：H2 对非数值报转换错误，MySQL 则静默转为 0（会误中 min<=0 的范围）
+     */
+    public static Specification<Document> metadataBetween(String key, Double min, Double max) {
+        return metadataExists(key, (m, cb) -> {
+            Expression<Double> numeric = cb.<Double>selectCase()
+                    .when(cb.isTrue(cb.function("regexp_like", Boolean.class, m.value(), cb.literal(NUMERIC_PATTERN))),
+                            m.value().as(Double.class))
+                    .otherwise(cb.nullLiteral(Double.class));
+            if (min != null && max != null) {
+                return cb.between(numeric, min, max);
+            }
+            return min != null ? cb.greaterThanOrEqualTo(numeric, min) : cb.lessThanOrEqualTo(numeric, max);
+        });
+    }
+
+    private static Specification<Document> metadataExists(
+            String key,
+            BiFunction<MapJoin<Document, String, String>, CriteriaBuilder, Predicate> valuePredicate) {
+        return (root, query, cb) -> {
+            Subquery<Long> sub = query.subquery(Long.class);
+            Root<Document> correlated = sub.correlate(root);
+            MapJoin<Document, String, String> m = correlated.joinMap("metadata");
+            sub.select(cb.literal(1L))
+                    .where(cb.equal(m.key(), key), valuePredicate.apply(m, cb));
+            return cb.exists(sub);
+        };
+    }
 }
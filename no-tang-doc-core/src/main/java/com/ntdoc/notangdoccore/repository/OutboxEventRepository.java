@@ -0,0 +1,37 @@
+package com.ntdoc.notangdoccore.repository;
+
+import com.ntdoc.notangdoccore.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 事务外发事件数据访问层
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * 锁定一批到期事件；lock.timeout=-2 即 SKIP LOCKED，多实例中继互不阻塞
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = :status AND e.availableAt <= :now ORDER BY e.id")
+    List<OutboxEvent> findDueForUpdate(@Param("status") OutboxEvent.Status status,
+                                       @Param("now") Instant now,
+                                       Pageable pageable);
+
+    /**
+     * 清理已处理完成的历史事件
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = :status AND e.processedAt < :before")
+    int deleteByStatusAndProcessedAtBefore(@Param("status") OutboxEvent.Status status,
+                                           @Param("before") Instant before);
+
+    long countByStatus(OutboxEvent.Status status);
+}
@@ -2,9 +2,12 @@ package com.ntdoc.notangdoccore.repository;
 
 import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.Tag;
+import jakarta.persistence.QueryHint;
 import lombok.Data;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,8 +16,13 @@ import java.util.Optional;
 
 @Repository
 public interface TagRepository extends JpaRepository<Tag,Long> {
+   /**
+    * 结果进入查询缓存，tags 表有写入时整体失效
+    */
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
    Optional<Tag> findByTag(String tag);
 
-   @Query("SELECT d FROM Tag t JOIN t.documents d WHERE t.tag = :tagName AND d.uploadedBy.kcUserId = :userId")
+   @Query("SELECT DISTINCT d FROM Document d JOIN d.tags t LEFT JOIN FETCH d.tags " +
+           "WHERE t.tag = :tagName AND d.uploadedBy.kcUserId = :userId")
    List<Document> findDocumentsByTagName(@Param("tagName") String tagName, @Param("userId") String kcUserId);
 }
@@ -3,6 +3,7 @@ package com.ntdoc.notangdoccore.repository;
 import com.ntdoc.notangdoccore.entity.Team;
 import com.ntdoc.notangdoccore.entity.TeamMember;
 import com.ntdoc.notangdoccore.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,16 +19,19 @@ public interface TeamMemberRepository extends JpaRepository<TeamMember, Long> {
     /**
      * 根据团队查找所有成员
      */
+    @EntityGraph(attributePaths = {"team", "user"})
     List<TeamMember> findByTeamOrderByJoinedAtAsc(Team team);
 
     /**
      * 根据团队和状态查找成员
      */
+    @EntityGraph(attributePaths = {"team", "user"})
     List<TeamMember> findByTeamAndStatus(Team team, TeamMember.MemberStatus status);
 
     /**
      * 根据用户查找所有团队成员关系
      */
+    @EntityGraph(attributePaths = {"team", "user"})
     List<TeamMember> findByUserOrderByJoinedAtDesc(User user);
 
     /**
@@ -48,6 +52,7 @@ public interface TeamMemberRepository extends JpaRepository<TeamMember, Long> {
     /**
      * 根据团队和角色查找成员
      */
+    @EntityGraph(attributePaths = {"team", "user"})
     List<TeamMember> findByTeamAndRole(Team team, TeamMember.TeamRole role);
 
     /**
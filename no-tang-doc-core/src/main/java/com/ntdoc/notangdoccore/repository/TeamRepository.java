@@ -2,6 +2,7 @@ package com.ntdoc.notangdoccore.repository;
 
 import com.ntdoc.notangdoccore.entity.Team;
 import com.ntdoc.notangdoccore.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,11 +18,13 @@ public interface TeamRepository extends JpaRepository<Team, Long> {
     /**
      * 根据拥有者查找所有团队
      */
+    @EntityGraph(attributePaths = "owner")
     List<Team> findByOwnerOrderByCreatedAtDesc(User owner);
 
     /**
      * 根据拥有者和状态查找团队
      */
+    @EntityGraph(attributePaths = "owner")
     List<Team> findByOwnerAndStatusOrderByCreatedAtDesc(User owner, Team.TeamStatus status);
 
     /**
@@ -37,6 +40,7 @@ public interface TeamRepository extends JpaRepository<Team, Long> {
     /**
      * 查找活跃团队
      */
+    @EntityGraph(attributePaths = "owner")
     @Query("SELECT t FROM Team t WHERE t.status = 'ACTIVE' ORDER BY t.createdAt DESC")
     List<Team> findAllActiveTeams();
 }
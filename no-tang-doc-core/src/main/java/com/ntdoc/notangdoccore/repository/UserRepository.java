@@ -1,13 +1,20 @@
 package com.ntdoc.notangdoccore.repository;
 
 import com.ntdoc.notangdoccore.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
+    /**
+     * 几乎每个请求都按令牌 sub 查找用户：结果进入查询缓存，app_user 表有写入时整体失效
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByKcUserId(String kcUserId);
 
     Optional<User> findByEmail(String email);
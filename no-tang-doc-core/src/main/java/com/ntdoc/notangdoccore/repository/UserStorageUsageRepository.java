@@ -0,0 +1,56 @@
+package com.ntdoc.notangdoccore.repository;
+
+import com.ntdoc.notangdoccore.entity.UserStorageUsage;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 存储用量数据访问层
+ * 增减均为相对更新（col = col + :delta），并发写事务在行锁上串行，不会丢失更新
+ */
+public interface UserStorageUsageRepository extends JpaRepository<UserStorageUsage, Long> {
+
+    /**
+     * 增加用量；enforce 为 true 且超出配额时不更新并返回 0
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE UserStorageUsage u SET u.usedBytes = u.usedBytes + :bytes, " +
+            "u.storedBytes = u.storedBytes + :storedBytes, u.documentCount = u.documentCount + 1, " +
+            "u.updatedAt = instant " +
+            "WHERE u.userId = :userId " +
+            "AND (:enforce = false OR u.usedBytes + :bytes <= COALESCE(u.quotaBytes, :defaultQuota))")
+    int reserve(@Param("userId") Long userId, @Param("bytes") long bytes, @Param("storedBytes") long storedBytes,
+                @Param("enforce") boolean enforce, @Param("defaultQuota") long defaultQuota);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE UserStorageUsage u SET u.usedBytes = u.usedBytes - :bytes, " +
+            "u.storedBytes = u.storedBytes - :storedBytes, u.documentCount = u.documentCount - :count, " +
+            "u.updatedAt = instant WHERE u.userId = :userId")
+    int release(@Param("userId") Long userId, @Param("bytes") long bytes, @Param("storedBytes") long storedBytes,
+                @Param("count") long count);
+
+    /**
+     * 修复时锁定汇总行，期间上传/删除的相对更新等待本事务提交
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM UserStorageUsage u WHERE u.userId = :userId")
+    Optional<UserStorageUsage> findForUpdate(@Param("userId") Long userId);
+
+    /**
+     * 从 document 表重新统计：[used_bytes, stored_bytes, document_count]
+     */
+    @Query("SELECT COALESCE(SUM(d.fileSize), 0), COALESCE(SUM(COALESCE(d.storedSize, d.fileSize)), 0), COUNT(d) " +
+            "FROM Document d WHERE d.uploadedBy.id = :userId")
+    List<Object[]> sumDocuments(@Param("userId") Long userId);
+
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findUserIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
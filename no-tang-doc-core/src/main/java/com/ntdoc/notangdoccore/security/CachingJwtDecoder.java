@@ -0,0 +1,125 @@
+package com.ntdoc.notangdoccore.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带已验证令牌缓存的 JwtDecoder
+ * 同一令牌在有效期内会随每个请求重复出现，验签（RSA）与声明校验只在首次出现时执行；
+ * 缓存以令牌的 SHA-256 为键，条目在令牌 exp 时过期，之后的请求重新走完整校验
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+    private static final String METRIC = "security.jwt.decode";
+
+    private final JwtDecoder delegate;
+    private final Cache<String, Jwt> verified;
+    private final Clock clock;
+    private final Timer cachedTimer;
+    private final Timer verifiedTimer;
+    private final Timer rejectedTimer;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maxEntries, Duration maxTtl, MeterRegistry meterRegistry) {
+        this(delegate, maxEntries, maxTtl, meterRegistry, Clock.systemUTC());
+    }
+
+    CachingJwtDecoder(JwtDecoder delegate, long maxEntries, Duration maxTtl, MeterRegistry meterRegistry, Clock clock) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new UntilExpiry(maxTtl, clock))
+                .ticker(() -> clock.millis() * 1_000_000L)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "security.jwt.tokens");
+        this.cachedTimer = timer(meterRegistry, "cached");
+        this.verifiedTimer = timer(meterRegistry, "verified");
+        this.rejectedTimer = timer(meterRegistry, "rejected");
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long start = System.nanoTime();
+        String key = hash(token);
+        Jwt cached = verified.getIfPresent(key);
+        if (cached != null) {
+            cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
+        Jwt jwt;
+        try {
+            jwt = delegate.decode(token);
+        } catch (JwtException e) {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        // 没有 exp 的令牌不缓存，每次都完整校验
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(clock.instant())) {
+            verified.put(key, jwt);
+        }
+        verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return jwt;
+    }
+
+    long cachedTokens() {
+        verified.cleanUp();
+        return verified.estimatedSize();
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder(METRIC)
+                .description("JWT 解码耗时：cached 命中已验证缓存，verified 完整验签，rejected 校验失败")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * 条目存活到令牌 exp，且不超过 maxTtl（限制撤销后仍被接受的最长时间）
+     */
+    private record UntilExpiry(Duration maxTtl, Clock clock) implements Expiry<String, Jwt> {
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            Instant expiresAt = jwt.getExpiresAt();
+            Duration remaining = expiresAt == null ? Duration.ZERO : Duration.between(clock.instant(), expiresAt);
+            if (remaining.isNegative()) {
+                return 0;
+            }
+            return (remaining.compareTo(maxTtl) < 0 ? remaining : maxTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
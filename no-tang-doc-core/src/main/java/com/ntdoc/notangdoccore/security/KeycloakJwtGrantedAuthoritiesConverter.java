@@ -1,4 +1,6 @@
 package com.ntdoc.notangdoccore.security;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -12,61 +14,100 @@ import java.util.stream.Collectors;
  * - realm roles => ROLE_<role>
  * - client roles (resource_access[clientId].roles) => ROLE_<role>
  * - scopes (scope claim, space separated; or scp array) => SCOPE_<scope>
+ * Results are cached by the raw role/scope claim values: tokens carrying the same roles share one
+ * immutable authority set instead of rebuilding it on every request.
  */
 public class KeycloakJwtGrantedAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
 
+    private static final long DEFAULT_MAX_ENTRIES = 1_024;
+
     private final String clientId;
+    private final Cache<ClaimKey, Set<GrantedAuthority>> authoritySets;
 
     public KeycloakJwtGrantedAuthoritiesConverter(String clientId) {
+        this(clientId, DEFAULT_MAX_ENTRIES);
+    }
+
+    public KeycloakJwtGrantedAuthoritiesConverter(String clientId, long maxEntries) {
         this.clientId = clientId;
+        this.authoritySets = Caffeine.newBuilder().maximumSize(maxEntries).build();
     }
 
     @Override
     public Collection<GrantedAuthority> convert(Jwt jwt) {
-        Set<String> roleNames = new HashSet<>();
-
-        // realm_access.roles
+        Object realmRoles = null;
         Object realmAccess = jwt.getClaims().get("realm_access");
         if (realmAccess instanceof Map<?,?> realmMap) {
-            Object roles = realmMap.get("roles");
-            if (roles instanceof Collection<?> coll) {
-                coll.forEach(r -> roleNames.add(String.valueOf(r)));
-            }
+            realmRoles = realmMap.get("roles");
         }
 
-        // resource_access[clientId].roles
+        Object clientRoles = null;
         Object resourceAccess = jwt.getClaims().get("resource_access");
-        if (resourceAccess instanceof Map<?,?> resMap) {
-            Object clientObj = resMap.get(clientId);
-            if (clientObj instanceof Map<?,?> clientMap) {
-                Object roles = clientMap.get("roles");
-                if (roles instanceof Collection<?> coll) {
-                    coll.forEach(r -> roleNames.add(String.valueOf(r)));
-                }
-            }
+        if (resourceAccess instanceof Map<?,?> resMap && resMap.get(clientId) instanceof Map<?,?> clientMap) {
+            clientRoles = clientMap.get("roles");
         }
 
-        // scopes (space separated)
-        Set<String> scopes = new HashSet<>();
-        Object scopeClaim = jwt.getClaims().get("scope");
-        if (scopeClaim instanceof String scopeStr) {
-            scopes.addAll(Arrays.stream(scopeStr.split(" ")).filter(s -> !s.isBlank()).collect(Collectors.toSet()));
+        ClaimKey key = new ClaimKey(realmRoles, clientRoles, jwt.getClaims().get("scope"), jwt.getClaims().get("scp"));
+        Set<GrantedAuthority> cached = authoritySets.getIfPresent(key);
+        if (cached != null) {
+            return cached;
         }
-        Object scpClaim = jwt.getClaims().get("scp"); // some providers use 'scp' array
-        if (scpClaim instanceof Collection<?> coll) {
-            coll.forEach(s -> scopes.add(String.valueOf(s)));
+        // Store an immutable copy of the claim values so the key never aliases a caller-owned collection
+        ClaimKey stored = key.copy();
+        return authoritySets.get(stored, ClaimKey::toAuthorities);
+    }
+
+    long cachedSets() {
+        authoritySets.cleanUp();
+        return authoritySets.estimatedSize();
+    }
+
+    /**
+     * Claim values that determine the authority set; each is a JSON array (List) or a string, compared by content
+     */
+    private record ClaimKey(Object realmRoles, Object clientRoles, Object scope, Object scp) {
+
+        ClaimKey copy() {
+            return new ClaimKey(immutable(realmRoles), immutable(clientRoles), immutable(scope), immutable(scp));
         }
 
-        // Build authorities
-        Set<GrantedAuthority> authorities = new HashSet<>();
-        roleNames.stream()
-                .filter(r -> !r.isBlank())
-                .forEach(r -> authorities.add(new SimpleGrantedAuthority("ROLE_" + r)));
+        Set<GrantedAuthority> toAuthorities() {
+            Set<String> roleNames = new HashSet<>();
+            // realm_access.roles, resource_access[clientId].roles
+            addAll(realmRoles, roleNames);
+            addAll(clientRoles, roleNames);
 
-        scopes.stream()
-                .filter(s -> !s.isBlank())
-                .forEach(s -> authorities.add(new SimpleGrantedAuthority("SCOPE_" + s)));
+            // scopes (space separated)
+            Set<String> scopes = new HashSet<>();
+            if (scope instanceof String scopeStr) {
+                scopes.addAll(Arrays.stream(scopeStr.split(" ")).filter(s -> !s.isBlank()).collect(Collectors.toSet()));
+            }
+            addAll(scp, scopes); // some providers use 'scp' array
+
+            // Build authorities
+            Set<GrantedAuthority> authorities = new HashSet<>();
+            roleNames.stream()
+                    .filter(r -> !r.isBlank())
+                    .forEach(r -> authorities.add(new SimpleGrantedAuthority("ROLE_" + r)));
+
+            scopes.stream()
+                    .filter(s -> !s.isBlank())
+                    .forEach(s -> authorities.add(new SimpleGrantedAuthority("SCOPE_" + s)));
+
+            return Set.copyOf(authorities);
+        }
 
-        return authorities;
+        private static void addAll(Object claim, Set<String> target) {
+            if (claim instanceof Collection<?> coll) {
+                coll.forEach(value -> target.add(String.valueOf(value)));
+            }
+        }
+
+        private static Object immutable(Object claim) {
+            if (claim instanceof Collection<?> coll) {
+                return coll.stream().map(String::valueOf).toList();
+            }
+            return claim instanceof String ? claim : null;
+        }
     }
-}
\ No newline at end of file
+}
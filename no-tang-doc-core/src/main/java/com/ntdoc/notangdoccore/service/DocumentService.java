@@ -1,8 +1,11 @@
 package com.ntdoc.notangdoccore.service;
 
+import com.ntdoc.notangdoccore.dto.document.BulkDeleteResponse;
 import com.ntdoc.notangdoccore.dto.document.DocumentDownloadResponse;
 import com.ntdoc.notangdoccore.dto.document.DocumentUploadResponse;
+import com.ntdoc.notangdoccore.dto.document.MetadataQueryRequest;
 import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.exception.DocumentException;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.Instant;
@@ -41,6 +44,16 @@ public interface DocumentService {
      */
     void deleteDocument(Long documentId, String kcUserId);
 
+    /**
+     * 批量删除文档
+     * 数据库记录在同一事务内按集合删除，存储对象在提交后异步批量清理
+     *
+     * @param documentIds 文档ID列表
+     * @param kcUserId 当前用户ID（用于权限验证）
+     * @return 逐个文档的删除结果
+     */
+    BulkDeleteResponse deleteDocuments(List<Long> documentIds, String kcUserId);
+
     /**
      * 获取用户的所有文档
      *
@@ -64,6 +77,7 @@ public interface DocumentService {
      * @param documentId 文档ID
      * @param kcUserId 当前用户ID（用于权限验证）
      * @return 文档实体
+     * @throws DocumentException.DocumentNotFoundException 文档不存在或已删除
      */
     Document getDocumentById(Long documentId, String kcUserId);
 
@@ -94,4 +108,13 @@ public interface DocumentService {
      */
     List<Document> filterDocuments(String kcUserId, String contentType, Instant start, Instant end);
 
+    /**
+     * 根据元数据谓词查询文档，可与文件类型、上传日期过滤组合
+     *
+     * @param kcUserId 当前用户ID
+     * @param request 元数据谓词（AND）及可选的文件类型、上传日期
+     * @return 符合条件的文档列表
+     */
+    List<Document> queryByMetadata(String kcUserId, MetadataQueryRequest request);
+
 }
@@ -1,9 +1,14 @@
 package com.ntdoc.notangdoccore.service;
 
+import com.ntdoc.notangdoccore.service.storage.StoredObjectInfo;
+import com.ntdoc.notangdoccore.service.storage.StoredUpload;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.net.URL;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * 文件存储服务接口
@@ -20,6 +25,24 @@ public interface FileStorageService {
      */
     String uploadFile(MultipartFile file, String kcUserId);
 
+    /**
+     * 上传文件，可压缩类型按存储编码压缩后写入
+     *
+     * @param file 要上传的文件
+     * @param kcUserId Keycloak 用户ID
+     * @return 对象键、存储编码与实际存储大小
+     */
+    StoredUpload storeFile(MultipartFile file, String kcUserId);
+
+    /**
+     * 按指定键写入内存中的内容（缩略图等衍生对象）
+     *
+     * @param s3Key 文件的S3键
+     * @param content 文件内容
+     * @param contentType 文件类型
+     */
+    void uploadBytes(String s3Key, byte[] content, String contentType);
+
     /**
      * 生成文件下载的预签名URL
      *
@@ -57,6 +80,32 @@ public interface FileStorageService {
      */
     boolean deleteFile(String s3Key);
 
+    /**
+     * 批量删除文件（S3 DeleteObjects，每批最多1000个键）
+     *
+     * @param s3Keys 文件的S3键
+     * @return 删除失败的键及错误信息，全部成功时为空
+     */
+    Map<String, String> deleteFiles(Collection<String> s3Keys);
+
+    /**
+     * 读取文件元数据（ETag、长度、类型）
+     *
+     * @param s3Key 文件的S3键
+     * @return 文件元数据
+     */
+    StoredObjectInfo getObjectInfo(String s3Key);
+
+    /**
+     * 打开文件内容流（存储字节，压缩对象不解压），不在内存中缓冲整个对象；调用方负责关闭
+     *
+     * @param s3Key 文件的S3键
+     * @param start 起始字节（含），为 null 时读取整个对象
+     * @param end 结束字节（含），为 null 时读到末尾
+     * @return 文件内容流
+     */
+    InputStream openStream(String s3Key, Long start, Long end);
+
     /**
      * 检查文件是否存在
      *
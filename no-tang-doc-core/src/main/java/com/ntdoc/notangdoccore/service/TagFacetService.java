@@ -0,0 +1,24 @@
+package com.ntdoc.notangdoccore.service;
+
+import com.ntdoc.notangdoccore.dto.document.TagFacetResponse;
+import com.ntdoc.notangdoccore.entity.Document;
+
+import java.util.List;
+
+/**
+ * 多标签布尔过滤与标签分面统计
+ */
+public interface TagFacetService {
+    /**
+     * 按标签组合过滤用户文档
+     * @param all  必须同时包含的标签（AND）
+     * @param any  至少包含其一的标签（OR），为空时不限制
+     * @param none 不能包含的标签（NOT）
+     */
+    List<Document> findDocumentsByTags(String kcUserId, List<String> all, List<String> any, List<String> none);
+
+    /**
+     * 统计过滤结果中每个标签出现的文档数
+     */
+    TagFacetResponse getTagFacets(String kcUserId, List<String> all, List<String> any, List<String> none);
+}
@@ -0,0 +1,38 @@
+package com.ntdoc.notangdoccore.service.cache;
+
+import java.io.*;
+
+/**
+ * 缓存失效消息：来源实例 + 缓存名 + 键
+ * 只说明「哪个键失效了」，不携带数据；接收方丢弃本地副本，下次访问时重新加载
+ */
+public record CacheInvalidation(String origin, String cache, String key) {
+    private static final byte VERSION = 1;
+
+    /**
+     * 紧凑的二进制编码（版本号 + 三个 UTF 字符串），用于网络传输
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + key.length());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(origin);
+            out.writeUTF(cache);
+            out.writeUTF(key);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException 格式或版本不符
+     */
+    public static CacheInvalidation decode(byte[] data, int offset, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length));
+        if (in.readByte() != VERSION) {
+            throw new IOException("Unsupported cache invalidation message version");
+        }
+        return new CacheInvalidation(in.readUTF(), in.readUTF(), in.readUTF());
+    }
+}
@@ -0,0 +1,18 @@
+package com.ntdoc.notangdoccore.service.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * 缓存失效消息的跨实例广播
+ * 实现负责把消息送到所有实例（可以包括发送方自己，由 {@link CacheInvalidationService} 按来源过滤）；
+ * 默认的 {@link LoopbackCacheInvalidationBus} 只在进程内分发，多副本部署时设置 ntdoc.cache.invalidation.bus=udp
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * 发送消息；尽力而为，失败时不抛出异常，由各缓存的过期时间兜底
+     */
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> receiver);
+}
@@ -0,0 +1,83 @@
+package com.ntdoc.notangdoccore.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 跨实例缓存失效
+ * 各进程内缓存按名称注册失效处理器；本实例写入后（事务提交后）调用 publish 通知其他实例，
+ * 其他实例收到后调用对应处理器丢弃本地副本。自己发出的消息被忽略，本地缓存由写入路径自行维护。
+ * 指标 cache.invalidation.messages{direction=sent|received|ignored, cache}
+ */
+@Slf4j
+@Component
+public class CacheInvalidationService {
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CacheInvalidationBus bus;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Consumer<String>> handlers = new ConcurrentHashMap<>();
+
+    public CacheInvalidationService(CacheInvalidationBus bus, MeterRegistry meterRegistry) {
+        this.bus = bus;
+        this.meterRegistry = meterRegistry;
+        bus.subscribe(this::receive);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 注册缓存的失效处理器，同名缓存只保留最后注册的一个
+     */
+    public void register(String cache, Consumer<String> handler) {
+        handlers.put(cache, handler);
+    }
+
+    /**
+     * 通知其他实例 cache 中的 key 已失效；应在写事务提交后调用，否则其他实例可能重新加载到旧数据
+     */
+    public void publish(String cache, Object key) {
+        if (key == null) {
+            return;
+        }
+        try {
+            bus.publish(new CacheInvalidation(nodeId, cache, key.toString()));
+            count("sent", cache);
+        } catch (RuntimeException e) {
+            // 写入已提交，广播失败只影响其他实例的新鲜度（由缓存过期时间兜底），不向调用方抛出
+            log.warn("Failed to publish cache invalidation {} {}: {}", cache, key, e.getMessage());
+        }
+    }
+
+    void receive(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        Consumer<String> handler = handlers.get(invalidation.cache());
+        if (handler == null) {
+            // 本实例尚未创建该缓存（例如延迟初始化），没有需要丢弃的副本
+            count("ignored", invalidation.cache());
+            return;
+        }
+        handler.accept(invalidation.key());
+        count("received", invalidation.cache());
+        log.debug("Cache invalidated by {}: {} {}", invalidation.origin(), invalidation.cache(), invalidation.key());
+    }
+
+    private void count(String direction, String cache) {
+        Counter.builder("cache.invalidation.messages")
+                .tag("direction", direction)
+                .tag("cache", cache)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,102 @@
+package com.ntdoc.notangdoccore.service.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate 二级缓存的跨实例失效
+ * 可缓存实体（Team、Tag、User）的增删改在事务提交后广播 实体名#id；其他实例丢弃该实体的缓存，
+ * 并清空查询缓存（例如新建用户后，其他实例缓存的 findByKcUserId 空结果）。
+ * 通过 hibernate.integrator_provider 在 SessionFactory 构建时注册，见 EntityCacheConfig
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EntityCacheInvalidation implements Integrator, PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+    public static final String CACHE = "entity";
+
+    private final CacheInvalidationService invalidationService;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        if (!sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            return;
+        }
+        EventListenerRegistry listeners = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        invalidationService.register(CACHE, key -> evict(sessionFactory, key));
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    // 事务回滚时本实例与其他实例的缓存都未改变，无需广播
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private void publish(EntityPersister persister, Object id) {
+        if (persister.canWriteToCache()) {
+            invalidationService.publish(CACHE, persister.getEntityName() + "#" + id);
+        }
+    }
+
+    private static void evict(SessionFactoryImplementor sessionFactory, String key) {
+        int separator = key.lastIndexOf('#');
+        if (separator < 0) {
+            return;
+        }
+        String entityName = key.substring(0, separator);
+        EntityPersister persister = sessionFactory.getMappingMetamodel().findEntityDescriptor(entityName);
+        if (persister == null) {
+            log.debug("Ignoring invalidation for unknown entity {}", entityName);
+            return;
+        }
+        Object id = DefaultConversionService.getSharedInstance()
+                .convert(key.substring(separator + 1), persister.getIdentifierType().getReturnedClass());
+        sessionFactory.getCache().evictEntityData(entityName, id);
+        sessionFactory.getCache().evictDefaultQueryRegion();
+    }
+}
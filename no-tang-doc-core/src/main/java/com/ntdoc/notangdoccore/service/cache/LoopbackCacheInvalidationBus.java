@@ -0,0 +1,31 @@
+package com.ntdoc.notangdoccore.service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 进程内分发，适用于单实例部署与测试：同一个总线上的多个 {@link CacheInvalidationService} 相当于多个实例
+ */
+@Slf4j
+public class LoopbackCacheInvalidationBus implements CacheInvalidationBus {
+    private final List<Consumer<CacheInvalidation>> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        for (Consumer<CacheInvalidation> receiver : receivers) {
+            try {
+                receiver.accept(invalidation);
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation receiver failed for {}: {}", invalidation, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> receiver) {
+        receivers.add(receiver);
+    }
+}
@@ -0,0 +1,115 @@
+package com.ntdoc.notangdoccore.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 列表资源版本号，用于生成弱 ETag 并在不访问数据库的情况下应答 If-None-Match
+ * 写操作调用 bump 递增版本；版本只保存在本实例内存中，写入后超过 max-staleness 自动换新。
+ * 提交后经 {@link CacheInvalidationService} 通知其他实例丢弃该版本，消息丢失时最多延迟 max-staleness 可见
+ */
+@Slf4j
+@Component
+public class ResourceVersionService {
+
+    public enum Scope {
+        // 按 kcUserId：用户的文档列表
+        DOCUMENTS("d"),
+        // 按 kcUserId：用户的操作日志
+        LOGS("l"),
+        // 按拥有者 kcUserId：团队列表
+        TEAMS("t"),
+        // 按 documentId：文档评论
+        COMMENTS("c");
+
+        private final String prefix;
+
+        Scope(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    public static final String CACHE = "resource-version";
+
+    // id 统一为字符串，本地调用与失效消息得到相同的键
+    private record Key(Scope scope, String id) {
+        Key(Scope scope, Object id) {
+            this(scope, id.toString());
+        }
+
+        static Key parse(String value) {
+            int separator = value.indexOf(':');
+            return new Key(Scope.valueOf(value.substring(0, separator)), value.substring(separator + 1));
+        }
+
+        @Override
+        public String toString() {
+            return scope.name() + ":" + id;
+        }
+    }
+
+    private final Cache<Key, Long> versions;
+    private final CacheInvalidationService invalidationService;
+    // 随机起点：重启或不同实例生成的版本号不会与客户端持有的旧 ETag 相同
+    private final AtomicLong sequence = new AtomicLong(new SecureRandom().nextLong() >>> 16);
+
+    public ResourceVersionService(@Value("${ntdoc.http.etag.max-keys:100000}") long maxKeys,
+                                  @Value("${ntdoc.http.etag.max-staleness:PT10M}") Duration maxStaleness,
+                                  CacheInvalidationService invalidationService) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(maxStaleness)
+                .build();
+        this.invalidationService = invalidationService;
+        // 其他实例上的变更：丢弃本地版本，下次读取时换新
+        invalidationService.register(CACHE, key -> versions.invalidate(Key.parse(key)));
+    }
+
+    /**
+     * 当前版本对应的弱 ETag，例如 W/"d-2k5x9q"
+     * 必须在查询数据库之前获取，保证返回内容不早于 ETag 所代表的版本
+     *
+     * @return id 为空时返回 null，即不做条件请求
+     */
+    public String eTag(Scope scope, Object id) {
+        if (id == null) {
+            return null;
+        }
+        long version = versions.get(new Key(scope, id), key -> sequence.incrementAndGet());
+        return "W/\"" + scope.prefix + "-" + Long.toString(version, 36) + "\"";
+    }
+
+    /**
+     * 标记资源已变更：立即递增一次，事务提交后再递增一次，
+     * 避免提交前的并发读取把旧内容与新版本号一起缓存；提交后通知其他实例
+     */
+    public void bump(Scope scope, Object id) {
+        if (id == null) {
+            return;
+        }
+        Key key = new Key(scope, id);
+        Runnable apply = () -> versions.put(key, sequence.incrementAndGet());
+        apply.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                    invalidationService.publish(CACHE, key);
+                }
+            });
+        } else {
+            invalidationService.publish(CACHE, key);
+        }
+        log.debug("Resource version bumped: {} {}", scope, id);
+    }
+}
@@ -0,0 +1,200 @@
+package com.ntdoc.notangdoccore.service.cache;
+
+import com.ntdoc.notangdoccore.config.CacheInvalidationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 基于 UDP 单播的失效广播：向 peers（headless Service）解析出的每个实例各发一个报文
+ * 报文 = HMAC-SHA256(32 字节) + {@link CacheInvalidation#encode()}；丢包时由各缓存的过期时间兜底。
+ * 指标 cache.invalidation.udp.errors{reason=send|rejected|malformed}
+ */
+@Slf4j
+public class UdpCacheInvalidationBus implements CacheInvalidationBus, SmartLifecycle {
+    private static final String HMAC = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+    // 低于常见 MTU，避免 IP 分片
+    private static final int MAX_PACKET = 1400;
+
+    private final CacheInvalidationProperties.Udp properties;
+    private final SecretKeySpec key;
+    private final MeterRegistry meterRegistry;
+    private final List<Consumer<CacheInvalidation>> receivers = new CopyOnWriteArrayList<>();
+
+    private volatile DatagramSocket socket;
+    private volatile List<InetSocketAddress> peers = List.of();
+    private volatile long peersResolvedAt;
+
+    public UdpCacheInvalidationBus(CacheInvalidationProperties.Udp properties, MeterRegistry meterRegistry) {
+        if (properties.getSecret() == null || properties.getSecret().isBlank()) {
+            throw new IllegalStateException("ntdoc.cache.invalidation.udp.secret is required for the udp bus");
+        }
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        // 由配置的密钥派生专用密钥，配置可复用其他共享密钥而不直接暴露其原值
+        byte[] label = "ntdoc-cache-invalidation".getBytes(StandardCharsets.UTF_8);
+        this.key = new SecretKeySpec(hmac(new SecretKeySpec(properties.getSecret().getBytes(StandardCharsets.UTF_8), HMAC),
+                label, 0, label.length), HMAC);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        DatagramSocket current = socket;
+        if (current == null) {
+            return;
+        }
+        byte[] payload = invalidation.encode();
+        if (payload.length + MAC_LENGTH > MAX_PACKET) {
+            log.warn("Cache invalidation too large to send: {} {}", invalidation.cache(), payload.length);
+            error("send");
+            return;
+        }
+        byte[] packet = new byte[MAC_LENGTH + payload.length];
+        System.arraycopy(hmac(key, payload, 0, payload.length), 0, packet, 0, MAC_LENGTH);
+        System.arraycopy(payload, 0, packet, MAC_LENGTH, payload.length);
+        for (InetSocketAddress peer : peers()) {
+            try {
+                current.send(new DatagramPacket(packet, packet.length, peer));
+            } catch (IOException e) {
+                log.debug("Failed to send cache invalidation to {}: {}", peer, e.getMessage());
+                error("send");
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> receiver) {
+        receivers.add(receiver);
+    }
+
+    @Override
+    public synchronized void start() {
+        try {
+            socket = new DatagramSocket(properties.getPort());
+        } catch (SocketException e) {
+            throw new IllegalStateException("Cannot bind cache invalidation port " + properties.getPort(), e);
+        }
+        Thread receiverThread = new Thread(() -> receiveLoop(socket), "cache-invalidation-udp");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+        log.info("Cache invalidation bus listening on udp/{}, peers={}", properties.getPort(), properties.getPeers());
+    }
+
+    @Override
+    public synchronized void stop() {
+        DatagramSocket current = socket;
+        socket = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return socket != null;
+    }
+
+    int localPort() {
+        return socket.getLocalPort();
+    }
+
+    private void receiveLoop(DatagramSocket current) {
+        byte[] buffer = new byte[MAX_PACKET];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (!current.isClosed()) {
+            try {
+                packet.setLength(buffer.length);
+                current.receive(packet);
+            } catch (IOException e) {
+                // stop() 关闭 socket 时退出
+                continue;
+            }
+            deliver(packet.getData(), packet.getLength());
+        }
+    }
+
+    private void deliver(byte[] data, int length) {
+        if (length <= MAC_LENGTH) {
+            error("malformed");
+            return;
+        }
+        byte[] expected = hmac(key, data, MAC_LENGTH, length - MAC_LENGTH);
+        if (!MessageDigest.isEqual(expected, Arrays.copyOf(data, MAC_LENGTH))) {
+            error("rejected");
+            return;
+        }
+        CacheInvalidation invalidation;
+        try {
+            invalidation = CacheInvalidation.decode(data, MAC_LENGTH, length - MAC_LENGTH);
+        } catch (IOException e) {
+            error("malformed");
+            return;
+        }
+        for (Consumer<CacheInvalidation> receiver : receivers) {
+            try {
+                receiver.accept(invalidation);
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation receiver failed for {}: {}", invalidation, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 按 peer-refresh 间隔重新解析；解析失败时沿用上次结果
+     */
+    private List<InetSocketAddress> peers() {
+        long now = System.nanoTime();
+        if (peersResolvedAt != 0 && now - peersResolvedAt < properties.getPeerRefresh().toNanos()) {
+            return peers;
+        }
+        Set<InetSocketAddress> resolved = new LinkedHashSet<>();
+        for (String peer : properties.getPeers()) {
+            // host 或 host:port，未写端口时使用本实例的端口
+            URI uri = URI.create("udp://" + peer);
+            int port = uri.getPort() > 0 ? uri.getPort() : properties.getPort();
+            try {
+                for (InetAddress address : InetAddress.getAllByName(uri.getHost())) {
+                    resolved.add(new InetSocketAddress(address, port));
+                }
+            } catch (UnknownHostException e) {
+                log.debug("Cannot resolve cache invalidation peer {}: {}", peer, e.getMessage());
+            }
+        }
+        if (!resolved.isEmpty() || peers.isEmpty()) {
+            peers = List.copyOf(resolved);
+        }
+        peersResolvedAt = now;
+        return peers;
+    }
+
+    private void error(String reason) {
+        Counter.builder("cache.invalidation.udp.errors")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] data, int offset, int length) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            mac.update(data, offset, length);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.ntdoc.notangdoccore.service.change;
+
+import com.ntdoc.notangdoccore.config.ChangeFeedProperties;
+import com.ntdoc.notangdoccore.dto.change.ChangeFeedResponse;
+import com.ntdoc.notangdoccore.dto.change.ChangeResponse;
+import com.ntdoc.notangdoccore.entity.ChangeFeedEntry;
+import com.ntdoc.notangdoccore.repository.ChangeFeedRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * 按用户的变更流水
+ * 写操作在业务事务内记录变更，客户端与 Agent 用 since 游标只拉取增量，而不是反复拉取完整列表
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChangeFeedService {
+    private final ChangeFeedRepository changeFeedRepository;
+    private final ChangeFeedProperties properties;
+    private final TransactionOperations transactionOperations;
+
+    /**
+     * 为一个或多个用户记录同一变更（如评论同时出现在文档拥有者与评论者的流水中）
+     * 必须在业务事务内调用；按 kcUserId 排序加锁，避免多用户事务之间死锁
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Collection<String> kcUserIds, ChangeFeedEntry.EntityType entityType, Long entityId,
+                       ChangeFeedEntry.Action action, Long documentId) {
+        SortedSet<String> users = new TreeSet<>();
+        kcUserIds.stream().filter(Objects::nonNull).forEach(users::add);
+        for (String kcUserId : users) {
+            append(kcUserId, List.of(entry(entityType, entityId, action, documentId)));
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String kcUserId, ChangeFeedEntry.EntityType entityType, Long entityId,
+                       ChangeFeedEntry.Action action, Long documentId) {
+        append(kcUserId, List.of(entry(entityType, entityId, action, documentId)));
+    }
+
+    /**
+     * 批量记录同一用户的同类变更，一次预留全部序号
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(String kcUserId, ChangeFeedEntry.EntityType entityType, Collection<Long> entityIds,
+                          ChangeFeedEntry.Action action) {
+        append(kcUserId, entityIds.stream().map(id -> entry(entityType, id, action, null)).toList());
+    }
+
+    /**
+     * 拉取 since 之后的变更
+     *
+     * @param since 上次响应中的 cursor，首次为 0
+     * @param limit 最多返回条数，不大于 maxLimit
+     */
+    @Transactional(readOnly = true)
+    public ChangeFeedResponse changesSince(String kcUserId, long since, Integer limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since 不能为负数");
+        }
+        int size = limit == null || limit <= 0
+                ? properties.getDefaultLimit()
+                : Math.min(limit, properties.getMaxLimit());
+
+        Long current = changeFeedRepository.findCurrentSequence(kcUserId);
+        if (current == null) {
+            // 尚未同步到本地的用户没有任何变更
+            return ChangeFeedResponse.builder().changes(List.of()).cursor(0L).build();
+        }
+        if (since > current || (since < current && since < oldestRetained(kcUserId, current) - 1)) {
+            // 游标来自其他环境或已早于保留范围：客户端全量刷新后从当前序号继续
+            log.debug("Change feed cursor {} out of range for user {}, current={}", since, kcUserId, current);
+            return ChangeFeedResponse.builder().changes(List.of()).cursor(current).resetRequired(true).build();
+        }
+
+        List<ChangeFeedEntry> entries = changeFeedRepository.findByKcUserIdAndSeqGreaterThanOrderBySeqAsc(
+                kcUserId, since, PageRequest.of(0, size + 1));
+        boolean hasMore = entries.size() > size;
+        if (hasMore) {
+            entries = entries.subList(0, size);
+        }
+        long cursor = entries.isEmpty() ? since : entries.get(entries.size() - 1).getSeq();
+        return ChangeFeedResponse.builder()
+                .changes(entries.stream().map(ChangeResponse::fromEntity).toList())
+                .cursor(cursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Scheduled(cron = "${ntdoc.changes.prune-cron:0 15 4 * * *}")
+    public void prune() {
+        Instant before = Instant.now().minus(properties.getRetention());
+        Integer deleted = transactionOperations.execute(status -> changeFeedRepository.deleteByCreatedAtBefore(before));
+        log.info("Pruned {} change feed entries older than {}", deleted, before);
+    }
+
+    private long oldestRetained(String kcUserId, long current) {
+        Long min = changeFeedRepository.findMinSequence(kcUserId);
+        return min != null ? min : current + 1;
+    }
+
+    private void append(String kcUserId, List<ChangeFeedEntry> entries) {
+        if (kcUserId == null || entries.isEmpty()) {
+            return;
+        }
+        if (changeFeedRepository.reserveSequence(kcUserId, entries.size()) == 0) {
+            log.debug("Skip change feed for unknown user {}", kcUserId);
+            return;
+        }
+        long seq = changeFeedRepository.findCurrentSequence(kcUserId) - entries.size();
+        for (ChangeFeedEntry entry : entries) {
+            entry.setKcUserId(kcUserId);
+            entry.setSeq(++seq);
+        }
+        changeFeedRepository.saveAll(entries);
+    }
+
+    private static ChangeFeedEntry entry(ChangeFeedEntry.EntityType entityType, Long entityId,
+                                         ChangeFeedEntry.Action action, Long documentId) {
+        return ChangeFeedEntry.builder()
+                .entityType(entityType)
+                .entityId(entityId)
+                .action(action)
+                .documentId(documentId)
+                .build();
+    }
+}
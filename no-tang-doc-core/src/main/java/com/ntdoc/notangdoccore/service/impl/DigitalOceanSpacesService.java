@@ -1,6 +1,13 @@
 package com.ntdoc.notangdoccore.service.impl;
 
 import com.ntdoc.notangdoccore.service.FileStorageService;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.service.storage.StorageCodecs;
+import com.ntdoc.notangdoccore.service.storage.StoredObjectInfo;
+import com.ntdoc.notangdoccore.service.storage.StoredUpload;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,13 +21,16 @@ import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignReques
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.UUID;
+import java.util.*;
 
 /**
  * DigitalOcean Spaces 文件存储服务实现
@@ -32,32 +42,73 @@ public class DigitalOceanSpacesService implements FileStorageService {
 
     private final S3Client s3Client;
     private final S3Presigner s3Presigner;
+    private final MeterRegistry meterRegistry;
+    private final StorageCodecs storageCodecs;
+
+    // 上传/删除等对象存储操作的 SLO 分桶
+    private static final Duration[] STORAGE_SLO = {
+            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+            Duration.ofSeconds(1), Duration.ofMillis(2500), Duration.ofSeconds(5), Duration.ofSeconds(10)
+    };
+    // 预签名为本地计算，分桶更细
+    private static final Duration[] PRESIGN_SLO = {
+            Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMillis(100)
+    };
+    private static final double KB = 1024, MB = 1024 * 1024;
+    // S3 DeleteObjects 单次请求的键数上限
+    static final int DELETE_BATCH_SIZE = 1000;
 
     @Value("${digitalocean.spaces.bucket}")
     private String bucketName;
 
     @Override
     public String uploadFile(MultipartFile file, String kcUserId) {
+        return storeFile(file, kcUserId).s3Key();
+    }
+
+    @Override
+    public StoredUpload storeFile(MultipartFile file, String kcUserId) {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("File cannot be null or empty");
         }
 
         String s3Key = generateStoragePath(kcUserId, file.getOriginalFilename());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        Path compressed = null;
 
         try {
-            PutObjectRequest putRequest = PutObjectRequest.builder()
+            if (storageCodecs.eligible(file.getContentType(), file.getSize())) {
+                compressed = storageCodecs.compress(file.getInputStream(), file.getSize());
+            }
+
+            PutObjectRequest.Builder putRequest = PutObjectRequest.builder()
                     .bucket(bucketName)
                     .key(s3Key)
-                    .contentType(file.getContentType())
-                    .contentLength(file.getSize())
-                    .build();
-
-            RequestBody requestBody = RequestBody.fromInputStream(file.getInputStream(), file.getSize());
+                    .contentType(file.getContentType());
+            RequestBody requestBody;
+            StoredUpload stored;
+            if (compressed != null) {
+                long storedSize = Files.size(compressed);
+                putRequest.contentEncoding(StorageCodecs.GZIP).contentLength(storedSize);
+                requestBody = RequestBody.fromFile(compressed);
+                stored = new StoredUpload(s3Key, Document.StorageCodec.GZIP, storedSize);
+            } else {
+                putRequest.contentLength(file.getSize());
+                requestBody = RequestBody.fromInputStream(file.getInputStream(), file.getSize());
+                stored = StoredUpload.plain(s3Key, file.getSize());
+            }
 
-            PutObjectResponse response = s3Client.putObject(putRequest, requestBody);
+            PutObjectResponse response = s3Client.putObject(putRequest.build(), requestBody);
 
-            log.info("File uploaded successfully: key={}, etag={}, size={}", s3Key, response.eTag(), file.getSize());
-            return s3Key;
+            log.info("File uploaded successfully: key={}, etag={}, size={}, stored={} ({})",
+                    s3Key, response.eTag(), file.getSize(), stored.storedSize(), stored.codec());
+            outcome = "success";
+            if (compressed != null) {
+                meterRegistry.counter("storage.compression.saved.bytes")
+                        .increment(file.getSize() - stored.storedSize());
+            }
+            return stored;
 
         } catch (IOException e) {
             log.error("Failed to read file: {}", file.getOriginalFilename(), e);
@@ -65,11 +116,38 @@ public class DigitalOceanSpacesService implements FileStorageService {
         } catch (Exception e) {
             log.error("Failed to upload file: key={}", s3Key, e);
             throw new RuntimeException("Failed to upload file to storage", e);
+        } finally {
+            recordUpload(sample, file.getSize(), outcome);
+            deleteQuietly(compressed);
+        }
+    }
+
+    @Override
+    public void uploadBytes(String s3Key, byte[] content, String contentType) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            PutObjectRequest putRequest = PutObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(s3Key)
+                    .contentType(contentType)
+                    .contentLength((long) content.length)
+                    .build();
+            s3Client.putObject(putRequest, RequestBody.fromBytes(content));
+            log.debug("Object written: key={}, size={}", s3Key, content.length);
+            outcome = "success";
+        } catch (Exception e) {
+            log.error("Failed to write object: key={}", s3Key, e);
+            throw new RuntimeException("Failed to upload file to storage", e);
+        } finally {
+            recordUpload(sample, content.length, outcome);
         }
     }
 
     @Override
     public URL generateDownloadUrl(String s3Key, Duration expiration) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             GetObjectRequest getRequest = GetObjectRequest.builder()
                     .bucket(bucketName)
@@ -84,16 +162,21 @@ public class DigitalOceanSpacesService implements FileStorageService {
 
             URL url = s3Presigner.presignGetObject(presignRequest).url();
             log.debug("Generated download URL for key: {}", s3Key);
+            outcome = "success";
             return url;
 
         } catch (Exception e) {
             log.error("Failed to generate download URL for key: {}", s3Key, e);
             throw new RuntimeException("Failed to generate download URL", e);
+        } finally {
+            sample.stop(presignTimer("download", outcome));
         }
     }
 
     @Override
     public URL generateShareUrl(String s3Key,Duration expiration){
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try{
             GetObjectRequest getRequest = GetObjectRequest.builder()
                     .bucket(bucketName)
@@ -108,15 +191,20 @@ public class DigitalOceanSpacesService implements FileStorageService {
 
             URL url = s3Presigner.presignGetObject(presignRequest).url();
             log.debug("Generated share URL for key: {}", s3Key);
+            outcome = "success";
             return url;
         }catch (Exception e){
             log.error("Failed to generate share URL for key: {}", s3Key, e);
             throw new RuntimeException("Failed to generate share URL", e);
+        } finally {
+            sample.stop(presignTimer("share", outcome));
         }
     }
 
     @Override
     public URL generateUploadUrl(String s3Key, String contentType, Duration expiration) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             PutObjectRequest putRequest = PutObjectRequest.builder()
                     .bucket(bucketName)
@@ -131,16 +219,21 @@ public class DigitalOceanSpacesService implements FileStorageService {
 
             URL url = s3Presigner.presignPutObject(presignRequest).url();
             log.debug("Generated upload URL for key: {}", s3Key);
+            outcome = "success";
             return url;
 
         } catch (Exception e) {
             log.error("Failed to generate upload URL for key: {}", s3Key, e);
             throw new RuntimeException("Failed to generate upload URL", e);
+        } finally {
+            sample.stop(presignTimer("upload", outcome));
         }
     }
 
     @Override
     public boolean deleteFile(String s3Key) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             DeleteObjectRequest deleteRequest = DeleteObjectRequest.builder()
                     .bucket(bucketName)
@@ -149,16 +242,106 @@ public class DigitalOceanSpacesService implements FileStorageService {
 
             s3Client.deleteObject(deleteRequest);
             log.info("File deleted successfully: key={}", s3Key);
+            outcome = "success";
             return true;
 
         } catch (Exception e) {
             log.error("Failed to delete file: key={}", s3Key, e);
             return false;
+        } finally {
+            sample.stop(storageTimer("storage.delete", "Object delete duration", outcome));
+        }
+    }
+
+    @Override
+    public Map<String, String> deleteFiles(Collection<String> s3Keys) {
+        Map<String, String> failed = new LinkedHashMap<>();
+        if (s3Keys == null || s3Keys.isEmpty()) {
+            return failed;
+        }
+
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(s3Keys));
+        for (int from = 0; from < keys.size(); from += DELETE_BATCH_SIZE) {
+            List<String> batch = keys.subList(from, Math.min(from + DELETE_BATCH_SIZE, keys.size()));
+            failed.putAll(deleteBatch(batch));
+        }
+
+        log.info("Batch delete finished: requested={}, failed={}", keys.size(), failed.size());
+        return failed;
+    }
+
+    /**
+     * 单次 DeleteObjects 请求；quiet 模式下响应只包含失败的键
+     */
+    private Map<String, String> deleteBatch(List<String> batch) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        Map<String, String> failed = new LinkedHashMap<>();
+        try {
+            List<ObjectIdentifier> objects = batch.stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+
+            DeleteObjectsRequest deleteRequest = DeleteObjectsRequest.builder()
+                    .bucket(bucketName)
+                    .delete(Delete.builder().objects(objects).quiet(true).build())
+                    .build();
+
+            DeleteObjectsResponse response = s3Client.deleteObjects(deleteRequest);
+            for (S3Error error : response.errors()) {
+                failed.put(error.key(), error.code() + ": " + error.message());
+            }
+            outcome = failed.isEmpty() ? "success" : "partial";
+
+        } catch (Exception e) {
+            log.error("Failed to delete batch of {} files", batch.size(), e);
+            batch.forEach(key -> failed.put(key, e.getMessage()));
+        } finally {
+            sample.stop(storageTimer("storage.delete.batch", "Batch object delete duration", outcome));
+            meterRegistry.counter("storage.delete.batch.keys", "outcome", "deleted")
+                    .increment(batch.size() - failed.size());
+            meterRegistry.counter("storage.delete.batch.keys", "outcome", "failed")
+                    .increment(failed.size());
+        }
+        return failed;
+    }
+
+    @Override
+    public StoredObjectInfo getObjectInfo(String s3Key) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(s3Key)
+                    .build());
+            outcome = "found";
+            return new StoredObjectInfo(head.eTag(), head.contentLength(), head.contentType(), head.lastModified(),
+                    head.contentEncoding());
+        } catch (NoSuchKeyException e) {
+            outcome = "missing";
+            throw e;
+        } finally {
+            sample.stop(storageTimer("storage.head", "Object metadata lookup duration", outcome));
         }
     }
 
+    @Override
+    public InputStream openStream(String s3Key, Long start, Long end) {
+        GetObjectRequest.Builder request = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(s3Key);
+        if (start != null) {
+            request.range("bytes=" + start + "-" + (end != null ? end : ""));
+        }
+        // ResponseInputStream 直接读取 HTTP 响应体，由调用方边读边写出
+        return s3Client.getObject(request.build());
+    }
+
     @Override
     public boolean fileExists(String s3Key) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             HeadObjectRequest headRequest = HeadObjectRequest.builder()
                     .bucket(bucketName)
@@ -166,13 +349,17 @@ public class DigitalOceanSpacesService implements FileStorageService {
                     .build();
 
             s3Client.headObject(headRequest);
+            outcome = "found";
             return true;
 
         } catch (NoSuchKeyException e) {
+            outcome = "missing";
             return false;
         } catch (Exception e) {
             log.error("Failed to check file existence: key={}", s3Key, e);
             return false;
+        } finally {
+            sample.stop(storageTimer("storage.exists", "Object existence check duration", outcome));
         }
     }
 
@@ -217,6 +404,58 @@ public class DigitalOceanSpacesService implements FileStorageService {
         }
     }
 
+    /**
+     * 记录上传耗时、字节数与吞吐量（字节/秒）
+     */
+    private void recordUpload(Timer.Sample sample, long bytes, String outcome) {
+        long nanos = sample.stop(storageTimer("storage.upload", "Object upload duration", outcome));
+
+        DistributionSummary.builder("storage.upload.size")
+                .description("Uploaded object size")
+                .baseUnit("bytes")
+                .tag("outcome", outcome)
+                .serviceLevelObjectives(64 * KB, 512 * KB, MB, 5 * MB, 10 * MB, 25 * MB, 50 * MB)
+                .register(meterRegistry)
+                .record(bytes);
+
+        if ("success".equals(outcome) && nanos > 0) {
+            DistributionSummary.builder("storage.upload.throughput")
+                    .description("Upload throughput")
+                    .baseUnit("bytes_per_second")
+                    .serviceLevelObjectives(256 * KB, MB, 5 * MB, 10 * MB, 50 * MB)
+                    .register(meterRegistry)
+                    .record(bytes * 1_000_000_000d / nanos);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Failed to delete temp file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private Timer storageTimer(String name, String description, String outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("outcome", outcome)
+                .serviceLevelObjectives(STORAGE_SLO)
+                .register(meterRegistry);
+    }
+
+    private Timer presignTimer(String operation, String outcome) {
+        return Timer.builder("storage.presign")
+                .description("Presigned URL generation duration")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .serviceLevelObjectives(PRESIGN_SLO)
+                .register(meterRegistry);
+    }
+
     /**
      * 清理文件名，移除不安全字符
      */
@@ -3,11 +3,15 @@ package com.ntdoc.notangdoccore.service.impl;
 import com.ntdoc.notangdoccore.entity.*;
 import com.ntdoc.notangdoccore.repository.*;
 import com.ntdoc.notangdoccore.service.DocumentCommentService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.change.ChangeFeedService;
+import com.ntdoc.notangdoccore.service.push.PushNotifier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -24,6 +28,9 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
     private final UserRepository userRepository;
     private final TeamRepository teamRepository;
     private final TeamMemberRepository teamMemberRepository;
+    private final ResourceVersionService resourceVersionService;
+    private final ChangeFeedService changeFeedService;
+    private final PushNotifier pushNotifier;
 
     @Override
     public DocumentComment createComment(Long documentId, Long teamId, String content,
@@ -75,6 +82,7 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
                 .build();
 
         comment = commentRepository.save(comment);
+        commentsChanged(comment, ChangeFeedEntry.Action.CREATED);
 
         log.info("Comment created successfully: commentId={}, documentId={}",
                 comment.getId(), documentId);
@@ -107,6 +115,7 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
         // 5. 更新评论内容
         comment.setContent(content);
         comment = commentRepository.save(comment);
+        commentsChanged(comment, ChangeFeedEntry.Action.UPDATED);
 
         log.info("Comment updated successfully: commentId={}", commentId);
 
@@ -145,6 +154,7 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
         // 4. 软删除评论
         comment.setStatus(DocumentComment.CommentStatus.DELETED);
         commentRepository.save(comment);
+        commentsChanged(comment, ChangeFeedEntry.Action.DELETED);
 
         log.info("Comment deleted successfully: commentId={}", commentId);
     }
@@ -197,5 +207,20 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
         return commentRepository.findByParentCommentAndStatusOrderByCreatedAtAsc(
                 comment, DocumentComment.CommentStatus.ACTIVE);
     }
-}
 
+    /**
+     * 评论列表版本递增；变更同时记入文档拥有者与评论作者的变更流水，并推送给文档/团队频道的订阅者
+     */
+    private void commentsChanged(DocumentComment comment, ChangeFeedEntry.Action action) {
+        Document document = comment.getDocument();
+        if (document == null) {
+            return;
+        }
+        resourceVersionService.bump(ResourceVersionService.Scope.COMMENTS, document.getId());
+        changeFeedService.record(Arrays.asList(
+                        document.getUploadedBy() != null ? document.getUploadedBy().getKcUserId() : null,
+                        comment.getUser() != null ? comment.getUser().getKcUserId() : null),
+                ChangeFeedEntry.EntityType.COMMENT, comment.getId(), action, document.getId());
+        pushNotifier.commentChanged(comment, action);
+    }
+}
@@ -1,7 +1,10 @@
 package com.ntdoc.notangdoccore.service.impl;
 
+import com.ntdoc.notangdoccore.dto.document.BulkDeleteResponse;
 import com.ntdoc.notangdoccore.dto.document.DocumentDownloadResponse;
 import com.ntdoc.notangdoccore.dto.document.DocumentUploadResponse;
+import com.ntdoc.notangdoccore.dto.document.MetadataQueryRequest;
+import com.ntdoc.notangdoccore.entity.ChangeFeedEntry;
 import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.entity.logenum.ActorType;
@@ -13,13 +16,24 @@ import com.ntdoc.notangdoccore.repository.DocumentSpecification;
 import com.ntdoc.notangdoccore.repository.UserRepository;
 import com.ntdoc.notangdoccore.service.DocumentService;
 import com.ntdoc.notangdoccore.service.FileStorageService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.change.ChangeFeedService;
+import com.ntdoc.notangdoccore.service.outbox.OutboxPublisher;
+import com.ntdoc.notangdoccore.service.push.PushNotifier;
+import com.ntdoc.notangdoccore.service.rendition.RenditionGenerator;
+import com.ntdoc.notangdoccore.service.storage.ContentLinkService;
+import com.ntdoc.notangdoccore.service.storage.StorageQuotaService;
+import com.ntdoc.notangdoccore.service.storage.StoredUpload;
+import com.ntdoc.notangdoccore.service.tag.TagBitmapIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -29,6 +43,10 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -41,6 +59,15 @@ public class DocumentServiceImpl implements DocumentService {
     private final FileStorageService fileStorageService;
     //日志发布放在服务中而不是Controller里
     private final ApplicationEventPublisher eventPublisher;
+    private final TagBitmapIndex tagBitmapIndex;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionOperations transactionOperations;
+    private final RenditionGenerator renditionGenerator;
+    private final ResourceVersionService resourceVersionService;
+    private final ChangeFeedService changeFeedService;
+    private final PushNotifier pushNotifier;
+    private final StorageQuotaService storageQuotaService;
+    private final ContentLinkService contentLinkService;
 
     @Value("${digitalocean.spaces.bucket}")
     private String bucketName;
@@ -49,6 +76,7 @@ public class DocumentServiceImpl implements DocumentService {
     private String publicUrl;
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public DocumentUploadResponse uploadDocument(MultipartFile file, String fileName, String description, String kcUserId) {
         log.info("Starting document upload for user: {}, file: {}", kcUserId, file.getOriginalFilename());
 
@@ -57,17 +85,27 @@ public class DocumentServiceImpl implements DocumentService {
         String originalFilename = file.getOriginalFilename();
         String finalFileName = StringUtils.hasText(fileName) ? fileName : originalFilename;
 
+        // 明显超出配额时在写入对象存储之前拒绝
+        storageQuotaService.checkUpload(user, file.getSize());
+
+        String uploadedKey = null;
+        Document document;
         try {
-            String s3Key = fileStorageService.uploadFile(file, kcUserId);
+            // 对象上传不在数据库事务内，慢速上传不会占用连接
+            StoredUpload stored = fileStorageService.storeFile(file, kcUserId);
+            String s3Key = stored.s3Key();
+            uploadedKey = s3Key;
             log.info("File uploaded to S3 successfully: key={}", s3Key);
 
             String fileHash = calculateFileHash(file);
 
-            Document document = Document.builder()
+            Document toSave = Document.builder()
                     .originalFilename(finalFileName)
                     .storedFilename(extractFilenameFromS3Key(s3Key))
                     .fileSize(file.getSize())
                     .contentType(file.getContentType())
+                    .storageCodec(stored.codec())
+                    .storedSize(stored.storedSize())
                     .fileHash(fileHash)
                     .s3Bucket(bucketName)
                     .s3Key(s3Key)
@@ -76,37 +114,36 @@ public class DocumentServiceImpl implements DocumentService {
                     .description(description)
                     .downloadCount(0)
                     .build();
-
-            document = documentRepository.save(document);
-            log.info("Document saved to database: id={}", document.getId());
-
-            // 发布文件上传成功日志
-            eventPublisher.publishEvent(
-                    UserOperationEvent.success(
-                            this,
-                            ActorType.USER,
-                            user.getUsername(),
-                            user.getId(),
-                            document.getId(),
-                            OperationType.UPLOAD_DOCUMENT,
-                            finalFileName
-                    )
-            );
-            log.info("Publish Upload Document Successful Log");
-
-            return DocumentUploadResponse.builder()
-                    .documentId(document.getId())
-                    .fileName(finalFileName)
-                    .fileSize(file.getSize())
-                    .mimeType(file.getContentType())
-                    .s3Key(s3Key)
-                    .uploadTime(document.getCreatedAt().atZone(java.time.ZoneId.systemDefault()).toLocalDateTime())
-                    .userId(kcUserId)
-                    .url(generatePublicUrl(s3Key))
-                    .description(description)
-                    .build();
-
+            boolean renderable = renditionGenerator.supports(file.getContentType());
+            toSave.setRenditionStatus(renderable ? Document.RenditionStatus.PENDING : Document.RenditionStatus.UNSUPPORTED);
+
+            // 配额占用、文档记录、上传成功日志与缩略图任务在同一个短事务中提交
+            document = transactionOperations.execute(status -> {
+                storageQuotaService.reserve(user, toSave.getFileSize(),
+                        toSave.getStoredSize() != null ? toSave.getStoredSize() : toSave.getFileSize());
+                Document saved = documentRepository.save(toSave);
+                changeFeedService.record(kcUserId, ChangeFeedEntry.EntityType.DOCUMENT, saved.getId(),
+                        ChangeFeedEntry.Action.CREATED, null);
+                if (renderable) {
+                    outboxPublisher.rendition(saved.getId());
+                }
+                outboxPublisher.userOperation(
+                        UserOperationEvent.success(
+                                this,
+                                ActorType.USER,
+                                user.getUsername(),
+                                user.getId(),
+                                saved.getId(),
+                                OperationType.UPLOAD_DOCUMENT,
+                                finalFileName
+                        )
+                );
+                return saved;
+            });
         } catch (Exception e) {
+            if (uploadedKey != null) {
+                compensateUpload(uploadedKey);
+            }
             // 发布上传失败日志
             eventPublisher.publishEvent(
                     UserOperationEvent.fail(
@@ -120,9 +157,30 @@ public class DocumentServiceImpl implements DocumentService {
                     )
             );
 
+            if (e instanceof DocumentException.StorageQuotaExceededException quotaExceeded) {
+                log.warn("Upload rejected by storage quota for user {}: {}", kcUserId, e.getMessage());
+                throw quotaExceeded;
+            }
             log.error("Failed to upload document: {}", e.getMessage(), e);
             throw new RuntimeException("文件上传失败: " + e.getMessage(), e);
         }
+
+        // 文档记录已提交：以下步骤失败不能再补偿删除对象
+        log.info("Document saved to database: id={}", document.getId());
+        tagBitmapIndex.documentAdded(kcUserId, document.getId());
+        resourceVersionService.bump(ResourceVersionService.Scope.DOCUMENTS, kcUserId);
+
+        return DocumentUploadResponse.builder()
+                .documentId(document.getId())
+                .fileName(finalFileName)
+                .fileSize(file.getSize())
+                .mimeType(file.getContentType())
+                .s3Key(document.getS3Key())
+                .uploadTime(document.getCreatedAt().atZone(java.time.ZoneId.systemDefault()).toLocalDateTime())
+                .userId(kcUserId)
+                .url(generatePublicUrl(document.getS3Key()))
+                .description(description)
+                .build();
     }
 
     @Override
@@ -144,7 +202,7 @@ public class DocumentServiceImpl implements DocumentService {
         }
 
         try {
-            URL downloadUrl = fileStorageService.generateDownloadUrl(document.getS3Key(), Duration.ofMinutes(60));
+            URL downloadUrl = contentLinkService.downloadUrl(document, Duration.ofMinutes(60));
 
             incrementDownloadCount(documentId);
 
@@ -198,10 +256,16 @@ public class DocumentServiceImpl implements DocumentService {
         // 物理删除
         try{
             documentRepository.delete(document);
-            fileStorageService.deleteFile(document.getS3Key());
-
-            // 发布用户删除文档日志
-            eventPublisher.publishEvent(
+            storageQuotaService.release(List.of(document));
+            // 对象删除与删除日志写入 outbox，随本事务提交后由中继执行
+            outboxPublisher.storageDelete(document.storageKeys());
+            tagBitmapIndex.documentsRemoved(kcUserId, List.of(documentId));
+            resourceVersionService.bump(ResourceVersionService.Scope.DOCUMENTS, kcUserId);
+            changeFeedService.record(kcUserId, ChangeFeedEntry.EntityType.DOCUMENT, documentId,
+                    ChangeFeedEntry.Action.DELETED, null);
+            pushNotifier.documentChanged(document, ChangeFeedEntry.Action.DELETED);
+
+            outboxPublisher.userOperation(
                     UserOperationEvent.success(
                             this,
                             ActorType.USER,
@@ -215,7 +279,7 @@ public class DocumentServiceImpl implements DocumentService {
             log.info("Record Delete Document Successful Log");
 
         } catch (Exception e) {
-            // 发布删除失败日志
+            // 发布删除失败日志（异步监听器独立事务写入，不随本事务回滚）
             eventPublisher.publishEvent(
                     UserOperationEvent.fail(
                             this,
@@ -228,12 +292,97 @@ public class DocumentServiceImpl implements DocumentService {
                     )
             );
             log.error("Failed to delete document: {},{}", documentId, e.getMessage());
+            // 参与本事务的调用失败后事务已标记为仅回滚，吞掉异常只会在提交时变成 UnexpectedRollbackException
+            throw e;
         }
         // 软删除：只是更新状态，可恢复
 //        document.setStatus(Document.DocumentStatus.DELETED);
 //        documentRepository.save(document);
     }
 
+    @Override
+    public BulkDeleteResponse deleteDocuments(List<Long> documentIds, String kcUserId) {
+        if (documentIds == null || documentIds.isEmpty()) {
+            throw new IllegalArgumentException("文档ID列表不能为空");
+        }
+        List<Long> requestedIds = documentIds.stream().filter(Objects::nonNull).distinct().toList();
+        log.info("Starting bulk delete of {} documents by user: {}", requestedIds.size(), kcUserId);
+
+        User user = getUserByKcUserId(kcUserId);
+        Map<Long, Document> found = documentRepository.findAllById(requestedIds).stream()
+                .collect(Collectors.toMap(Document::getId, Function.identity()));
+
+        List<BulkDeleteResponse.Result> results = new ArrayList<>(requestedIds.size());
+        List<Document> deletable = new ArrayList<>();
+        for (Long documentId : requestedIds) {
+            Document document = found.get(documentId);
+            if (document == null) {
+                results.add(bulkResult(documentId, null, BulkDeleteResponse.Status.NOT_FOUND, "文档不存在"));
+            } else if (!document.getUploadedBy().getId().equals(user.getId())) {
+                results.add(bulkResult(documentId, document.getOriginalFilename(), BulkDeleteResponse.Status.FORBIDDEN, "无权删除该文档"));
+            } else {
+                deletable.add(document);
+                results.add(bulkResult(documentId, document.getOriginalFilename(), BulkDeleteResponse.Status.DELETED, null));
+            }
+        }
+
+        if (!deletable.isEmpty()) {
+            List<Long> ids = deletable.stream().map(Document::getId).toList();
+            // 一条 DELETE ... WHERE id IN (...)；标签、元数据、评论由外键级联删除
+            documentRepository.deleteAllByIdInBatch(ids);
+            storageQuotaService.release(deletable);
+            tagBitmapIndex.documentsRemoved(kcUserId, ids);
+            resourceVersionService.bump(ResourceVersionService.Scope.DOCUMENTS, kcUserId);
+            changeFeedService.recordAll(kcUserId, ChangeFeedEntry.EntityType.DOCUMENT, ids, ChangeFeedEntry.Action.DELETED);
+            deletable.forEach(document -> pushNotifier.documentChanged(document, ChangeFeedEntry.Action.DELETED));
+            outboxPublisher.storageDelete(deletable.stream().flatMap(document -> document.storageKeys().stream()).toList());
+
+            for (Document document : deletable) {
+                outboxPublisher.userOperation(
+                        UserOperationEvent.success(
+                                this,
+                                ActorType.USER,
+                                user.getUsername(),
+                                user.getId(),
+                                document.getId(),
+                                OperationType.DELETE_DOCUMENT,
+                                document.getOriginalFilename()
+                        )
+                );
+            }
+        }
+
+        log.info("Bulk delete finished: requested={}, deleted={}", requestedIds.size(), deletable.size());
+        return BulkDeleteResponse.builder()
+                .requested(requestedIds.size())
+                .deleted(deletable.size())
+                .results(results)
+                .build();
+    }
+
+    /**
+     * 对象已上传但记录未能保存：写 outbox 由中继删除，数据库不可用时直接删除
+     */
+    private void compensateUpload(String s3Key) {
+        try {
+            transactionOperations.executeWithoutResult(status -> outboxPublisher.storageDelete(List.of(s3Key)));
+            log.info("Scheduled orphan cleanup for uploaded object: key={}", s3Key);
+        } catch (Exception e) {
+            log.warn("Failed to schedule orphan cleanup, deleting directly: key={}", s3Key, e);
+            fileStorageService.deleteFile(s3Key);
+        }
+    }
+
+    private BulkDeleteResponse.Result bulkResult(Long documentId, String fileName,
+                                                 BulkDeleteResponse.Status status, String message) {
+        return BulkDeleteResponse.Result.builder()
+                .documentId(documentId)
+                .fileName(fileName)
+                .status(status)
+                .message(message)
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Document> getUserDocuments(String kcUserId) {
@@ -253,8 +402,10 @@ public class DocumentServiceImpl implements DocumentService {
     public Document getDocumentById(Long documentId, String kcUserId) {
         User user = getUserByKcUserId(kcUserId);
 
+        // 已删除的文档按不存在处理
         Document document = documentRepository.findById(documentId)
-                .orElseThrow(() -> new RuntimeException("文档不存在: " + documentId));
+                .filter(d -> d.getStatus() != Document.DocumentStatus.DELETED)
+                .orElseThrow(() -> new DocumentException.DocumentNotFoundException(documentId));
 
 //        if (!document.getUploadedBy().getId().equals(user.getId())) {
 //            throw new SecurityException("无权删除该文档");
@@ -348,7 +499,27 @@ public class DocumentServiceImpl implements DocumentService {
     @Transactional(readOnly = true)
     public List<Document> filterDocuments(String kcUserId, String contentType, Instant start, Instant end) {
         User user = getUserByKcUserId(kcUserId);
+        return documentRepository.findAll(buildFilterSpec(user, contentType, start, end));
+    }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Document> queryByMetadata(String kcUserId, MetadataQueryRequest request) {
+        if (request == null || request.getPredicates() == null || request.getPredicates().isEmpty()) {
+            throw new IllegalArgumentException("元数据查询条件不能为空");
+        }
+        User user = getUserByKcUserId(kcUserId);
+
+        Specification<Document> spec = buildFilterSpec(user, request.getContentType(), request.getStartDate(), request.getEndDate());
+        for (MetadataQueryRequest.Predicate predicate : request.getPredicates()) {
+            spec = spec.and(toSpecification(predicate));
+        }
+
+        log.info("Querying documents by metadata for user: {}, predicates={}", kcUserId, request.getPredicates().size());
+        return documentRepository.findAll(spec);
+    }
+
+    private Specification<Document> buildFilterSpec(User user, String contentType, Instant start, Instant end) {
         // 初始 Specification 直接用 uploadedBy 条件
         Specification<Document> spec = DocumentSpecification.uploadedBy(user);
 
@@ -366,7 +537,34 @@ public class DocumentServiceImpl implements DocumentService {
             spec = spec.and(DocumentSpecification.uploadedBefore(end));
         }
 
-        return documentRepository.findAll(spec);
+        return spec;
+    }
+
+    private Specification<Document> toSpecification(MetadataQueryRequest.Predicate predicate) {
+        if (predicate == null || !StringUtils.hasText(predicate.getKey()) || predicate.getOp() == null) {
+            throw new IllegalArgumentException("元数据谓词缺少 key 或 op");
+        }
+        String key = predicate.getKey().trim();
+        return switch (predicate.getOp()) {
+            case EQ -> {
+                if (predicate.getValue() == null) {
+                    throw new IllegalArgumentException("EQ 谓词缺少 value: " + key);
+                }
+                yield DocumentSpecification.metadataEquals(key, predicate.getValue());
+            }
+            case PREFIX -> {
+                if (!StringUtils.hasLength(predicate.getValue())) {
+                    throw new IllegalArgumentException("PREFIX 谓词缺少 value: " + key);
+                }
+                yield DocumentSpecification.metadataStartsWith(key, predicate.getValue());
+            }
+            case RANGE -> {
+                if (predicate.getMin() == null && predicate.getMax() == null) {
+                    throw new IllegalArgumentException("RANGE 谓词至少需要 min 或 max: " + key);
+                }
+                yield DocumentSpecification.metadataBetween(key, predicate.getMin(), predicate.getMax());
+            }
+        };
     }
 
 }
@@ -1,11 +1,16 @@
 package com.ntdoc.notangdoccore.service.impl;
 
+import com.ntdoc.notangdoccore.entity.ChangeFeedEntry;
 import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.Tag;
 import com.ntdoc.notangdoccore.repository.DocumentRepository;
 import com.ntdoc.notangdoccore.repository.TagRepository;
 import com.ntdoc.notangdoccore.service.DocumentService;
 import com.ntdoc.notangdoccore.service.DocumentTagService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.change.ChangeFeedService;
+import com.ntdoc.notangdoccore.service.push.PushNotifier;
+import com.ntdoc.notangdoccore.service.tag.TagBitmapIndex;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,6 +26,10 @@ import java.util.*;
 public class DocumentTagServiceImpl implements DocumentTagService {
     private final DocumentRepository documentRepository;
     private final TagRepository tagRepository;
+    private final TagBitmapIndex tagBitmapIndex;
+    private final ResourceVersionService resourceVersionService;
+    private final ChangeFeedService changeFeedService;
+    private final PushNotifier pushNotifier;
 
     @Override
     @Transactional
@@ -28,10 +37,12 @@ public class DocumentTagServiceImpl implements DocumentTagService {
         Document document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new EntityNotFoundException("Document not found"));
 
-        Set<Tag> tags = convertStringsToTags(tagNames);
-        document.getTags().addAll(tags);
+        Set<Tag> tags = attachTags(document, tagNames);
 
-        return documentRepository.save(document);
+        Document saved = documentRepository.save(document);
+        tagBitmapIndex.tagsAdded(ownerOf(document), documentId, tags.stream().map(Tag::getTag).toList());
+        tagsChanged(document);
+        return saved;
     }
 
     @Override
@@ -45,7 +56,10 @@ public class DocumentTagServiceImpl implements DocumentTagService {
                 .orElse(false);
 
         if (removed) {
-            return documentRepository.save(document);
+            Document saved = documentRepository.save(document);
+            tagBitmapIndex.tagRemoved(ownerOf(document), documentId, tagName);
+            tagsChanged(document);
+            return saved;
         }
 
         return document;
@@ -58,8 +72,12 @@ public class DocumentTagServiceImpl implements DocumentTagService {
                 .orElseThrow(() -> new EntityNotFoundException("Document not found"));
 
         document.getTags().clear();
-        addTags(documentId, tagNames, kcUserId);
-        return documentRepository.save(document);
+        attachTags(document, tagNames);
+        Document saved = documentRepository.save(document);
+        tagBitmapIndex.tagsReplaced(ownerOf(document), documentId,
+                document.getTags().stream().map(Tag::getTag).toList());
+        tagsChanged(document);
+        return saved;
     }
 
     @Override
@@ -76,6 +94,27 @@ public class DocumentTagServiceImpl implements DocumentTagService {
         return tagRepository.findDocumentsByTagName(tagName,kcUserId);
     }
 
+    /**
+     * 只修改文档的标签集合；保存、索引更新与变更通知由调用方各执行一次
+     */
+    private Set<Tag> attachTags(Document document, List<String> tagNames) {
+        Set<Tag> tags = convertStringsToTags(tagNames);
+        document.getTags().addAll(tags);
+        return tags;
+    }
+
+    private void tagsChanged(Document document) {
+        String owner = ownerOf(document);
+        resourceVersionService.bump(ResourceVersionService.Scope.DOCUMENTS, owner);
+        changeFeedService.record(owner, ChangeFeedEntry.EntityType.TAG, document.getId(),
+                ChangeFeedEntry.Action.UPDATED, document.getId());
+        pushNotifier.documentChanged(document, ChangeFeedEntry.Action.UPDATED);
+    }
+
+    private String ownerOf(Document document) {
+        return document.getUploadedBy() != null ? document.getUploadedBy().getKcUserId() : null;
+    }
+
     public Set<Tag> convertStringsToTags(List<String> tagNames) {
         if (tagNames == null || tagNames.isEmpty()) {
             return new HashSet<>();
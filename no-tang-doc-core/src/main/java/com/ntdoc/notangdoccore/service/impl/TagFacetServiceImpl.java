@@ -0,0 +1,106 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.dto.document.TagFacetResponse;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.service.TagFacetService;
+import com.ntdoc.notangdoccore.service.tag.TagBitmapIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TagFacetServiceImpl implements TagFacetService {
+
+    private final TagBitmapIndex tagBitmapIndex;
+    private final DocumentRepository documentRepository;
+
+    @Override
+    public List<Document> findDocumentsByTags(String kcUserId, List<String> all, List<String> any, List<String> none) {
+        long[] ids = tagBitmapIndex.read(kcUserId, bitmaps -> evaluate(bitmaps, all, any, none).toArray());
+        log.debug("Tag filter for user {} matched {} documents", kcUserId, ids.length);
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        return documentRepository.findWithTagsByIdIn(idList);
+    }
+
+    @Override
+    public TagFacetResponse getTagFacets(String kcUserId, List<String> all, List<String> any, List<String> none) {
+        return tagBitmapIndex.read(kcUserId, bitmaps -> {
+            Roaring64NavigableMap matched = evaluate(bitmaps, all, any, none);
+
+            List<TagFacetResponse.Facet> facets = new ArrayList<>();
+            for (Map.Entry<String, Roaring64NavigableMap> entry : bitmaps.tags().entrySet()) {
+                Roaring64NavigableMap intersection = new Roaring64NavigableMap();
+                intersection.or(matched);
+                intersection.and(entry.getValue());
+                long count = intersection.getLongCardinality();
+                if (count > 0) {
+                    facets.add(TagFacetResponse.Facet.builder().tag(entry.getKey()).count(count).build());
+                }
+            }
+            facets.sort(Comparator.comparingLong(TagFacetResponse.Facet::getCount).reversed()
+                    .thenComparing(TagFacetResponse.Facet::getTag));
+
+            return TagFacetResponse.builder()
+                    .total(matched.getLongCardinality())
+                    .facets(facets)
+                    .build();
+        });
+    }
+
+    /**
+     * (全部文档 ∩ all) ∩ (∪ any) \ (∪ none)
+     */
+    private Roaring64NavigableMap evaluate(TagBitmapIndex.UserTagBitmaps bitmaps,
+                                           List<String> all, List<String> any, List<String> none) {
+        Roaring64NavigableMap result = bitmaps.copyOfAll();
+
+        for (String tag : normalize(all)) {
+            result.and(bitmaps.view(tag));
+            if (result.isEmpty()) {
+                return result;
+            }
+        }
+
+        Set<String> anyTags = normalize(any);
+        if (!anyTags.isEmpty()) {
+            Roaring64NavigableMap union = new Roaring64NavigableMap();
+            for (String tag : anyTags) {
+                union.or(bitmaps.view(tag));
+            }
+            result.and(union);
+        }
+
+        for (String tag : normalize(none)) {
+            result.andNot(bitmaps.view(tag));
+        }
+        return result;
+    }
+
+    private Set<String> normalize(List<String> tagNames) {
+        if (tagNames == null || tagNames.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String tagName : tagNames) {
+            if (tagName != null && !tagName.isBlank()) {
+                normalized.add(tagName.trim());
+            }
+        }
+        return normalized;
+    }
+}
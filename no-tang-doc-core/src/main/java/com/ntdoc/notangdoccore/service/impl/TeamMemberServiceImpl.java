@@ -1,6 +1,7 @@
 package com.ntdoc.notangdoccore.service.impl;
 
 import com.ntdoc.notangdoccore.dto.team.TeamMemberResponse;
+import com.ntdoc.notangdoccore.entity.ChangeFeedEntry;
 import com.ntdoc.notangdoccore.entity.Team;
 import com.ntdoc.notangdoccore.entity.TeamMember;
 import com.ntdoc.notangdoccore.entity.User;
@@ -8,12 +9,15 @@ import com.ntdoc.notangdoccore.repository.TeamMemberRepository;
 import com.ntdoc.notangdoccore.repository.TeamRepository;
 import com.ntdoc.notangdoccore.repository.UserRepository;
 import com.ntdoc.notangdoccore.service.TeamMemberService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.change.ChangeFeedService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -27,6 +31,8 @@ public class TeamMemberServiceImpl implements TeamMemberService {
     private final TeamRepository teamRepository;
     private final TeamMemberRepository teamMemberRepository;
     private final UserRepository userRepository;
+    private final ResourceVersionService resourceVersionService;
+    private final ChangeFeedService changeFeedService;
 
     @Override
     public TeamMember addMember(Long teamId, String userEmail, String role, String operatorKcId) {
@@ -78,6 +84,7 @@ public class TeamMemberServiceImpl implements TeamMemberService {
         // 7. 更新团队成员数量
         team.setMemberCount(team.getMemberCount() + 1);
         teamRepository.save(team);
+        teamListChanged(team, user);
 
         log.info("Member added successfully: teamId={}, userId={}, memberId={}",
                 teamId, user.getId(), newMember.getId());
@@ -117,6 +124,7 @@ public class TeamMemberServiceImpl implements TeamMemberService {
         Team team = member.getTeam();
         team.setMemberCount(Math.max(1, team.getMemberCount() - 1));
         teamRepository.save(team);
+        teamListChanged(team, member.getUser());
 
         log.info("Member removed successfully: teamId={}, memberId={}", teamId, memberId);
     }
@@ -239,6 +247,7 @@ public class TeamMemberServiceImpl implements TeamMemberService {
         // 更新团队成员数量
         team.setMemberCount(Math.max(1, team.getMemberCount() - 1));
         teamRepository.save(team);
+        teamListChanged(team, user);
 
         log.info("User left team successfully: teamId={}, userId={}", teamId, user.getId());
     }
@@ -280,5 +289,14 @@ public class TeamMemberServiceImpl implements TeamMemberService {
         TeamMember.TeamRole role = member.get().getRole();
         return role == TeamMember.TeamRole.OWNER || role == TeamMember.TeamRole.ADMIN;
     }
-}
 
+    /**
+     * 成员数量出现在拥有者的团队列表中，变更后需要刷新列表版本；拥有者与被变更的成员都会收到团队变更
+     */
+    private void teamListChanged(Team team, User member) {
+        String ownerKcUserId = team.getOwner() != null ? team.getOwner().getKcUserId() : null;
+        resourceVersionService.bump(ResourceVersionService.Scope.TEAMS, ownerKcUserId);
+        changeFeedService.record(Arrays.asList(ownerKcUserId, member != null ? member.getKcUserId() : null),
+                ChangeFeedEntry.EntityType.TEAM, team.getId(), ChangeFeedEntry.Action.UPDATED, null);
+    }
+}
@@ -1,6 +1,7 @@
 package com.ntdoc.notangdoccore.service.impl;
 
 import com.ntdoc.notangdoccore.dto.team.TeamCreateRequest;
+import com.ntdoc.notangdoccore.entity.ChangeFeedEntry;
 import com.ntdoc.notangdoccore.entity.Team;
 import com.ntdoc.notangdoccore.entity.TeamMember;
 import com.ntdoc.notangdoccore.entity.User;
@@ -8,6 +9,8 @@ import com.ntdoc.notangdoccore.repository.TeamMemberRepository;
 import com.ntdoc.notangdoccore.repository.TeamRepository;
 import com.ntdoc.notangdoccore.repository.UserRepository;
 import com.ntdoc.notangdoccore.service.TeamService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.change.ChangeFeedService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,6 +28,8 @@ public class TeamServiceImpl implements TeamService {
     private final TeamRepository teamRepository;
     private final TeamMemberRepository teamMemberRepository;
     private final UserRepository userRepository;
+    private final ResourceVersionService resourceVersionService;
+    private final ChangeFeedService changeFeedService;
 
     @Override
     public Team createTeam(TeamCreateRequest request, String kcUserId) {
@@ -62,6 +67,7 @@ public class TeamServiceImpl implements TeamService {
 
         teamMemberRepository.save(ownerMember);
         log.info("Team owner added as member: teamId={}, userId={}", team.getId(), owner.getId());
+        teamChanged(kcUserId, team.getId(), ChangeFeedEntry.Action.CREATED);
 
         return team;
     }
@@ -98,7 +104,7 @@ public class TeamServiceImpl implements TeamService {
         Team team = getTeamById(teamId);
 
         // 2. 验证权限（只有拥有者可以更新）
-        if (!isTeamOwner(teamId, kcUserId)) {
+        if (!isOwner(team, kcUserId)) {
             log.warn("User is not team owner: teamId={}, kcUserId={}", teamId, kcUserId);
             throw new SecurityException("只有团队拥有者可以更新团队信息");
         }
@@ -118,6 +124,7 @@ public class TeamServiceImpl implements TeamService {
 
         team = teamRepository.save(team);
         log.info("Team updated successfully: teamId={}", teamId);
+        teamChanged(kcUserId, teamId, ChangeFeedEntry.Action.UPDATED);
 
         return team;
     }
@@ -130,7 +137,7 @@ public class TeamServiceImpl implements TeamService {
         Team team = getTeamById(teamId);
 
         // 2. 验证权限（只有拥有者可以删除）
-        if (!isTeamOwner(teamId, kcUserId)) {
+        if (!isOwner(team, kcUserId)) {
             log.warn("User is not team owner: teamId={}, kcUserId={}", teamId, kcUserId);
             throw new SecurityException("只有团队拥有者可以删除团队");
         }
@@ -138,6 +145,7 @@ public class TeamServiceImpl implements TeamService {
         // 3. 软删除（标记为DELETED）
         team.setStatus(Team.TeamStatus.DELETED);
         teamRepository.save(team);
+        teamChanged(kcUserId, teamId, ChangeFeedEntry.Action.DELETED);
 
         log.info("Team deleted successfully: teamId={}", teamId);
     }
@@ -145,9 +153,19 @@ public class TeamServiceImpl implements TeamService {
     @Override
     @Transactional(readOnly = true)
     public boolean isTeamOwner(Long teamId, String kcUserId) {
-        Team team = getTeamById(teamId);
-        User user = getUserByKcUserId(kcUserId);
-        return team.getOwner().getId().equals(user.getId());
+        return isOwner(getTeamById(teamId), kcUserId);
+    }
+
+    /**
+     * 直接比较拥有者的 kcUserId：团队与拥有者均来自二级缓存，无需再按 kcUserId 查询当前用户
+     */
+    private boolean isOwner(Team team, String kcUserId) {
+        return team.getOwner().getKcUserId().equals(kcUserId);
+    }
+
+    private void teamChanged(String kcUserId, Long teamId, ChangeFeedEntry.Action action) {
+        resourceVersionService.bump(ResourceVersionService.Scope.TEAMS, kcUserId);
+        changeFeedService.record(kcUserId, ChangeFeedEntry.EntityType.TEAM, teamId, action, null);
     }
 
     /**
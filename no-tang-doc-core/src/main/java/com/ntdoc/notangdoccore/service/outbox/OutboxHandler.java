@@ -0,0 +1,23 @@
+package com.ntdoc.notangdoccore.service.outbox;
+
+import com.ntdoc.notangdoccore.entity.OutboxEvent;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * outbox 事件处理器，每种事件类型一个实现
+ * 在事务之外调用，必须幂等：租约过期或部分失败时同一事件可能被再次处理
+ */
+public interface OutboxHandler {
+
+    OutboxEvent.EventType type();
+
+    /**
+     * 处理同类型的一批事件
+     *
+     * @param events 已领取的事件
+     * @return 处理失败的事件ID及错误信息，全部成功时为空
+     */
+    Map<Long, String> handle(List<OutboxEvent> events);
+}
@@ -0,0 +1,44 @@
+package com.ntdoc.notangdoccore.service.outbox;
+
+import com.ntdoc.notangdoccore.entity.logenum.ActorType;
+import com.ntdoc.notangdoccore.entity.logenum.OperationStatus;
+import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+import com.ntdoc.notangdoccore.event.UserOperationEvent;
+
+import java.util.List;
+
+/**
+ * outbox 事件的 JSON 载荷
+ */
+public final class OutboxPayloads {
+
+    private OutboxPayloads() {
+    }
+
+    public record StorageDelete(List<String> s3Keys) {
+    }
+
+    public record Rendition(Long documentId) {
+    }
+
+    public record UserOperation(ActorType actorType,
+                                String actorName,
+                                Long userId,
+                                OperationType operationType,
+                                Long targetId,
+                                String targetName,
+                                OperationStatus operationStatus,
+                                String message) {
+
+        public static UserOperation from(UserOperationEvent event) {
+            return new UserOperation(event.getActorType(), event.getActorName(), event.getUserId(),
+                    event.getOperationType(), event.getTargetId(), event.getTargetName(),
+                    event.getOperationStatus(), event.getMessage());
+        }
+
+        public UserOperationEvent toEvent(Object source) {
+            return new UserOperationEvent(source, actorType, actorName, userId, operationType,
+                    targetId, targetName, operationStatus, message);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ntdoc.notangdoccore.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.entity.OutboxEvent;
+import com.ntdoc.notangdoccore.event.UserOperationEvent;
+import com.ntdoc.notangdoccore.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 写入 outbox 事件
+ * 必须在业务事务内调用：事件与业务数据一起提交或一起回滚，副作用由 {@link OutboxRelay} 在事务外执行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxPublisher {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 删除存储对象
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void storageDelete(Collection<String> s3Keys) {
+        List<String> keys = s3Keys.stream().filter(key -> key != null && !key.isBlank()).distinct().toList();
+        if (!keys.isEmpty()) {
+            enqueue(OutboxEvent.EventType.STORAGE_DELETE, new OutboxPayloads.StorageDelete(keys));
+        }
+    }
+
+    /**
+     * 发布用户操作日志事件
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userOperation(UserOperationEvent event) {
+        enqueue(OutboxEvent.EventType.USER_OPERATION, OutboxPayloads.UserOperation.from(event));
+    }
+
+    /**
+     * 生成文档缩略图与预览图
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rendition(Long documentId) {
+        enqueue(OutboxEvent.EventType.RENDITION, new OutboxPayloads.Rendition(documentId));
+    }
+
+    private void enqueue(OutboxEvent.EventType type, Object payload) {
+        try {
+            OutboxEvent event = outboxEventRepository.save(OutboxEvent.builder()
+                    .eventType(type)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .availableAt(Instant.now())
+                    .build());
+            log.debug("Outbox event enqueued: id={}, type={}", event.getId(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox payload: " + type, e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.ntdoc.notangdoccore.service.outbox;
+
+import com.ntdoc.notangdoccore.config.OutboxProperties;
+import com.ntdoc.notangdoccore.entity.OutboxEvent;
+import com.ntdoc.notangdoccore.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * outbox 中继
+ * 1. 短事务：SKIP LOCKED 领取一批到期事件，推迟 available_at 作为租约并累加尝试次数
+ * 2. 事务外：按类型分组交给 {@link OutboxHandler}（S3、事件发布等网络 I/O 都在这里）
+ * 3. 短事务：成功的标记 DONE，失败的按指数退避重新排期，超过上限标记 FAILED
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionOperations transactionOperations;
+    private final OutboxProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<OutboxEvent.EventType, OutboxHandler> handlers;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       TransactionOperations transactionOperations,
+                       OutboxProperties properties,
+                       MeterRegistry meterRegistry,
+                       List<OutboxHandler> handlers) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionOperations = transactionOperations;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.handlers = new EnumMap<>(OutboxEvent.EventType.class);
+        handlers.forEach(handler -> this.handlers.put(handler.type(), handler));
+    }
+
+    @Scheduled(fixedDelayString = "${ntdoc.outbox.poll-interval:PT2S}")
+    public void poll() {
+        if (!properties.isRelayEnabled()) {
+            return;
+        }
+        try {
+            // 积压时连续处理，直到取到不满一批
+            while (relayBatch() >= properties.getBatchSize()) {
+                log.debug("Outbox backlog detected, relaying next batch");
+            }
+        } catch (Exception e) {
+            log.error("Outbox relay failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ntdoc.outbox.purge-interval:PT1H}")
+    public void purge() {
+        if (!properties.isRelayEnabled()) {
+            return;
+        }
+        Instant before = Instant.now().minus(properties.getRetention());
+        Integer deleted = transactionOperations.execute(status ->
+                outboxEventRepository.deleteByStatusAndProcessedAtBefore(OutboxEvent.Status.DONE, before));
+        log.info("Purged {} processed outbox events older than {}", deleted, before);
+    }
+
+    /**
+     * 领取并处理一批事件
+     *
+     * @return 本批领取的事件数
+     */
+    public int relayBatch() {
+        List<OutboxEvent> batch = transactionOperations.execute(status -> claim());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<Long, String> failures = dispatch(batch);
+        sample.stop(meterRegistry.timer("outbox.relay.batch"));
+
+        transactionOperations.executeWithoutResult(status -> complete(batch, failures));
+        return batch.size();
+    }
+
+    private List<OutboxEvent> claim() {
+        Instant now = Instant.now();
+        List<OutboxEvent> due = outboxEventRepository.findDueForUpdate(
+                OutboxEvent.Status.PENDING, now, PageRequest.of(0, properties.getBatchSize()));
+        Instant leaseUntil = now.plus(properties.getLease());
+        for (OutboxEvent event : due) {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setAvailableAt(leaseUntil);
+        }
+        return due;
+    }
+
+    private Map<Long, String> dispatch(List<OutboxEvent> batch) {
+        Map<Long, String> failures = new HashMap<>();
+        Map<OutboxEvent.EventType, List<OutboxEvent>> byType = batch.stream()
+                .collect(Collectors.groupingBy(OutboxEvent::getEventType, () -> new EnumMap<>(OutboxEvent.EventType.class), Collectors.toList()));
+
+        byType.forEach((type, events) -> {
+            OutboxHandler handler = handlers.get(type);
+            if (handler == null) {
+                events.forEach(event -> failures.put(event.getId(), "No handler for " + type));
+                return;
+            }
+            try {
+                failures.putAll(handler.handle(events));
+            } catch (Exception e) {
+                log.error("Outbox handler {} failed for {} events", type, events.size(), e);
+                events.forEach(event -> failures.put(event.getId(), e.getMessage()));
+            }
+        });
+        return failures;
+    }
+
+    private void complete(List<OutboxEvent> batch, Map<Long, String> failures) {
+        Instant now = Instant.now();
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+
+        for (OutboxEvent event : outboxEventRepository.findAllById(ids)) {
+            String error = failures.get(event.getId());
+            String outcome;
+            if (error == null) {
+                event.setStatus(OutboxEvent.Status.DONE);
+                event.setProcessedAt(now);
+                event.setLastError(null);
+                outcome = "done";
+                if (event.getCreatedAt() != null) {
+                    meterRegistry.timer("outbox.lag", "type", event.getEventType().name())
+                            .record(Duration.between(event.getCreatedAt(), now));
+                }
+            } else if (event.getAttempts() >= properties.getMaxAttempts()) {
+                event.setStatus(OutboxEvent.Status.FAILED);
+                event.setLastError(truncate(error));
+                outcome = "failed";
+                log.error("Outbox event {} ({}) gave up after {} attempts: {}",
+                        event.getId(), event.getEventType(), event.getAttempts(), error);
+            } else {
+                event.setAvailableAt(now.plus(backoff(event.getAttempts())));
+                event.setLastError(truncate(error));
+                outcome = "retry";
+                log.warn("Outbox event {} ({}) failed on attempt {}, retrying at {}: {}",
+                        event.getId(), event.getEventType(), event.getAttempts(), event.getAvailableAt(), error);
+            }
+            meterRegistry.counter("outbox.events", "type", event.getEventType().name(), "outcome", outcome).increment();
+        }
+    }
+
+    Duration backoff(int attempts) {
+        Duration delay = properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : delay;
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return "unknown error";
+        }
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
@@ -0,0 +1,145 @@
+package com.ntdoc.notangdoccore.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.config.RenditionProperties;
+import com.ntdoc.notangdoccore.entity.ChangeFeedEntry;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.OutboxEvent;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.change.ChangeFeedService;
+import com.ntdoc.notangdoccore.service.push.PushNotifier;
+import com.ntdoc.notangdoccore.service.rendition.RenditionGenerator;
+import com.ntdoc.notangdoccore.service.rendition.RenditionKeys;
+import com.ntdoc.notangdoccore.service.storage.StorageCodecs;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 生成缩略图与预览图并写回文档
+ * 衍生对象键固定，重复处理会覆盖同一对象；源文件损坏时标记 FAILED 不再重试，存储错误交给中继退避重试
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RenditionOutboxHandler implements OutboxHandler {
+    private final DocumentRepository documentRepository;
+    private final FileStorageService fileStorageService;
+    private final RenditionGenerator renditionGenerator;
+    private final RenditionProperties properties;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionOperations transactionOperations;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ResourceVersionService resourceVersionService;
+    private final ChangeFeedService changeFeedService;
+    private final PushNotifier pushNotifier;
+
+    @Override
+    public OutboxEvent.EventType type() {
+        return OutboxEvent.EventType.RENDITION;
+    }
+
+    @Override
+    public Map<Long, String> handle(List<OutboxEvent> events) {
+        Map<Long, String> failures = new HashMap<>();
+        for (OutboxEvent event : events) {
+            try {
+                OutboxPayloads.Rendition payload = objectMapper.readValue(event.getPayload(), OutboxPayloads.Rendition.class);
+                render(payload.documentId());
+            } catch (Exception e) {
+                log.warn("Rendition failed for outbox event {}: {}", event.getId(), e.getMessage());
+                failures.put(event.getId(), e.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    private void render(Long documentId) throws IOException {
+        Document document = documentRepository.findById(documentId).orElse(null);
+        if (document == null || document.getRenditionStatus() != Document.RenditionStatus.PENDING) {
+            // 文档已删除或已处理过
+            return;
+        }
+        if (!renditionGenerator.supports(document.getContentType())
+                || document.getFileSize() > properties.getMaxSourceSize().toBytes()) {
+            updateRendition(document, null, null, Document.RenditionStatus.UNSUPPORTED);
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        Path source = Files.createTempFile("ntdoc-rendition-", ".src");
+        try {
+            try (InputStream in = StorageCodecs.decode(
+                    fileStorageService.openStream(document.getS3Key(), null, null), document.getStorageCodec())) {
+                Files.copy(in, source, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            RenditionGenerator.Renditions renditions;
+            try {
+                renditions = renditionGenerator.render(source, document.getContentType());
+            } catch (IllegalArgumentException e) {
+                log.warn("Cannot render document {} ({}): {}", documentId, document.getContentType(), e.getMessage());
+                updateRendition(document, null, null, Document.RenditionStatus.FAILED);
+                outcome = "unreadable";
+                return;
+            }
+
+            String thumbnailKey = RenditionKeys.thumbnailKey(document.getS3Key());
+            String previewKey = RenditionKeys.previewKey(document.getS3Key());
+            fileStorageService.uploadBytes(thumbnailKey, renditions.thumbnail(), RenditionGenerator.JPEG);
+            fileStorageService.uploadBytes(previewKey, renditions.preview(), RenditionGenerator.JPEG);
+
+            if (!updateRendition(document, thumbnailKey, previewKey, Document.RenditionStatus.READY)) {
+                log.info("Document {} was deleted while rendering, removing derivatives", documentId);
+            }
+            outcome = "ready";
+            log.debug("Rendered document {}: thumbnail={} bytes, preview={} bytes ({}x{})", documentId,
+                    renditions.thumbnail().length, renditions.preview().length,
+                    renditions.previewWidth(), renditions.previewHeight());
+        } finally {
+            Files.deleteIfExists(source);
+            sample.stop(meterRegistry.timer("document.rendition", "outcome", outcome));
+        }
+    }
+
+    /**
+     * 写回结果；文档已被删除时把刚写入的衍生对象交给 outbox 删除
+     */
+    private boolean updateRendition(Document document, String thumbnailKey, String previewKey,
+                                    Document.RenditionStatus status) {
+        return Boolean.TRUE.equals(transactionOperations.execute(tx -> {
+            int updated = documentRepository.updateRendition(document.getId(), thumbnailKey, previewKey, status);
+            if (updated == 0 && thumbnailKey != null) {
+                outboxPublisher.storageDelete(List.of(thumbnailKey, previewKey));
+            }
+            if (updated > 0) {
+                document.setRenditionStatus(status);
+                pushNotifier.documentChanged(document, ChangeFeedEntry.Action.UPDATED);
+            }
+            if (updated > 0 && document.getUploadedBy() != null) {
+                // 文档列表包含渲染状态与缩略图
+                String owner = document.getUploadedBy().getKcUserId();
+                resourceVersionService.bump(ResourceVersionService.Scope.DOCUMENTS, owner);
+                changeFeedService.record(owner, ChangeFeedEntry.EntityType.DOCUMENT, document.getId(),
+                        ChangeFeedEntry.Action.UPDATED, null);
+            }
+            return updated > 0;
+        }));
+    }
+}
@@ -0,0 +1,53 @@
+package com.ntdoc.notangdoccore.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.entity.OutboxEvent;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 合并一批事件中的全部键，交给 DeleteObjects 批量删除
+ * 删除不存在的对象同样返回成功，重复处理是安全的
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StorageDeleteOutboxHandler implements OutboxHandler {
+    private final FileStorageService fileStorageService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public OutboxEvent.EventType type() {
+        return OutboxEvent.EventType.STORAGE_DELETE;
+    }
+
+    @Override
+    public Map<Long, String> handle(List<OutboxEvent> events) {
+        Map<Long, String> failures = new HashMap<>();
+        Map<String, List<Long>> eventsByKey = new LinkedHashMap<>();
+
+        for (OutboxEvent event : events) {
+            try {
+                OutboxPayloads.StorageDelete payload = objectMapper.readValue(event.getPayload(), OutboxPayloads.StorageDelete.class);
+                payload.s3Keys().forEach(key -> eventsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(event.getId()));
+            } catch (Exception e) {
+                failures.put(event.getId(), "Invalid payload: " + e.getMessage());
+            }
+        }
+        if (eventsByKey.isEmpty()) {
+            return failures;
+        }
+
+        Map<String, String> failedKeys = fileStorageService.deleteFiles(eventsByKey.keySet());
+        failedKeys.forEach((key, error) ->
+                eventsByKey.getOrDefault(key, List.of()).forEach(id -> failures.putIfAbsent(id, key + ": " + error)));
+
+        log.info("Outbox storage delete: events={}, keys={}, failedKeys={}",
+                events.size(), eventsByKey.size(), failedKeys.size());
+        return failures;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ntdoc.notangdoccore.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.entity.OutboxEvent;
+import com.ntdoc.notangdoccore.listener.UserOperationLogListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 事务提交后同步写入用户操作日志；每条事件独立事务，写入失败的事件由中继重试
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserOperationOutboxHandler implements OutboxHandler {
+    private final UserOperationLogListener userOperationLogListener;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public OutboxEvent.EventType type() {
+        return OutboxEvent.EventType.USER_OPERATION;
+    }
+
+    @Override
+    public Map<Long, String> handle(List<OutboxEvent> events) {
+        Map<Long, String> failures = new HashMap<>();
+        for (OutboxEvent event : events) {
+            try {
+                OutboxPayloads.UserOperation payload = objectMapper.readValue(event.getPayload(), OutboxPayloads.UserOperation.class);
+                userOperationLogListener.record(payload.toEvent(this));
+            } catch (Exception e) {
+                log.warn("Failed to record user operation event {}: {}", event.getId(), e.getMessage());
+                failures.put(event.getId(), e.getMessage());
+            }
+        }
+        return failures;
+    }
+}
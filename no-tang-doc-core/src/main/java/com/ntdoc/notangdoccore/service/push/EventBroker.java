@@ -0,0 +1,11 @@
+package com.ntdoc.notangdoccore.service.push;
+
+/**
+ * 推送事件分发
+ * 实现负责把事件送到所有实例，各实例再交给本地的 {@link PushHub} 写出；
+ * 默认的 {@link LocalEventBroker} 只覆盖当前实例
+ */
+public interface EventBroker {
+
+    void publish(PushEvent event);
+}
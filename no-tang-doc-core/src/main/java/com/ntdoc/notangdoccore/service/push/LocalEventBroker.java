@@ -0,0 +1,21 @@
+package com.ntdoc.notangdoccore.service.push;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 进程内事件分发，适用于单实例部署
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "ntdoc.push", name = "broker", havingValue = "local", matchIfMissing = true)
+public class LocalEventBroker implements EventBroker {
+
+    private final PushHub pushHub;
+
+    @Override
+    public void publish(PushEvent event) {
+        pushHub.deliver(event);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ntdoc.notangdoccore.service.push;
+
+import java.time.Instant;
+
+/**
+ * 推送给订阅者的事件
+ *
+ * @param channel    频道，见 {@link #documentChannel(Long)} 与 {@link #teamChannel(Long)}
+ * @param type       事件类型，如 comment.created、document.updated
+ * @param documentId 相关文档ID
+ * @param entityId   变更实体ID（评论ID或文档ID）
+ * @param data       事件数据（如评论内容），删除事件为 null
+ */
+public record PushEvent(String channel, String type, Long documentId, Long entityId, Object data,
+                        Instant occurredAt) {
+
+    public static final String READY = "ready";
+
+    public static String documentChannel(Long documentId) {
+        return "document:" + documentId;
+    }
+
+    public static String teamChannel(Long teamId) {
+        return "team:" + teamId;
+    }
+}
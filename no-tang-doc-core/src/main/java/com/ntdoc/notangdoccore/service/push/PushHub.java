@@ -0,0 +1,253 @@
+package com.ntdoc.notangdoccore.service.push;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.config.PushProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 本实例的 SSE 连接注册表
+ * 每个事件只序列化一次，编码后的帧写给频道内所有连接；写出在 pushExecutor 上进行，
+ * 每个连接有独立的有界发送队列，保证顺序且慢连接不会拖住其他连接。
+ * 单次写出超过 write-timeout 的连接被断开：不再入队、释放连接名额，阻塞的写在套接字超时后返回
+ */
+@Slf4j
+@Component
+public class PushHub {
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("ping").build();
+
+    private final ConcurrentMap<String, Set<Subscriber>> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ObjectMapper objectMapper;
+    private final Executor pushExecutor;
+    private final PushProperties properties;
+    private final Counter delivered;
+    private final Counter dropped;
+
+    public PushHub(ObjectMapper objectMapper, @Qualifier("pushExecutor") Executor pushExecutor,
+                   PushProperties properties, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.pushExecutor = pushExecutor;
+        this.properties = properties;
+        this.delivered = meterRegistry.counter("push.events.delivered");
+        this.dropped = meterRegistry.counter("push.subscribers.dropped");
+        meterRegistry.gauge("push.connections", connections);
+    }
+
+    /**
+     * 订阅频道；连接建立后立即收到一条 ready 事件
+     *
+     * @throws IllegalStateException 连接数已达上限
+     */
+    public SseEmitter subscribe(String channel) {
+        if (connections.incrementAndGet() > properties.getMaxConnections()) {
+            connections.decrementAndGet();
+            throw new IllegalStateException("推送连接数已达上限，请稍后重试");
+        }
+        Subscriber subscriber = new Subscriber(channel, new SseEmitter(properties.getTimeout().toMillis()));
+        channels.compute(channel, (key, subscribers) -> {
+            Set<Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+        subscriber.emitter.onTimeout(() -> unsubscribe(subscriber));
+        subscriber.emitter.onError(e -> unsubscribe(subscriber));
+
+        Set<ResponseBodyEmitter.DataWithMediaType> ready = encode(
+                new PushEvent(channel, PushEvent.READY, null, null, null, Instant.now()));
+        if (ready != null) {
+            enqueue(subscriber, ready);
+        }
+        log.debug("Push subscriber added: channel={}, connections={}", channel, connections.get());
+        return subscriber.emitter;
+    }
+
+    /**
+     * 把事件写给本实例上订阅该频道的所有连接
+     */
+    public void deliver(PushEvent event) {
+        Set<Subscriber> subscribers = channels.get(event.channel());
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = encode(event);
+        if (frame == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, frame);
+        }
+    }
+
+    /**
+     * 心跳：防止代理因空闲断开连接，同时及时发现已断开的客户端
+     */
+    @Scheduled(fixedDelayString = "${ntdoc.push.heartbeat-interval:PT25S}")
+    public void heartbeat() {
+        channels.values().forEach(subscribers -> subscribers.forEach(subscriber -> enqueue(subscriber, HEARTBEAT)));
+    }
+
+    /**
+     * 断开写出卡住的连接（客户端不再读取，TCP 窗口已满）
+     */
+    @Scheduled(fixedDelayString = "${ntdoc.push.write-timeout:PT10S}")
+    public void reapStalled() {
+        long now = System.nanoTime();
+        long timeout = properties.getWriteTimeout().toNanos();
+        channels.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            long started = subscriber.sendStartedAt;
+            if (started != 0 && now - started >= timeout) {
+                log.debug("Dropping stalled push subscriber on {}", subscriber.channel);
+                drop(subscriber);
+            }
+        }));
+    }
+
+    public int connectionCount() {
+        return connections.get();
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> encode(PushEvent event) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(event);
+            return SseEmitter.event()
+                    .name(event.type())
+                    .data(json, MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to encode push event {} on {}: {}", event.type(), event.channel(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.offer(frame, properties.getMaxPendingEvents())) {
+            // 慢消费者：断开后由客户端重连并重新拉取列表
+            log.debug("Dropping slow push subscriber on {}", subscriber.channel);
+            drop(subscriber);
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            pushExecutor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Set<ResponseBodyEmitter.DataWithMediaType> frame;
+            while ((frame = subscriber.poll()) != null) {
+                if (subscriber.closed.get()) {
+                    subscriber.clear();
+                    return;
+                }
+                subscriber.sendStartedAt = System.nanoTime();
+                try {
+                    subscriber.emitter.send(frame);
+                    if (frame != HEARTBEAT) {
+                        delivered.increment();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // 客户端已断开；容器随后会回调 onError/onCompletion
+                    log.debug("Push send failed on {}: {}", subscriber.channel, e.getMessage());
+                    unsubscribe(subscriber);
+                    subscriber.clear();
+                    return;
+                } finally {
+                    subscriber.sendStartedAt = 0;
+                }
+            }
+            subscriber.draining.set(false);
+            // 释放标记后若有新事件入队且未被其他线程接手，继续发送
+            if (subscriber.isEmpty() || !subscriber.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        dropped.increment();
+        unsubscribe(subscriber);
+        subscriber.clear();
+        // 写出卡住时 complete 需等待进行中的 send 返回，放到写出执行器上，不阻塞调用方
+        pushExecutor.execute(subscriber.emitter::complete);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        channels.computeIfPresent(subscriber.channel, (key, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        connections.decrementAndGet();
+    }
+
+    private static final class Subscriber {
+        private final String channel;
+        private final SseEmitter emitter;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // 进行中的 send 的开始时间（nanoTime），空闲时为 0
+        private volatile long sendStartedAt;
+
+        private Subscriber(String channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+
+        private boolean offer(Set<ResponseBodyEmitter.DataWithMediaType> frame, int maxPending) {
+            if (size.incrementAndGet() > maxPending) {
+                size.decrementAndGet();
+                return false;
+            }
+            pending.add(frame);
+            return true;
+        }
+
+        private Set<ResponseBodyEmitter.DataWithMediaType> poll() {
+            Set<ResponseBodyEmitter.DataWithMediaType> frame = pending.poll();
+            if (frame != null) {
+                size.decrementAndGet();
+            }
+            return frame;
+        }
+
+        private boolean isEmpty() {
+            return pending.isEmpty();
+        }
+
+        private void clear() {
+            pending.clear();
+            size.set(0);
+        }
+    }
+}
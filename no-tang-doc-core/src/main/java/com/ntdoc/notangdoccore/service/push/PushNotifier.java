@@ -0,0 +1,85 @@
+package com.ntdoc.notangdoccore.service.push;
+
+import com.ntdoc.notangdoccore.dto.comment.DocumentCommentResponse;
+import com.ntdoc.notangdoccore.entity.ChangeFeedEntry;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.DocumentComment;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 业务变更到推送事件的转换
+ * 事件数据在业务事务内构建（可访问懒加载关联），事务提交后才交给 {@link EventBroker}，回滚的变更不会被推送
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PushNotifier {
+
+    private final EventBroker eventBroker;
+
+    /**
+     * 评论变更推送到文档频道；团队评论同时推送到团队频道
+     */
+    public void commentChanged(DocumentComment comment, ChangeFeedEntry.Action action) {
+        Document document = comment.getDocument();
+        if (document == null) {
+            return;
+        }
+        String type = "comment." + action.name().toLowerCase(Locale.ROOT);
+        Object data = action == ChangeFeedEntry.Action.DELETED ? null : DocumentCommentResponse.fromEntity(comment);
+        Instant now = Instant.now();
+        List<PushEvent> events = new ArrayList<>(2);
+        events.add(new PushEvent(PushEvent.documentChannel(document.getId()), type, document.getId(),
+                comment.getId(), data, now));
+        if (comment.getTeam() != null) {
+            events.add(new PushEvent(PushEvent.teamChannel(comment.getTeam().getId()), type, document.getId(),
+                    comment.getId(), data, now));
+        }
+        publishAfterCommit(events);
+    }
+
+    /**
+     * 文档状态变更（渲染完成、标签变化、删除）推送到文档频道
+     */
+    public void documentChanged(Document document, ChangeFeedEntry.Action action) {
+        if (document == null || document.getId() == null) {
+            return;
+        }
+        String type = "document." + action.name().toLowerCase(Locale.ROOT);
+        Object data = action == ChangeFeedEntry.Action.DELETED ? null : Map.of(
+                "status", String.valueOf(document.getStatus()),
+                "renditionStatus", String.valueOf(document.getRenditionStatus()));
+        publishAfterCommit(List.of(new PushEvent(PushEvent.documentChannel(document.getId()), type,
+                document.getId(), document.getId(), data, Instant.now())));
+    }
+
+    private void publishAfterCommit(List<PushEvent> events) {
+        Runnable publish = () -> events.forEach(event -> {
+            try {
+                eventBroker.publish(event);
+            } catch (RuntimeException e) {
+                log.warn("Failed to publish push event {} on {}: {}", event.type(), event.channel(), e.getMessage());
+            }
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+    }
+}
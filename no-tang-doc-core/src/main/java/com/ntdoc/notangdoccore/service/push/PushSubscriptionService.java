@@ -0,0 +1,59 @@
+package com.ntdoc.notangdoccore.service.push;
+
+import com.ntdoc.notangdoccore.entity.Team;
+import com.ntdoc.notangdoccore.entity.TeamMember;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.repository.TeamMemberRepository;
+import com.ntdoc.notangdoccore.repository.TeamRepository;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 推送订阅鉴权：与对应的列表接口使用相同的访问规则
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class PushSubscriptionService {
+
+    private final PushHub pushHub;
+    private final DocumentRepository documentRepository;
+    private final TeamRepository teamRepository;
+    private final TeamMemberRepository teamMemberRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * 订阅文档的评论与状态变更（与获取文档评论列表的权限一致）
+     */
+    public SseEmitter subscribeDocument(Long documentId, String kcUserId) {
+        requireUser(kcUserId);
+        if (!documentRepository.existsById(documentId)) {
+            throw new IllegalArgumentException("文档不存在: " + documentId);
+        }
+        return pushHub.subscribe(PushEvent.documentChannel(documentId));
+    }
+
+    /**
+     * 订阅团队内的评论变更，仅限团队活跃成员
+     */
+    public SseEmitter subscribeTeam(Long teamId, String kcUserId) {
+        User user = requireUser(kcUserId);
+        Team team = teamRepository.findById(teamId)
+                .orElseThrow(() -> new IllegalArgumentException("团队不存在: " + teamId));
+        if (!teamMemberRepository.existsByTeamAndUserAndStatus(team, user, TeamMember.MemberStatus.ACTIVE)) {
+            throw new SecurityException("您不是该团队成员，无法订阅团队动态");
+        }
+        return pushHub.subscribe(PushEvent.teamChannel(teamId));
+    }
+
+    private User requireUser(String kcUserId) {
+        return userRepository.findByKcUserId(kcUserId)
+                .orElseThrow(() -> new SecurityException("用户不存在: " + kcUserId));
+    }
+}
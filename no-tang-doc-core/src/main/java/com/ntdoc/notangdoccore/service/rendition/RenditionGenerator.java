@@ -0,0 +1,147 @@
+package com.ntdoc.notangdoccore.service.rendition;
+
+import com.ntdoc.notangdoccore.config.RenditionProperties;
+import lombok.RequiredArgsConstructor;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 生成首页缩略图与低分辨率预览图（JPEG）
+ * PDF 只渲染第一页；图片解码时按目标尺寸降采样，避免把大图完整读入内存
+ */
+@Component
+@RequiredArgsConstructor
+public class RenditionGenerator {
+    public static final String JPEG = "image/jpeg";
+
+    private static final String PDF = "application/pdf";
+    private static final Set<String> IMAGES = Set.of("image/png", "image/jpeg", "image/jpg");
+    // PDF 渲染倍率上限（1.0 = 72 DPI），防止极小页面被放大到巨大位图
+    private static final float MAX_PDF_SCALE = 4f;
+
+    private final RenditionProperties properties;
+
+    public boolean supports(String contentType) {
+        if (!properties.isEnabled() || contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return PDF.equals(type) || IMAGES.contains(type);
+    }
+
+    /**
+     * 从本地文件生成衍生图
+     *
+     * @throws IllegalArgumentException 源文件无法解析（损坏、加密、格式不支持），重试也不会成功
+     * @throws IOException 编码输出失败
+     */
+    public Renditions render(Path source, String contentType) throws IOException {
+        BufferedImage page = PDF.equalsIgnoreCase(contentType) ? renderPdf(source) : decodeImage(source);
+        BufferedImage preview = fit(page, properties.getPreviewSize());
+        BufferedImage thumbnail = fit(preview, properties.getThumbnailSize());
+        return new Renditions(encode(thumbnail), encode(preview), preview.getWidth(), preview.getHeight());
+    }
+
+    private BufferedImage renderPdf(Path source) {
+        try (PDDocument pdf = Loader.loadPDF(source.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+            if (pdf.getNumberOfPages() == 0) {
+                throw new IllegalArgumentException("PDF has no pages");
+            }
+            PDRectangle box = pdf.getPage(0).getCropBox();
+            float longest = Math.max(box.getWidth(), box.getHeight());
+            float scale = longest > 0 ? Math.min(MAX_PDF_SCALE, properties.getPreviewSize() / longest) : 1f;
+            return new PDFRenderer(pdf).renderImage(0, scale, ImageType.RGB);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unreadable PDF: " + e.getMessage(), e);
+        }
+    }
+
+    private BufferedImage decodeImage(Path source) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                // 解码结果保留预览尺寸的 2 倍以内，缩放质量足够
+                int step = Math.max(1, longest / (properties.getPreviewSize() * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unreadable image: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 等比缩放到最长边不超过 maxSide（不放大），透明背景填充白色
+     */
+    static BufferedImage fit(BufferedImage source, int maxSide) {
+        double ratio = Math.min(1.0, (double) maxSide / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(properties.getJpegQuality());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 生成结果
+     */
+    public record Renditions(byte[] thumbnail, byte[] preview, int previewWidth, int previewHeight) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.ntdoc.notangdoccore.service.rendition;
+
+/**
+ * 衍生对象键：与原文件同目录，在原键后追加固定后缀
+ */
+public final class RenditionKeys {
+    public static final String THUMBNAIL_SUFFIX = ".thumb.jpg";
+    public static final String PREVIEW_SUFFIX = ".preview.jpg";
+
+    private RenditionKeys() {
+    }
+
+    public static String thumbnailKey(String s3Key) {
+        return s3Key + THUMBNAIL_SUFFIX;
+    }
+
+    public static String previewKey(String s3Key) {
+        return s3Key + PREVIEW_SUFFIX;
+    }
+
+    /**
+     * 衍生对象所属的原文件键；不是衍生对象键时返回 null
+     */
+    public static String ownerKey(String key) {
+        if (key.endsWith(THUMBNAIL_SUFFIX)) {
+            return key.substring(0, key.length() - THUMBNAIL_SUFFIX.length());
+        }
+        if (key.endsWith(PREVIEW_SUFFIX)) {
+            return key.substring(0, key.length() - PREVIEW_SUFFIX.length());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.ntdoc.notangdoccore.service.rendition;
+
+import com.ntdoc.notangdoccore.config.RenditionProperties;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 为列表与分享响应生成衍生图的预签名链接（本地签名，不访问对象存储）
+ * 衍生图未生成或签名失败时返回 null，前端回退为文件类型图标
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RenditionUrls {
+    private final FileStorageService fileStorageService;
+    private final RenditionProperties properties;
+
+    public String thumbnailUrl(Document document) {
+        return isReady(document) ? presign(document.getThumbnailKey()) : null;
+    }
+
+    public String previewUrl(Document document) {
+        return isReady(document) ? presign(document.getPreviewKey()) : null;
+    }
+
+    private static boolean isReady(Document document) {
+        return document != null && document.getRenditionStatus() == Document.RenditionStatus.READY;
+    }
+
+    private String presign(String key) {
+        if (key == null) {
+            return null;
+        }
+        try {
+            return fileStorageService.generateShareUrl(key, properties.getUrlExpiration()).toString();
+        } catch (Exception e) {
+            log.warn("Failed to presign rendition {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+}
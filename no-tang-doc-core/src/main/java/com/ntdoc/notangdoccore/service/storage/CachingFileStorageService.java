@@ -0,0 +1,125 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import com.ntdoc.notangdoccore.service.impl.DigitalOceanSpacesService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 带本地磁盘缓存的文件存储服务（读穿透）
+ * 元数据与已缓存内容直接从本地读取，未命中时转发到 Spaces；删除时同步失效本地条目
+ */
+@Slf4j
+@Primary
+@Service
+@RequiredArgsConstructor
+public class CachingFileStorageService implements FileStorageService {
+
+    private final DigitalOceanSpacesService delegate;
+    private final ObjectDiskCache diskCache;
+
+    @Override
+    public String uploadFile(MultipartFile file, String kcUserId) {
+        return delegate.uploadFile(file, kcUserId);
+    }
+
+    @Override
+    public StoredUpload storeFile(MultipartFile file, String kcUserId) {
+        return delegate.storeFile(file, kcUserId);
+    }
+
+    @Override
+    public void uploadBytes(String s3Key, byte[] content, String contentType) {
+        diskCache.invalidate(s3Key);
+        delegate.uploadBytes(s3Key, content, contentType);
+    }
+
+    @Override
+    public URL generateDownloadUrl(String s3Key, Duration expiration) {
+        return delegate.generateDownloadUrl(s3Key, expiration);
+    }
+
+    @Override
+    public URL generateShareUrl(String s3Key, Duration expiration) {
+        return delegate.generateShareUrl(s3Key, expiration);
+    }
+
+    @Override
+    public URL generateUploadUrl(String s3Key, String contentType, Duration expiration) {
+        return delegate.generateUploadUrl(s3Key, contentType, expiration);
+    }
+
+    @Override
+    public boolean deleteFile(String s3Key) {
+        diskCache.invalidate(s3Key);
+        return delegate.deleteFile(s3Key);
+    }
+
+    @Override
+    public Map<String, String> deleteFiles(Collection<String> s3Keys) {
+        s3Keys.forEach(diskCache::invalidate);
+        return delegate.deleteFiles(s3Keys);
+    }
+
+    @Override
+    public StoredObjectInfo getObjectInfo(String s3Key) {
+        StoredObjectInfo info = diskCache.info(s3Key);
+        if (info == null) {
+            info = delegate.getObjectInfo(s3Key);
+            diskCache.remember(s3Key, info);
+        }
+        return info;
+    }
+
+    @Override
+    public InputStream openStream(String s3Key, Long start, Long end) {
+        ObjectDiskCache.CachedObject cached = diskCache.get(s3Key);
+        if (cached == null) {
+            return delegate.openStream(s3Key, start, end);
+        }
+        long length = cached.info().contentLength();
+        long from = start != null ? start : 0;
+        long to = end != null ? Math.min(end, length - 1) : length - 1;
+        try {
+            return cached.openStream(from, Math.max(0, to - from + 1));
+        } catch (IOException e) {
+            log.warn("Failed to read cached object {}, falling back to storage: {}", s3Key, e.getMessage());
+            diskCache.invalidate(s3Key);
+            return delegate.openStream(s3Key, start, end);
+        }
+    }
+
+    @Override
+    public boolean fileExists(String s3Key) {
+        return diskCache.get(s3Key) != null || delegate.fileExists(s3Key);
+    }
+
+    @Override
+    public String generateStoragePath(String kcUserId, String originalFilename) {
+        return delegate.generateStoragePath(kcUserId, originalFilename);
+    }
+
+    /**
+     * 把对象拉取到本地缓存（已缓存时直接返回）
+     *
+     * @return 缓存条目；对象过大或未被准入时为 null
+     */
+    public ObjectDiskCache.CachedObject warm(String s3Key) {
+        ObjectDiskCache.CachedObject cached = diskCache.get(s3Key);
+        if (cached != null) {
+            return cached;
+        }
+        StoredObjectInfo info = getObjectInfo(s3Key);
+        return diskCache.fill(s3Key, info, () -> delegate.openStream(s3Key, null, null));
+    }
+}
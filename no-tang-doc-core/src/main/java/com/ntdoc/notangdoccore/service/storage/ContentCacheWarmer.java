@@ -0,0 +1,74 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.config.ContentCacheProperties;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 内容缓存预热
+ * 启动后及之后定期按 downloadCount 倒序把热点文档拉取到本地磁盘缓存，预热总量受容量比例限制
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContentCacheWarmer {
+
+    private final CachingFileStorageService cachingFileStorageService;
+    private final DocumentRepository documentRepository;
+    private final ObjectDiskCache diskCache;
+    private final ContentCacheProperties properties;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(initialDelayString = "${ntdoc.content.cache.warmup.initial-delay:PT30S}",
+            fixedDelayString = "${ntdoc.content.cache.warmup.interval:PT30M}")
+    public void scheduledWarmup() {
+        if (diskCache.isEnabled() && properties.getWarmup().isEnabled()) {
+            warmup();
+        }
+    }
+
+    /**
+     * 执行一轮预热
+     *
+     * @return 本轮已在缓存中的文档数（含新拉取的）
+     */
+    public int warmup() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            ContentCacheProperties.Warmup warmup = properties.getWarmup();
+            List<String> keys = documentRepository.findHotS3Keys(properties.getHotThreshold(),
+                    PageRequest.of(0, warmup.getTopN()));
+            long budget = (long) (properties.getMaxSize().toBytes() * warmup.getMaxFraction());
+            long used = 0;
+            int warmed = 0;
+            for (String s3Key : keys) {
+                try {
+                    ObjectDiskCache.CachedObject cached = cachingFileStorageService.warm(s3Key);
+                    if (cached == null) {
+                        continue;
+                    }
+                    used += cached.info().contentLength();
+                    warmed++;
+                } catch (Exception e) {
+                    log.warn("Failed to warm cache for {}: {}", s3Key, e.getMessage());
+                }
+                if (used >= budget) {
+                    break;
+                }
+            }
+            log.info("Content cache warmup finished: candidates={}, cached={}, bytes={}", keys.size(), warmed, used);
+            return warmed;
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.config.ContentLinkProperties;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.exception.DocumentException;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * 文档下载与分享链接
+ * 未压缩的对象直接给出对象存储的预签名 URL；gzip 存储的对象若直接预签名，忽略 Content-Encoding 的客户端
+ * （curl、下载工具）会把压缩字节按原文件名保存，因此改为指向本服务公开内容端点的签名链接，
+ * 由 {@link DocumentContentService} 按 Accept-Encoding 原样转发或解压
+ */
+@Slf4j
+@Service
+public class ContentLinkService {
+    public static final String ATTACHMENT = "attachment";
+    public static final String INLINE = "inline";
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final FileStorageService fileStorageService;
+    private final DocumentRepository documentRepository;
+    private final SecretKeySpec key;
+
+    public ContentLinkService(FileStorageService fileStorageService, DocumentRepository documentRepository,
+                              ContentLinkProperties properties) {
+        this.fileStorageService = fileStorageService;
+        this.documentRepository = documentRepository;
+        byte[] secret;
+        if (StringUtils.hasText(properties.getSecret())) {
+            secret = properties.getSecret().getBytes(StandardCharsets.UTF_8);
+        } else {
+            log.warn("ntdoc.content.link.secret is not set, signed content links are only valid on this instance");
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        }
+        this.key = new SecretKeySpec(secret, HMAC);
+    }
+
+    /**
+     * 下载链接（Content-Disposition: attachment）
+     */
+    public URL downloadUrl(Document document, Duration expiration) {
+        if (!isCompressed(document)) {
+            return fileStorageService.generateDownloadUrl(document.getS3Key(), expiration);
+        }
+        return signedUrl(document.getId(), ATTACHMENT, expiration);
+    }
+
+    /**
+     * 分享链接（Content-Disposition: inline）
+     */
+    public URL shareUrl(Document document, Duration expiration) {
+        if (!isCompressed(document)) {
+            return fileStorageService.generateShareUrl(document.getS3Key(), expiration);
+        }
+        return signedUrl(document.getId(), INLINE, expiration);
+    }
+
+    /**
+     * 校验签名链接并返回文档
+     *
+     * @throws SecurityException 签名无效或链接已过期
+     * @throws DocumentException.DocumentNotFoundException 文档不存在或已删除
+     */
+    @Transactional(readOnly = true)
+    public Document resolve(Long documentId, long expires, String disposition, String signature) {
+        if (!ATTACHMENT.equals(disposition) && !INLINE.equals(disposition)) {
+            throw new SecurityException("Invalid content link disposition");
+        }
+        if (Instant.now().getEpochSecond() > expires) {
+            throw new SecurityException("Content link expired");
+        }
+        byte[] provided;
+        try {
+            provided = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            throw new SecurityException("Invalid content link signature");
+        }
+        if (!MessageDigest.isEqual(sign(documentId, expires, disposition), provided)) {
+            throw new SecurityException("Invalid content link signature");
+        }
+        return documentRepository.findById(documentId)
+                .filter(d -> d.getStatus() != Document.DocumentStatus.DELETED)
+                .orElseThrow(() -> new DocumentException.DocumentNotFoundException(documentId));
+    }
+
+    private URL signedUrl(Long documentId, String disposition, Duration expiration) {
+        long expires = Instant.now().plus(expiration).getEpochSecond();
+        String signature = Base64.getUrlEncoder().withoutPadding().encodeToString(sign(documentId, expires, disposition));
+        // 基于当前请求的外部地址（经代理时取 X-Forwarded-* 头，需开启 forward-headers-strategy）
+        try {
+            return ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/public/documents/{id}/content")
+                    .queryParam("expires", expires)
+                    .queryParam("disposition", disposition)
+                    .queryParam("signature", signature)
+                    .buildAndExpand(documentId)
+                    .toUri()
+                    .toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] sign(Long documentId, long expires, String disposition) {
+        String payload = documentId + "\n" + expires + "\n" + disposition;
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isCompressed(Document document) {
+        return document.getStorageCodec() == Document.StorageCodec.GZIP;
+    }
+}
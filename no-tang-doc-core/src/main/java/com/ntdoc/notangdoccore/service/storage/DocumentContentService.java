@@ -0,0 +1,257 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.config.ContentCacheProperties;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 文档内容代理下载
+ * 支持 ETag / If-None-Match / Range / If-Range；热点对象写入本地磁盘缓存后以 sendfile 或内存映射方式发送
+ * gzip 存储的对象对接受 gzip 的客户端原样转发，否则（或 Range 请求）按需解压
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DocumentContentService {
+    // Tomcat NIO 连接器的 sendfile 支持（内核态零拷贝）
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final FileStorageService fileStorageService;
+    private final ObjectDiskCache diskCache;
+    private final ContentCacheProperties cacheProperties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 写出文档内容（或 304 / 416），Content-Disposition 为 inline
+     *
+     * @return 写出的 HTTP 状态码
+     */
+    public int serve(Document document, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        return serve(document, false, request, response);
+    }
+
+    /**
+     * 写出文档内容（或 304 / 416）
+     *
+     * @param attachment true 时 Content-Disposition 为 attachment（下载链接），否则为 inline
+     * @return 写出的 HTTP 状态码
+     */
+    public int serve(Document document, boolean attachment, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String s3Key = document.getS3Key();
+        ObjectDiskCache.CachedObject cached = diskCache.isEnabled() ? diskCache.get(s3Key) : null;
+        StoredObjectInfo info = cached != null ? cached.info() : fileStorageService.getObjectInfo(s3Key);
+        boolean compressed = StorageCodecs.fromContentEncoding(info.contentEncoding()) == Document.StorageCodec.GZIP;
+        // 压缩存储的对象：长度与 Range 均按解压后的原始内容计算
+        long length = compressed && document.getFileSize() != null ? document.getFileSize() : info.contentLength();
+
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (StringUtils.hasText(rangeHeader) && ifRangeSatisfied(request.getHeader(HttpHeaders.IF_RANGE), info.eTag())) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                // 多段范围按规范可以忽略，返回完整内容
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    if (start >= length || start > end) {
+                        throw new IllegalArgumentException("Range not satisfiable: " + rangeHeader);
+                    }
+                    partial = true;
+                }
+            } catch (IllegalArgumentException e) {
+                writeCommonHeaders(response, info, compressed, null);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return record(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, "none");
+            }
+        }
+
+        // 客户端接受 gzip 且请求完整内容时原样转发压缩字节，ETag 需与解压后的表示区分
+        boolean passthrough = compressed && !partial && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String eTag = passthrough ? gzipVariant(info.eTag()) : info.eTag();
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+            writeCommonHeaders(response, info, compressed, eTag);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return record(HttpServletResponse.SC_NOT_MODIFIED, "none");
+        }
+
+        if (cached == null && isHot(document)) {
+            cached = diskCache.fill(s3Key, info, () -> fileStorageService.openStream(s3Key, null, null));
+        }
+
+        long count = passthrough ? info.contentLength() : end - start + 1;
+        int status = partial ? HttpServletResponse.SC_PARTIAL_CONTENT : HttpServletResponse.SC_OK;
+        String source = cached != null ? "disk" : "storage";
+        boolean bodyless = "HEAD".equalsIgnoreCase(request.getMethod()) || count <= 0;
+        boolean decode = compressed && !passthrough;
+        boolean sendfile = !bodyless && !decode && cached != null
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT));
+
+        // 先打开数据源再写响应头：对象已不存在或读取失败时，控制器返回的错误响应不带本次内容的响应头
+        try (InputStream in = bodyless || sendfile ? null
+                : openContent(s3Key, info, cached, decode, partial, start, end, count)) {
+            writeCommonHeaders(response, info, compressed, eTag);
+            response.setStatus(status);
+            response.setContentType(contentType(document, info));
+            response.setContentLengthLong(count);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    (attachment ? ContentDisposition.attachment() : ContentDisposition.inline())
+                    .filename(document.getOriginalFilename(), StandardCharsets.UTF_8).build().toString());
+            if (passthrough) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, StorageCodecs.GZIP);
+            }
+            if (partial) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+            if (sendfile) {
+                sendFile(cached, start, count, request);
+            } else if (in != null && decode) {
+                copy(in, response.getOutputStream(), count);
+            } else if (in != null) {
+                in.transferTo(response.getOutputStream());
+            }
+        }
+        return record(status, source);
+    }
+
+    private InputStream openContent(String s3Key, StoredObjectInfo info, ObjectDiskCache.CachedObject cached,
+                                    boolean decode, boolean partial, long start, long end, long count) throws IOException {
+        if (!decode) {
+            return cached != null
+                    ? cached.openStream(start, count)
+                    : fileStorageService.openStream(s3Key, partial ? start : null, partial ? end : null);
+        }
+        // 按需解压：Range 需要先跳过前面的原始字节
+        InputStream stored = cached != null
+                ? cached.openStream(0, info.contentLength())
+                : fileStorageService.openStream(s3Key, null, null);
+        InputStream in = null;
+        try {
+            in = StorageCodecs.decode(stored, Document.StorageCodec.GZIP);
+            in.skipNBytes(start);
+            return in;
+        } catch (IOException | RuntimeException e) {
+            (in != null ? in : stored).close();
+            throw e;
+        }
+    }
+
+    private void sendFile(ObjectDiskCache.CachedObject cached, long start, long count, HttpServletRequest request) {
+        // 由容器在 Servlet 返回后通过 sendfile 发送，租约保证容器打开前文件不被淘汰删除
+        diskCache.lease(cached);
+        request.setAttribute(SENDFILE_FILENAME, cached.path().toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START, start);
+        request.setAttribute(SENDFILE_END, start + count);
+    }
+
+    private static void writeCommonHeaders(HttpServletResponse response, StoredObjectInfo info, boolean compressed,
+                                           String eTag) {
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (compressed) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (info.lastModified() != null) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, info.lastModified().toEpochMilli());
+        }
+        if (eTag != null) {
+            response.setHeader(HttpHeaders.ETAG, eTag);
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out, long count) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long remaining = count;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new EOFException("Stored content shorter than expected, " + remaining + " bytes missing");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    private boolean isHot(Document document) {
+        return diskCache.isEnabled()
+                && document.getDownloadCount() != null
+                && document.getDownloadCount() >= cacheProperties.getHotThreshold();
+    }
+
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (!StringUtils.hasText(ifNoneMatch) || eTag == null) {
+            return false;
+        }
+        String opaque = stripWeak(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if ("*".equals(trimmed) || stripWeak(trimmed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // If-Range 只接受强校验 ETag；不匹配时忽略 Range 返回完整内容
+    private static boolean ifRangeSatisfied(String ifRange, String eTag) {
+        return !StringUtils.hasText(ifRange) || (eTag != null && ifRange.trim().equals(eTag));
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase(StorageCodecs.GZIP)) {
+                return parts.length < 2 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static String gzipVariant(String eTag) {
+        if (eTag == null) {
+            return null;
+        }
+        return eTag.endsWith("\"") ? eTag.substring(0, eTag.length() - 1) + "-gzip\"" : eTag + "-gzip";
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static String contentType(Document document, StoredObjectInfo info) {
+        String type = StringUtils.hasText(document.getContentType()) ? document.getContentType() : info.contentType();
+        return StringUtils.hasText(type) ? type : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    private int record(int status, String source) {
+        meterRegistry.counter("document.content.requests", "status", String.valueOf(status), "source", source).increment();
+        return status;
+    }
+}
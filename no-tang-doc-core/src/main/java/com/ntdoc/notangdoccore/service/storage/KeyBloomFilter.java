@@ -0,0 +1,78 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 字符串键的布隆过滤器
+ * mightContain 为 false 时键一定不在集合中；为 true 时有 fpp 概率误判
+ * 每次对账使用不同的 seed，使误判的键在不同轮次间随机分布
+ */
+public final class KeyBloomFilter {
+    private final long[] bits;
+    private final long numBits;
+    private final int numHashes;
+    private final long seed;
+
+    private KeyBloomFilter(long numBits, int numHashes, long seed) {
+        this.bits = new long[(int) ((numBits + 63) >>> 6)];
+        this.numBits = (long) bits.length << 6;
+        this.numHashes = numHashes;
+        this.seed = seed;
+    }
+
+    /**
+     * @param expectedInsertions 预计插入的键数
+     * @param fpp 期望误判率，如 0.01
+     */
+    public static KeyBloomFilter create(long expectedInsertions, double fpp, long seed) {
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(Math.max(fpp, 1e-9), 0.5);
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        return new KeyBloomFilter(Math.max(64, m), k, seed);
+    }
+
+    public void put(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < numHashes; i++) {
+            long index = Long.remainderUnsigned(h1 + i * h2, numBits);
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < numHashes; i++) {
+            long index = Long.remainderUnsigned(h1 + i * h2, numBits);
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return numBits;
+    }
+
+    // FNV-1a 64 位 + murmur3 fmix64 收尾
+    private long hash(String key) {
+        long h = 0xcbf29ce484222325L ^ seed;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,320 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.ntdoc.notangdoccore.config.ContentCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 热点对象的本地磁盘缓存
+ * 两级索引：s3Key -> 元数据（ETag、长度），内容哈希（ETag）-> 磁盘文件
+ * 内容按哈希去重，容量按字节计权，淘汰策略为 Caffeine 的 W-TinyLFU；读取时内存映射文件
+ * 交给 sendfile 的文件在租约期内被淘汰时延迟删除，容器按路径打开文件前不会被删掉
+ */
+@Slf4j
+@Component
+public class ObjectDiskCache {
+    // 缓存文件所在的固定子目录与扩展名，启动清理只删除符合命名的文件
+    static final String OBJECTS_DIR = "objects";
+    private static final String OBJECT_SUFFIX = ".obj";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final ContentCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Path dir;
+    private final Cache<String, StoredObjectInfo> metadata;
+    private final Cache<String, CachedObject> content;
+    // 路径 -> 截止时间（nanoTime）
+    private final Map<Path, Long> leases = new ConcurrentHashMap<>();
+    private final Map<Path, Long> retired = new ConcurrentHashMap<>();
+
+    public ObjectDiskCache(ContentCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.dir = Path.of(properties.getDir()).resolve(OBJECTS_DIR);
+        this.metadata = Caffeine.newBuilder()
+                .maximumSize(properties.getMetadataMaxEntries())
+                .expireAfterAccess(properties.getMetadataTtl())
+                .build();
+        // 淘汰回调在调用线程同步执行：被淘汰的文件立即删除（sendfile 租约内的延后删除），磁盘占用基本不超过上限
+        this.content = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String hash, CachedObject cached) -> weight(cached.info().contentLength()))
+                .executor(Runnable::run)
+                // 每个条目对应独立的文件，被替换（并发写入同一内容）时旧文件同样需要删除
+                .removalListener((String hash, CachedObject cached, RemovalCause cause) -> {
+                    if (cached != null) {
+                        retire(cached.path());
+                    }
+                })
+                .recordStats()
+                .build();
+
+        if (properties.isEnabled()) {
+            try {
+                Files.createDirectories(dir);
+                // 上次运行留下的缓存文件已无索引，逐个删除
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(dir,
+                        "*{" + OBJECT_SUFFIX + "," + TEMP_SUFFIX + "}")) {
+                    files.forEach(ObjectDiskCache::deleteQuietly);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to prepare content cache dir " + dir, e);
+            }
+            CaffeineCacheMetrics.monitor(meterRegistry, content, "document.content.disk");
+            meterRegistry.gauge("document.content.disk.bytes", content,
+                    c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L));
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 已知的对象元数据，未记录时返回 null
+     */
+    public StoredObjectInfo info(String s3Key) {
+        return isEnabled() ? metadata.getIfPresent(s3Key) : null;
+    }
+
+    /**
+     * 记录对象元数据；对象键上传后不再修改，可以长期缓存
+     */
+    public void remember(String s3Key, StoredObjectInfo info) {
+        if (isEnabled() && info != null) {
+            metadata.put(s3Key, info);
+        }
+    }
+
+    public CachedObject get(String s3Key) {
+        StoredObjectInfo info = info(s3Key);
+        if (info == null) {
+            return null;
+        }
+        String hash = contentHash(s3Key, info);
+        CachedObject cached = content.getIfPresent(hash);
+        if (cached != null && !Files.exists(cached.path())) {
+            content.invalidate(hash);
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * 从对象存储完整读取到缓存目录；内容已缓存时直接复用
+     * 对象过大、写入失败或未被准入时返回 null，调用方回退为直接转发
+     */
+    public CachedObject fill(String s3Key, StoredObjectInfo info, Supplier<InputStream> source) {
+        if (!isEnabled()) {
+            return null;
+        }
+        remember(s3Key, info);
+        if (info.contentLength() > maxObjectBytes()) {
+            recordFill("too_large");
+            return null;
+        }
+        String hash = contentHash(s3Key, info);
+        CachedObject existing = content.getIfPresent(hash);
+        if (existing != null && Files.exists(existing.path())) {
+            return existing;
+        }
+
+        // 每次写入使用新文件名，延迟删除的旧文件不会误删同一内容的新文件
+        String name = fileName(hash) + "." + UUID.randomUUID();
+        Path target = dir.resolve(name + OBJECT_SUFFIX);
+        Path temp = dir.resolve(name + TEMP_SUFFIX);
+        try (InputStream in = source.get()) {
+            long copied = Files.copy(in, temp);
+            if (copied != info.contentLength()) {
+                throw new IOException("Short read: expected " + info.contentLength() + " bytes, got " + copied);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            log.warn("Failed to cache object {}: {}", s3Key, e.getMessage());
+            deleteQuietly(temp);
+            recordFill("error");
+            return null;
+        }
+
+        CachedObject cached = new CachedObject(target, info);
+        content.put(hash, cached);
+        // TinyLFU 可能直接拒绝访问频率低于淘汰候选的新条目，此时文件已被删除
+        if (content.getIfPresent(hash) != cached) {
+            recordFill("rejected");
+            return null;
+        }
+        recordFill("stored");
+        log.debug("Cached object {} ({} bytes) as {}", s3Key, info.contentLength(), hash);
+        return cached;
+    }
+
+    /**
+     * 文件将由容器在 Servlet 返回后按路径打开（sendfile）：租约期内被淘汰时延迟删除
+     * 容器打开后持有文件描述符，之后删除路径不影响发送
+     */
+    public void lease(CachedObject cached) {
+        leases.put(cached.path(), System.nanoTime() + properties.getSendfileLease().toNanos());
+    }
+
+    /**
+     * 删除租约已到期的淘汰文件
+     */
+    @Scheduled(fixedDelayString = "${ntdoc.content.cache.sendfile-lease:PT1M}")
+    public void purgeRetired() {
+        long now = System.nanoTime();
+        leases.values().removeIf(deadline -> now - deadline >= 0);
+        retired.entrySet().removeIf(entry -> {
+            if (now - entry.getValue() < 0 || leases.containsKey(entry.getKey())) {
+                return false;
+            }
+            deleteQuietly(entry.getKey());
+            return true;
+        });
+    }
+
+    private void retire(Path path) {
+        Long deadline = leases.get(path);
+        if (deadline == null || System.nanoTime() - deadline >= 0) {
+            leases.remove(path);
+            deleteQuietly(path);
+        } else {
+            retired.put(path, deadline);
+        }
+    }
+
+    public void invalidate(String s3Key) {
+        StoredObjectInfo info = metadata.getIfPresent(s3Key);
+        metadata.invalidate(s3Key);
+        if (info != null) {
+            content.invalidate(contentHash(s3Key, info));
+        }
+    }
+
+    // 映射单段不能超过 2GB，更大的对象不进入缓存
+    private long maxObjectBytes() {
+        return Math.min(properties.getMaxObjectSize().toBytes(), Integer.MAX_VALUE);
+    }
+
+    private void recordFill(String outcome) {
+        meterRegistry.counter("document.content.disk.fills", "outcome", outcome).increment();
+    }
+
+    private static int weight(long bytes) {
+        return (int) Math.min(Math.max(bytes, 1), Integer.MAX_VALUE);
+    }
+
+    /**
+     * 内容哈希：对象的 ETag（单次 PUT 上传时为内容 MD5）；缺失时退化为按对象键区分
+     */
+    private static String contentHash(String s3Key, StoredObjectInfo info) {
+        String eTag = info.eTag();
+        if (eTag != null) {
+            String stripped = eTag.replace("\"", "");
+            if (!stripped.isEmpty()) {
+                return stripped + "-" + info.contentLength();
+            }
+        }
+        return "key-" + sha256(s3Key);
+    }
+
+    private static String fileName(String hash) {
+        return hash.replaceAll("[^A-Za-z0-9-]", "_");
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Failed to delete cache file {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * 缓存条目
+     */
+    public record CachedObject(Path path, StoredObjectInfo info) {
+
+        /**
+         * 以内存映射方式读取 [start, start + count)；映射建立后文件被淘汰删除也不影响读取
+         */
+        public InputStream openStream(long start, long count) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, count);
+                return new MappedInputStream(mapped);
+            }
+        }
+    }
+
+    private static final class MappedInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private MappedInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
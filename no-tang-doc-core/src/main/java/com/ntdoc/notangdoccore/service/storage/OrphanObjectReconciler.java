@@ -0,0 +1,257 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.config.StorageReconcileProperties;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import com.ntdoc.notangdoccore.service.rendition.RenditionKeys;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 存储桶与文档表的孤儿对象对账
+ * 1. 按ID游标分页读取 document.s3_key，构建布隆过滤器
+ * 2. 逐页 ListObjectsV2；布隆过滤器判定不存在的键为候选，按页批量回查文档表确认
+ * 3. 确认的孤儿对象按配置记录、隔离或删除，限速且单轮有上限
+ */
+@Slf4j
+@Component
+public class OrphanObjectReconciler {
+    private static final int KEY_PAGE_SIZE = 10000;
+
+    private final S3Client s3Client;
+    private final FileStorageService fileStorageService;
+    private final DocumentRepository documentRepository;
+    private final StorageReconcileProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final String bucketName;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OrphanObjectReconciler(S3Client s3Client,
+                                  FileStorageService fileStorageService,
+                                  DocumentRepository documentRepository,
+                                  StorageReconcileProperties properties,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${digitalocean.spaces.bucket}") String bucketName) {
+        this.s3Client = s3Client;
+        this.fileStorageService = fileStorageService;
+        this.documentRepository = documentRepository;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.bucketName = bucketName;
+    }
+
+    @Scheduled(cron = "${ntdoc.storage.reconcile.cron:0 30 3 * * *}")
+    public void scheduledReconcile() {
+        if (properties.isEnabled()) {
+            reconcile();
+        }
+    }
+
+    /**
+     * 执行一轮对账；已有对账在运行时直接返回 null
+     */
+    public Report reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Orphan reconcile already running, skipping");
+            return null;
+        }
+        try {
+            long started = System.nanoTime();
+            KeyBloomFilter filter = buildFilter();
+            Report report = scan(filter);
+            meterRegistry.timer("storage.reconcile.duration").record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            log.info("Orphan reconcile finished: {}", report);
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private KeyBloomFilter buildFilter() {
+        long expected = Math.max(1000, documentRepository.count() * 11 / 10);
+        KeyBloomFilter filter = KeyBloomFilter.create(expected, properties.getFalsePositiveRate(),
+                ThreadLocalRandom.current().nextLong());
+
+        long afterId = 0;
+        long loaded = 0;
+        List<Object[]> page;
+        do {
+            page = documentRepository.findS3KeysAfterId(afterId, PageRequest.of(0, KEY_PAGE_SIZE));
+            for (Object[] row : page) {
+                afterId = ((Number) row[0]).longValue();
+                filter.put((String) row[1]);
+            }
+            loaded += page.size();
+        } while (page.size() == KEY_PAGE_SIZE);
+
+        log.info("Built bloom filter over {} document keys ({} bits)", loaded, filter.bitSize());
+        return filter;
+    }
+
+    private Report scan(KeyBloomFilter filter) {
+        Report report = new Report();
+        Instant cutoff = Instant.now().minus(properties.getMinAge());
+        Pacer pacer = new Pacer(properties.getActionsPerSecond());
+        String continuationToken = null;
+
+        do {
+            ListObjectsV2Response page = s3Client.listObjectsV2(ListObjectsV2Request.builder()
+                    .bucket(bucketName)
+                    .prefix(properties.getPrefix())
+                    .maxKeys(Math.min(1000, properties.getPageSize()))
+                    .continuationToken(continuationToken)
+                    .build());
+
+            Map<String, S3Object> candidates = new LinkedHashMap<>();
+            for (S3Object object : page.contents()) {
+                report.scanned++;
+                if (object.lastModified() != null && object.lastModified().isAfter(cutoff)) {
+                    report.skippedRecent++;
+                } else if (!filter.mightContain(object.key()) && !ownerMightExist(filter, object.key())) {
+                    candidates.put(object.key(), object);
+                }
+            }
+
+            if (!candidates.isEmpty()) {
+                report.candidates += candidates.size();
+                // 布隆过滤器构建之后新增的文档同样要排除；衍生对象（缩略图等）按原文件键回查
+                Set<String> lookup = new HashSet<>(candidates.keySet());
+                candidates.keySet().stream().map(RenditionKeys::ownerKey).filter(Objects::nonNull).forEach(lookup::add);
+                Set<String> existing = new HashSet<>(documentRepository.findExistingS3Keys(lookup));
+                candidates.keySet().removeIf(key -> existing.contains(key) || existing.contains(RenditionKeys.ownerKey(key)));
+                handleOrphans(candidates.values(), report, pacer);
+            }
+
+            continuationToken = Boolean.TRUE.equals(page.isTruncated()) ? page.nextContinuationToken() : null;
+            if (report.actioned >= properties.getMaxActionsPerRun()) {
+                report.truncated = continuationToken != null;
+                break;
+            }
+        } while (continuationToken != null);
+
+        meterRegistry.counter("storage.reconcile.scanned").increment(report.scanned);
+        meterRegistry.counter("storage.reconcile.orphans").increment(report.orphans);
+        meterRegistry.counter("storage.reconcile.orphan.bytes").increment(report.orphanBytes);
+        meterRegistry.counter("storage.reconcile.actions", "mode", properties.getMode().name()).increment(report.actioned);
+        return report;
+    }
+
+    private static boolean ownerMightExist(KeyBloomFilter filter, String key) {
+        String owner = RenditionKeys.ownerKey(key);
+        return owner != null && filter.mightContain(owner);
+    }
+
+    private void handleOrphans(Collection<S3Object> orphans, Report report, Pacer pacer) {
+        List<S3Object> selected = new ArrayList<>();
+        for (S3Object orphan : orphans) {
+            report.orphans++;
+            report.orphanBytes += orphan.size() == null ? 0 : orphan.size();
+            if (report.actioned + selected.size() < properties.getMaxActionsPerRun()) {
+                selected.add(orphan);
+            }
+        }
+
+        switch (properties.getMode()) {
+            case REPORT -> {
+                selected.forEach(o -> log.info("Orphan object: key={}, size={}, lastModified={}", o.key(), o.size(), o.lastModified()));
+                report.actioned += selected.size();
+            }
+            case DELETE -> {
+                pacer.acquire(selected.size());
+                Map<String, String> failed = fileStorageService.deleteFiles(selected.stream().map(S3Object::key).toList());
+                report.actioned += selected.size() - failed.size();
+                report.failed += failed.size();
+            }
+            case QUARANTINE -> {
+                List<String> copied = new ArrayList<>();
+                for (S3Object orphan : selected) {
+                    pacer.acquire(1);
+                    if (quarantine(orphan.key())) {
+                        copied.add(orphan.key());
+                    } else {
+                        report.failed++;
+                    }
+                }
+                Map<String, String> failed = fileStorageService.deleteFiles(copied);
+                report.actioned += copied.size() - failed.size();
+                report.failed += failed.size();
+            }
+        }
+    }
+
+    private boolean quarantine(String key) {
+        try {
+            s3Client.copyObject(CopyObjectRequest.builder()
+                    .sourceBucket(bucketName)
+                    .sourceKey(key)
+                    .destinationBucket(bucketName)
+                    .destinationKey(properties.getQuarantinePrefix() + key)
+                    .build());
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to quarantine orphan object {}: {}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 简单的匀速限流：按每秒许可数计算下一次可执行的时间点
+     */
+    static final class Pacer {
+        private final long intervalNanos;
+        private long next = System.nanoTime();
+
+        Pacer(int permitsPerSecond) {
+            this.intervalNanos = permitsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / permitsPerSecond : 0;
+        }
+
+        void acquire(int permits) {
+            if (intervalNanos == 0 || permits <= 0) {
+                return;
+            }
+            long now = System.nanoTime();
+            long wait = next - now;
+            next = Math.max(next, now) + intervalNanos * permits;
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * 单轮对账结果
+     */
+    @Getter
+    @ToString
+    public static final class Report {
+        private long scanned;
+        private long skippedRecent;
+        private long candidates;
+        private long orphans;
+        private long orphanBytes;
+        private long actioned;
+        private long failed;
+        private boolean truncated;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.config.StorageCompressionProperties;
+import com.ntdoc.notangdoccore.entity.Document;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 存储编码层
+ * 可压缩类型在写入前 gzip 压缩（对象带 Content-Encoding: gzip），读取时按编码解压或原样转发
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StorageCodecs {
+    public static final String GZIP = "gzip";
+
+    private final StorageCompressionProperties properties;
+
+    /**
+     * 是否尝试压缩该类型/大小的文件
+     */
+    public boolean eligible(String contentType, long size) {
+        if (!properties.isEnabled() || contentType == null || size < properties.getMinSize().toBytes()) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        int semicolon = type.indexOf(';');
+        if (semicolon >= 0) {
+            type = type.substring(0, semicolon).trim();
+        }
+        for (String candidate : properties.getContentTypes()) {
+            if (candidate.endsWith("/") ? type.startsWith(candidate) : type.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 把内容 gzip 压缩到临时文件；压缩收益不足时删除临时文件并返回 null
+     * 调用方负责删除返回的文件
+     */
+    public Path compress(InputStream source, long originalSize) throws IOException {
+        Path target = Files.createTempFile("ntdoc-gzip-", ".gz");
+        try {
+            try (InputStream in = source; OutputStream out = new LeveledGzipOutputStream(
+                    Files.newOutputStream(target), properties.getLevel())) {
+                in.transferTo(out);
+            }
+            long compressed = Files.size(target);
+            if (compressed > originalSize * (1 - properties.getMinSavings())) {
+                log.debug("Compression not worthwhile: {} -> {} bytes", originalSize, compressed);
+                Files.deleteIfExists(target);
+                return null;
+            }
+            return target;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+    }
+
+    /**
+     * 按存储编码包装读取流，返回原始内容
+     */
+    public static InputStream decode(InputStream stored, Document.StorageCodec codec) throws IOException {
+        return codec == Document.StorageCodec.GZIP ? new GZIPInputStream(stored, 64 * 1024) : stored;
+    }
+
+    public static Document.StorageCodec fromContentEncoding(String contentEncoding) {
+        return contentEncoding != null && contentEncoding.trim().equalsIgnoreCase(GZIP)
+                ? Document.StorageCodec.GZIP
+                : Document.StorageCodec.NONE;
+    }
+
+    /**
+     * 可指定压缩级别的 GZIPOutputStream
+     */
+    static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, 64 * 1024);
+            def.setLevel(Math.max(Deflater.BEST_SPEED, Math.min(Deflater.BEST_COMPRESSION, level)));
+        }
+    }
+}
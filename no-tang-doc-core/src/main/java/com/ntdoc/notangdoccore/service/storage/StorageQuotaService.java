@@ -0,0 +1,191 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.config.StorageQuotaProperties;
+import com.ntdoc.notangdoccore.dto.document.StorageUsageResponse;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.entity.UserStorageUsage;
+import com.ntdoc.notangdoccore.exception.DocumentException;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.repository.UserStorageUsageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 存储配额
+ * 用量保存在 user_storage_usage 汇总行中，上传/删除时在业务事务内相对增减；
+ * 上传前检查与用量查询都是一次主键读取，不对 document 表求和
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorageQuotaService {
+
+    private final UserStorageUsageRepository usageRepository;
+    private final UserRepository userRepository;
+    private final StorageQuotaProperties properties;
+    private final TransactionOperations transactionOperations;
+    private final AtomicBoolean repairing = new AtomicBoolean();
+
+    /**
+     * 上传前的快速检查（不加锁），在写入对象存储之前拒绝明显超出配额的上传；
+     * 并发上传的最终判定在 {@link #reserve} 中
+     *
+     * @throws DocumentException.StorageQuotaExceededException 配额不足
+     */
+    public void checkUpload(User user, long bytes) {
+        UserStorageUsage usage = usageRepository.findById(user.getId()).orElseGet(() -> createUsage(user.getId()));
+        long quota = quotaOf(usage);
+        if (properties.isEnabled() && usage.getUsedBytes() + bytes > quota) {
+            throw new DocumentException.StorageQuotaExceededException(usage.getUsedBytes(), bytes, quota);
+        }
+    }
+
+    /**
+     * 在上传事务内占用配额；条件更新持有汇总行锁直到提交，并发上传不会共同超出配额
+     *
+     * @throws DocumentException.StorageQuotaExceededException 配额不足，调用方事务回滚
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(User user, long bytes, long storedBytes) {
+        int updated = usageRepository.reserve(user.getId(), bytes, storedBytes, properties.isEnabled(),
+                properties.getDefaultQuota().toBytes());
+        if (updated == 0) {
+            UserStorageUsage usage = usageRepository.findById(user.getId())
+                    .orElseThrow(() -> new IllegalStateException("存储用量记录不存在: " + user.getId()));
+            throw new DocumentException.StorageQuotaExceededException(usage.getUsedBytes(), bytes, quotaOf(usage));
+        }
+    }
+
+    /**
+     * 在删除事务内归还文档占用的配额
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Collection<Document> documents) {
+        Map<Long, List<Document>> byUser = documents.stream()
+                .filter(document -> document.getUploadedBy() != null)
+                .collect(Collectors.groupingBy(document -> document.getUploadedBy().getId()));
+        byUser.forEach((userId, owned) -> usageRepository.release(userId,
+                owned.stream().mapToLong(StorageQuotaService::usedBytes).sum(),
+                owned.stream().mapToLong(StorageQuotaService::storedBytes).sum(),
+                owned.size()));
+    }
+
+    @Transactional(readOnly = true)
+    public StorageUsageResponse getUsage(String kcUserId) {
+        User user = userRepository.findByKcUserId(kcUserId)
+                .orElseThrow(() -> new RuntimeException("用户不存在: " + kcUserId));
+        UserStorageUsage usage = usageRepository.findById(user.getId())
+                .orElseGet(() -> UserStorageUsage.builder().userId(user.getId()).build());
+        long quota = quotaOf(usage);
+        return StorageUsageResponse.builder()
+                .usedBytes(usage.getUsedBytes())
+                .storedBytes(usage.getStoredBytes())
+                .documentCount(usage.getDocumentCount())
+                .quotaBytes(quota)
+                .remainingBytes(Math.max(0, quota - usage.getUsedBytes()))
+                .enforced(properties.isEnabled())
+                .build();
+    }
+
+    @Scheduled(cron = "${ntdoc.storage.quota.repair-cron:0 0 5 * * SUN}")
+    public void scheduledRepair() {
+        repair();
+    }
+
+    /**
+     * 按用户分批从 document 表重新统计用量，修正汇总漂移
+     *
+     * @return 被修正的用户数
+     */
+    public int repair() {
+        if (!repairing.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int corrected = 0;
+            int scanned = 0;
+            long afterId = 0;
+            while (true) {
+                List<Long> userIds = usageRepository.findUserIdsAfter(afterId,
+                        PageRequest.of(0, properties.getRepairBatchSize()));
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                for (Long userId : userIds) {
+                    if (Boolean.TRUE.equals(transactionOperations.execute(status -> repairUser(userId)))) {
+                        corrected++;
+                    }
+                }
+                scanned += userIds.size();
+                afterId = userIds.get(userIds.size() - 1);
+            }
+            log.info("Storage usage repair finished: users={}, corrected={}", scanned, corrected);
+            return corrected;
+        } finally {
+            repairing.set(false);
+        }
+    }
+
+    /**
+     * 锁定汇总行后重新统计；上传/删除的相对更新在行锁上等待，统计与写回之间不会丢失增量
+     */
+    private boolean repairUser(Long userId) {
+        UserStorageUsage usage = usageRepository.findForUpdate(userId).orElse(null);
+        if (usage == null) {
+            createUsage(userId);
+            usage = usageRepository.findForUpdate(userId).orElseThrow();
+        }
+        Object[] totals = usageRepository.sumDocuments(userId).get(0);
+        long used = ((Number) totals[0]).longValue();
+        long stored = ((Number) totals[1]).longValue();
+        long count = ((Number) totals[2]).longValue();
+        if (usage.getUsedBytes() == used && usage.getStoredBytes() == stored && usage.getDocumentCount() == count) {
+            return false;
+        }
+        log.warn("Storage usage drift for user {}: bytes {} -> {}, stored {} -> {}, documents {} -> {}", userId,
+                usage.getUsedBytes(), used, usage.getStoredBytes(), stored, usage.getDocumentCount(), count);
+        usage.setUsedBytes(used);
+        usage.setStoredBytes(stored);
+        usage.setDocumentCount(count);
+        usageRepository.save(usage);
+        return true;
+    }
+
+    /**
+     * 创建空的汇总行（新用户首次上传前）；并发创建时以已存在的行为准
+     */
+    private UserStorageUsage createUsage(Long userId) {
+        try {
+            return transactionOperations.execute(status ->
+                    usageRepository.saveAndFlush(UserStorageUsage.builder().userId(userId).build()));
+        } catch (DataIntegrityViolationException e) {
+            return usageRepository.findById(userId).orElseThrow(() -> e);
+        }
+    }
+
+    private long quotaOf(UserStorageUsage usage) {
+        return usage.getQuotaBytes() != null ? usage.getQuotaBytes() : properties.getDefaultQuota().toBytes();
+    }
+
+    private static long usedBytes(Document document) {
+        return document.getFileSize() != null ? document.getFileSize() : 0;
+    }
+
+    private static long storedBytes(Document document) {
+        return document.getStoredSize() != null ? document.getStoredSize() : usedBytes(document);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import java.time.Instant;
+
+/**
+ * 对象存储中对象的元数据
+ *
+ * @param eTag 对象 ETag（带引号，可直接用作 HTTP 强校验 ETag）
+ * @param contentLength 对象字节数（压缩存储时为压缩后的大小）
+ * @param contentType 对象 MIME 类型
+ * @param lastModified 最后修改时间
+ * @param contentEncoding 存储编码（gzip），未压缩时为 null
+ */
+public record StoredObjectInfo(String eTag, long contentLength, String contentType, Instant lastModified,
+                               String contentEncoding) {
+
+    public StoredObjectInfo {
+        if (eTag != null && !eTag.startsWith("\"") && !eTag.startsWith("W/")) {
+            eTag = "\"" + eTag + "\"";
+        }
+    }
+
+    public StoredObjectInfo(String eTag, long contentLength, String contentType, Instant lastModified) {
+        this(eTag, contentLength, contentType, lastModified, null);
+    }
+}
@@ -0,0 +1,17 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.entity.Document;
+
+/**
+ * 上传结果
+ *
+ * @param s3Key 对象键
+ * @param codec 存储编码
+ * @param storedSize 实际存储的字节数（压缩后）
+ */
+public record StoredUpload(String s3Key, Document.StorageCodec codec, long storedSize) {
+
+    public static StoredUpload plain(String s3Key, long size) {
+        return new StoredUpload(s3Key, Document.StorageCodec.NONE, size);
+    }
+}
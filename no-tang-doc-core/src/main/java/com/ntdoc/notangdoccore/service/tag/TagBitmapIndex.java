@@ -0,0 +1,219 @@
+package com.ntdoc.notangdoccore.service.tag;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.service.cache.CacheInvalidationService;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 按用户维护的标签位图索引
+ * 每个用户一份：tag -> 文档ID位图（Roaring），以及该用户全部文档ID位图（用于 NOT 运算）
+ * 首次访问时从数据库加载，之后由标签增删、文档上传/删除增量维护；
+ * 其他实例上的变更经 {@link CacheInvalidationService} 通知，本实例丢弃该用户的索引后重新加载
+ */
+@Slf4j
+@Component
+public class TagBitmapIndex {
+    public static final String CACHE = "tag-index";
+
+    private final DocumentRepository documentRepository;
+    private final Cache<String, UserTagBitmaps> users;
+    private final CacheInvalidationService invalidationService;
+
+    // 用户 -> 变更戳，每次增量变更都会递增；加载期间该用户若发生变更则不缓存本次加载结果，避免丢失更新
+    private final Cache<String, AtomicLong> mutationStamps;
+
+    public TagBitmapIndex(DocumentRepository documentRepository,
+                          @Value("${ntdoc.tags.index.max-users:10000}") long maxUsers,
+                          @Value("${ntdoc.tags.index.expire-after-access:PT30M}") Duration expireAfterAccess,
+                          CacheInvalidationService invalidationService) {
+        this.documentRepository = documentRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+        this.mutationStamps = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+        this.invalidationService = invalidationService;
+        invalidationService.register(CACHE, this::invalidate);
+    }
+
+    /**
+     * 在用户索引的读锁内执行查询
+     */
+    public <T> T read(String kcUserId, Function<UserTagBitmaps, T> query) {
+        UserTagBitmaps bitmaps = getOrLoad(kcUserId);
+        bitmaps.lock.readLock().lock();
+        try {
+            return query.apply(bitmaps);
+        } finally {
+            bitmaps.lock.readLock().unlock();
+        }
+    }
+
+    public void tagsAdded(String kcUserId, Long documentId, Collection<String> tagNames) {
+        afterCommit(kcUserId, bitmaps -> tagNames.forEach(tag -> bitmaps.add(tag, documentId)));
+    }
+
+    public void tagRemoved(String kcUserId, Long documentId, String tagName) {
+        afterCommit(kcUserId, bitmaps -> bitmaps.remove(tagName, documentId));
+    }
+
+    public void tagsReplaced(String kcUserId, Long documentId, Collection<String> tagNames) {
+        afterCommit(kcUserId, bitmaps -> {
+            bitmaps.removeDocument(documentId);
+            bitmaps.all.addLong(documentId);
+            tagNames.forEach(tag -> bitmaps.add(tag, documentId));
+        });
+    }
+
+    public void documentAdded(String kcUserId, Long documentId) {
+        afterCommit(kcUserId, bitmaps -> bitmaps.all.addLong(documentId));
+    }
+
+    public void documentsRemoved(String kcUserId, Collection<Long> documentIds) {
+        afterCommit(kcUserId, bitmaps -> documentIds.forEach(bitmaps::removeDocument));
+    }
+
+    /**
+     * 丢弃用户索引，下次访问时重新加载
+     */
+    public void invalidate(String kcUserId) {
+        mutationStamp(kcUserId).incrementAndGet();
+        users.invalidate(kcUserId);
+    }
+
+    private UserTagBitmaps getOrLoad(String kcUserId) {
+        UserTagBitmaps cached = users.getIfPresent(kcUserId);
+        if (cached != null) {
+            return cached;
+        }
+
+        AtomicLong mutationStamp = mutationStamp(kcUserId);
+        long stamp = mutationStamp.get();
+        UserTagBitmaps loaded = load(kcUserId);
+        // 变更戳被淘汰后会换成新对象，同样视为发生了变更
+        if (mutationStamps.getIfPresent(kcUserId) == mutationStamp && mutationStamp.get() == stamp) {
+            UserTagBitmaps existing = users.asMap().putIfAbsent(kcUserId, loaded);
+            return existing != null ? existing : loaded;
+        }
+        // 加载期间有并发变更：本次结果仅用于当前查询，不进入缓存
+        log.debug("Tag index for user {} changed while loading, serving uncached snapshot", kcUserId);
+        return loaded;
+    }
+
+    private AtomicLong mutationStamp(String kcUserId) {
+        return mutationStamps.get(kcUserId, key -> new AtomicLong());
+    }
+
+    private UserTagBitmaps load(String kcUserId) {
+        UserTagBitmaps bitmaps = new UserTagBitmaps();
+        documentRepository.findIdsByUploaderKcUserId(kcUserId).forEach(bitmaps.all::addLong);
+        for (Object[] row : documentRepository.findTagDocumentPairsByUploaderKcUserId(kcUserId)) {
+            bitmaps.add((String) row[0], ((Number) row[1]).longValue());
+        }
+        bitmaps.byTag.values().forEach(Roaring64NavigableMap::runOptimize);
+        log.debug("Loaded tag index for user {}: documents={}, tags={}",
+                kcUserId, bitmaps.all.getLongCardinality(), bitmaps.byTag.size());
+        return bitmaps;
+    }
+
+    private void afterCommit(String kcUserId, Consumer<UserTagBitmaps> mutation) {
+        if (kcUserId == null) {
+            return;
+        }
+        Runnable apply = () -> {
+            mutationStamp(kcUserId).incrementAndGet();
+            invalidationService.publish(CACHE, kcUserId);
+            UserTagBitmaps bitmaps = users.getIfPresent(kcUserId);
+            if (bitmaps == null) {
+                // 未加载的用户无需维护，下次访问会从数据库读取最新状态
+                return;
+            }
+            bitmaps.lock.writeLock().lock();
+            try {
+                mutation.accept(bitmaps);
+            } finally {
+                bitmaps.lock.writeLock().unlock();
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * 单个用户的位图集合
+     */
+    public static class UserTagBitmaps {
+        private static final Roaring64NavigableMap EMPTY = new Roaring64NavigableMap();
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Roaring64NavigableMap> byTag = new HashMap<>();
+        private final Roaring64NavigableMap all = new Roaring64NavigableMap();
+
+        /**
+         * 返回标签位图本身（只读，仅可作为 and/or/andNot 的参数），标签不存在时返回空位图
+         */
+        public Roaring64NavigableMap view(String tagName) {
+            return byTag.getOrDefault(tagName, EMPTY);
+        }
+
+        public Roaring64NavigableMap copyOfAll() {
+            Roaring64NavigableMap copy = new Roaring64NavigableMap();
+            copy.or(all);
+            return copy;
+        }
+
+        public Map<String, Roaring64NavigableMap> tags() {
+            return Collections.unmodifiableMap(byTag);
+        }
+
+        private void add(String tagName, long documentId) {
+            byTag.computeIfAbsent(tagName, t -> new Roaring64NavigableMap()).addLong(documentId);
+            all.addLong(documentId);
+        }
+
+        private void remove(String tagName, long documentId) {
+            Roaring64NavigableMap bitmap = byTag.get(tagName);
+            if (bitmap != null) {
+                bitmap.removeLong(documentId);
+                if (bitmap.isEmpty()) {
+                    byTag.remove(tagName);
+                }
+            }
+        }
+
+        private void removeDocument(long documentId) {
+            byTag.values().removeIf(bitmap -> {
+                bitmap.removeLong(documentId);
+                return bitmap.isEmpty();
+            });
+            all.removeLong(documentId);
+        }
+    }
+}
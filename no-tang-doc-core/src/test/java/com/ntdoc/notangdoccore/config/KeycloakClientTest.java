@@ -0,0 +1,217 @@
+package com.ntdoc.notangdoccore.config;
+
+import com.ntdoc.notangdoccore.dto.keycloak.AuthExchangeRequest;
+import com.ntdoc.notangdoccore.exception.KeycloakClientException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 以本地 HTTP 替身代替 Keycloak 的令牌与登出端点，验证 RestClient/转换器装配、
+ * keycloak.client.requests 计时器以及异步登出的结果记录
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("KeycloakClient测试")
+public class KeycloakClientTest {
+    private static final String REALM_PATH = "/realms/ntdoc";
+    private static final String TOKEN_RESPONSE = """
+            {"access_token":"access-1","token_type":"Bearer","expires_in":300,
+             "refresh_token":"refresh-1","id_token":"id-1","scope":"openid"}
+            """;
+
+    private HttpServer server;
+    private final List<String> tokenRequests = new CopyOnWriteArrayList<>();
+    private final List<String> upgradeHeaders = new CopyOnWriteArrayList<>();
+    private final CountDownLatch logoutGate = new CountDownLatch(1);
+    private volatile int logoutStatus = 204;
+    private SimpleMeterRegistry meterRegistry;
+    private KeycloakClient keycloakClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(REALM_PATH + "/protocol/openid-connect/token", this::token);
+        server.createContext(REALM_PATH + "/protocol/openid-connect/logout", this::logout);
+        server.start();
+
+        String issuer = "http://127.0.0.1:" + server.getAddress().getPort() + REALM_PATH;
+        ClientRegistration registration = ClientRegistration.withRegistrationId("keycloak")
+                .clientId("no-tang-doc-core")
+                .clientSecret("fake-secret")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("http://localhost:3000/callback")
+                .scope("openid")
+                .authorizationUri(issuer + "/protocol/openid-connect/auth")
+                .tokenUri(issuer + "/protocol/openid-connect/token")
+                .build();
+        meterRegistry = new SimpleMeterRegistry();
+        keycloakClient = new KeycloakClient(new InMemoryClientRegistrationRepository(registration),
+                "no-tang-doc-core", "fake-secret", issuer, new KeycloakProperties(), RestClient.builder(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logoutGate.countDown();
+        server.stop(0);
+    }
+
+    private void token(HttpExchange exchange) throws IOException {
+        String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        tokenRequests.add(form);
+        List<String> upgrade = exchange.getRequestHeaders().get("Upgrade");
+        if (upgrade != null) {
+            upgradeHeaders.addAll(upgrade);
+        }
+        if (form.contains("code=bad-code")) {
+            respond(exchange, 400, "{\"error\":\"invalid_grant\",\"error_description\":\"Code not valid\"}");
+        } else {
+            respond(exchange, 200, TOKEN_RESPONSE);
+        }
+    }
+
+    private void logout(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        try {
+            logoutGate.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try (exchange) {
+            exchange.sendResponseHeaders(logoutStatus, -1);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        try (exchange) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    private long requests(String operation, String outcome) {
+        var timer = meterRegistry.find("keycloak.client.requests")
+                .tag("operation", operation).tag("outcome", outcome).timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private void awaitRequests(String operation, String outcome, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requests(operation, outcome) < count) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static AuthExchangeRequest exchange(String code) {
+        AuthExchangeRequest request = new AuthExchangeRequest();
+        request.setCode(code);
+        request.setCodeVerifier("verifier-123");
+        request.setRedirectUri("http://localhost:3000/callback");
+        return request;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：授权码交换 - 发送 PKCE 参数并解析令牌响应")
+    void exchangeCode_Success() {
+        Map<String, Object> tokens = keycloakClient.exchangeCode(exchange("good-code"));
+
+        assertThat(tokens)
+                .containsEntry("access_token", "access-1")
+                .containsEntry("token_type", "Bearer")
+                .containsEntry("refresh_token", "refresh-1")
+                .containsEntry("expires_in", 300L)
+                .containsEntry("id_token", "id-1");
+        assertThat(tokenRequests).singleElement().satisfies(form -> assertThat(form)
+                .contains("grant_type=authorization_code", "code=good-code", "code_verifier=verifier-123"));
+        assertThat(requests("exchange_code", "success")).isEqualTo(1);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：授权码无效 - OAuth2 错误响应转换为 KeycloakClientException")
+    void exchangeCode_InvalidGrant() {
+        KeycloakClientException ex = assertThrows(KeycloakClientException.class,
+                () -> keycloakClient.exchangeCode(exchange("bad-code")));
+
+        assertThat(ex.getError()).isEqualTo("invalid_grant");
+        assertThat(ex.getErrorDescription()).isEqualTo("Code not valid");
+        assertThat(ex.getStatus()).isEqualTo(400);
+        assertThat(requests("exchange_code", "error")).isEqualTo(1);
+        assertThat(requests("exchange_code", "success")).isZero();
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：刷新令牌 - 发送 refresh_token 授权并解析响应")
+    void refresh_Success() {
+        Map<String, Object> tokens = keycloakClient.refresh("refresh-0");
+
+        assertThat(tokens).containsEntry("access_token", "access-1").containsEntry("refresh_token", "refresh-1");
+        assertThat(tokenRequests).singleElement().satisfies(form -> assertThat(form)
+                .contains("grant_type=refresh_token", "refresh_token=refresh-0"));
+        assertThat(requests("refresh", "success")).isEqualTo(1);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：登出 - 不等待服务端响应，完成后记录成功")
+    void logout_RecordsSuccessWithoutBlocking() throws InterruptedException {
+        keycloakClient.logout("refresh-1", null);
+
+        // 服务端仍挂起时调用方已返回，计时器尚未记录
+        assertThat(requests("logout", "success") + requests("logout", "error")).isZero();
+
+        logoutGate.countDown();
+        awaitRequests("logout", "success", 1);
+        assertThat(requests("logout", "error")).isZero();
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：登出被拒绝或服务不可达 - 记录失败")
+    void logout_RecordsError() throws InterruptedException {
+        logoutStatus = 400;
+        logoutGate.countDown();
+        keycloakClient.logout(null, "id-1");
+        awaitRequests("logout", "error", 1);
+
+        server.stop(0);
+        keycloakClient.logout("refresh-1", null);
+        awaitRequests("logout", "error", 2);
+        assertThat(requests("logout", "success")).isZero();
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：默认配置访问 http:// 端点 - 使用 HTTP/1.1，不发送 h2c 升级")
+    void cleartextEndpoint_NoH2cUpgrade() {
+        assertThat(new KeycloakProperties().getHttp().isHttp2()).isTrue();
+
+        keycloakClient.refresh("refresh-0");
+        keycloakClient.refresh("refresh-0");
+
+        assertThat(tokenRequests).hasSize(2);
+        assertThat(upgradeHeaders).isEmpty();
+    }
+}
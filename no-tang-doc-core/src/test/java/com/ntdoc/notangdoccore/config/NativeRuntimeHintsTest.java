@@ -0,0 +1,62 @@
+package com.ntdoc.notangdoccore.config;
+
+import com.ntdoc.notangdoccore.dto.document.StorageUsageResponse;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+import com.ntdoc.notangdoccore.service.outbox.OutboxPayloads;
+import org.jboss.resteasy.client.jaxrs.internal.proxy.ResteasyClientProxy;
+import org.junit.jupiter.api.*;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("原生镜像运行时提示测试")
+public class NativeRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：实体与枚举、JSON载荷注册反射")
+    void entitiesAndJsonTypes() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(Document.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(Document.DocumentStatus.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(OperationType.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(StorageUsageResponse.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(OutboxPayloads.UserOperation.class)).accepts(hints);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：Liquibase变更日志资源与变更类型")
+    void liquibase() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/changelog/db.changelog-master.yaml")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/changelog/0001-initial-tables.yaml")).accepts(hints);
+        for (String type : NativeRuntimeHints.LIQUIBASE_TYPES) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(type))).accepts(hints);
+        }
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：Keycloak Admin Client代理与表示类")
+    void keycloakAdminClient() {
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(RealmResource.class, ResteasyClientProxy.class))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(UserRepresentation.class)).accepts(hints);
+    }
+}
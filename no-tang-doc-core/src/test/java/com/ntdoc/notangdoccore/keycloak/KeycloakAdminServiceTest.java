@@ -0,0 +1,164 @@
+package com.ntdoc.notangdoccore.keycloak;
+
+import com.ntdoc.notangdoccore.config.KeycloakProperties;
+import jakarta.ws.rs.NotAuthorizedException;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.*;
+import org.keycloak.admin.client.token.TokenManager;
+import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("KeycloakAdminService测试")
+public class KeycloakAdminServiceTest {
+
+    private static final String USER_ID = "u-1";
+
+    @Mock
+    private Keycloak keycloak;
+    @Mock
+    private TokenManager tokenManager;
+    @Mock
+    private RealmResource realm;
+    @Mock
+    private UsersResource users;
+    @Mock
+    private UserResource userResource;
+    @Mock
+    private RolesResource roles;
+    @Mock
+    private RoleMappingResource roleMappings;
+    @Mock
+    private RoleScopeResource realmLevel;
+
+    private KeycloakAdminService service;
+
+    @BeforeEach
+    void setUp() {
+        KeycloakProperties props = new KeycloakProperties();
+        props.setRealm("ntdoc");
+        when(keycloak.realm("ntdoc")).thenReturn(realm);
+        lenient().when(realm.users()).thenReturn(users);
+        lenient().when(users.get(USER_ID)).thenReturn(userResource);
+        lenient().when(realm.roles()).thenReturn(roles);
+        lenient().when(userResource.roles()).thenReturn(roleMappings);
+        lenient().when(roleMappings.realmLevel()).thenReturn(realmLevel);
+        service = new KeycloakAdminService(props, keycloak);
+    }
+
+    private static Response created() {
+        return Response.created(URI.create("http://keycloak/admin/realms/ntdoc/users/" + USER_ID)).build();
+    }
+
+    private static RoleRepresentation role(String name) {
+        return new RoleRepresentation(name, null, false);
+    }
+
+    private void stubTokenManager() {
+        when(keycloak.tokenManager()).thenReturn(tokenManager);
+        when(tokenManager.getAccessTokenString()).thenReturn("stale-token");
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：创建用户 - 设置密码并分配已有角色")
+    void createUser_Success() {
+        when(users.create(any(UserRepresentation.class))).thenReturn(created());
+        when(roles.list()).thenReturn(List.of(role("user"), role("admin")));
+
+        String userId = service.createUser("alice", "alice@example.com", "secret", List.of("user", "missing"));
+
+        assertThat(userId).isEqualTo(USER_ID);
+        verify(userResource).resetPassword(any(CredentialRepresentation.class));
+        verify(realmLevel).add(List.of(role("user")));
+        verify(keycloak, never()).tokenManager();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：设置密码时令牌失效 - 只重试设置密码，不重复创建用户")
+    void createUser_RetriesOnlyFailingStep() {
+        stubTokenManager();
+        when(users.create(any(UserRepresentation.class))).thenReturn(created());
+        doThrow(new NotAuthorizedException("Bearer"))
+                .doNothing()
+                .when(userResource).resetPassword(any(CredentialRepresentation.class));
+        when(roles.list()).thenReturn(List.of(role("user")));
+
+        String userId = service.createUser("alice", "alice@example.com", "secret", List.of("user"));
+
+        assertThat(userId).isEqualTo(USER_ID);
+        verify(users, times(1)).create(any(UserRepresentation.class));
+        verify(userResource, times(2)).resetPassword(any(CredentialRepresentation.class));
+        verify(realmLevel, times(1)).add(List.of(role("user")));
+        verify(tokenManager).invalidate("stale-token");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：创建请求被拒绝(401) - 丢弃令牌后重试创建")
+    void createUser_RetriesRejectedCreate() {
+        stubTokenManager();
+        when(users.create(any(UserRepresentation.class)))
+                .thenThrow(new NotAuthorizedException("Bearer"))
+                .thenReturn(created());
+
+        String userId = service.createUser("alice", "alice@example.com", null, List.of());
+
+        assertThat(userId).isEqualTo(USER_ID);
+        verify(users, times(2)).create(any(UserRepresentation.class));
+        verify(userResource, never()).resetPassword(any());
+        verify(tokenManager).invalidate("stale-token");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：重试后仍被拒绝 - 抛出异常且不继续后续步骤")
+    void createUser_RetryFailsPropagates() {
+        stubTokenManager();
+        when(users.create(any(UserRepresentation.class))).thenThrow(new NotAuthorizedException("Bearer"));
+
+        Assertions.assertThrows(NotAuthorizedException.class,
+                () -> service.createUser("alice", "alice@example.com", "secret", List.of("user")));
+
+        verify(users, times(2)).create(any(UserRepresentation.class));
+        verifyNoInteractions(userResource, roles);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：角色缓存 - 已缓存的角色不再拉取，出现未知角色时重新加载一次")
+    void createUser_ReloadsRoleCacheForUnknownRole() {
+        when(users.create(any(UserRepresentation.class))).thenAnswer(invocation -> created());
+        when(roles.list())
+                .thenReturn(List.of(role("user")))
+                .thenReturn(List.of(role("user"), role("reviewer")));
+
+        service.createUser("alice", "alice@example.com", null, List.of("user"));
+        service.createUser("bob", "bob@example.com", null, List.of("user"));
+        verify(roles, times(1)).list();
+
+        service.createUser("carol", "carol@example.com", null, List.of("user", "reviewer"));
+        verify(roles, times(2)).list();
+        verify(realmLevel).add(List.of(role("user"), role("reviewer")));
+
+        // 重新加载的结果写回缓存
+        service.createUser("dave", "dave@example.com", null, List.of("reviewer"));
+        verify(roles, times(2)).list();
+        verify(realmLevel).add(List.of(role("reviewer")));
+    }
+}
@@ -0,0 +1,101 @@
+package com.ntdoc.notangdoccore.metrics;
+
+import com.ntdoc.notangdoccore.config.DbMetricsProperties;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import org.junit.jupiter.api.*;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("DbQueryMetricsListener测试")
+public class DbQueryMetricsListenerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DbQueryMetricsListener listener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new DbQueryMetricsListener(meterRegistry, new DbMetricsProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDbStats.end();
+    }
+
+    private ExecutionInfo execution(long elapsedMillis, Object result) {
+        ExecutionInfo info = new ExecutionInfo();
+        info.setElapsedTime(elapsedMillis);
+        info.setSuccess(true);
+        info.setResult(result);
+        return info;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：按接口与语句类型记录 SQL 耗时")
+    void afterQuery_RecordsTimerWithEndpoint() {
+        RequestDbStats.begin("DocumentController#getUserDocuments");
+
+        listener.afterQuery(execution(12, null),
+                List.of(new QueryInfo("/* DocumentController#getUserDocuments */ select d.id from document d")));
+
+        Timer timer = meterRegistry.find("db.query")
+                .tags("endpoint", "DocumentController#getUserDocuments", "type", "select", "outcome", "success")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：累加请求级语句数、行数与耗时")
+    void afterQuery_AccumulatesRequestStats() throws NoSuchMethodException {
+        RequestDbStats stats = RequestDbStats.begin("TeamController#updateTeam");
+
+        listener.afterQuery(execution(5, 2), List.of(new QueryInfo("update team set name=?")));
+        listener.afterQuery(execution(3, new int[]{1, 1, 1}), List.of(new QueryInfo("insert into log values (?)")));
+
+        MethodExecutionContext next = new MethodExecutionContext();
+        next.setTarget(mock(ResultSet.class));
+        next.setMethod(ResultSet.class.getMethod("next"));
+        next.setResult(Boolean.TRUE);
+        listener.afterMethod(next);
+
+        assertThat(stats.getQueries()).isEqualTo(2);
+        assertThat(stats.getRows()).isEqualTo(6);
+        assertThat(stats.getElapsedMillis()).isEqualTo(8);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：请求外的 SQL 归入 none")
+    void afterQuery_OutsideRequest() {
+        listener.afterQuery(execution(1, 0), List.of(new QueryInfo("delete from outbox where id=?")));
+
+        assertThat(meterRegistry.find("db.query").tags("endpoint", RequestDbStats.NO_ENDPOINT, "type", "delete").timer())
+                .isNotNull();
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：db.query 只发布固定 SLO 桶，不发布百分位直方图")
+    void afterQuery_FixedSloBuckets() {
+        listener.afterQuery(execution(7, null), List.of(new QueryInfo("select 1")));
+
+        Timer timer = meterRegistry.find("db.query").tag("type", "select").timer();
+        assertThat(timer.takeSnapshot().histogramCounts())
+                .extracting(bucket -> (long) bucket.bucket(TimeUnit.MILLISECONDS))
+                .containsExactly(1L, 5L, 10L, 25L, 50L, 100L, 250L, 500L, 1000L);
+    }
+}
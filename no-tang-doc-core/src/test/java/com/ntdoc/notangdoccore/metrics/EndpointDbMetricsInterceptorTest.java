@@ -0,0 +1,81 @@
+package com.ntdoc.notangdoccore.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("EndpointDbMetricsInterceptor测试")
+public class EndpointDbMetricsInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private EndpointDbMetricsInterceptor interceptor;
+    private HandlerMethod handler;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new EndpointDbMetricsInterceptor(meterRegistry);
+        handler = new HandlerMethod(new StubController(), StubController.class.getMethod("subscribe"));
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDbStats.end();
+    }
+
+    private DistributionSummary queries() {
+        return meterRegistry.find("http.server.db.queries").tag("endpoint", "StubController#subscribe").summary();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：同步请求 - afterCompletion 上报并解绑")
+    void syncRequest_ReportedOnCompletion() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        interceptor.preHandle(request, response, handler);
+        RequestDbStats.current().recordQuery(4, 1);
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertThat(queries().count()).isEqualTo(1);
+        assertThat(queries().totalAmount()).isEqualTo(1);
+        assertThat(RequestDbStats.current()).isNull();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：异步请求 - 首次分派结束时上报并解绑，异步回派不重复统计")
+    void asyncRequest_ReportedWhenConcurrentHandlingStarts() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        interceptor.preHandle(request, response, handler);
+        RequestDbStats.current().recordQuery(4, 1);
+        RequestDbStats.current().recordQuery(2, 0);
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+
+        assertThat(RequestDbStats.current()).isNull();
+        assertThat(queries().count()).isEqualTo(1);
+        assertThat(queries().totalAmount()).isEqualTo(2);
+
+        MockHttpServletRequest asyncDispatch = new MockHttpServletRequest();
+        asyncDispatch.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(asyncDispatch, response, handler);
+        interceptor.afterCompletion(asyncDispatch, response, handler, null);
+
+        assertThat(queries().count()).isEqualTo(1);
+    }
+
+    static class StubController {
+        public void subscribe() {
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.ntdoc.notangdoccore.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollector;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("MicrometerS3MetricPublisher测试")
+public class MicrometerS3MetricPublisherTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MicrometerS3MetricPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new MicrometerS3MetricPublisher(meterRegistry);
+    }
+
+    /**
+     * 按 SDK 的层级构造指标：ApiCall -> ApiCallAttempt -> HttpClient
+     */
+    private MetricCollector apiCall(String operation, boolean successful, int retries) {
+        MetricCollector apiCall = MetricCollector.create("ApiCall");
+        apiCall.reportMetric(CoreMetric.OPERATION_NAME, operation);
+        apiCall.reportMetric(CoreMetric.API_CALL_SUCCESSFUL, successful);
+        apiCall.reportMetric(CoreMetric.API_CALL_DURATION, Duration.ofMillis(120));
+        apiCall.reportMetric(CoreMetric.RETRY_COUNT, retries);
+        return apiCall;
+    }
+
+    private static void attempt(MetricCollector apiCall, int status, Duration backoff) {
+        MetricCollector attempt = apiCall.createChild("ApiCallAttempt");
+        attempt.reportMetric(CoreMetric.SERVICE_CALL_DURATION, Duration.ofMillis(40));
+        attempt.reportMetric(CoreMetric.BACKOFF_DELAY_DURATION, backoff);
+        attempt.reportMetric(HttpMetric.HTTP_STATUS_CODE, status);
+        MetricCollector http = attempt.createChild("HttpClient");
+        http.reportMetric(HttpMetric.CONCURRENCY_ACQUIRE_DURATION, Duration.ofMillis(2));
+        http.reportMetric(HttpMetric.PENDING_CONCURRENCY_ACQUIRES, 0);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：成功的调用 - 记录整体耗时、单次往返、连接等待与重试次数")
+    void publish_SuccessfulCall() {
+        MetricCollector apiCall = apiCall("PutObject", true, 0);
+        attempt(apiCall, 200, Duration.ZERO);
+
+        publisher.publish(apiCall.collect());
+
+        Timer call = meterRegistry.find("s3.api.call").tags("operation", "PutObject", "outcome", "success").timer();
+        assertThat(call).isNotNull();
+        assertThat(call.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(120);
+        assertThat(meterRegistry.find("s3.api.attempt").tags("operation", "PutObject", "outcome", "2xx").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.find("s3.http.acquire").tag("operation", "PutObject").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("s3.http.pending").summary().count()).isEqualTo(1);
+        // 无重试时不记录退避
+        assertThat(meterRegistry.find("s3.api.backoff").timer()).isNull();
+
+        DistributionSummary retries = meterRegistry.find("s3.api.retries").tag("operation", "PutObject").summary();
+        assertThat(retries.count()).isEqualTo(1);
+        assertThat(retries.totalAmount()).isZero();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：重试后失败的调用 - 按状态码分类每次往返并记录退避")
+    void publish_RetriedFailure() {
+        MetricCollector apiCall = apiCall("DeleteObjects", false, 2);
+        attempt(apiCall, 503, Duration.ZERO);
+        attempt(apiCall, 503, Duration.ofMillis(50));
+        attempt(apiCall, 0, Duration.ofMillis(100));
+
+        publisher.publish(apiCall.collect());
+
+        assertThat(meterRegistry.find("s3.api.call").tags("operation", "DeleteObjects", "outcome", "error").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.find("s3.api.attempt").tags("outcome", "5xx").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.find("s3.api.attempt").tags("outcome", "io_error").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("s3.api.backoff").tag("operation", "DeleteObjects").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.find("s3.api.retries").tag("operation", "DeleteObjects").summary().totalAmount())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：缺少指标的调用 - 使用默认值且不抛出")
+    void publish_MissingMetrics() {
+        publisher.publish(MetricCollector.create("ApiCall").collect());
+
+        assertThat(meterRegistry.find("s3.api.call").timer()).isNull();
+        assertThat(meterRegistry.find("s3.api.retries").tag("operation", "unknown").summary().count()).isEqualTo(1);
+    }
+}
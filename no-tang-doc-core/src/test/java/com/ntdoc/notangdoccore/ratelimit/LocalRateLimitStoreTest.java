@@ -0,0 +1,113 @@
+package com.ntdoc.notangdoccore.ratelimit;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("进程内令牌桶与并发限制测试")
+public class LocalRateLimitStoreTest {
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+
+    private AtomicLong clock;
+    private LocalRateLimitStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_000_000_000L);
+        store = new LocalRateLimitStore(1000, Duration.ofMinutes(10), clock::get);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：满桶允许突发capacity个请求，之后返回等待时间")
+    void tryAcquire_BurstThenWait() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.tryAcquire("upload:u1", 3, MINUTE)).isZero();
+        }
+
+        long wait = store.tryAcquire("upload:u1", 3, MINUTE);
+
+        // 每 20 秒补充一个令牌
+        assertThat(wait).isEqualTo(TimeUnit.SECONDS.toNanos(20));
+        assertThat(store.tryAcquire("upload:u2", 3, MINUTE)).isZero();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：按速率补充令牌，空闲后最多恢复到capacity")
+    void tryAcquire_Refills() {
+        for (int i = 0; i < 3; i++) {
+            store.tryAcquire("k", 3, MINUTE);
+        }
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        assertThat(store.tryAcquire("k", 3, MINUTE)).isZero();
+        assertThat(store.tryAcquire("k", 3, MINUTE)).isPositive();
+
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.tryAcquire("k", 3, MINUTE)).isZero();
+        }
+        assertThat(store.tryAcquire("k", 3, MINUTE)).isPositive();
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：并发取令牌 - 放行数恰好等于capacity")
+    void tryAcquire_ConcurrentExact() throws Exception {
+        LocalRateLimitStore realClock = new LocalRateLimitStore(1000, Duration.ofMinutes(10));
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 400; i++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    if (realClock.tryAcquire("k", 100, Duration.ofDays(1)) == 0) {
+                        allowed.incrementAndGet();
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(allowed.get()).isEqualTo(100);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：并发限制 - 达到上限后拒绝，释放后可再次获取且计数归零")
+    void concurrencyLimiter_AcquireRelease() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter();
+
+        assertThat(limiter.tryAcquire("u1", 2)).isTrue();
+        assertThat(limiter.tryAcquire("u1", 2)).isTrue();
+        assertThat(limiter.tryAcquire("u1", 2)).isFalse();
+        assertThat(limiter.tryAcquire("u2", 2)).isTrue();
+
+        limiter.release("u1");
+        assertThat(limiter.tryAcquire("u1", 2)).isTrue();
+
+        limiter.release("u1");
+        limiter.release("u1");
+        limiter.release("u2");
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.tryAcquire("u1", 1)).isTrue();
+    }
+}
@@ -0,0 +1,147 @@
+package com.ntdoc.notangdoccore.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("按用户限流过滤器测试")
+public class RateLimitFilterTest {
+    private static final String UPLOAD = "/api/v1/documents/upload";
+
+    private RateLimitProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimiter concurrencyLimiter;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        RateLimitProperties.Policy upload = new RateLimitProperties.Policy();
+        upload.setMethods(List.of("POST"));
+        upload.setPaths(List.of(UPLOAD));
+        upload.setCapacity(2);
+        upload.setRefillPeriod(Duration.ofMinutes(1));
+        upload.setMaxConcurrent(1);
+        properties.getPolicies().put("upload", upload);
+        meterRegistry = new SimpleMeterRegistry();
+        concurrencyLimiter = new ConcurrencyLimiter();
+        filter = newFilter(new LocalRateLimitStore(1000, Duration.ofMinutes(10)));
+        authenticate("kc-user-1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private RateLimitFilter newFilter(RateLimitStore store) {
+        return new RateLimitFilter(properties, store, concurrencyLimiter, meterRegistry, new ObjectMapper());
+    }
+
+    private static void authenticate(String subject) {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject(subject).build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt, List.of()));
+    }
+
+    private MockHttpServletResponse perform(String method, String uri) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, new MockFilterChain());
+        return response;
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.counter("http.server.ratelimit", "policy", "upload", "outcome", outcome).count();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：超过速率 - 返回429、Retry-After与JSON错误体")
+    void rateExceeded_Returns429() throws Exception {
+        assertThat(perform("POST", UPLOAD).getStatus()).isEqualTo(200);
+        assertThat(perform("POST", UPLOAD).getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = perform("POST", UPLOAD);
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("30");
+        assertThat(rejected.getContentAsString()).contains("\"code\":429");
+        assertThat(count("allowed")).isEqualTo(2);
+        assertThat(count("rejected_rate")).isEqualTo(1);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：按用户计数，未匹配的方法与路径不受限制")
+    void keyedByUserAndPolicy() throws Exception {
+        perform("POST", UPLOAD);
+        perform("POST", UPLOAD);
+
+        assertThat(perform("GET", UPLOAD).getStatus()).isEqualTo(200);
+        assertThat(perform("POST", "/api/v1/documents/batch-delete").getStatus()).isEqualTo(200);
+        authenticate("kc-user-2");
+        assertThat(perform("POST", UPLOAD).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：并发超限 - 进行中的请求结束前拒绝，结束后释放许可")
+    void concurrencyExceeded_Returns429() throws Exception {
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        FilterChain slowUpload = (req, res) -> filter.doFilter(new MockHttpServletRequest("POST", UPLOAD), nested,
+                new MockFilterChain());
+
+        filter.doFilter(new MockHttpServletRequest("POST", UPLOAD), new MockHttpServletResponse(), slowUpload);
+
+        assertThat(nested.getStatus()).isEqualTo(429);
+        assertThat(nested.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(count("rejected_concurrency")).isEqualTo(1);
+        assertThat(concurrencyLimiter.inFlight()).isZero();
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：异步响应 - 许可在异步完成时才释放")
+    void asyncRequest_ReleasedOnComplete() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", UPLOAD);
+        request.setAsyncSupported(true);
+        FilterChain startAsync = (req, res) -> req.startAsync();
+
+        filter.doFilter(request, new MockHttpServletResponse(), startAsync);
+        assertThat(concurrencyLimiter.inFlight()).isEqualTo(1);
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertThat(concurrencyLimiter.inFlight()).isZero();
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：存储不可用 - 放行并计数")
+    void storeFailure_FailsOpen() throws Exception {
+        RateLimitStore broken = mock(RateLimitStore.class);
+        when(broken.tryAcquire(anyString(), anyInt(), any())).thenThrow(new IllegalStateException("redis down"));
+        filter = newFilter(broken);
+
+        MockHttpServletResponse response = perform("POST", UPLOAD);
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(count("store_error")).isEqualTo(1);
+    }
+}
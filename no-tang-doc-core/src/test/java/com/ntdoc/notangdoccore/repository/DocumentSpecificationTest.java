@@ -0,0 +1,124 @@
+package com.ntdoc.notangdoccore.repository;
+
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.User;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.liquibase.enabled=false"
+})
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("DocumentSpecification元数据查询测试")
+public class DocumentSpecificationTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    private User owner;
+    private Document draft, review, reviewLarge;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(User.builder().kcUserId("kc-owner").username("owner").build());
+        User other = entityManager.persist(User.builder().kcUserId("kc-other").username("other").build());
+
+        draft = persistDocument(owner, Map.of("workflow.state", "DRAFT", "pages", "3"));
+        review = persistDocument(owner, Map.of("workflow.state", "REVIEW_PENDING", "pages", "12"));
+        reviewLarge = persistDocument(owner, Map.of("workflow.state", "REVIEW_DONE", "pages", "120"));
+        persistDocument(other, Map.of("workflow.state", "REVIEW_PENDING", "pages", "12"));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Document persistDocument(User user, Map<String, String> metadata) {
+        String name = UUID.randomUUID() + ".pdf";
+        Document document = Document.builder()
+                .originalFilename(name)
+                .storedFilename(name)
+                .fileSize(1L)
+                .contentType("application/pdf")
+                .s3Bucket("bucket")
+                .s3Key("documents/" + name)
+                .uploadedBy(user)
+                .status(Document.DocumentStatus.ACTIVE)
+                .build();
+        metadata.forEach(document::putMetadata);
+        return entityManager.persist(document);
+    }
+
+    private List<Long> idsOf(Specification<Document> spec) {
+        return documentRepository.findAll(DocumentSpecification.uploadedBy(owner).and(spec))
+                .stream().map(Document::getId).toList();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：metadataEquals - 精确匹配")
+    void metadataEquals() {
+        assertThat(idsOf(DocumentSpecification.metadataEquals("workflow.state", "DRAFT")))
+                .containsExactly(draft.getId());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：metadataStartsWith - 前缀匹配并转义通配符")
+    void metadataStartsWith() {
+        assertThat(idsOf(DocumentSpecification.metadataStartsWith("workflow.state", "REVIEW_")))
+                .containsExactlyInAnyOrder(review.getId(), reviewLarge.getId());
+        assertThat(idsOf(DocumentSpecification.metadataStartsWith("workflow.state", "%"))).isEmpty();
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：metadataBetween - 数值范围（非字典序）")
+    void metadataBetween() {
+        assertThat(idsOf(DocumentSpecification.metadataBetween("pages", 10.0, 100.0)))
+                .containsExactly(review.getId());
+        assertThat(idsOf(DocumentSpecification.metadataBetween("pages", 10.0, null)))
+                .containsExactlyInAnyOrder(review.getId(), reviewLarge.getId());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：多个谓词与 DocumentSpecification 组合")
+    void combinedPredicates() {
+        Specification<Document> spec = DocumentSpecification.metadataStartsWith("workflow.state", "REVIEW")
+                .and(DocumentSpecification.metadataBetween("pages", null, 50.0))
+                .and(DocumentSpecification.fileTypeEquals("application/pdf"));
+
+        assertThat(idsOf(spec)).containsExactly(review.getId());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：metadataBetween - 同键下的非数值值被忽略，不会当作 0 命中")
+    void metadataBetween_IgnoresNonNumericValues() {
+        Document unknownPages = persistDocument(owner, Map.of("pages", "n/a"));
+        Document emptyPages = persistDocument(owner, Map.of("pages", ""));
+        Document negativePages = persistDocument(owner, Map.of("pages", "-1.5e1"));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(idsOf(DocumentSpecification.metadataBetween("pages", null, 0.0)))
+                .containsExactly(negativePages.getId())
+                .doesNotContain(unknownPages.getId(), emptyPages.getId());
+        assertThat(idsOf(DocumentSpecification.metadataBetween("pages", -20.0, 5.0)))
+                .containsExactlyInAnyOrder(draft.getId(), negativePages.getId());
+    }
+}
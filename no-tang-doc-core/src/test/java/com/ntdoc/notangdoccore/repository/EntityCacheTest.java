@@ -0,0 +1,171 @@
+package com.ntdoc.notangdoccore.repository;
+
+import com.ntdoc.notangdoccore.config.CacheInvalidationConfig;
+import com.ntdoc.notangdoccore.config.EntityCacheConfig;
+import com.ntdoc.notangdoccore.entity.Tag;
+import com.ntdoc.notangdoccore.entity.Team;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.service.cache.CacheInvalidation;
+import com.ntdoc.notangdoccore.service.cache.CacheInvalidationBus;
+import com.ntdoc.notangdoccore.service.cache.CacheInvalidationService;
+import com.ntdoc.notangdoccore.service.cache.EntityCacheInvalidation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 二级缓存与查询缓存：读多写少的查找命中缓存不再访问数据库，写入后缓存失效或更新
+ * 二级缓存在事务提交后才写入，这里不使用测试事务，每步各自提交
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:entitycache;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.liquibase.enabled=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EntityCacheConfig.class, CacheInvalidationConfig.class, CacheInvalidationService.class,
+        EntityCacheInvalidation.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ActiveProfiles("test")
+@DisplayName("实体二级缓存测试")
+public class EntityCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TeamRepository teamRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private ChangeFeedRepository changeFeedRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    private TransactionTemplate tx;
+    private Statistics statistics;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = tx.execute(s -> userRepository.save(User.builder().kcUserId("kc-owner").username("owner").build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        tx.executeWithoutResult(s -> {
+            teamRepository.deleteAll();
+            tagRepository.deleteAll();
+            userRepository.deleteAll();
+        });
+    }
+
+    /**
+     * 在独立事务中执行 action，返回期间准备的 SQL 语句数
+     */
+    private long countStatements(Supplier<?> action) {
+        statistics.clear();
+        tx.execute(s -> action.get());
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    @DisplayName("测试1：按 kcUserId 查找用户 - 第二次起命中查询缓存与实体缓存")
+    void findByKcUserId_Cached() {
+        long first = countStatements(() -> userRepository.findByKcUserId("kc-owner").orElseThrow());
+        long second = countStatements(() -> userRepository.findByKcUserId("kc-owner").orElseThrow());
+
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("测试2：按 id 读取团队 - 团队与拥有者均来自二级缓存")
+    void findTeamById_Cached() {
+        Long teamId = tx.execute(s -> teamRepository.save(Team.builder().name("team").owner(owner).build())).getId();
+        // 提交后首次读取：拥有者已在缓存中，团队从数据库加载后放入缓存
+        countStatements(() -> teamRepository.findById(teamId).orElseThrow());
+
+        long statements = countStatements(() -> teamRepository.findById(teamId).orElseThrow().getOwner().getKcUserId());
+
+        assertThat(statements).isZero();
+    }
+
+    @Test
+    @DisplayName("测试3：按名称查找标签 - 新增标签使查询缓存失效")
+    void findByTag_InvalidatedOnInsert() {
+        countStatements(() -> tagRepository.findByTag("java"));
+        long cachedMiss = countStatements(() -> tagRepository.findByTag("java"));
+
+        tx.execute(s -> tagRepository.save(Tag.builder().tag("java").build()));
+        Tag found = tx.execute(s -> tagRepository.findByTag("java").orElse(null));
+
+        // 空结果同样被缓存
+        assertThat(cachedMiss).isZero();
+        assertThat(found).isNotNull();
+        assertThat(found.getTag()).isEqualTo("java");
+    }
+
+    @Test
+    @DisplayName("测试4：更新用户 - 提交后其他会话读到新值")
+    void updateUser_CacheRefreshed() {
+        userRepository.findByKcUserId("kc-owner").orElseThrow();
+
+        tx.executeWithoutResult(s -> userRepository.findByKcUserId("kc-owner").orElseThrow().setEmail("new@example.com"));
+        User reloaded = tx.execute(s -> userRepository.findByKcUserId("kc-owner").orElseThrow());
+
+        assertThat(reloaded.getEmail()).isEqualTo("new@example.com");
+    }
+
+    @Test
+    @DisplayName("测试5：预留变更序号 - 原生 UPDATE 不清空用户缓存")
+    void reserveSequence_KeepsUserCache() {
+        countStatements(() -> userRepository.findByKcUserId("kc-owner").orElseThrow());
+
+        tx.execute(s -> changeFeedRepository.reserveSequence("kc-owner", 1));
+        long statements = countStatements(() -> userRepository.findByKcUserId("kc-owner").orElseThrow());
+
+        assertThat(statements).isZero();
+        assertThat(changeFeedRepository.findCurrentSequence("kc-owner")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("测试6：更新用户 - 提交后广播失效，收到其他实例的失效后丢弃缓存")
+    void updateUser_InvalidationBroadcast() {
+        List<CacheInvalidation> published = new CopyOnWriteArrayList<>();
+        invalidationBus.subscribe(published::add);
+
+        tx.executeWithoutResult(s -> userRepository.findById(owner.getId()).orElseThrow().setEmail("new@example.com"));
+        long cached = countStatements(() -> userRepository.findById(owner.getId()).orElseThrow());
+        String key = User.class.getName() + "#" + owner.getId();
+        // 模拟其他实例写入同一用户后的广播
+        invalidationBus.publish(new CacheInvalidation("other-node", EntityCacheInvalidation.CACHE, key));
+        long statements = countStatements(() -> userRepository.findById(owner.getId()).orElseThrow());
+
+        assertThat(published).extracting(CacheInvalidation::key).contains(key);
+        assertThat(cached).isZero();
+        assertThat(statements).isEqualTo(1);
+    }
+}
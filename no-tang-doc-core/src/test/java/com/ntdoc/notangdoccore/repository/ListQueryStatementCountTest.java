@@ -0,0 +1,211 @@
+package com.ntdoc.notangdoccore.repository;
+
+import com.ntdoc.notangdoccore.dto.comment.DocumentCommentResponse;
+import com.ntdoc.notangdoccore.dto.document.DocumentListResponse;
+import com.ntdoc.notangdoccore.dto.team.TeamMemberResponse;
+import com.ntdoc.notangdoccore.dto.team.TeamResponse;
+import com.ntdoc.notangdoccore.entity.*;
+import com.ntdoc.notangdoccore.entity.Tag;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 列表接口 SQL 语句数回归测试
+ * 每个用例执行与接口相同的「查询 + DTO 映射」，断言语句数与结果条数无关，N+1 回归会直接失败
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.liquibase.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("列表查询SQL语句数测试")
+public class ListQueryStatementCountTest {
+    private static final int ROWS = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private DocumentRepository documentRepository;
+    @Autowired
+    private DocumentCommentRepository commentRepository;
+    @Autowired
+    private TeamRepository teamRepository;
+    @Autowired
+    private TeamMemberRepository teamMemberRepository;
+    @Autowired
+    private TagRepository tagRepository;
+
+    private Statistics statistics;
+    private User owner;
+    private Document document;
+    private Team team;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        owner = entityManager.persist(User.builder().kcUserId("kc-owner").username("owner").build());
+        team = entityManager.persist(Team.builder().name("team").owner(owner).build());
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            User user = entityManager.persist(User.builder().kcUserId("kc-" + i).username("user" + i).build());
+            users.add(user);
+            entityManager.persist(Team.builder().name("team" + i).owner(user).build());
+            entityManager.persist(TeamMember.builder().team(team).user(user).build());
+        }
+
+        List<Tag> tags = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tags.add(entityManager.persist(Tag.builder().tag("tag" + i).build()));
+        }
+        for (int i = 0; i < ROWS; i++) {
+            Document doc = persistDocument("doc" + i);
+            doc.getTags().add(tags.get(0));
+            doc.getTags().add(tags.get(1 + i % 4));
+            if (document == null) {
+                document = doc;
+            }
+        }
+
+        DocumentComment parent = null;
+        for (int i = 0; i < ROWS; i++) {
+            parent = entityManager.persist(DocumentComment.builder()
+                    .document(document)
+                    .user(users.get(i))
+                    .team(team)
+                    .parentComment(i % 2 == 1 ? parent : null)
+                    .content("comment" + i)
+                    .status(DocumentComment.CommentStatus.ACTIVE)
+                    .build());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Document persistDocument(String name) {
+        return entityManager.persist(Document.builder()
+                .originalFilename(name)
+                .storedFilename(name)
+                .fileSize(1L)
+                .contentType("application/pdf")
+                .s3Bucket("bucket")
+                .s3Key("documents/" + name)
+                .uploadedBy(owner)
+                .status(Document.DocumentStatus.ACTIVE)
+                .build());
+    }
+
+    /**
+     * 统计执行 action 期间准备的 SQL 语句数
+     */
+    private <T> long countStatements(Supplier<T> action) {
+        entityManager.clear();
+        statistics.clear();
+        T result = action.get();
+        assertThat(result).isNotNull();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：文档评论列表 - 单条语句")
+    void documentComments() {
+        Document ref = entityManager.getEntityManager().getReference(Document.class, document.getId());
+        Team teamRef = entityManager.getEntityManager().getReference(Team.class, team.getId());
+
+        long statements = countStatements(() -> DocumentCommentResponse.fromEntities(
+                commentRepository.findByDocumentAndTeamAndStatusOrderByCreatedAtDesc(
+                        ref, teamRef, DocumentComment.CommentStatus.ACTIVE)));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：团队成员列表 - 单条语句")
+    void teamMembers() {
+        Team teamRef = entityManager.getEntityManager().getReference(Team.class, team.getId());
+
+        long statements = countStatements(() -> teamMemberRepository
+                .findByTeamAndStatus(teamRef, TeamMember.MemberStatus.ACTIVE)
+                .stream().map(TeamMemberResponse::fromEntity).toList());
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：活跃团队列表 - 单条语句")
+    void activeTeams() {
+        long statements = countStatements(() -> teamRepository.findAllActiveTeams()
+                .stream().map(TeamResponse::fromEntity).toList());
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：文档过滤列表 - 单条语句")
+    void filterDocuments() {
+        User ownerRef = entityManager.getEntityManager().getReference(User.class, owner.getId());
+
+        long statements = countStatements(() -> DocumentListResponse.fromDocuments(
+                documentRepository.findAll(DocumentSpecification.uploadedBy(ownerRef))));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：文件名搜索列表 - 单条语句")
+    void searchDocuments() {
+        User ownerRef = entityManager.getEntityManager().getReference(User.class, owner.getId());
+
+        long statements = countStatements(() -> DocumentListResponse.fromDocuments(
+                documentRepository.findByUploadedByAndOriginalFilenameContainingIgnoreCaseOrderByCreatedAtDesc(ownerRef, "DOC")));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：按标签查询列表 - 单条语句且不重复")
+    void documentsByTag() {
+        List<Document> holder = new ArrayList<>();
+        long statements = countStatements(() -> {
+            holder.addAll(tagRepository.findDocumentsByTagName("tag0", "kc-owner"));
+            return DocumentListResponse.fromDocuments(holder);
+        });
+
+        assertThat(statements).isEqualTo(1);
+        assertThat(holder).hasSize(ROWS);
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("测试7：用户文档列表 - 单条语句")
+    void userDocuments() {
+        User ownerRef = entityManager.getEntityManager().getReference(User.class, owner.getId());
+
+        long statements = countStatements(() -> DocumentListResponse.fromDocuments(
+                documentRepository.findByUploadedByAndStatusOrderByCreatedAtDesc(ownerRef, Document.DocumentStatus.ACTIVE)));
+
+        assertThat(statements).isEqualTo(1);
+    }
+}
@@ -0,0 +1,118 @@
+package com.ntdoc.notangdoccore.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("已验证令牌缓存测试")
+public class CachingJwtDecoderTest {
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private MutableClock clock;
+    private JwtDecoder delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        delegate = mock(JwtDecoder.class);
+        meterRegistry = new SimpleMeterRegistry();
+        decoder = new CachingJwtDecoder(delegate, 100, Duration.ofMinutes(10), meterRegistry, clock);
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token).header("alg", "RS256").subject("kc-1")
+                .issuedAt(NOW).expiresAt(expiresAt).build();
+    }
+
+    private long count(String outcome) {
+        return meterRegistry.timer("security.jwt.decode", "outcome", outcome).count();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：同一令牌在有效期内只验签一次")
+    void decode_CachesVerifiedToken() {
+        Jwt jwt = jwt("t1", NOW.plusSeconds(300));
+        when(delegate.decode("t1")).thenReturn(jwt);
+
+        assertThat(decoder.decode("t1")).isSameAs(jwt);
+        assertThat(decoder.decode("t1")).isSameAs(jwt);
+
+        verify(delegate, times(1)).decode("t1");
+        assertThat(count("verified")).isEqualTo(1);
+        assertThat(count("cached")).isEqualTo(1);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：令牌过期后缓存失效，重新走完整校验")
+    void decode_ExpiresWithToken() {
+        when(delegate.decode("t1")).thenReturn(jwt("t1", NOW.plusSeconds(300)));
+        decoder.decode("t1");
+
+        clock.advance(Duration.ofSeconds(301));
+        when(delegate.decode("t1")).thenThrow(new BadJwtException("Jwt expired"));
+
+        assertThatThrownBy(() -> decoder.decode("t1")).isInstanceOf(BadJwtException.class);
+        assertThat(count("rejected")).isEqualTo(1);
+        assertThat(decoder.cachedTokens()).isZero();
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：长有效期令牌最多缓存 max-ttl；无效令牌不缓存")
+    void decode_CappedByMaxTtlAndRejectedNotCached() {
+        when(delegate.decode("long")).thenReturn(jwt("long", NOW.plus(Duration.ofHours(12))));
+        decoder.decode("long");
+        clock.advance(Duration.ofMinutes(11));
+        decoder.decode("long");
+        verify(delegate, times(2)).decode("long");
+
+        when(delegate.decode("bad")).thenThrow(new BadJwtException("Invalid signature"));
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+        verify(delegate, times(2)).decode("bad");
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
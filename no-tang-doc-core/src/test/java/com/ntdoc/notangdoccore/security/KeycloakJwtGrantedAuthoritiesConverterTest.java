@@ -0,0 +1,78 @@
+package com.ntdoc.notangdoccore.security;
+
+import org.junit.jupiter.api.*;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Keycloak 角色转换缓存测试")
+public class KeycloakJwtGrantedAuthoritiesConverterTest {
+
+    private KeycloakJwtGrantedAuthoritiesConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new KeycloakJwtGrantedAuthoritiesConverter("ntdoc-core");
+    }
+
+    private static Jwt jwt(String subject, List<String> realmRoles, List<String> clientRoles, String scope) {
+        return Jwt.withTokenValue("token-" + subject).header("alg", "RS256").subject(subject)
+                .claim("realm_access", Map.of("roles", realmRoles))
+                .claim("resource_access", Map.of("ntdoc-core", Map.of("roles", clientRoles)))
+                .claim("scope", scope)
+                .build();
+    }
+
+    private static List<String> names(Collection<GrantedAuthority> authorities) {
+        return authorities.stream().map(GrantedAuthority::getAuthority).toList();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：角色与 scope 转换为 ROLE_ / SCOPE_ 权限")
+    void convert_MapsRolesAndScopes() {
+        Collection<GrantedAuthority> authorities = converter.convert(
+                jwt("u1", List.of("user", "ADMIN"), List.of("editor"), "openid  profile"));
+
+        assertThat(names(authorities)).containsExactlyInAnyOrder(
+                "ROLE_user", "ROLE_ADMIN", "ROLE_editor", "SCOPE_openid", "SCOPE_profile");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：相同角色声明的不同用户共享同一个不可变权限集合")
+    void convert_SharesSetForIdenticalClaims() {
+        Collection<GrantedAuthority> first = converter.convert(jwt("u1", List.of("user"), List.of(), "openid"));
+        Collection<GrantedAuthority> second = converter.convert(
+                jwt("u2", new ArrayList<>(List.of("user")), List.of(), "openid"));
+        Collection<GrantedAuthority> other = converter.convert(jwt("u3", List.of("user", "ADMIN"), List.of(), "openid"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotSameAs(first);
+        assertThat(converter.cachedSets()).isEqualTo(2);
+        assertThatThrownBy(() -> first.clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：缓存键不引用令牌中的可变集合")
+    void convert_KeyIsolatedFromMutableClaims() {
+        List<String> roles = new ArrayList<>(List.of("user"));
+        Collection<GrantedAuthority> before = converter.convert(jwt("u1", roles, List.of(), "openid"));
+
+        roles.add("ADMIN");
+        Collection<GrantedAuthority> after = converter.convert(jwt("u1", roles, List.of(), "openid"));
+
+        assertThat(names(before)).doesNotContain("ROLE_ADMIN");
+        assertThat(names(after)).contains("ROLE_ADMIN");
+        assertThat(converter.convert(jwt("u2", List.of("user"), List.of(), "openid"))).isSameAs(before);
+    }
+}
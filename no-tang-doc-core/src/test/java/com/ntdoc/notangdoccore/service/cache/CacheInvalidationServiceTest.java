@@ -0,0 +1,106 @@
+package com.ntdoc.notangdoccore.service.cache;
+
+import com.ntdoc.notangdoccore.config.CacheInvalidationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("跨实例缓存失效测试")
+public class CacheInvalidationServiceTest {
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private UdpCacheInvalidationBus udpBus(String secret, String... peers) {
+        CacheInvalidationProperties.Udp properties = new CacheInvalidationProperties.Udp();
+        properties.setPort(0);
+        properties.setSecret(secret);
+        properties.setPeers(List.of(peers));
+        UdpCacheInvalidationBus bus = new UdpCacheInvalidationBus(properties, meterRegistry);
+        bus.start();
+        return bus;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：进程内总线 - 只有其他实例执行失效处理，自己发出的消息被忽略")
+    void loopback_DeliversToOtherNodes() {
+        LoopbackCacheInvalidationBus bus = new LoopbackCacheInvalidationBus();
+        CacheInvalidationService nodeA = new CacheInvalidationService(bus, meterRegistry);
+        CacheInvalidationService nodeB = new CacheInvalidationService(bus, meterRegistry);
+        BlockingQueue<String> invalidatedOnA = new LinkedBlockingQueue<>();
+        BlockingQueue<String> invalidatedOnB = new LinkedBlockingQueue<>();
+        nodeA.register("users", invalidatedOnA::add);
+        nodeB.register("users", invalidatedOnB::add);
+
+        nodeA.publish("users", 42L);
+
+        assertThat(invalidatedOnA).isEmpty();
+        assertThat(invalidatedOnB).containsExactly("42");
+        assertThat(meterRegistry.get("cache.invalidation.messages").tag("direction", "received").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：未注册的缓存 - 消息被忽略，发送方不受影响")
+    void unknownCache_Ignored() {
+        LoopbackCacheInvalidationBus bus = new LoopbackCacheInvalidationBus();
+        CacheInvalidationService nodeA = new CacheInvalidationService(bus, meterRegistry);
+        new CacheInvalidationService(bus, meterRegistry);
+
+        nodeA.publish("not-created-yet", "key");
+        nodeA.publish("users", null);
+
+        assertThat(meterRegistry.get("cache.invalidation.messages").tag("direction", "ignored").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：编码 - 往返后内容不变")
+    void encodeDecode_RoundTrip() throws Exception {
+        CacheInvalidation invalidation = new CacheInvalidation("node", "entity", "com.ntdoc.User#7");
+
+        byte[] encoded = invalidation.encode();
+
+        assertThat(CacheInvalidation.decode(encoded, 0, encoded.length)).isEqualTo(invalidation);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：UDP 总线 - 签名一致的实例之间送达，密钥不同的报文被丢弃")
+    void udp_DeliversSignedMessages() throws Exception {
+        UdpCacheInvalidationBus receiver = udpBus("shared-secret");
+        String peer = "127.0.0.1:" + receiver.localPort();
+        UdpCacheInvalidationBus sender = udpBus("shared-secret", peer);
+        UdpCacheInvalidationBus stranger = udpBus("other-secret", peer);
+        try {
+            BlockingQueue<CacheInvalidation> received = new LinkedBlockingQueue<>();
+            receiver.subscribe(received::add);
+
+            stranger.publish(new CacheInvalidation("stranger", "users", "1"));
+            sender.publish(new CacheInvalidation("sender", "users", "2"));
+
+            CacheInvalidation delivered = received.poll(5, TimeUnit.SECONDS);
+            assertThat(delivered).isEqualTo(new CacheInvalidation("sender", "users", "2"));
+            assertThat(received.poll(200, TimeUnit.MILLISECONDS)).isNull();
+            assertThat(meterRegistry.get("cache.invalidation.udp.errors").tag("reason", "rejected").counter().count())
+                    .isEqualTo(1);
+        } finally {
+            sender.stop();
+            receiver.stop();
+            stranger.stop();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.ntdoc.notangdoccore.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("列表资源版本号测试")
+public class ResourceVersionServiceTest {
+    private ResourceVersionService versions;
+
+    @BeforeEach
+    void setUp() {
+        versions = new ResourceVersionService(1000, Duration.ofMinutes(10), newInvalidationService());
+    }
+
+    private static CacheInvalidationService newInvalidationService() {
+        return new CacheInvalidationService(new LoopbackCacheInvalidationBus(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：未变更时ETag稳定，不同用户与不同资源互不影响")
+    void eTag_StableAndScoped() {
+        String documents = versions.eTag(ResourceVersionService.Scope.DOCUMENTS, "user-1");
+
+        assertThat(documents).startsWith("W/\"d-").endsWith("\"");
+        assertThat(versions.eTag(ResourceVersionService.Scope.DOCUMENTS, "user-1")).isEqualTo(documents);
+        assertThat(versions.eTag(ResourceVersionService.Scope.DOCUMENTS, "user-2")).isNotEqualTo(documents);
+        assertThat(versions.eTag(ResourceVersionService.Scope.TEAMS, "user-1")).startsWith("W/\"t-");
+        assertThat(versions.eTag(ResourceVersionService.Scope.LOGS, null)).isNull();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：bump 后ETag变化，只影响对应用户")
+    void bump_ChangesETag() {
+        String before = versions.eTag(ResourceVersionService.Scope.DOCUMENTS, "user-1");
+        String other = versions.eTag(ResourceVersionService.Scope.DOCUMENTS, "user-2");
+
+        versions.bump(ResourceVersionService.Scope.DOCUMENTS, "user-1");
+
+        assertThat(versions.eTag(ResourceVersionService.Scope.DOCUMENTS, "user-1")).isNotEqualTo(before);
+        assertThat(versions.eTag(ResourceVersionService.Scope.DOCUMENTS, "user-2")).isEqualTo(other);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：事务内 bump - 提交后再次递增，提交前读取的ETag失效")
+    void bump_AgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        versions.bump(ResourceVersionService.Scope.COMMENTS, 7L);
+        // 提交前的并发读取拿到的版本
+        String duringTransaction = versions.eTag(ResourceVersionService.Scope.COMMENTS, 7L);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(versions.eTag(ResourceVersionService.Scope.COMMENTS, 7L)).isNotEqualTo(duringTransaction);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：重新创建（如重启）后的ETag不与旧值相同")
+    void eTag_DiffersAcrossInstances() {
+        String first = versions.eTag(ResourceVersionService.Scope.DOCUMENTS, "user-1");
+        ResourceVersionService restarted = new ResourceVersionService(1000, Duration.ofMinutes(10), newInvalidationService());
+
+        assertThat(restarted.eTag(ResourceVersionService.Scope.DOCUMENTS, "user-1")).isNotEqualTo(first);
+    }
+}
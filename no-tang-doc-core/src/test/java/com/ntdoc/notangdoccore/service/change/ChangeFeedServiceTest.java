@@ -0,0 +1,163 @@
+package com.ntdoc.notangdoccore.service.change;
+
+import com.ntdoc.notangdoccore.config.ChangeFeedProperties;
+import com.ntdoc.notangdoccore.dto.change.ChangeFeedResponse;
+import com.ntdoc.notangdoccore.entity.ChangeFeedEntry;
+import com.ntdoc.notangdoccore.repository.ChangeFeedRepository;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("变更流水服务测试")
+public class ChangeFeedServiceTest {
+    private static final String USER = "kc-user-1";
+
+    @Mock
+    private ChangeFeedRepository changeFeedRepository;
+
+    private ChangeFeedProperties properties;
+    private ChangeFeedService changeFeedService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ChangeFeedProperties();
+        properties.setDefaultLimit(2);
+        properties.setMaxLimit(3);
+        changeFeedService = new ChangeFeedService(changeFeedRepository, properties,
+                TransactionOperations.withoutTransaction());
+    }
+
+    private static List<ChangeFeedEntry> entries(long fromSeq, long toSeq) {
+        return LongStream.rangeClosed(fromSeq, toSeq)
+                .mapToObj(seq -> ChangeFeedEntry.builder()
+                        .kcUserId(USER)
+                        .seq(seq)
+                        .entityType(ChangeFeedEntry.EntityType.DOCUMENT)
+                        .entityId(100 + seq)
+                        .action(ChangeFeedEntry.Action.CREATED)
+                        .build())
+                .toList();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：批量记录 - 一次预留序号并连续编号")
+    void recordAll_AssignsConsecutiveSequence() {
+        when(changeFeedRepository.reserveSequence(USER, 3)).thenReturn(1);
+        when(changeFeedRepository.findCurrentSequence(USER)).thenReturn(10L);
+
+        changeFeedService.recordAll(USER, ChangeFeedEntry.EntityType.DOCUMENT, List.of(1L, 2L, 3L),
+                ChangeFeedEntry.Action.DELETED);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ChangeFeedEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(changeFeedRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(ChangeFeedEntry::getSeq).containsExactly(8L, 9L, 10L);
+        assertThat(captor.getValue()).extracting(ChangeFeedEntry::getKcUserId).containsOnly(USER);
+        assertThat(captor.getValue()).extracting(ChangeFeedEntry::getEntityId).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：多用户记录 - 去重、跳过空值并按用户ID顺序加锁")
+    void record_MultipleUsersLockedInOrder() {
+        when(changeFeedRepository.reserveSequence(anyString(), eq(1))).thenReturn(1);
+        when(changeFeedRepository.findCurrentSequence(anyString())).thenReturn(1L);
+
+        changeFeedService.record(Arrays.asList("user-b", null, "user-a", "user-b"),
+                ChangeFeedEntry.EntityType.COMMENT, 5L, ChangeFeedEntry.Action.CREATED, 9L);
+
+        InOrder inOrder = inOrder(changeFeedRepository);
+        inOrder.verify(changeFeedRepository).reserveSequence("user-a", 1);
+        inOrder.verify(changeFeedRepository).reserveSequence("user-b", 1);
+        verify(changeFeedRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：用户不存在 - 不写入流水")
+    void record_UnknownUserSkipped() {
+        when(changeFeedRepository.reserveSequence(USER, 1)).thenReturn(0);
+
+        changeFeedService.record(USER, ChangeFeedEntry.EntityType.TEAM, 1L, ChangeFeedEntry.Action.UPDATED, null);
+
+        verify(changeFeedRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：增量拉取 - 多取一条判断hasMore，游标为最后一条的序号")
+    void changesSince_Paginates() {
+        when(changeFeedRepository.findCurrentSequence(USER)).thenReturn(9L);
+        when(changeFeedRepository.findMinSequence(USER)).thenReturn(1L);
+        when(changeFeedRepository.findByKcUserIdAndSeqGreaterThanOrderBySeqAsc(eq(USER), eq(5L), any(Pageable.class)))
+                .thenReturn(entries(6, 8));
+
+        ChangeFeedResponse response = changeFeedService.changesSince(USER, 5, null);
+
+        assertThat(response.getChanges()).hasSize(2);
+        assertThat(response.getCursor()).isEqualTo(7L);
+        assertThat(response.isHasMore()).isTrue();
+        assertThat(response.isResetRequired()).isFalse();
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(changeFeedRepository).findByKcUserIdAndSeqGreaterThanOrderBySeqAsc(eq(USER), eq(5L), pageable.capture());
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(3);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：已是最新 - 返回空列表且游标不变")
+    void changesSince_UpToDate() {
+        when(changeFeedRepository.findCurrentSequence(USER)).thenReturn(9L);
+        when(changeFeedRepository.findByKcUserIdAndSeqGreaterThanOrderBySeqAsc(eq(USER), eq(9L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        ChangeFeedResponse response = changeFeedService.changesSince(USER, 9, 100);
+
+        assertThat(response.getChanges()).isEmpty();
+        assertThat(response.getCursor()).isEqualTo(9L);
+        assertThat(response.isHasMore()).isFalse();
+        verify(changeFeedRepository, never()).findMinSequence(anyString());
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：游标早于保留范围或超前 - 要求全量刷新并返回当前游标")
+    void changesSince_ResetRequired() {
+        when(changeFeedRepository.findCurrentSequence(USER)).thenReturn(50L);
+        when(changeFeedRepository.findMinSequence(USER)).thenReturn(20L);
+
+        ChangeFeedResponse pruned = changeFeedService.changesSince(USER, 10, null);
+        ChangeFeedResponse ahead = changeFeedService.changesSince(USER, 80, null);
+
+        assertThat(pruned.isResetRequired()).isTrue();
+        assertThat(pruned.getCursor()).isEqualTo(50L);
+        assertThat(ahead.isResetRequired()).isTrue();
+        assertThat(ahead.getCursor()).isEqualTo(50L);
+        verify(changeFeedRepository, never()).findByKcUserIdAndSeqGreaterThanOrderBySeqAsc(anyString(), anyLong(), any());
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("测试7：负数游标 - 抛出参数异常")
+    void changesSince_NegativeCursor() {
+        assertThatThrownBy(() -> changeFeedService.changesSince(USER, -1, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,7 +1,13 @@
 package com.ntdoc.notangdoccore.service.impl;
 
+import com.ntdoc.notangdoccore.config.StorageCompressionProperties;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.service.storage.StorageCodecs;
+import com.ntdoc.notangdoccore.service.storage.StoredUpload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -17,6 +23,10 @@ import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignReques
 import java.io.IOException;
 import java.net.URL;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,10 +43,14 @@ class DigitalOceanSpacesServiceTest {
     @InjectMocks
     private DigitalOceanSpacesService spacesService;
 
+    private SimpleMeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        spacesService = new DigitalOceanSpacesService(s3Client, s3Presigner);
+        meterRegistry = new SimpleMeterRegistry();
+        spacesService = new DigitalOceanSpacesService(s3Client, s3Presigner, meterRegistry,
+                new StorageCodecs(new StorageCompressionProperties()));
         // 反射注入 bucketName
         try {
             java.lang.reflect.Field field = DigitalOceanSpacesService.class.getDeclaredField("bucketName");
@@ -140,6 +154,20 @@ class DigitalOceanSpacesServiceTest {
         assertFalse(spacesService.fileExists("any.txt"));
     }
 
+    @Test
+    @Order(23)
+    @DisplayName("测试23：读取对象元数据与存在性检查分别计时")
+    void testGetObjectInfo_RecordsHeadTimer() {
+        when(s3Client.headObject(any(HeadObjectRequest.class)))
+                .thenReturn(HeadObjectResponse.builder().eTag("\"etag\"").contentLength(5L).build());
+
+        assertEquals(5L, spacesService.getObjectInfo("a.txt").contentLength());
+        spacesService.fileExists("a.txt");
+
+        assertEquals(1, meterRegistry.get("storage.head").tag("outcome", "found").timer().count());
+        assertEquals(1, meterRegistry.get("storage.exists").timer().count());
+    }
+
 //  deleteFile
     @Test
     @Order(30)
@@ -161,6 +189,41 @@ class DigitalOceanSpacesServiceTest {
         assertFalse(spacesService.deleteFile(key));
     }
 
+    @Test
+    @Order(32)
+    @DisplayName("测试32：批量删除 - 按1000个键分批并返回失败键")
+    void testDeleteFiles_BatchedWithPartialFailure() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) keys.add("documents/user1/" + i);
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenReturn(DeleteObjectsResponse.builder()
+                        .errors(S3Error.builder().key("documents/user1/7").code("AccessDenied").message("denied").build())
+                        .build())
+                .thenReturn(DeleteObjectsResponse.builder().build());
+
+        Map<String, String> failed = spacesService.deleteFiles(keys);
+
+        org.mockito.ArgumentCaptor<DeleteObjectsRequest> captor = org.mockito.ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3Client, times(2)).deleteObjects(captor.capture());
+        assertEquals(1000, captor.getAllValues().get(0).delete().objects().size());
+        assertEquals(500, captor.getAllValues().get(1).delete().objects().size());
+        assertEquals(Set.of("documents/user1/7"), failed.keySet());
+        assertEquals(1, meterRegistry.get("storage.delete.batch").tag("outcome", "partial").timer().count());
+    }
+
+    @Test
+    @Order(33)
+    @DisplayName("测试33：批量删除 - 请求异常时整批视为失败")
+    void testDeleteFiles_Exception() {
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenThrow(S3Exception.builder().message("boom").build());
+
+        Map<String, String> failed = spacesService.deleteFiles(List.of("a", "b", "a"));
+
+        assertEquals(Set.of("a", "b"), failed.keySet());
+        assertTrue(spacesService.deleteFiles(List.of()).isEmpty());
+        verify(s3Client, times(1)).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
 //  generateStoragePath
     @Test
     @Order(40)
@@ -258,4 +321,60 @@ class DigitalOceanSpacesServiceTest {
         assertTrue(cleaned4.length() <= 100);
     }
 
+//  metrics
+    @Test
+    @Order(90)
+    @DisplayName("测试90：上传与删除记录指标")
+    void testStorageMetrics() {
+        MockMultipartFile file = new MockMultipartFile("file", "test.txt", "text/plain", "hello world".getBytes());
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().eTag("etag").build());
+        when(s3Client.deleteObject(any(DeleteObjectRequest.class))).thenThrow(S3Exception.builder().message("boom").build());
+
+        spacesService.uploadFile(file, "user1");
+        spacesService.deleteFile("documents/user1/2025/10/test.txt");
+
+        assertEquals(1, meterRegistry.get("storage.upload").tag("outcome", "success").timer().count());
+        assertEquals(11.0, meterRegistry.get("storage.upload.size").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("storage.upload.throughput").summary().count());
+        assertEquals(1, meterRegistry.get("storage.delete").tag("outcome", "error").timer().count());
+    }
+
+//  compression
+    @Test
+    @Order(91)
+    @DisplayName("测试91：上传可压缩文本 - gzip 存储并记录压缩后大小")
+    void testStoreFile_CompressesText() {
+        byte[] text = "no-tang-doc compressible line\n".repeat(500).getBytes();
+        MockMultipartFile file = new MockMultipartFile("file", "notes.txt", "text/plain; charset=UTF-8", text);
+        ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+        ArgumentCaptor<RequestBody> body = ArgumentCaptor.forClass(RequestBody.class);
+        when(s3Client.putObject(request.capture(), body.capture())).thenReturn(PutObjectResponse.builder().eTag("etag").build());
+
+        StoredUpload stored = spacesService.storeFile(file, "user1");
+
+        assertEquals(Document.StorageCodec.GZIP, stored.codec());
+        assertTrue(stored.storedSize() < text.length / 5);
+        assertEquals("gzip", request.getValue().contentEncoding());
+        assertEquals(stored.storedSize(), request.getValue().contentLength());
+        assertEquals(stored.storedSize(), body.getValue().optionalContentLength().orElseThrow());
+    }
+
+    @Test
+    @Order(92)
+    @DisplayName("测试92：上传不可压缩类型 - 原样存储")
+    void testStoreFile_SkipsIncompressibleType() {
+        byte[] content = new byte[4096];
+        MockMultipartFile file = new MockMultipartFile("file", "a.docx",
+                "application/vnd.openxmlformats-officedocument.wordprocessingml.document", content);
+        ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+        when(s3Client.putObject(request.capture(), any(RequestBody.class))).thenReturn(PutObjectResponse.builder().eTag("etag").build());
+
+        StoredUpload stored = spacesService.storeFile(file, "user1");
+
+        assertEquals(Document.StorageCodec.NONE, stored.codec());
+        assertEquals(4096, stored.storedSize());
+        assertNull(request.getValue().contentEncoding());
+    }
+
 }
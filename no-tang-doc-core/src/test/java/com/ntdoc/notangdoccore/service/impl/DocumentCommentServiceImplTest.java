@@ -2,6 +2,9 @@ package com.ntdoc.notangdoccore.service.impl;
 
 import com.ntdoc.notangdoccore.entity.*;
 import com.ntdoc.notangdoccore.repository.*;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.change.ChangeFeedService;
+import com.ntdoc.notangdoccore.service.push.PushNotifier;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -29,6 +32,12 @@ class DocumentCommentServiceImplTest {
     private TeamRepository teamRepository;
     @Mock
     private TeamMemberRepository teamMemberRepository;
+    @Mock
+    private ResourceVersionService resourceVersionService;
+    @Mock
+    private ChangeFeedService changeFeedService;
+    @Mock
+    private PushNotifier pushNotifier;
     @InjectMocks
     private DocumentCommentServiceImpl commentService;
 
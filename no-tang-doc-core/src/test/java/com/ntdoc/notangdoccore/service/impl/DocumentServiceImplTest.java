@@ -1,7 +1,9 @@
 package com.ntdoc.notangdoccore.service.impl;
 
+import com.ntdoc.notangdoccore.dto.document.BulkDeleteResponse;
 import com.ntdoc.notangdoccore.dto.document.DocumentDownloadResponse;
 import com.ntdoc.notangdoccore.dto.document.DocumentUploadResponse;
+import com.ntdoc.notangdoccore.dto.document.MetadataQueryRequest;
 import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.entity.logenum.ActorType;
@@ -11,12 +13,23 @@ import com.ntdoc.notangdoccore.exception.DocumentException;
 import com.ntdoc.notangdoccore.repository.DocumentRepository;
 import com.ntdoc.notangdoccore.repository.UserRepository;
 import com.ntdoc.notangdoccore.service.FileStorageService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.change.ChangeFeedService;
+import com.ntdoc.notangdoccore.service.outbox.OutboxPublisher;
+import com.ntdoc.notangdoccore.service.push.PushNotifier;
+import com.ntdoc.notangdoccore.service.rendition.RenditionGenerator;
+import com.ntdoc.notangdoccore.service.storage.ContentLinkService;
+import com.ntdoc.notangdoccore.service.storage.StorageQuotaService;
+import com.ntdoc.notangdoccore.service.storage.StoredUpload;
+import com.ntdoc.notangdoccore.service.tag.TagBitmapIndex;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.net.URL;
 import java.time.Instant;
@@ -39,6 +52,24 @@ public class DocumentServiceImplTest {
     private FileStorageService fileStorageService;
     @Mock
     private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private TagBitmapIndex tagBitmapIndex;
+    @Mock
+    private OutboxPublisher outboxPublisher;
+    @Mock
+    private RenditionGenerator renditionGenerator;
+    @Spy
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+    @Mock
+    private ResourceVersionService resourceVersionService;
+    @Mock
+    private ChangeFeedService changeFeedService;
+    @Mock
+    private PushNotifier pushNotifier;
+    @Mock
+    private StorageQuotaService storageQuotaService;
+    @Mock
+    private ContentLinkService contentLinkService;
     @InjectMocks
     private DocumentServiceImpl documentService;
 
@@ -68,7 +99,7 @@ public class DocumentServiceImplTest {
     @DisplayName("测试1：上传文件 - 成功 - 文件保存与事件触发")
     void testUploadDocument_Success() throws Exception {
         when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
-        when(fileStorageService.uploadFile(any(), any())).thenReturn("kc-123/test.pdf");
+        when(fileStorageService.storeFile(any(), any())).thenReturn(StoredUpload.plain("kc-123/test.pdf", 5));
         when(documentRepository.save(any(Document.class))).thenAnswer(i -> {
             Document d = i.getArgument(0);
             d.setId(99L);
@@ -81,7 +112,8 @@ public class DocumentServiceImplTest {
 
         assertThat(response).isNotNull();
         assertThat(response.getFileName()).isEqualTo("test.pdf");
-        verify(eventPublisher, atLeastOnce()).publishEvent(any(UserOperationEvent.class));
+        verify(outboxPublisher).userOperation(any(UserOperationEvent.class));
+        verify(transactionOperations).execute(any());
     }
 
     @Test
@@ -99,7 +131,7 @@ public class DocumentServiceImplTest {
     @DisplayName("测试3：上传文件 - 失败 - S3抛异常并触发失败事件")
     void testUploadDocument_Fail_S3Error() throws Exception {
         when(userRepository.findByKcUserId(any())).thenReturn(Optional.of(mockUser));
-        when(fileStorageService.uploadFile(any(), any())).thenThrow(new RuntimeException("S3 Error"));
+        when(fileStorageService.storeFile(any(), any())).thenThrow(new RuntimeException("S3 Error"));
 
         assertThatThrownBy(() -> documentService.uploadDocument(mockFile, "abc.pdf", "desc", "kc-123"))
                 .isInstanceOf(RuntimeException.class)
@@ -141,7 +173,7 @@ public class DocumentServiceImplTest {
         when(badFile.getBytes()).thenThrow(new RuntimeException("hash fail"));
 
         when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
-        when(fileStorageService.uploadFile(any(), any())).thenReturn("kc-123/bad.pdf");
+        when(fileStorageService.storeFile(any(), any())).thenReturn(StoredUpload.plain("kc-123/bad.pdf", 5));
         when(documentRepository.save(any(Document.class))).thenAnswer(i -> {
             Document d = i.getArgument(0);
             d.setId(1L);
@@ -153,9 +185,102 @@ public class DocumentServiceImplTest {
 
         assertThat(resp).isNotNull();
         assertThat(resp.getFileName()).isEqualTo("bad.pdf");
-        verify(eventPublisher, atLeastOnce()).publishEvent(any(UserOperationEvent.class));
+        verify(outboxPublisher).userOperation(any(UserOperationEvent.class));
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("测试7：上传文件 - 失败 - 数据库保存异常时回收已上传对象")
+    void testUploadDocument_Fail_DbError_CompensatesUpload() {
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(fileStorageService.storeFile(any(), any())).thenReturn(StoredUpload.plain("kc-123/test.pdf", 5));
+        when(documentRepository.save(any(Document.class))).thenThrow(new RuntimeException("DB down"));
+
+        assertThatThrownBy(() -> documentService.uploadDocument(mockFile, null, "desc", "kc-123"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("文件上传失败");
+
+        verify(outboxPublisher).storageDelete(List.of("kc-123/test.pdf"));
+        verify(fileStorageService, never()).deleteFile(anyString());
+        verify(eventPublisher).publishEvent(any(UserOperationEvent.class));
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("测试8：上传文件 - 失败 - outbox 不可用时直接删除已上传对象")
+    void testUploadDocument_Fail_OutboxUnavailable_DeletesDirectly() {
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(fileStorageService.storeFile(any(), any())).thenReturn(StoredUpload.plain("kc-123/test.pdf", 5));
+        when(documentRepository.save(any(Document.class))).thenThrow(new RuntimeException("DB down"));
+        doThrow(new RuntimeException("DB down")).when(outboxPublisher).storageDelete(anyCollection());
+
+        assertThatThrownBy(() -> documentService.uploadDocument(mockFile, null, "desc", "kc-123"))
+                .isInstanceOf(RuntimeException.class);
+
+        verify(fileStorageService).deleteFile("kc-123/test.pdf");
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("测试15：上传文件 - 文档提交后的步骤异常时不回收已提交文档的对象")
+    void testUploadDocument_PostCommitFailure_KeepsObject() {
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(fileStorageService.storeFile(any(), any())).thenReturn(StoredUpload.plain("kc-123/test.pdf", 5));
+        when(documentRepository.save(any(Document.class))).thenAnswer(i -> {
+            Document d = i.getArgument(0);
+            d.setId(99L);
+            d.setCreatedAt(Instant.now());
+            return d;
+        });
+        doThrow(new RuntimeException("index busy")).when(tagBitmapIndex).documentAdded("kc-123", 99L);
+
+        assertThatThrownBy(() -> documentService.uploadDocument(mockFile, null, "desc", "kc-123"))
+                .hasMessage("index busy");
+
+        verify(outboxPublisher, never()).storageDelete(anyCollection());
+        verify(fileStorageService, never()).deleteFile(anyString());
+        verify(eventPublisher, never()).publishEvent(any(UserOperationEvent.class));
+    }
+
+
+    @Test
+    @Order(14)
+    @DisplayName("测试14：上传文件 - 失败 - 事务内配额占用失败时回收对象并原样抛出配额异常")
+    void testUploadDocument_QuotaExceeded_CompensatesUpload() {
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(fileStorageService.storeFile(any(), any())).thenReturn(StoredUpload.plain("kc-123/test.pdf", 5));
+        doThrow(new DocumentException.StorageQuotaExceededException(100L, 5L, 100L))
+                .when(storageQuotaService).reserve(mockUser, 5L, 5L);
+
+        assertThatThrownBy(() -> documentService.uploadDocument(mockFile, null, "desc", "kc-123"))
+                .isInstanceOf(DocumentException.StorageQuotaExceededException.class);
+
+        verify(storageQuotaService).checkUpload(mockUser, 5L);
+        verify(documentRepository, never()).save(any(Document.class));
+        verify(outboxPublisher).storageDelete(List.of("kc-123/test.pdf"));
     }
 
+    @Test
+    @Order(9)
+    @DisplayName("测试9：上传文件 - 可渲染类型随文档记录一起写入缩略图任务")
+    void testUploadDocument_RenderableQueuesRendition() {
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(fileStorageService.storeFile(any(), any())).thenReturn(StoredUpload.plain("kc-123/test.pdf", 5));
+        when(renditionGenerator.supports("application/pdf")).thenReturn(true);
+        when(documentRepository.save(any(Document.class))).thenAnswer(i -> {
+            Document d = i.getArgument(0);
+            d.setId(99L);
+            d.setCreatedAt(Instant.now());
+            return d;
+        });
+
+        documentService.uploadDocument(mockFile, null, "desc", "kc-123");
+
+        ArgumentCaptor<Document> saved = ArgumentCaptor.forClass(Document.class);
+        verify(documentRepository).save(saved.capture());
+        assertThat(saved.getValue().getRenditionStatus()).isEqualTo(Document.RenditionStatus.PENDING);
+        verify(outboxPublisher).rendition(99L);
+    }
 
     // ---------------- getDocumentDownloadUrl -----------------
 
@@ -165,7 +290,7 @@ public class DocumentServiceImplTest {
     void testGetDocumentDownloadUrl_Success() throws Exception {
         when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
         when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
-        when(fileStorageService.generateDownloadUrl(anyString(), any())).thenReturn(new URL("https://mock-url.com"));
+        when(contentLinkService.downloadUrl(any(Document.class), any())).thenReturn(new URL("https://mock-url.com"));
         when(documentRepository.save(any(Document.class))).thenReturn(mockDocument);
 
         DocumentDownloadResponse response = documentService.getDocumentDownloadUrl(10L, "kc-123");
@@ -209,7 +334,7 @@ public class DocumentServiceImplTest {
     void testGetDocumentDownloadUrl_Fail_GenerateUrlError() throws Exception {
         when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
         when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
-        when(fileStorageService.generateDownloadUrl(anyString(), any()))
+        when(contentLinkService.downloadUrl(any(Document.class), any()))
                 .thenThrow(new RuntimeException("URL failed"));
 
         assertThatThrownBy(() -> documentService.getDocumentDownloadUrl(10L, "kc-123"))
@@ -224,7 +349,7 @@ public class DocumentServiceImplTest {
 
     @Test
     @Order(20)
-    @DisplayName("测试20：删除文件 - 成功 - 仓库与S3删除均被调用")
+    @DisplayName("测试20：删除文件 - 成功 - 删除记录并写入存储删除与日志outbox事件")
     void testDeleteDocument_Success() {
         when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
         when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
@@ -232,22 +357,73 @@ public class DocumentServiceImplTest {
         documentService.deleteDocument(10L, "kc-123");
 
         verify(documentRepository).delete(mockDocument);
-        verify(fileStorageService).deleteFile("kc-123/test.pdf");
-        verify(eventPublisher, atLeastOnce()).publishEvent(any(UserOperationEvent.class));
+        verify(storageQuotaService).release(List.of(mockDocument));
+        verify(outboxPublisher).storageDelete(List.of("kc-123/test.pdf"));
+        verify(outboxPublisher).userOperation(any(UserOperationEvent.class));
+        // 事务内不再调用对象存储
+        verifyNoInteractions(fileStorageService);
     }
 
     @Test
     @Order(21)
-    @DisplayName("测试21：删除文件 - 失败 - S3删除异常但不抛出Runtime")
-    void testDeleteDocument_Fail_S3Error() {
+    @DisplayName("测试21：删除文件 - 失败 - outbox写入异常时记录失败日志并抛出，使事务回滚")
+    void testDeleteDocument_Fail_OutboxError() {
         when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
         when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
-        doThrow(new RuntimeException("S3 delete failed")).when(fileStorageService).deleteFile(anyString());
+        doThrow(new RuntimeException("outbox write failed")).when(outboxPublisher).storageDelete(anyCollection());
 
-        // 不应抛出异常，而是记录日志并发送事件
-        documentService.deleteDocument(10L, "kc-123");
+        assertThatThrownBy(() -> documentService.deleteDocument(10L, "kc-123"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("outbox write failed");
 
         verify(eventPublisher, atLeastOnce()).publishEvent(any(UserOperationEvent.class));
+        verify(outboxPublisher, never()).userOperation(any(UserOperationEvent.class));
+    }
+
+
+    @Test
+    @Order(22)
+    @DisplayName("测试22：批量删除 - 部分成功 - 逐个文档返回结果")
+    void testDeleteDocuments_PartialSuccess() {
+        User other = User.builder().id(2L).kcUserId("kc-999").username("other").build();
+        Document foreign = Document.builder().id(11L).originalFilename("other.pdf")
+                .s3Key("kc-999/other.pdf").uploadedBy(other).build();
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.findAllById(List.of(10L, 11L, 12L))).thenReturn(List.of(mockDocument, foreign));
+
+        BulkDeleteResponse response = documentService.deleteDocuments(List.of(10L, 11L, 12L, 10L), "kc-123");
+
+        assertThat(response.getRequested()).isEqualTo(3);
+        assertThat(response.getDeleted()).isEqualTo(1);
+        assertThat(response.getResults())
+                .extracting(BulkDeleteResponse.Result::getDocumentId, BulkDeleteResponse.Result::getStatus)
+                .containsExactly(
+                        tuple(10L, BulkDeleteResponse.Status.DELETED),
+                        tuple(11L, BulkDeleteResponse.Status.FORBIDDEN),
+                        tuple(12L, BulkDeleteResponse.Status.NOT_FOUND));
+        verify(documentRepository).deleteAllByIdInBatch(List.of(10L));
+        verify(tagBitmapIndex).documentsRemoved("kc-123", List.of(10L));
+
+        verify(outboxPublisher).storageDelete(List.of("kc-123/test.pdf"));
+        verify(outboxPublisher).userOperation(any(UserOperationEvent.class));
+        // 存储对象由 outbox 中继在事务提交后删除
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    @Order(23)
+    @DisplayName("测试23：批量删除 - 无可删除文档 - 不执行删除")
+    void testDeleteDocuments_NothingDeletable() {
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.findAllById(List.of(99L))).thenReturn(List.of());
+
+        BulkDeleteResponse response = documentService.deleteDocuments(List.of(99L), "kc-123");
+
+        assertThat(response.getDeleted()).isZero();
+        assertThat(response.getResults()).singleElement()
+                .extracting(BulkDeleteResponse.Result::getStatus).isEqualTo(BulkDeleteResponse.Status.NOT_FOUND);
+        verify(documentRepository, never()).deleteAllByIdInBatch(anyIterable());
+        verifyNoInteractions(outboxPublisher);
     }
 
 
@@ -304,6 +480,21 @@ public class DocumentServiceImplTest {
                 .isInstanceOf(SecurityException.class);
     }
 
+    @Test
+    @Order(42)
+    @DisplayName("测试42：根据ID获取文档 - 不存在或已删除时抛出 DocumentNotFoundException")
+    void testGetDocumentById_NotFoundOrDeleted() {
+        mockDocument.setStatus(Document.DocumentStatus.DELETED);
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
+        when(documentRepository.findById(11L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> documentService.getDocumentById(10L, "kc-123"))
+                .isInstanceOf(DocumentException.DocumentNotFoundException.class);
+        assertThatThrownBy(() -> documentService.getDocumentById(11L, "kc-123"))
+                .isInstanceOf(DocumentException.DocumentNotFoundException.class);
+    }
+
     // ---------------- incrementDownloadCount -----------------
 
     @Test
@@ -354,4 +545,42 @@ public class DocumentServiceImplTest {
         assertThat(result).hasSize(1);
     }
 
+    // ---------------- queryByMetadata -----------------
+
+    @Test
+    @Order(70)
+    @DisplayName("测试70：元数据查询 - 成功")
+    @SuppressWarnings("unchecked")
+    void testQueryByMetadata_Success() {
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.findAll(any(Specification.class)))
+                .thenReturn(List.of(mockDocument));
+
+        MetadataQueryRequest request = MetadataQueryRequest.builder()
+                .predicates(List.of(MetadataQueryRequest.Predicate.builder()
+                        .key("workflow.state").op(MetadataQueryRequest.Operator.EQ).value("REVIEW").build()))
+                .build();
+
+        List<Document> result = documentService.queryByMetadata("kc-123", request);
+        assertThat(result).containsExactly(mockDocument);
+    }
+
+    @Test
+    @Order(71)
+    @DisplayName("测试71：元数据查询 - 失败 - RANGE 缺少边界")
+    @SuppressWarnings("unchecked")
+    void testQueryByMetadata_Fail_RangeWithoutBounds() {
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+
+        MetadataQueryRequest request = MetadataQueryRequest.builder()
+                .predicates(List.of(MetadataQueryRequest.Predicate.builder()
+                        .key("pages").op(MetadataQueryRequest.Operator.RANGE).build()))
+                .build();
+
+        assertThatThrownBy(() -> documentService.queryByMetadata("kc-123", request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("RANGE");
+        verify(documentRepository, never()).findAll(any(Specification.class));
+    }
+
 }
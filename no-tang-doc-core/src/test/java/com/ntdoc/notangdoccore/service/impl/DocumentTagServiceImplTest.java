@@ -1,10 +1,15 @@
 package com.ntdoc.notangdoccore.service.impl;
 
+import com.ntdoc.notangdoccore.entity.ChangeFeedEntry;
 import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.Tag;
 import com.ntdoc.notangdoccore.repository.DocumentRepository;
 import com.ntdoc.notangdoccore.repository.TagRepository;
 import com.ntdoc.notangdoccore.service.DocumentTagService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.change.ChangeFeedService;
+import com.ntdoc.notangdoccore.service.push.PushNotifier;
+import com.ntdoc.notangdoccore.service.tag.TagBitmapIndex;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -32,6 +37,16 @@ public class DocumentTagServiceImplTest {
     @Mock
     private TagRepository tagRepository;
 
+    @Mock
+    private TagBitmapIndex tagBitmapIndex;
+
+    @Mock
+    private ResourceVersionService resourceVersionService;
+    @Mock
+    private ChangeFeedService changeFeedService;
+    @Mock
+    private PushNotifier pushNotifier;
+
     @InjectMocks
     private DocumentTagServiceImpl documentTagService;
 
@@ -135,7 +150,15 @@ public class DocumentTagServiceImplTest {
         Document result = documentTagService.replaceTags(100L, List.of("ML"), "user-123");
 
         assertThat(result.getTags()).containsExactly(mockTag2);
-        verify(documentRepository,times(2)).save(Mockito.<Document>any());
+        verify(documentRepository).save(Mockito.<Document>any());
+        verify(documentRepository).findById(100L);
+        // 替换只产生一次索引更新与一次变更通知
+        verify(tagBitmapIndex).tagsReplaced(isNull(), eq(100L), eq(List.of("ML")));
+        verify(tagBitmapIndex, never()).tagsAdded(Mockito.any(), anyLong(), anyCollection());
+        verify(resourceVersionService).bump(ResourceVersionService.Scope.DOCUMENTS, null);
+        verify(changeFeedService).record((String) null, ChangeFeedEntry.EntityType.TAG, 100L,
+                ChangeFeedEntry.Action.UPDATED, 100L);
+        verify(pushNotifier).documentChanged(mockDocument, ChangeFeedEntry.Action.UPDATED);
     }
 
     @Test
@@ -0,0 +1,153 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.dto.document.TagFacetResponse;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.service.cache.CacheInvalidationService;
+import com.ntdoc.notangdoccore.service.cache.LoopbackCacheInvalidationBus;
+import com.ntdoc.notangdoccore.service.tag.TagBitmapIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("TagFacetServiceImpl服务测试")
+public class TagFacetServiceImplTest {
+    private static final String USER = "user-123";
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    private TagBitmapIndex tagBitmapIndex;
+    private TagFacetServiceImpl tagFacetService;
+
+    @BeforeEach
+    void setUp() {
+        tagBitmapIndex = new TagBitmapIndex(documentRepository, 100, Duration.ofMinutes(5),
+                new CacheInvalidationService(new LoopbackCacheInvalidationBus(), new SimpleMeterRegistry()));
+        tagFacetService = new TagFacetServiceImpl(tagBitmapIndex, documentRepository);
+
+        // 文档 1: AI, ML   文档 2: AI   文档 3: ML, NLP   文档 4: 无标签
+        when(documentRepository.findIdsByUploaderKcUserId(USER)).thenReturn(List.of(1L, 2L, 3L, 4L));
+        when(documentRepository.findTagDocumentPairsByUploaderKcUserId(USER)).thenReturn(List.of(
+                new Object[]{"AI", 1L}, new Object[]{"ML", 1L},
+                new Object[]{"AI", 2L},
+                new Object[]{"ML", 3L}, new Object[]{"NLP", 3L}
+        ));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Long> queriedIds() {
+        ArgumentCaptor<Collection<Long>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(documentRepository).findWithTagsByIdIn(captor.capture());
+        return new HashSet<>(captor.getValue());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：findDocumentsByTags - AND 过滤")
+    void findDocumentsByTags_All() {
+        when(documentRepository.findWithTagsByIdIn(anyCollection())).thenReturn(List.of(new Document()));
+
+        tagFacetService.findDocumentsByTags(USER, List.of("AI", "ML"), null, null);
+
+        assertThat(queriedIds()).containsExactly(1L);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：findDocumentsByTags - OR 与 NOT 组合")
+    void findDocumentsByTags_AnyNone() {
+        when(documentRepository.findWithTagsByIdIn(anyCollection())).thenReturn(List.of());
+
+        tagFacetService.findDocumentsByTags(USER, null, List.of("AI", "NLP"), List.of("ML"));
+
+        assertThat(queriedIds()).containsExactly(2L);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：findDocumentsByTags - 无匹配时不查询数据库")
+    void findDocumentsByTags_NoMatch() {
+        List<Document> result = tagFacetService.findDocumentsByTags(USER, List.of("AI", "UNKNOWN"), null, null);
+
+        assertThat(result).isEmpty();
+        verify(documentRepository, never()).findWithTagsByIdIn(anyCollection());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：getTagFacets - 全量分面统计")
+    void getTagFacets_All() {
+        TagFacetResponse response = tagFacetService.getTagFacets(USER, null, null, null);
+
+        assertThat(response.getTotal()).isEqualTo(4);
+        assertThat(response.getFacets())
+                .extracting(TagFacetResponse.Facet::getTag, TagFacetResponse.Facet::getCount)
+                .containsExactly(
+                        org.assertj.core.groups.Tuple.tuple("AI", 2L),
+                        org.assertj.core.groups.Tuple.tuple("ML", 2L),
+                        org.assertj.core.groups.Tuple.tuple("NLP", 1L));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：getTagFacets - 过滤后分面统计")
+    void getTagFacets_Filtered() {
+        TagFacetResponse response = tagFacetService.getTagFacets(USER, List.of("ML"), null, null);
+
+        assertThat(response.getTotal()).isEqualTo(2);
+        assertThat(response.getFacets())
+                .extracting(TagFacetResponse.Facet::getTag)
+                .containsExactly("ML", "AI", "NLP");
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：索引增量维护 - 添加标签与删除文档")
+    void index_IncrementalUpdates() {
+        tagFacetService.getTagFacets(USER, null, null, null);
+
+        tagBitmapIndex.tagsAdded(USER, 4L, List.of("AI"));
+        tagBitmapIndex.documentsRemoved(USER, List.of(1L));
+        TagFacetResponse response = tagFacetService.getTagFacets(USER, List.of("AI"), null, null);
+
+        assertThat(response.getTotal()).isEqualTo(2);
+        // 索引只从数据库加载一次
+        verify(documentRepository, times(1)).findIdsByUploaderKcUserId(USER);
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("测试7：加载期间的并发变更 - 只影响发生变更的用户")
+    void index_ConcurrentMutationIsPerUser() {
+        // 加载 USER 期间：其他用户的变更不影响缓存，本用户的变更使本次结果不进入缓存
+        when(documentRepository.findIdsByUploaderKcUserId(USER)).thenAnswer(invocation -> {
+            tagBitmapIndex.documentAdded("other-user", 9L);
+            return List.of(1L, 2L, 3L, 4L);
+        });
+        tagFacetService.getTagFacets(USER, null, null, null);
+        tagFacetService.getTagFacets(USER, null, null, null);
+        verify(documentRepository, times(1)).findIdsByUploaderKcUserId(USER);
+
+        tagBitmapIndex.invalidate(USER);
+        when(documentRepository.findIdsByUploaderKcUserId(USER)).thenAnswer(invocation -> {
+            tagBitmapIndex.documentAdded(USER, 5L);
+            return List.of(1L, 2L, 3L, 4L);
+        });
+        tagFacetService.getTagFacets(USER, null, null, null);
+        tagFacetService.getTagFacets(USER, null, null, null);
+        verify(documentRepository, times(3)).findIdsByUploaderKcUserId(USER);
+    }
+}
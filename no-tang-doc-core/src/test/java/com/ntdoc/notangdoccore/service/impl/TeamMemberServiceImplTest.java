@@ -7,6 +7,8 @@ import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.repository.TeamMemberRepository;
 import com.ntdoc.notangdoccore.repository.TeamRepository;
 import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.change.ChangeFeedService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -41,6 +43,11 @@ class TeamMemberServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ResourceVersionService resourceVersionService;
+    @Mock
+    private ChangeFeedService changeFeedService;
+
     @InjectMocks
     private TeamMemberServiceImpl teamMemberService;
 
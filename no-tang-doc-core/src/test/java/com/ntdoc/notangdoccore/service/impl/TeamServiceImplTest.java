@@ -7,6 +7,8 @@ import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.repository.TeamMemberRepository;
 import com.ntdoc.notangdoccore.repository.TeamRepository;
 import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.change.ChangeFeedService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -40,6 +42,11 @@ class TeamServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ResourceVersionService resourceVersionService;
+    @Mock
+    private ChangeFeedService changeFeedService;
+
     @InjectMocks
     private TeamServiceImpl teamService;
 
@@ -308,9 +315,6 @@ class TeamServiceImplTest {
         // Mock: 团队存在
         when(teamRepository.findById(teamId)).thenReturn(Optional.of(existingTeam));
 
-        // Mock: 当前用户存在（但不是团队拥有者）
-        when(userRepository.findByKcUserId(kcUserId)).thenReturn(Optional.of(mockOwner));
-
         // When & Then: 调用更新方法应该抛出权限异常
         assertThatThrownBy(() -> teamService.updateTeam(teamId, request, kcUserId))
                 .isInstanceOf(SecurityException.class)
@@ -318,6 +322,8 @@ class TeamServiceImplTest {
 
         // 验证没有保存任何更新
         verify(teamRepository, never()).save(any(Team.class));
+        // 拥有者判断不再查询当前用户
+        verify(userRepository, never()).findByKcUserId(anyString());
     }
 
     @Test
@@ -402,7 +408,6 @@ class TeamServiceImplTest {
                 .build();
 
         when(teamRepository.findById(teamId)).thenReturn(Optional.of(existingTeam));
-        when(userRepository.findByKcUserId(kcUserId)).thenReturn(Optional.of(mockOwner));
         when(teamRepository.save(any(Team.class))).thenAnswer(inv -> inv.getArgument(0));
 
         // 不应该触发 findByNameAndOwner()
@@ -411,6 +416,7 @@ class TeamServiceImplTest {
         assertThat(result.getDescription()).isEqualTo("新描述");
         verify(teamRepository, never()).findByNameAndOwner(anyString(), any());
         verify(teamRepository).save(any(Team.class));
+        verify(userRepository, never()).findByKcUserId(anyString());
     }
 
     @Test
@@ -464,7 +470,6 @@ class TeamServiceImplTest {
                 .build();
 
         when(teamRepository.findById(teamId)).thenReturn(Optional.of(existingTeam));
-        when(userRepository.findByKcUserId(kcUserId)).thenReturn(Optional.of(mockOwner));
         when(teamRepository.save(any(Team.class))).thenAnswer(inv -> inv.getArgument(0));
 
         // When
@@ -473,6 +478,7 @@ class TeamServiceImplTest {
         // Then
         assertThat(existingTeam.getStatus()).isEqualTo(Team.TeamStatus.DELETED);
         verify(teamRepository).save(existingTeam);
+        verify(userRepository, never()).findByKcUserId(anyString());
     }
 
     @Test
@@ -495,7 +501,6 @@ class TeamServiceImplTest {
                 .build();
 
         when(teamRepository.findById(teamId)).thenReturn(Optional.of(existingTeam));
-        when(userRepository.findByKcUserId(kcUserId)).thenReturn(Optional.of(mockOwner));
 
         // When & Then
         assertThatThrownBy(() -> teamService.deleteTeam(teamId, kcUserId))
@@ -503,6 +508,7 @@ class TeamServiceImplTest {
                 .hasMessageContaining("只有团队拥有者可以删除团队");
 
         verify(teamRepository, never()).save(any(Team.class));
+        verify(userRepository, never()).findByKcUserId(anyString());
     }
 
     @Test
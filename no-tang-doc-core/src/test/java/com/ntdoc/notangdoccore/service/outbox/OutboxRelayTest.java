@@ -0,0 +1,148 @@
+package com.ntdoc.notangdoccore.service.outbox;
+
+import com.ntdoc.notangdoccore.config.OutboxProperties;
+import com.ntdoc.notangdoccore.entity.OutboxEvent;
+import com.ntdoc.notangdoccore.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * outbox 中继测试：真实 H2 + 仓库查询，处理器用桩实现
+ * 中继自行管理事务，测试方法不包裹事务
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.liquibase.enabled=false"
+})
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Outbox中继测试")
+public class OutboxRelayTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final StubHandler storageHandler = new StubHandler(OutboxEvent.EventType.STORAGE_DELETE);
+    private final StubHandler userOperationHandler = new StubHandler(OutboxEvent.EventType.USER_OPERATION);
+    private OutboxProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        properties = new OutboxProperties();
+        properties.setBatchSize(10);
+        properties.setMaxAttempts(2);
+        properties.setInitialBackoff(Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxEventRepository, new TransactionTemplate(transactionManager), properties,
+                meterRegistry, List.of(storageHandler, userOperationHandler));
+    }
+
+    private OutboxEvent save(OutboxEvent.EventType type, Instant availableAt) {
+        return outboxEventRepository.save(OutboxEvent.builder()
+                .eventType(type)
+                .payload("{}")
+                .availableAt(availableAt)
+                .build());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：按类型分发到期事件并标记DONE")
+    void relayBatch_DispatchesDueEventsByType() {
+        OutboxEvent storage = save(OutboxEvent.EventType.STORAGE_DELETE, Instant.now().minusSeconds(1));
+        OutboxEvent audit = save(OutboxEvent.EventType.USER_OPERATION, Instant.now().minusSeconds(1));
+        OutboxEvent future = save(OutboxEvent.EventType.STORAGE_DELETE, Instant.now().plusSeconds(3600));
+
+        int relayed = relay.relayBatch();
+
+        assertThat(relayed).isEqualTo(2);
+        assertThat(storageHandler.received).containsExactly(storage.getId());
+        assertThat(userOperationHandler.received).containsExactly(audit.getId());
+        assertThat(outboxEventRepository.findById(storage.getId()).orElseThrow().getStatus()).isEqualTo(OutboxEvent.Status.DONE);
+        assertThat(outboxEventRepository.findById(audit.getId()).orElseThrow().getProcessedAt()).isNotNull();
+        assertThat(outboxEventRepository.findById(future.getId()).orElseThrow().getStatus()).isEqualTo(OutboxEvent.Status.PENDING);
+        assertThat(meterRegistry.get("outbox.events").tag("outcome", "done").counters()).hasSize(2);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：失败事件按退避重排，超过上限标记FAILED")
+    void relayBatch_RetriesThenFails() {
+        OutboxEvent event = save(OutboxEvent.EventType.STORAGE_DELETE, Instant.now().minusSeconds(1));
+        storageHandler.failing.add(event.getId());
+
+        relay.relayBatch();
+        OutboxEvent retried = outboxEventRepository.findById(event.getId()).orElseThrow();
+        assertThat(retried.getStatus()).isEqualTo(OutboxEvent.Status.PENDING);
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getLastError()).isEqualTo("boom");
+        assertThat(retried.getAvailableAt()).isAfter(Instant.now().plusSeconds(30));
+        // 退避期内不会被再次领取
+        assertThat(relay.relayBatch()).isZero();
+
+        retried.setAvailableAt(Instant.now().minusSeconds(1));
+        outboxEventRepository.save(retried);
+        relay.relayBatch();
+
+        OutboxEvent failed = outboxEventRepository.findById(event.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(OutboxEvent.Status.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：退避时间指数增长并封顶")
+    void backoff_GrowsExponentiallyAndCaps() {
+        properties.setMaxBackoff(Duration.ofMinutes(5));
+
+        assertThat(relay.backoff(1)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(relay.backoff(2)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(relay.backoff(10)).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    private static class StubHandler implements OutboxHandler {
+        private final OutboxEvent.EventType type;
+        private final List<Long> received = new ArrayList<>();
+        private final Set<Long> failing = new HashSet<>();
+
+        StubHandler(OutboxEvent.EventType type) {
+            this.type = type;
+        }
+
+        @Override
+        public OutboxEvent.EventType type() {
+            return type;
+        }
+
+        @Override
+        public Map<Long, String> handle(List<OutboxEvent> events) {
+            Map<Long, String> failures = new HashMap<>();
+            for (OutboxEvent event : events) {
+                received.add(event.getId());
+                if (failing.contains(event.getId())) {
+                    failures.put(event.getId(), "boom");
+                }
+            }
+            return failures;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ntdoc.notangdoccore.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.config.RenditionProperties;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.OutboxEvent;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.change.ChangeFeedService;
+import com.ntdoc.notangdoccore.service.push.PushNotifier;
+import com.ntdoc.notangdoccore.service.rendition.RenditionGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("缩略图outbox处理器测试")
+public class RenditionOutboxHandlerTest {
+    private static final String KEY = "documents/u/2025/10/abc-report.pdf";
+
+    @Mock
+    private DocumentRepository documentRepository;
+    @Mock
+    private FileStorageService fileStorageService;
+    @Mock
+    private RenditionGenerator renditionGenerator;
+    @Mock
+    private OutboxPublisher outboxPublisher;
+    @Mock
+    private ResourceVersionService resourceVersionService;
+    @Mock
+    private ChangeFeedService changeFeedService;
+    @Mock
+    private PushNotifier pushNotifier;
+
+    private RenditionOutboxHandler handler;
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        handler = new RenditionOutboxHandler(documentRepository, fileStorageService, renditionGenerator,
+                new RenditionProperties(), outboxPublisher, TransactionOperations.withoutTransaction(),
+                new ObjectMapper(), new SimpleMeterRegistry(), resourceVersionService, changeFeedService, pushNotifier);
+        document = Document.builder().id(7L).s3Key(KEY).contentType("application/pdf").fileSize(1024L)
+                .renditionStatus(Document.RenditionStatus.PENDING).build();
+    }
+
+    private static OutboxEvent event() {
+        return OutboxEvent.builder().id(1L).eventType(OutboxEvent.EventType.RENDITION)
+                .payload("{\"documentId\":7}").build();
+    }
+
+    private void stubSource() {
+        when(documentRepository.findById(7L)).thenReturn(Optional.of(document));
+        when(renditionGenerator.supports("application/pdf")).thenReturn(true);
+        when(fileStorageService.openStream(KEY, null, null)).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：生成成功 - 上传衍生对象并标记 READY")
+    void handle_Ready() throws Exception {
+        stubSource();
+        when(renditionGenerator.render(any(Path.class), eq("application/pdf")))
+                .thenReturn(new RenditionGenerator.Renditions(new byte[]{1}, new byte[]{2}, 10, 20));
+        when(documentRepository.updateRendition(7L, KEY + ".thumb.jpg", KEY + ".preview.jpg",
+                Document.RenditionStatus.READY)).thenReturn(1);
+
+        Map<Long, String> failures = handler.handle(List.of(event()));
+
+        assertThat(failures).isEmpty();
+        verify(fileStorageService).uploadBytes(KEY + ".thumb.jpg", new byte[]{1}, "image/jpeg");
+        verify(fileStorageService).uploadBytes(KEY + ".preview.jpg", new byte[]{2}, "image/jpeg");
+        verify(outboxPublisher, never()).storageDelete(anyCollection());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：源文件损坏 - 标记 FAILED 且不重试")
+    void handle_Unreadable() throws Exception {
+        stubSource();
+        when(renditionGenerator.render(any(Path.class), anyString())).thenThrow(new IllegalArgumentException("bad"));
+        when(documentRepository.updateRendition(7L, null, null, Document.RenditionStatus.FAILED)).thenReturn(1);
+
+        assertThat(handler.handle(List.of(event()))).isEmpty();
+        verify(fileStorageService, never()).uploadBytes(anyString(), any(), anyString());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：存储读取失败 - 返回失败交给中继重试")
+    void handle_StorageErrorRetries() {
+        when(documentRepository.findById(7L)).thenReturn(Optional.of(document));
+        when(renditionGenerator.supports("application/pdf")).thenReturn(true);
+        when(fileStorageService.openStream(KEY, null, null)).thenThrow(new RuntimeException("timeout"));
+
+        assertThat(handler.handle(List.of(event()))).containsEntry(1L, "timeout");
+        verify(documentRepository, never()).updateRendition(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：渲染期间文档被删除 - 衍生对象交给 outbox 删除")
+    void handle_DocumentDeletedMeanwhile() throws Exception {
+        stubSource();
+        when(renditionGenerator.render(any(Path.class), anyString()))
+                .thenReturn(new RenditionGenerator.Renditions(new byte[]{1}, new byte[]{2}, 10, 20));
+        when(documentRepository.updateRendition(anyLong(), anyString(), anyString(), any())).thenReturn(0);
+
+        assertThat(handler.handle(List.of(event()))).isEmpty();
+        verify(outboxPublisher).storageDelete(List.of(KEY + ".thumb.jpg", KEY + ".preview.jpg"));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：已处理或已删除 - 直接跳过")
+    void handle_SkipsProcessed() {
+        document.setRenditionStatus(Document.RenditionStatus.READY);
+        when(documentRepository.findById(7L)).thenReturn(Optional.of(document));
+
+        assertThat(handler.handle(List.of(event()))).isEmpty();
+        verifyNoInteractions(fileStorageService, renditionGenerator);
+    }
+}
@@ -0,0 +1,52 @@
+package com.ntdoc.notangdoccore.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.entity.OutboxEvent;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("StorageDeleteOutboxHandler测试")
+public class StorageDeleteOutboxHandlerTest {
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    private StorageDeleteOutboxHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new StorageDeleteOutboxHandler(fileStorageService, new ObjectMapper());
+    }
+
+    private OutboxEvent event(long id, String payload) {
+        return OutboxEvent.builder().id(id).eventType(OutboxEvent.EventType.STORAGE_DELETE).payload(payload).build();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：合并多个事件的键一次批量删除，失败键映射回事件")
+    void handle_MergesKeysAndMapsFailures() {
+        when(fileStorageService.deleteFiles(Set.of("a", "b", "c"))).thenReturn(Map.of("c", "AccessDenied"));
+
+        Map<Long, String> failures = handler.handle(List.of(
+                event(1L, "{\"s3Keys\":[\"a\",\"b\"]}"),
+                event(2L, "{\"s3Keys\":[\"b\",\"c\"]}"),
+                event(3L, "not-json")));
+
+        verify(fileStorageService, times(1)).deleteFiles(anyCollection());
+        assertThat(failures).containsOnlyKeys(2L, 3L);
+        assertThat(failures.get(2L)).contains("c");
+    }
+}
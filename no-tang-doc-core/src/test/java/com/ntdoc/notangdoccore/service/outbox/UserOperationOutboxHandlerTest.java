@@ -0,0 +1,71 @@
+package com.ntdoc.notangdoccore.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.entity.OutboxEvent;
+import com.ntdoc.notangdoccore.entity.logenum.ActorType;
+import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+import com.ntdoc.notangdoccore.event.UserOperationEvent;
+import com.ntdoc.notangdoccore.listener.UserOperationLogListener;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("UserOperationOutboxHandler测试")
+public class UserOperationOutboxHandlerTest {
+
+    @Mock
+    private UserOperationLogListener userOperationLogListener;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private UserOperationOutboxHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new UserOperationOutboxHandler(userOperationLogListener, objectMapper);
+    }
+
+    private OutboxEvent event(long id, String targetName) throws Exception {
+        UserOperationEvent operation = UserOperationEvent.success(this, ActorType.USER, "alice", 1L, id,
+                OperationType.DELETE_DOCUMENT, targetName);
+        return OutboxEvent.builder()
+                .id(id)
+                .eventType(OutboxEvent.EventType.USER_OPERATION)
+                .payload(objectMapper.writeValueAsString(OutboxPayloads.UserOperation.from(operation)))
+                .build();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：同步写入日志，写入失败与无法解析的事件交给中继重试")
+    void handle_RecordsSynchronouslyAndReportsFailures() throws Exception {
+        doAnswer(invocation -> {
+            if ("b.pdf".equals(invocation.<UserOperationEvent>getArgument(0).getTargetName())) {
+                throw new RuntimeException("log insert failed");
+            }
+            return null;
+        }).when(userOperationLogListener).record(any(UserOperationEvent.class));
+
+        Map<Long, String> failures = handler.handle(List.of(
+                event(1L, "a.pdf"),
+                event(2L, "b.pdf"),
+                OutboxEvent.builder().id(3L).eventType(OutboxEvent.EventType.USER_OPERATION).payload("not-json").build()));
+
+        ArgumentCaptor<UserOperationEvent> recorded = ArgumentCaptor.forClass(UserOperationEvent.class);
+        verify(userOperationLogListener, times(2)).record(recorded.capture());
+        assertThat(recorded.getAllValues()).extracting(UserOperationEvent::getTargetName)
+                .containsExactly("a.pdf", "b.pdf");
+        assertThat(failures).containsOnlyKeys(2L, 3L);
+        assertThat(failures.get(2L)).isEqualTo("log insert failed");
+    }
+}
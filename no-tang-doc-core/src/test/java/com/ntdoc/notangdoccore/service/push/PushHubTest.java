@@ -0,0 +1,268 @@
+package com.ntdoc.notangdoccore.service.push;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ntdoc.notangdoccore.config.PushProperties;
+import com.ntdoc.notangdoccore.controller.PushController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("SSE推送测试")
+public class PushHubTest {
+    private static final String USER = "kc-user-1";
+
+    @Mock
+    private PushSubscriptionService pushSubscriptionService;
+
+    private PushProperties properties;
+    private ObjectMapper objectMapper;
+    private SimpleMeterRegistry meterRegistry;
+    private List<Runnable> deferred;
+    private PushHub pushHub;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PushProperties();
+        objectMapper = spy(new ObjectMapper().registerModule(new JavaTimeModule()));
+        meterRegistry = new SimpleMeterRegistry();
+        deferred = new ArrayList<>();
+        // 默认同步写出，便于断言响应内容
+        pushHub = new PushHub(objectMapper, Runnable::run, properties, meterRegistry);
+        mockMvc = MockMvcBuilders.standaloneSetup(new PushController(pushSubscriptionService))
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject(USER).build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MvcResult subscribeDocument(Long documentId) throws Exception {
+        when(pushSubscriptionService.subscribeDocument(documentId, USER))
+                .thenAnswer(inv -> pushHub.subscribe(PushEvent.documentChannel(documentId)));
+        return mockMvc.perform(get("/api/v1/push/documents/{id}", documentId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static PushEvent commentCreated(Long documentId) {
+        return new PushEvent(PushEvent.documentChannel(documentId), "comment.created", documentId, 11L,
+                Map.of("content", "looks good"), Instant.now());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：订阅后收到ready事件，频道内事件推送给订阅者")
+    void subscribe_ReceivesEvents() throws Exception {
+        MvcResult result = subscribeDocument(7L);
+
+        pushHub.deliver(commentCreated(7L));
+        pushHub.deliver(commentCreated(8L));
+
+        String body = result.getResponse().getContentAsString();
+        assertThat(result.getResponse().getContentType()).startsWith("text/event-stream");
+        assertThat(result.getResponse().getHeader("X-Accel-Buffering")).isEqualTo("no");
+        assertThat(body).contains("event:ready");
+        assertThat(body).contains("event:comment.created");
+        assertThat(body).contains("\"entityId\":11").contains("looks good");
+        assertThat(body).doesNotContain("document:8");
+        assertThat(meterRegistry.counter("push.events.delivered").count()).isEqualTo(2);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：多个订阅者 - 事件只序列化一次")
+    void deliver_EncodesOnce() throws Exception {
+        MvcResult first = subscribeDocument(7L);
+        MvcResult second = mockMvc.perform(get("/api/v1/push/documents/{id}", 7L)).andReturn();
+
+        pushHub.deliver(commentCreated(7L));
+
+        assertThat(pushHub.connectionCount()).isEqualTo(2);
+        assertThat(first.getResponse().getContentAsString()).contains("event:comment.created");
+        assertThat(second.getResponse().getContentAsString()).contains("event:comment.created");
+        verify(objectMapper, times(1)).writeValueAsBytes(argThat(
+                event -> event instanceof PushEvent e && e.type().equals("comment.created")));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：超过连接上限 - 返回503")
+    void subscribe_ConnectionLimit() throws Exception {
+        properties.setMaxConnections(1);
+        subscribeDocument(7L);
+
+        mockMvc.perform(get("/api/v1/push/documents/{id}", 7L))
+                .andExpect(status().isServiceUnavailable());
+        assertThat(pushHub.connectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：慢消费者 - 发送队列溢出后断开，不影响其他连接")
+    void deliver_DropsSlowSubscriber() {
+        properties.setMaxPendingEvents(2);
+        pushHub = new PushHub(objectMapper, deferred::add, properties, meterRegistry);
+        pushHub.subscribe(PushEvent.documentChannel(7L));
+
+        pushHub.deliver(commentCreated(7L));
+        pushHub.deliver(commentCreated(7L));
+
+        assertThat(pushHub.connectionCount()).isZero();
+        assertThat(meterRegistry.counter("push.subscribers.dropped").count()).isEqualTo(1);
+        // 同一连接只调度一次写出任务；另一项是断开连接，不在调用方线程上执行
+        assertThat(deferred).hasSize(2);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：订阅被拒绝 - 返回403")
+    void subscribe_Forbidden() throws Exception {
+        when(pushSubscriptionService.subscribeTeam(3L, USER)).thenThrow(new SecurityException("您不是该团队成员，无法订阅团队动态"));
+
+        mockMvc.perform(get("/api/v1/push/teams/{id}", 3L))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：写出卡住 - 超过写超时后断开该连接，其他连接照常收到事件")
+    void reapStalled_DropsBlockedSubscriber() throws Exception {
+        properties.setWriteTimeout(Duration.ofMillis(100));
+        BlockingOutput blocking = new BlockingOutput();
+        // 每个写出任务一个线程，与生产的虚拟线程执行器行为一致
+        pushHub = new PushHub(objectMapper, command -> new Thread(command).start(), properties, meterRegistry);
+        mockMvc = MockMvcBuilders.standaloneSetup(new PushController(pushSubscriptionService))
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .addFilters(blocking)
+                .build();
+        MvcResult stalled = subscribeDocument(7L);
+        blocking.active = false;
+        MvcResult healthy = mockMvc.perform(get("/api/v1/push/documents/{id}", 7L)).andReturn();
+        await(() -> healthy.getResponse().getContentAsString().contains("event:ready"));
+
+        blocking.block.set(true);
+        pushHub.deliver(commentCreated(7L));
+        assertThat(blocking.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        await(() -> healthy.getResponse().getContentAsString().contains("event:comment.created"));
+        Thread.sleep(200);
+
+        pushHub.reapStalled();
+
+        assertThat(pushHub.connectionCount()).isEqualTo(1);
+        assertThat(meterRegistry.counter("push.subscribers.dropped").count()).isEqualTo(1);
+        pushHub.deliver(commentCreated(7L));
+        await(() -> healthy.getResponse().getContentAsString().split("event:comment.created", -1).length == 3);
+
+        // 卡住的那一帧放行后写完，断开之后的事件不再发给该连接
+        blocking.release.countDown();
+        assertThat(stalled.getResponse().getContentAsString().split("event:comment.created", -1).length).isLessThanOrEqualTo(2);
+    }
+
+    private static void await(java.util.concurrent.Callable<Boolean> condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.call()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * 模拟客户端停止读取：active 时包装的响应在 block 打开后的写入阻塞，直到 release
+     */
+    private static class BlockingOutput extends OncePerRequestFilter {
+        private final AtomicBoolean block = new AtomicBoolean();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean active = true;
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            if (!active) {
+                chain.doFilter(request, response);
+                return;
+            }
+            ServletOutputStream delegate = response.getOutputStream();
+            ServletOutputStream blockingStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    awaitRelease();
+                    delegate.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    awaitRelease();
+                    delegate.write(b, off, len);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+            };
+            chain.doFilter(request, new HttpServletResponseWrapper(response) {
+                @Override
+                public ServletOutputStream getOutputStream() {
+                    return blockingStream;
+                }
+            });
+        }
+
+        private void awaitRelease() throws IOException {
+            if (!block.get()) {
+                return;
+            }
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.ntdoc.notangdoccore.service.push;
+
+import com.ntdoc.notangdoccore.entity.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("推送事件转换测试")
+public class PushNotifierTest {
+
+    @Mock
+    private EventBroker eventBroker;
+
+    private PushNotifier pushNotifier;
+    private DocumentComment comment;
+
+    @BeforeEach
+    void setUp() {
+        pushNotifier = new PushNotifier(eventBroker);
+        User user = User.builder().id(1L).username("alice").email("alice@example.com").build();
+        Document document = Document.builder().id(7L).originalFilename("a.pdf").build();
+        Team team = Team.builder().id(3L).name("dev").build();
+        comment = DocumentComment.builder().id(11L).document(document).user(user).team(team)
+                .content("hi").status(DocumentComment.CommentStatus.ACTIVE).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：事务内的评论变更 - 提交后才推送到文档与团队频道")
+    void commentChanged_PublishedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        pushNotifier.commentChanged(comment, ChangeFeedEntry.Action.CREATED);
+        verify(eventBroker, never()).publish(any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        ArgumentCaptor<PushEvent> captor = ArgumentCaptor.forClass(PushEvent.class);
+        verify(eventBroker, times(2)).publish(captor.capture());
+        assertThat(captor.getAllValues()).extracting(PushEvent::channel).containsExactly("document:7", "team:3");
+        assertThat(captor.getAllValues()).extracting(PushEvent::type).containsOnly("comment.created");
+        assertThat(captor.getValue().data()).isNotNull();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：删除事件不携带数据；分发失败不影响调用方")
+    void documentDeleted_NoDataAndFailureIsolated() {
+        doThrow(new IllegalStateException("broker down")).when(eventBroker).publish(any());
+
+        pushNotifier.documentChanged(comment.getDocument(), ChangeFeedEntry.Action.DELETED);
+
+        ArgumentCaptor<PushEvent> captor = ArgumentCaptor.forClass(PushEvent.class);
+        verify(eventBroker).publish(captor.capture());
+        assertThat(captor.getValue().type()).isEqualTo("document.deleted");
+        assertThat(captor.getValue().data()).isNull();
+    }
+}
@@ -0,0 +1,101 @@
+package com.ntdoc.notangdoccore.service.rendition;
+
+import com.ntdoc.notangdoccore.config.RenditionProperties;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("缩略图生成测试")
+public class RenditionGeneratorTest {
+    @TempDir
+    Path tempDir;
+
+    private RenditionGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        generator = new RenditionGenerator(new RenditionProperties());
+    }
+
+    private static BufferedImage decode(byte[] jpeg) throws Exception {
+        return ImageIO.read(new ByteArrayInputStream(jpeg));
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：支持的类型 - 仅 pdf/png/jpg")
+    void supports() {
+        assertThat(generator.supports("application/pdf")).isTrue();
+        assertThat(generator.supports("IMAGE/PNG")).isTrue();
+        assertThat(generator.supports("image/jpeg")).isTrue();
+        assertThat(generator.supports("text/plain")).isFalse();
+        assertThat(generator.supports(null)).isFalse();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：PNG 大图 - 等比缩放到预览与缩略图尺寸")
+    void render_Png() throws Exception {
+        Path source = tempDir.resolve("wide.png");
+        ImageIO.write(new BufferedImage(4000, 2000, BufferedImage.TYPE_INT_ARGB), "png", source.toFile());
+
+        RenditionGenerator.Renditions renditions = generator.render(source, "image/png");
+
+        BufferedImage preview = decode(renditions.preview());
+        BufferedImage thumbnail = decode(renditions.thumbnail());
+        assertThat(preview.getWidth()).isEqualTo(1024);
+        assertThat(preview.getHeight()).isEqualTo(512);
+        assertThat(thumbnail.getWidth()).isEqualTo(256);
+        assertThat(thumbnail.getHeight()).isEqualTo(128);
+        assertThat(renditions.thumbnail().length).isLessThan(renditions.preview().length);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：PDF - 只渲染第一页")
+    void render_Pdf() throws Exception {
+        Path source = tempDir.resolve("doc.pdf");
+        try (PDDocument pdf = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            pdf.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(pdf, page)) {
+                content.addRect(50, 50, 200, 200);
+                content.fill();
+            }
+            pdf.addPage(new PDPage(PDRectangle.A4));
+            pdf.save(source.toFile());
+        }
+
+        RenditionGenerator.Renditions renditions = generator.render(source, "application/pdf");
+
+        // A4 纵向：高度为最长边
+        assertThat(renditions.previewHeight()).isEqualTo(1024);
+        assertThat(decode(renditions.thumbnail()).getHeight()).isEqualTo(256);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：损坏文件 - 抛出 IllegalArgumentException")
+    void render_Corrupt() throws Exception {
+        Path source = tempDir.resolve("broken.pdf");
+        Files.writeString(source, "not a pdf");
+
+        assertThatThrownBy(() -> generator.render(source, "application/pdf"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> generator.render(source, "image/png"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
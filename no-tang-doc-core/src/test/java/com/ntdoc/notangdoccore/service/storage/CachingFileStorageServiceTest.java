@@ -0,0 +1,208 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.config.ContentCacheProperties;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.service.impl.DigitalOceanSpacesService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("本地磁盘缓存存储服务测试")
+public class CachingFileStorageServiceTest {
+    private static final String KEY = "documents/u/2025/10/abc-report.txt";
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+    private static final StoredObjectInfo INFO = new StoredObjectInfo("\"etag-1\"", CONTENT.length, "text/plain", Instant.now());
+
+    @Mock
+    private DigitalOceanSpacesService delegate;
+    @Mock
+    private DocumentRepository documentRepository;
+    @TempDir
+    Path tempDir;
+
+    private ContentCacheProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ObjectDiskCache diskCache;
+    private CachingFileStorageService storageService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ContentCacheProperties();
+        properties.setDir(tempDir.resolve("cache").toString());
+        meterRegistry = new SimpleMeterRegistry();
+        diskCache = new ObjectDiskCache(properties, meterRegistry);
+        storageService = new CachingFileStorageService(delegate, diskCache);
+    }
+
+    private void stubOrigin(String key, StoredObjectInfo info) {
+        when(delegate.getObjectInfo(key)).thenReturn(info);
+        when(delegate.openStream(key, null, null)).thenAnswer(inv -> new ByteArrayInputStream(CONTENT));
+    }
+
+    private static String read(InputStream in) throws Exception {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：元数据读穿透 - 只发起一次HEAD")
+    void getObjectInfo_Cached() {
+        when(delegate.getObjectInfo(KEY)).thenReturn(INFO);
+
+        storageService.getObjectInfo(KEY);
+        StoredObjectInfo second = storageService.getObjectInfo(KEY);
+
+        assertThat(second).isEqualTo(INFO);
+        verify(delegate, times(1)).getObjectInfo(KEY);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：未缓存内容 - 直接转发到对象存储")
+    void openStream_MissDelegates() throws Exception {
+        when(delegate.openStream(KEY, 2L, 4L)).thenReturn(new ByteArrayInputStream("234".getBytes()));
+
+        assertThat(read(storageService.openStream(KEY, 2L, 4L))).isEqualTo("234");
+        verify(delegate).openStream(KEY, 2L, 4L);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：预热后读取 - 整体与范围读取均走内存映射")
+    void openStream_HitReadsMapped() throws Exception {
+        stubOrigin(KEY, INFO);
+
+        assertThat(storageService.warm(KEY)).isNotNull();
+        assertThat(read(storageService.openStream(KEY, null, null))).isEqualTo(new String(CONTENT, StandardCharsets.UTF_8));
+        assertThat(read(storageService.openStream(KEY, 10L, 14L))).isEqualTo("abcde");
+        assertThat(read(storageService.openStream(KEY, 15L, null))).isEqualTo("fghij");
+
+        verify(delegate, times(1)).openStream(KEY, null, null);
+        verify(delegate, never()).openStream(eq(KEY), anyLong(), any());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：内容哈希去重 - 相同ETag的不同对象共用一个缓存文件")
+    void warm_DeduplicatesByContentHash() throws Exception {
+        String copyKey = "documents/v/2025/10/def-report.txt";
+        stubOrigin(KEY, INFO);
+        when(delegate.getObjectInfo(copyKey)).thenReturn(INFO);
+
+        ObjectDiskCache.CachedObject first = storageService.warm(KEY);
+        ObjectDiskCache.CachedObject second = storageService.warm(copyKey);
+
+        assertThat(second.path()).isEqualTo(first.path());
+        verify(delegate, never()).openStream(eq(copyKey), any(), any());
+        try (var files = Files.list(tempDir.resolve("cache").resolve(ObjectDiskCache.OBJECTS_DIR))) {
+            assertThat(files.count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：删除对象 - 同步失效本地缓存并删除文件")
+    void deleteFile_Invalidates() {
+        stubOrigin(KEY, INFO);
+        when(delegate.deleteFile(KEY)).thenReturn(true);
+        Path path = storageService.warm(KEY).path();
+
+        assertThat(storageService.deleteFile(KEY)).isTrue();
+
+        assertThat(diskCache.get(KEY)).isNull();
+        assertThat(Files.exists(path)).isFalse();
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：超过单对象上限 - 不进入缓存")
+    void warm_TooLargeSkipped() {
+        properties.setMaxObjectSize(DataSize.ofBytes(10));
+        when(delegate.getObjectInfo(KEY)).thenReturn(INFO);
+
+        assertThat(storageService.warm(KEY)).isNull();
+        assertThat(meterRegistry.counter("document.content.disk.fills", "outcome", "too_large").count()).isEqualTo(1);
+        verify(delegate, never()).openStream(anyString(), any(), any());
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("测试7：按下载次数预热 - 预热量受容量比例限制")
+    void warmup_RespectsBudget() {
+        // 容量 40 字节、预热比例 0.5 => 预热一个 20 字节对象后停止
+        properties.setMaxSize(DataSize.ofBytes(40));
+        String second = "documents/u/2025/10/second.txt";
+        when(documentRepository.findHotS3Keys(eq(3), any(Pageable.class))).thenReturn(List.of(KEY, second));
+        stubOrigin(KEY, INFO);
+        ContentCacheWarmer warmer = new ContentCacheWarmer(storageService, documentRepository, diskCache, properties);
+
+        assertThat(warmer.warmup()).isEqualTo(1);
+        assertThat(diskCache.get(KEY)).isNotNull();
+        verify(delegate, never()).getObjectInfo(second);
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("测试8：sendfile 租约 - 租约期内被淘汰的文件延迟到租约到期后删除")
+    void lease_DefersDeletionOfEvictedFile() throws Exception {
+        stubOrigin(KEY, INFO);
+        ObjectDiskCache.CachedObject cached = storageService.warm(KEY);
+
+        diskCache.lease(cached);
+        diskCache.invalidate(KEY);
+        diskCache.purgeRetired();
+
+        assertThat(diskCache.get(KEY)).isNull();
+        assertThat(Files.exists(cached.path())).isTrue();
+
+        properties.setSendfileLease(java.time.Duration.ZERO);
+        ObjectDiskCache.CachedObject refilled = storageService.warm(KEY);
+        diskCache.lease(refilled);
+        diskCache.purgeRetired();
+
+        // 同一内容重新写入使用新文件，到期清理旧文件时不影响新条目
+        assertThat(refilled.path()).isNotEqualTo(cached.path());
+        assertThat(Files.exists(refilled.path())).isTrue();
+        assertThat(read(diskCache.get(KEY).openStream(0, CONTENT.length))).isEqualTo(new String(CONTENT, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("测试9：启动清理 - 只删除缓存子目录中符合命名的文件")
+    void startup_DeletesOnlyCacheFiles() throws Exception {
+        Path root = tempDir.resolve("cache");
+        Path objects = root.resolve(ObjectDiskCache.OBJECTS_DIR);
+        Path stale = Files.writeString(objects.resolve("etag-1-20.0b5c.obj"), "stale");
+        Path partial = Files.writeString(objects.resolve("etag-1-20.0b5c.tmp"), "partial");
+        Path foreign = Files.writeString(root.resolve("keep.txt"), "not ours");
+        Path foreignInObjects = Files.writeString(objects.resolve("notes.md"), "not ours");
+
+        new ObjectDiskCache(properties, meterRegistry);
+
+        assertThat(stale).doesNotExist();
+        assertThat(partial).doesNotExist();
+        assertThat(foreign).exists();
+        assertThat(foreignInObjects).exists();
+    }
+}
@@ -0,0 +1,149 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.config.ContentLinkProperties;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.exception.DocumentException;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("签名内容链接测试")
+public class ContentLinkServiceTest {
+
+    @Mock
+    private FileStorageService fileStorageService;
+    @Mock
+    private DocumentRepository documentRepository;
+
+    private ContentLinkService linkService;
+    private Document gzipDocument;
+
+    @BeforeEach
+    void setUp() {
+        ContentLinkProperties properties = new ContentLinkProperties();
+        properties.setSecret("test-secret");
+        linkService = new ContentLinkService(fileStorageService, documentRepository, properties);
+        gzipDocument = Document.builder().id(100L).s3Key("kc-1/docs/a.txt")
+                .storageCodec(Document.StorageCodec.GZIP).status(Document.DocumentStatus.ACTIVE).build();
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setScheme("https");
+        request.setServerName("api.ntdoc.site");
+        request.setServerPort(443);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static MultiValueMap<String, String> query(URL url) throws Exception {
+        UriComponents uri = UriComponentsBuilder.fromUri(url.toURI()).build();
+        return uri.getQueryParams();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：未压缩的文档 - 直接使用对象存储预签名 URL")
+    void uncompressed_UsesPresignedUrl() throws Exception {
+        Document plain = Document.builder().id(1L).s3Key("kc-1/docs/b.pdf").storageCodec(Document.StorageCodec.NONE).build();
+        URL presigned = new URL("https://bucket.example.com/b.pdf?X-Amz-Signature=x");
+        when(fileStorageService.generateDownloadUrl("kc-1/docs/b.pdf", Duration.ofMinutes(60))).thenReturn(presigned);
+        when(fileStorageService.generateShareUrl("kc-1/docs/b.pdf", Duration.ofMinutes(10))).thenReturn(presigned);
+
+        assertThat(linkService.downloadUrl(plain, Duration.ofMinutes(60))).isSameAs(presigned);
+        assertThat(linkService.shareUrl(plain, Duration.ofMinutes(10))).isSameAs(presigned);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：gzip 存储的文档 - 签发指向公开内容端点的链接，校验通过返回文档")
+    void gzip_SignedLinkRoundTrip() throws Exception {
+        when(documentRepository.findById(100L)).thenReturn(Optional.of(gzipDocument));
+
+        URL url = linkService.downloadUrl(gzipDocument, Duration.ofMinutes(60));
+
+        assertThat(url.toString()).startsWith("https://api.ntdoc.site/api/public/documents/100/content?");
+        MultiValueMap<String, String> query = query(url);
+        assertThat(query.getFirst("disposition")).isEqualTo(ContentLinkService.ATTACHMENT);
+        long expires = Long.parseLong(query.getFirst("expires"));
+        assertThat(expires).isBetween(Instant.now().getEpochSecond() + 3590, Instant.now().getEpochSecond() + 3600);
+
+        Document resolved = linkService.resolve(100L, expires, query.getFirst("disposition"), query.getFirst("signature"));
+        assertThat(resolved).isSameAs(gzipDocument);
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：篡改文档ID、处置方式或过期时间 - 签名校验失败")
+    void tamperedLink_Rejected() throws Exception {
+        MultiValueMap<String, String> query = query(linkService.shareUrl(gzipDocument, Duration.ofMinutes(10)));
+        long expires = Long.parseLong(query.getFirst("expires"));
+        String signature = query.getFirst("signature");
+        assertThat(query.getFirst("disposition")).isEqualTo(ContentLinkService.INLINE);
+
+        assertThatThrownBy(() -> linkService.resolve(101L, expires, "inline", signature))
+                .isInstanceOf(SecurityException.class);
+        assertThatThrownBy(() -> linkService.resolve(100L, expires, "attachment", signature))
+                .isInstanceOf(SecurityException.class);
+        assertThatThrownBy(() -> linkService.resolve(100L, expires + 60, "inline", signature))
+                .isInstanceOf(SecurityException.class);
+        assertThatThrownBy(() -> linkService.resolve(100L, expires, "inline", "not base64!"))
+                .isInstanceOf(SecurityException.class);
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：链接过期 - 拒绝；其他实例（不同密钥）签发的链接 - 拒绝")
+    void expiredOrForeignLink_Rejected() throws Exception {
+        MultiValueMap<String, String> query = query(linkService.downloadUrl(gzipDocument, Duration.ofSeconds(-5)));
+        long expires = Long.parseLong(query.getFirst("expires"));
+        assertThatThrownBy(() -> linkService.resolve(100L, expires, "attachment", query.getFirst("signature")))
+                .isInstanceOf(SecurityException.class)
+                .hasMessageContaining("expired");
+
+        ContentLinkProperties other = new ContentLinkProperties();
+        other.setSecret("other-secret");
+        MultiValueMap<String, String> foreign = query(new ContentLinkService(fileStorageService, documentRepository, other)
+                .downloadUrl(gzipDocument, Duration.ofMinutes(60)));
+        assertThatThrownBy(() -> linkService.resolve(100L, Long.parseLong(foreign.getFirst("expires")),
+                "attachment", foreign.getFirst("signature")))
+                .isInstanceOf(SecurityException.class);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：签名有效但文档已删除 - 视为不存在")
+    void deletedDocument_NotFound() throws Exception {
+        MultiValueMap<String, String> query = query(linkService.downloadUrl(gzipDocument, Duration.ofMinutes(60)));
+        gzipDocument.setStatus(Document.DocumentStatus.DELETED);
+        when(documentRepository.findById(100L)).thenReturn(Optional.of(gzipDocument));
+
+        assertThatThrownBy(() -> linkService.resolve(100L, Long.parseLong(query.getFirst("expires")),
+                "attachment", query.getFirst("signature")))
+                .isInstanceOf(DocumentException.DocumentNotFoundException.class);
+    }
+}
@@ -0,0 +1,295 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.config.ContentCacheProperties;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("文档内容代理下载测试")
+public class DocumentContentServiceTest {
+    private static final String KEY = "documents/u/2025/10/abc-report.txt";
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+    private static final StoredObjectInfo INFO = new StoredObjectInfo("\"etag-1\"", CONTENT.length, "text/plain", Instant.now());
+
+    @Mock
+    private FileStorageService fileStorageService;
+    @TempDir
+    Path cacheDir;
+
+    private ContentCacheProperties properties;
+    private ObjectDiskCache diskCache;
+    private DocumentContentService contentService;
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ContentCacheProperties();
+        properties.setDir(cacheDir.resolve("cache").toString());
+        properties.setHotThreshold(3);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        diskCache = new ObjectDiskCache(properties, meterRegistry);
+        contentService = new DocumentContentService(fileStorageService, diskCache, properties, meterRegistry);
+        document = Document.builder().id(1L).s3Key(KEY).originalFilename("报告.txt")
+                .contentType("text/plain").downloadCount(0).build();
+    }
+
+    private void stubStorage() {
+        when(fileStorageService.getObjectInfo(KEY)).thenReturn(INFO);
+        lenient().when(fileStorageService.openStream(eq(KEY), any(), any())).thenAnswer(inv -> {
+            Long start = inv.getArgument(1);
+            Long end = inv.getArgument(2);
+            int from = start == null ? 0 : start.intValue();
+            int to = end == null ? CONTENT.length : end.intValue() + 1;
+            return new ByteArrayInputStream(Arrays.copyOfRange(CONTENT, from, to));
+        });
+    }
+
+    private MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/v1/documents/1/content");
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：完整读取 - 从对象存储流式返回并带ETag")
+    void serve_FullFromStorage() throws Exception {
+        stubStorage();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        int status = contentService.serve(document, get(), response);
+
+        assertThat(status).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+        assertThat(response.getHeader("ETag")).isEqualTo("\"etag-1\"");
+        assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+        assertThat(response.getContentLengthLong()).isEqualTo(CONTENT.length);
+        verify(fileStorageService).openStream(KEY, null, null);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：If-None-Match 命中 - 返回304且不读取内容")
+    void serve_NotModified() throws Exception {
+        when(fileStorageService.getObjectInfo(KEY)).thenReturn(INFO);
+        MockHttpServletRequest request = get();
+        request.addHeader("If-None-Match", "W/\"other\", \"etag-1\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(contentService.serve(document, request, response)).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        verify(fileStorageService, never()).openStream(anyString(), any(), any());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：Range 读取 - 返回206并只向存储请求该范围")
+    void serve_RangeFromStorage() throws Exception {
+        stubStorage();
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=5-9");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(contentService.serve(document, request, response)).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("56789");
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 5-9/20");
+        verify(fileStorageService).openStream(KEY, 5L, 9L);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：If-Range 不匹配 - 忽略Range返回完整内容")
+    void serve_IfRangeMismatch() throws Exception {
+        stubStorage();
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=5-9");
+        request.addHeader("If-Range", "\"stale\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(contentService.serve(document, request, response)).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：范围越界 - 返回416")
+    void serve_RangeNotSatisfiable() throws Exception {
+        when(fileStorageService.getObjectInfo(KEY)).thenReturn(INFO);
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=100-200");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(contentService.serve(document, request, response)).isEqualTo(416);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */20");
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：热点文档 - 写入磁盘缓存，后续请求不再访问对象存储")
+    void serve_HotObjectServedFromDisk() throws Exception {
+        stubStorage();
+        document.setDownloadCount(5);
+
+        MockHttpServletRequest first = get();
+        first.addHeader("Range", "bytes=10-");
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        assertThat(contentService.serve(document, first, firstResponse)).isEqualTo(206);
+        assertThat(firstResponse.getContentAsString()).isEqualTo("abcdefghij");
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertThat(contentService.serve(document, get(), second)).isEqualTo(200);
+        assertThat(second.getContentAsByteArray()).isEqualTo(CONTENT);
+
+        // 元数据与内容各只从对象存储读取一次
+        verify(fileStorageService, times(1)).getObjectInfo(KEY);
+        verify(fileStorageService, times(1)).openStream(KEY, null, null);
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("测试7：容器支持 sendfile - 交给容器零拷贝发送")
+    void serve_SendfileDelegation() throws Exception {
+        stubStorage();
+        document.setDownloadCount(5);
+        MockHttpServletRequest request = get();
+        request.setAttribute(DocumentContentService.SENDFILE_SUPPORT, Boolean.TRUE);
+        request.addHeader("Range", "bytes=2-4");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(contentService.serve(document, request, response)).isEqualTo(206);
+
+        String file = (String) request.getAttribute(DocumentContentService.SENDFILE_FILENAME);
+        assertThat(Files.readAllBytes(Path.of(file))).isEqualTo(CONTENT);
+        assertThat(request.getAttribute(DocumentContentService.SENDFILE_START)).isEqualTo(2L);
+        assertThat(request.getAttribute(DocumentContentService.SENDFILE_END)).isEqualTo(5L);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+
+        // 容器打开文件之前条目被淘汰：文件仍在，直到租约到期
+        diskCache.invalidate(KEY);
+        diskCache.purgeRetired();
+        assertThat(Path.of(file)).exists();
+    }
+
+    private static byte[] gzip(byte[] content) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] stubCompressed() throws Exception {
+        byte[] stored = gzip(CONTENT);
+        document.setFileSize((long) CONTENT.length);
+        document.setStorageCodec(Document.StorageCodec.GZIP);
+        when(fileStorageService.getObjectInfo(KEY)).thenReturn(
+                new StoredObjectInfo("\"etag-gz\"", stored.length, "text/plain", Instant.now(), "gzip"));
+        lenient().when(fileStorageService.openStream(KEY, null, null)).thenAnswer(inv -> new ByteArrayInputStream(stored));
+        return stored;
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("测试8：gzip存储且客户端接受gzip - 原样转发压缩字节")
+    void serve_GzipPassthrough() throws Exception {
+        byte[] stored = stubCompressed();
+        MockHttpServletRequest request = get();
+        request.addHeader("Accept-Encoding", "br, gzip;q=0.8");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(contentService.serve(document, request, response)).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(stored);
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(response.getHeader("ETag")).isEqualTo("\"etag-gz-gzip\"");
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(response.getContentLengthLong()).isEqualTo(stored.length);
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("测试9：gzip存储但客户端不接受gzip - 解压后返回原始内容")
+    void serve_GzipDecoded() throws Exception {
+        stubCompressed();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(contentService.serve(document, get(), response)).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertThat(response.getHeader("ETag")).isEqualTo("\"etag-gz\"");
+        assertThat(response.getContentLengthLong()).isEqualTo(CONTENT.length);
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("测试10：gzip存储的Range请求 - 按原始内容偏移解压返回")
+    void serve_GzipRange() throws Exception {
+        stubCompressed();
+        MockHttpServletRequest request = get();
+        request.addHeader("Accept-Encoding", "gzip");
+        request.addHeader("Range", "bytes=5-9");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(contentService.serve(document, request, response)).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("56789");
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 5-9/20");
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        verify(fileStorageService, never()).openStream(eq(KEY), anyLong(), any());
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("测试11：gzip存储的热点文档 - 缓存压缩字节并以sendfile转发")
+    void serve_GzipHotSendfile() throws Exception {
+        byte[] stored = stubCompressed();
+        document.setDownloadCount(5);
+        MockHttpServletRequest request = get();
+        request.setAttribute(DocumentContentService.SENDFILE_SUPPORT, Boolean.TRUE);
+        request.addHeader("Accept-Encoding", "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(contentService.serve(document, request, response)).isEqualTo(200);
+
+        String file = (String) request.getAttribute(DocumentContentService.SENDFILE_FILENAME);
+        assertThat(Files.readAllBytes(Path.of(file))).isEqualTo(stored);
+        assertThat(request.getAttribute(DocumentContentService.SENDFILE_END)).isEqualTo((long) stored.length);
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("测试12：HEAD 之后对象被删除 - 打开失败时不写出内容响应头")
+    void serve_OpenFailsBeforeHeaders() throws Exception {
+        stubCompressed();
+        when(fileStorageService.openStream(KEY, null, null)).thenThrow(NoSuchKeyException.builder().build());
+        MockHttpServletRequest request = get();
+        request.addHeader("Accept-Encoding", "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThatThrownBy(() -> contentService.serve(document, request, response))
+                .isInstanceOf(NoSuchKeyException.class);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeaderNames()).isEmpty();
+        assertThat(response.getContentType()).isNull();
+    }
+}
@@ -0,0 +1,49 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import org.junit.jupiter.api.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("布隆过滤器测试")
+public class KeyBloomFilterTest {
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：无漏判且误判率接近目标")
+    void bloomFilter_NoFalseNegatives() {
+        KeyBloomFilter filter = KeyBloomFilter.create(10000, 0.01, 42L);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("documents/u/" + i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertThat(filter.mightContain("documents/u/" + i)).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("documents/other/" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：不同 seed 下误判的键不同")
+    void bloomFilter_SeedChangesFalsePositives() {
+        KeyBloomFilter a = KeyBloomFilter.create(100, 0.2, 1L);
+        KeyBloomFilter b = KeyBloomFilter.create(100, 0.2, 2L);
+        for (int i = 0; i < 100; i++) {
+            a.put("k" + i);
+            b.put("k" + i);
+        }
+        int both = 0, either = 0;
+        for (int i = 0; i < 2000; i++) {
+            boolean inA = a.mightContain("x" + i), inB = b.mightContain("x" + i);
+            if (inA && inB) both++;
+            if (inA || inB) either++;
+        }
+        assertThat(both).isLessThan(either);
+    }
+}
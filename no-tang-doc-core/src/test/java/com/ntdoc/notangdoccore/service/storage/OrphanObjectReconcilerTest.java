@@ -0,0 +1,131 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.config.StorageReconcileProperties;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("孤儿对象对账测试")
+public class OrphanObjectReconcilerTest {
+
+    @Mock
+    private S3Client s3Client;
+    @Mock
+    private FileStorageService fileStorageService;
+    @Mock
+    private DocumentRepository documentRepository;
+
+    private StorageReconcileProperties properties;
+    private OrphanObjectReconciler reconciler;
+
+    private final Instant old = Instant.now().minus(Duration.ofDays(3));
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageReconcileProperties();
+        properties.setActionsPerSecond(0);
+        reconciler = new OrphanObjectReconciler(s3Client, fileStorageService, documentRepository,
+                properties, new SimpleMeterRegistry(), "test-bucket");
+
+        when(documentRepository.count()).thenReturn(2L);
+        when(documentRepository.findS3KeysAfterId(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new Object[]{1L, "documents/u/live-1"},
+                new Object[]{2L, "documents/u/live-2"}));
+
+        // 第一页：两个有效对象 + 有效对象的缩略图 + 一个孤儿
+        // 第二页：新上传的对象 + 布隆构建后才入库的对象及其预览图 + 孤儿
+        when(s3Client.listObjectsV2(any(ListObjectsV2Request.class)))
+                .thenReturn(ListObjectsV2Response.builder()
+                        .contents(object("documents/u/live-1", old), object("documents/u/live-2", old),
+                                object("documents/u/live-1.thumb.jpg", old), object("documents/u/orphan-1", old))
+                        .isTruncated(true).nextContinuationToken("t1").build())
+                .thenReturn(ListObjectsV2Response.builder()
+                        .contents(object("documents/u/uploading", Instant.now()),
+                                object("documents/u/late-insert", old), object("documents/u/late-insert.preview.jpg", old),
+                                object("documents/u/orphan-2", old))
+                        .isTruncated(false).build());
+        when(documentRepository.findExistingS3Keys(anyCollection())).thenAnswer(inv -> {
+            Collection<String> keys = inv.getArgument(0);
+            return keys.contains("documents/u/late-insert") ? List.of("documents/u/late-insert") : List.of();
+        });
+    }
+
+    private S3Object object(String key, Instant lastModified) {
+        return S3Object.builder().key(key).size(100L).lastModified(lastModified).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> deletedKeys() {
+        ArgumentCaptor<Collection<String>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(fileStorageService, atLeastOnce()).deleteFiles(captor.capture());
+        return captor.getAllValues().stream().flatMap(Collection::stream).toList();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：隔离模式 - 只处理确认的孤儿对象，衍生对象按原文件判断")
+    void reconcile_Quarantine() {
+        when(fileStorageService.deleteFiles(anyCollection())).thenReturn(Map.of());
+
+        OrphanObjectReconciler.Report report = reconciler.reconcile();
+
+        assertThat(report.getScanned()).isEqualTo(8);
+        assertThat(report.getSkippedRecent()).isEqualTo(1);
+        assertThat(report.getOrphans()).isEqualTo(2);
+        assertThat(report.getOrphanBytes()).isEqualTo(200);
+        assertThat(report.getActioned()).isEqualTo(2);
+
+        ArgumentCaptor<CopyObjectRequest> copies = ArgumentCaptor.forClass(CopyObjectRequest.class);
+        verify(s3Client, times(2)).copyObject(copies.capture());
+        assertThat(copies.getAllValues()).extracting(CopyObjectRequest::destinationKey)
+                .containsExactly("quarantine/documents/u/orphan-1", "quarantine/documents/u/orphan-2");
+        assertThat(deletedKeys()).containsExactly("documents/u/orphan-1", "documents/u/orphan-2");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：报告模式 - 不修改存储桶")
+    void reconcile_ReportOnly() {
+        properties.setMode(StorageReconcileProperties.Mode.REPORT);
+
+        OrphanObjectReconciler.Report report = reconciler.reconcile();
+
+        assertThat(report.getOrphans()).isEqualTo(2);
+        verify(s3Client, never()).copyObject(any(CopyObjectRequest.class));
+        verify(fileStorageService, never()).deleteFiles(anyCollection());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：删除模式 - 达到单轮上限后停止翻页")
+    void reconcile_DeleteRespectsMaxActions() {
+        properties.setMode(StorageReconcileProperties.Mode.DELETE);
+        properties.setMaxActionsPerRun(1);
+        when(fileStorageService.deleteFiles(anyCollection())).thenReturn(Map.of());
+
+        OrphanObjectReconciler.Report report = reconciler.reconcile();
+
+        assertThat(report.getActioned()).isEqualTo(1);
+        assertThat(report.isTruncated()).isTrue();
+        assertThat(deletedKeys()).containsExactly("documents/u/orphan-1");
+        verify(s3Client, times(1)).listObjectsV2(any(ListObjectsV2Request.class));
+    }
+}
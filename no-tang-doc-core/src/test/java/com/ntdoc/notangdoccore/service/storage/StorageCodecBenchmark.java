@@ -0,0 +1,82 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.config.StorageCompressionProperties;
+import com.ntdoc.notangdoccore.entity.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 压缩级别对比：吞吐（MB/s）、CPU 时间与压缩率
+ * 默认跳过，运行方式：mvn test -Dtest=StorageCodecBenchmark -Dntdoc.benchmark=true
+ */
+@EnabledIfSystemProperty(named = "ntdoc.benchmark", matches = "true")
+@DisplayName("存储压缩基准")
+public class StorageCodecBenchmark {
+    private static final int ROUNDS = 5;
+
+    @Test
+    @DisplayName("gzip 各级别吞吐与压缩率")
+    void compareLevels() throws Exception {
+        byte[] sample = sample(32 * 1024 * 1024);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        System.out.printf("%-6s %12s %12s %12s %10s%n", "level", "compress", "decompress", "cpu(ms)", "ratio");
+        for (int level : new int[]{1, 3, 6, 9}) {
+            StorageCompressionProperties properties = new StorageCompressionProperties();
+            properties.setLevel(level);
+            properties.setMinSavings(0);
+            StorageCodecs codecs = new StorageCodecs(properties);
+
+            long compressNanos = 0;
+            long decompressNanos = 0;
+            long cpuNanos = 0;
+            long storedSize = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long cpuStart = threads.getCurrentThreadCpuTime();
+                long start = System.nanoTime();
+                Path compressed = codecs.compress(new ByteArrayInputStream(sample), sample.length);
+                compressNanos += System.nanoTime() - start;
+                cpuNanos += threads.getCurrentThreadCpuTime() - cpuStart;
+                try {
+                    storedSize = Files.size(compressed);
+                    start = System.nanoTime();
+                    try (InputStream in = StorageCodecs.decode(Files.newInputStream(compressed), Document.StorageCodec.GZIP)) {
+                        in.transferTo(OutputStream.nullOutputStream());
+                    }
+                    decompressNanos += System.nanoTime() - start;
+                } finally {
+                    Files.deleteIfExists(compressed);
+                }
+            }
+            System.out.printf("%-6d %9.1fMB/s %9.1fMB/s %12d %10.3f%n", level,
+                    throughput(sample.length, compressNanos), throughput(sample.length, decompressNanos),
+                    cpuNanos / ROUNDS / 1_000_000, (double) storedSize / sample.length);
+        }
+    }
+
+    private static double throughput(long bytes, long nanos) {
+        return bytes * (double) ROUNDS / (1024 * 1024) / (nanos / 1e9);
+    }
+
+    // 近似文档内容的样本：重复度较高的中英文文本与 JSON 片段
+    private static byte[] sample(int size) {
+        StringBuilder builder = new StringBuilder(size);
+        int i = 0;
+        while (builder.length() < size) {
+            builder.append("{\"id\":").append(i).append(",\"title\":\"文档标题 ").append(i % 97)
+                    .append("\",\"body\":\"Lorem ipsum dolor sit amet, 项目周报 第").append(i % 13)
+                    .append("周, status=").append(i % 3 == 0 ? "DONE" : "OPEN").append("\"}\n");
+            i++;
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,78 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.config.StorageCompressionProperties;
+import com.ntdoc.notangdoccore.entity.Document;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("存储编码层测试")
+public class StorageCodecsTest {
+    private StorageCompressionProperties properties;
+    private StorageCodecs codecs;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageCompressionProperties();
+        codecs = new StorageCodecs(properties);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：压缩资格 - 按类型前缀、参数与最小大小判断")
+    void eligible() {
+        assertThat(codecs.eligible("text/plain; charset=UTF-8", 4096)).isTrue();
+        assertThat(codecs.eligible("Application/JSON", 4096)).isTrue();
+        assertThat(codecs.eligible("application/pdf", 4096)).isFalse();
+        assertThat(codecs.eligible("text/plain", 100)).isFalse();
+        assertThat(codecs.eligible(null, 4096)).isFalse();
+
+        properties.setEnabled(false);
+        assertThat(codecs.eligible("text/plain", 4096)).isFalse();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：压缩后解压 - 内容一致且体积明显减小")
+    void compressRoundTrip() throws Exception {
+        byte[] content = "第一行 line of text\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+        Path compressed = codecs.compress(new ByteArrayInputStream(content), content.length);
+        try {
+            assertThat(compressed).isNotNull();
+            assertThat(Files.size(compressed)).isLessThan(content.length / 10);
+            try (InputStream in = StorageCodecs.decode(Files.newInputStream(compressed), Document.StorageCodec.GZIP)) {
+                assertThat(in.readAllBytes()).isEqualTo(content);
+            }
+        } finally {
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：不可压缩内容 - 收益不足时返回null")
+    void compressIncompressible() throws Exception {
+        byte[] content = new byte[8192];
+        new Random(42).nextBytes(content);
+
+        assertThat(codecs.compress(new ByteArrayInputStream(content), content.length)).isNull();
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：Content-Encoding 映射 - 仅 gzip 视为压缩存储")
+    void fromContentEncoding() {
+        assertThat(StorageCodecs.fromContentEncoding(" GZIP ")).isEqualTo(Document.StorageCodec.GZIP);
+        assertThat(StorageCodecs.fromContentEncoding(null)).isEqualTo(Document.StorageCodec.NONE);
+        assertThat(StorageCodecs.fromContentEncoding("br")).isEqualTo(Document.StorageCodec.NONE);
+    }
+}
@@ -0,0 +1,132 @@
+package com.ntdoc.notangdoccore.service.storage;
+
+import com.ntdoc.notangdoccore.config.StorageQuotaProperties;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.entity.UserStorageUsage;
+import com.ntdoc.notangdoccore.exception.DocumentException;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.repository.UserStorageUsageRepository;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("存储配额测试")
+public class StorageQuotaServiceTest {
+
+    @Mock
+    private UserStorageUsageRepository usageRepository;
+    @Mock
+    private UserRepository userRepository;
+
+    private StorageQuotaProperties properties;
+    private StorageQuotaService quotaService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageQuotaProperties();
+        properties.setDefaultQuota(DataSize.ofBytes(1000));
+        quotaService = new StorageQuotaService(usageRepository, userRepository, properties,
+                TransactionOperations.withoutTransaction());
+        user = User.builder().id(1L).kcUserId("kc-1").username("alice").build();
+    }
+
+    private static UserStorageUsage usage(long used, Long quota) {
+        return UserStorageUsage.builder().userId(1L).usedBytes(used).storedBytes(used).documentCount(1L)
+                .quotaBytes(quota).build();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：上传前检查 - 主键读取汇总行，超出默认配额或单独配额时拒绝")
+    void checkUpload_RejectsOverQuota() {
+        when(usageRepository.findById(1L)).thenReturn(Optional.of(usage(900, null)));
+
+        quotaService.checkUpload(user, 100);
+        assertThatThrownBy(() -> quotaService.checkUpload(user, 101))
+                .isInstanceOf(DocumentException.StorageQuotaExceededException.class)
+                .hasMessageContaining("配额 1000 字节");
+
+        when(usageRepository.findById(1L)).thenReturn(Optional.of(usage(900, 5000L)));
+        quotaService.checkUpload(user, 4100);
+        verify(usageRepository, never()).sumDocuments(any());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：上传前检查 - 首次上传时创建空汇总行；关闭配额时只统计不拦截")
+    void checkUpload_CreatesRowAndRespectsDisabled() {
+        when(usageRepository.findById(1L)).thenReturn(Optional.empty());
+        when(usageRepository.saveAndFlush(any(UserStorageUsage.class))).thenAnswer(i -> i.getArgument(0));
+
+        quotaService.checkUpload(user, 10);
+        verify(usageRepository).saveAndFlush(argThat(u -> u.getUserId() == 1L && u.getUsedBytes() == 0));
+
+        properties.setEnabled(false);
+        quotaService.checkUpload(user, 10_000);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：事务内占用 - 条件更新未命中时抛出配额异常")
+    void reserve_ConditionalUpdate() {
+        when(usageRepository.reserve(1L, 100L, 40L, true, 1000L)).thenReturn(1);
+        quotaService.reserve(user, 100, 40);
+
+        when(usageRepository.reserve(1L, 200L, 200L, true, 1000L)).thenReturn(0);
+        when(usageRepository.findById(1L)).thenReturn(Optional.of(usage(900, null)));
+        assertThatThrownBy(() -> quotaService.reserve(user, 200, 200))
+                .isInstanceOf(DocumentException.StorageQuotaExceededException.class);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：删除归还 - 按用户合并，压缩存储按实际大小归还")
+    void release_GroupedByUser() {
+        Document a = Document.builder().id(1L).uploadedBy(user).fileSize(100L).storedSize(30L).build();
+        Document b = Document.builder().id(2L).uploadedBy(user).fileSize(50L).build();
+
+        quotaService.release(List.of(a, b));
+
+        verify(usageRepository).release(1L, 150L, 80L, 2L);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：校正 - 锁定汇总行后按 document 表重算，只写回有偏差的用户")
+    void repair_CorrectsDrift() {
+        when(usageRepository.findUserIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(usageRepository.findUserIdsAfter(eq(2L), any(Pageable.class))).thenReturn(Collections.emptyList());
+        UserStorageUsage drifted = usage(999, null);
+        when(usageRepository.findForUpdate(1L)).thenReturn(Optional.of(drifted));
+        when(usageRepository.sumDocuments(1L)).thenReturn(List.<Object[]>of(new Object[]{150L, 80L, 2L}));
+        UserStorageUsage accurate = UserStorageUsage.builder().userId(2L).build();
+        when(usageRepository.findForUpdate(2L)).thenReturn(Optional.of(accurate));
+        when(usageRepository.sumDocuments(2L)).thenReturn(List.<Object[]>of(new Object[]{0L, 0L, 0L}));
+
+        int corrected = quotaService.repair();
+
+        assertThat(corrected).isEqualTo(1);
+        assertThat(drifted.getUsedBytes()).isEqualTo(150L);
+        assertThat(drifted.getStoredBytes()).isEqualTo(80L);
+        assertThat(drifted.getDocumentCount()).isEqualTo(2L);
+        verify(usageRepository).save(drifted);
+        verify(usageRepository, never()).save(accurate);
+    }
+}
@@ -0,0 +1,168 @@
+package com.ntdoc.notangdoccore.smoke;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 完整应用的冒烟测试：H2（MySQL 模式，Liquibase 建表）+ 本地 S3 替身 + 本地 Keycloak 替身
+ * 不使用 Mock，可在 JVM 上运行，也可用 -PnativeTest 编译为原生测试镜像运行，验证原生镜像的反射与资源提示
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("应用冒烟测试")
+public class ApplicationSmokeTest {
+    private static final String BUCKET = "smoke-bucket";
+    private static final String SUBJECT = "kc-smoke-user";
+
+    private static final LocalS3Server S3;
+    private static final LocalOidcServer OIDC;
+
+    static {
+        try {
+            S3 = new LocalS3Server();
+            OIDC = new LocalOidcServer();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 重复文本上传后以 gzip 存储
+    private static final byte[] CONTENT = "smoke test content\n".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+    private static Long documentId;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:smoke;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        registry.add("spring.liquibase.enabled", () -> "true");
+        registry.add("digitalocean.spaces.endpoint", S3::endpoint);
+        registry.add("digitalocean.spaces.path-style-access", () -> "true");
+        registry.add("digitalocean.spaces.bucket", () -> BUCKET);
+        registry.add("spring.security.oauth2.resourceserver.jwt.jwk-set-uri", OIDC::jwkSetUri);
+        registry.add("spring.security.oauth2.client.provider.keycloak.issuer-uri", OIDC::issuer);
+        registry.add("spring.security.oauth2.client.provider.keycloak.jwk-set-uri", OIDC::jwkSetUri);
+        registry.add("keycloak.auth-server-url", OIDC::endpoint);
+    }
+
+    @AfterAll
+    static void stopStandIns() {
+        S3.close();
+        OIDC.close();
+    }
+
+    private HttpHeaders authorized() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(OIDC.token(SUBJECT, "smoke"));
+        return headers;
+    }
+
+    private JsonNode exchange(HttpMethod method, String path, Object body, HttpHeaders headers) throws IOException {
+        ResponseEntity<String> response = rest.exchange(path, method, new HttpEntity<>(body, headers), String.class);
+        assertThat(response.getStatusCode().is2xxSuccessful())
+                .as("%s %s -> %s %s", method, path, response.getStatusCode(), response.getBody())
+                .isTrue();
+        return objectMapper.readTree(response.getBody());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：启动完成 - 健康检查UP，未认证请求返回401")
+    void startup_HealthUpAndSecured() {
+        ResponseEntity<String> health = rest.getForEntity("/actuator/health", String.class);
+        HttpHeaders json = new HttpHeaders();
+        json.setAccept(List.of(MediaType.APPLICATION_JSON));
+        ResponseEntity<String> anonymous = rest.exchange("/api/v1/documents", HttpMethod.GET, new HttpEntity<>(json),
+                String.class);
+
+        assertThat(health.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(health.getBody()).contains("\"UP\"");
+        assertThat(anonymous.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：令牌校验与用户同步 - 首次访问创建本地用户")
+    void me_SyncsUser() throws IOException {
+        JsonNode me = exchange(HttpMethod.GET, "/api/user/me", null, authorized());
+
+        assertThat(me.get("kcUserId").asText()).isEqualTo(SUBJECT);
+        assertThat(me.get("username").asText()).isEqualTo("smoke");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：上传文档 - 对象写入S3替身，文档记录与配额用量落库")
+    void upload_StoresObjectAndRecord() throws IOException {
+        byte[] content = CONTENT;
+        MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+        form.add("file", new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return "smoke.txt";
+            }
+        });
+        HttpHeaders headers = authorized();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        JsonNode uploaded = exchange(HttpMethod.POST, "/api/v1/documents/upload", form, headers);
+        documentId = uploaded.at("/data/documentId").asLong();
+        String s3Key = uploaded.at("/data/s3Key").asText();
+        JsonNode usage = exchange(HttpMethod.GET, "/api/v1/storage/usage", null, authorized());
+
+        assertThat(documentId).isPositive();
+        assertThat(S3.objects()).containsKey("/" + BUCKET + "/" + s3Key);
+        assertThat(usage.at("/data/usedBytes").asLong()).isEqualTo(content.length);
+        assertThat(usage.at("/data/documentCount").asLong()).isEqualTo(1);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：列表与下载链接 - gzip 存储的文档返回签名内容链接，无需令牌即可下载原始内容")
+    void listAndDownload() throws IOException {
+        JsonNode list = exchange(HttpMethod.GET, "/api/v1/documents", null, authorized());
+        JsonNode download = exchange(HttpMethod.GET, "/api/v1/documents/download/" + documentId, null, authorized());
+        String downloadUrl = download.at("/data/downloadUrl").asText();
+        ResponseEntity<byte[]> content = rest.getRestTemplate().getForEntity(URI.create(downloadUrl), byte[].class);
+
+        assertThat(list.at("/data/documents")).hasSize(1);
+        assertThat(downloadUrl).contains("/api/public/documents/" + documentId + "/content?");
+        assertThat(content.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(content.getHeaders().getContentDisposition().getType()).isEqualTo("attachment");
+        assertThat(content.getBody()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：删除文档 - 归还配额")
+    void delete_ReleasesQuota() throws IOException {
+        exchange(HttpMethod.DELETE, "/api/v1/documents/" + documentId, null, authorized());
+        JsonNode usage = exchange(HttpMethod.GET, "/api/v1/storage/usage", null, authorized());
+
+        assertThat(usage.at("/data/usedBytes").asLong()).isZero();
+        assertThat(usage.at("/data/documentCount").asLong()).isZero();
+    }
+}
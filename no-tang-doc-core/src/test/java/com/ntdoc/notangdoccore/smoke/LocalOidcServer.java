@@ -0,0 +1,109 @@
+package com.ntdoc.notangdoccore.smoke;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 冒烟测试用的 Keycloak 替身：OIDC discovery 与 JWKS，并签发测试令牌
+ * 应用启动时按 issuer-uri 请求 discovery，资源服务器按 jwk-set-uri 校验令牌签名
+ */
+class LocalOidcServer implements AutoCloseable {
+    private static final String REALM_PATH = "/realms/ntdoc";
+
+    private final HttpServer server;
+    private final RSAKey signingKey;
+
+    LocalOidcServer() throws IOException {
+        try {
+            signingKey = new RSAKeyGenerator(2048).keyID("smoke").generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(REALM_PATH + "/.well-known/openid-configuration", exchange -> json(exchange, discovery()));
+        server.createContext(REALM_PATH + "/protocol/openid-connect/certs",
+                exchange -> json(exchange, new JWKSet(signingKey.toPublicJWK()).toString()));
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    String issuer() {
+        return endpoint() + REALM_PATH;
+    }
+
+    String jwkSetUri() {
+        return issuer() + "/protocol/openid-connect/certs";
+    }
+
+    /**
+     * 与 Keycloak 访问令牌结构一致的 RS256 令牌
+     */
+    String token(String subject, String username) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer())
+                .subject(subject)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(Duration.ofMinutes(5))))
+                .claim("azp", "no-tang-doc-core")
+                .claim("preferred_username", username)
+                .claim("email", username + "@example.com")
+                .claim("realm_access", Map.of("roles", List.of("USER")))
+                .build();
+        try {
+            SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(),
+                    claims);
+            jwt.sign(new RSASSASigner(signingKey));
+            return jwt.serialize();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String discovery() {
+        String base = issuer() + "/protocol/openid-connect";
+        return """
+                {"issuer":"%s","authorization_endpoint":"%s/auth","token_endpoint":"%s/token",
+                 "userinfo_endpoint":"%s/userinfo","end_session_endpoint":"%s/logout","jwks_uri":"%s/certs",
+                 "response_types_supported":["code"],"subject_types_supported":["public"],
+                 "id_token_signing_alg_values_supported":["RS256"],
+                 "grant_types_supported":["authorization_code","refresh_token"]}
+                """.formatted(issuer(), base, base, base, base, base);
+    }
+
+    private static void json(HttpExchange exchange, String body) throws IOException {
+        try (exchange) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
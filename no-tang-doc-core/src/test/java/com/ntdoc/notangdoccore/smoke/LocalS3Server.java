@@ -0,0 +1,174 @@
+package com.ntdoc.notangdoccore.smoke;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 冒烟测试用的内存 S3 替身（路径风格寻址，不校验签名）
+ * 支持应用用到的 PutObject / GetObject / HeadObject / DeleteObject / DeleteObjects，
+ * 兼容 SDK 在 HTTP 端点上使用的 aws-chunked 分块上传
+ */
+class LocalS3Server implements AutoCloseable {
+    private static final Pattern DELETE_KEY = Pattern.compile("<Key>(.*?)</Key>");
+
+    private final HttpServer server;
+    private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+
+    record StoredObject(byte[] content, String contentType, String contentEncoding, String eTag) {
+    }
+
+    LocalS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    Map<String, StoredObject> objects() {
+        return objects;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = URLDecoder.decode(exchange.getRequestURI().getRawPath(), StandardCharsets.UTF_8);
+            String query = exchange.getRequestURI().getRawQuery();
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> put(exchange, path);
+                case "GET", "HEAD" -> get(exchange, path);
+                case "DELETE" -> {
+                    objects.remove(path);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                case "POST" -> {
+                    if (query != null && query.startsWith("delete")) {
+                        deleteObjects(exchange, path);
+                    } else {
+                        exchange.sendResponseHeaders(501, -1);
+                    }
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private void put(HttpExchange exchange, String path) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        String sha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (sha256 != null && sha256.startsWith("STREAMING-")) {
+            body = decodeAwsChunked(body);
+        }
+        String eTag = "\"" + md5Hex(body) + "\"";
+        String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        if (contentEncoding != null) {
+            contentEncoding = contentEncoding.replace("aws-chunked", "").replaceAll("^,|,$", "").strip();
+        }
+        objects.put(path, new StoredObject(body, exchange.getRequestHeaders().getFirst("Content-Type"),
+                contentEncoding == null || contentEncoding.isEmpty() ? null : contentEncoding, eTag));
+        exchange.getResponseHeaders().add("ETag", eTag);
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void get(HttpExchange exchange, String path) throws IOException {
+        StoredObject object = objects.get(path);
+        boolean head = "HEAD".equals(exchange.getRequestMethod());
+        if (object == null) {
+            byte[] error = "<Error><Code>NoSuchKey</Code><Message>Not Found</Message></Error>"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/xml");
+            exchange.sendResponseHeaders(404, head ? -1 : error.length);
+            if (!head) {
+                exchange.getResponseBody().write(error);
+            }
+            return;
+        }
+        exchange.getResponseHeaders().add("ETag", object.eTag());
+        if (object.contentType() != null) {
+            exchange.getResponseHeaders().add("Content-Type", object.contentType());
+        }
+        if (object.contentEncoding() != null) {
+            exchange.getResponseHeaders().add("Content-Encoding", object.contentEncoding());
+        }
+        if (head) {
+            exchange.getResponseHeaders().add("Content-Length", Integer.toString(object.content().length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(200, object.content().length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(object.content());
+        }
+    }
+
+    private void deleteObjects(HttpExchange exchange, String bucketPath) throws IOException {
+        String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Matcher matcher = DELETE_KEY.matcher(request);
+        while (matcher.find()) {
+            objects.remove(bucketPath.replaceAll("/+$", "") + "/" + matcher.group(1));
+        }
+        byte[] response = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><DeleteResult/>".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(200, response.length);
+        exchange.getResponseBody().write(response);
+    }
+
+    /**
+     * aws-chunked：{十六进制长度}[;chunk-signature=...]\r\n{数据}\r\n ... 0\r\n[尾部校验头]\r\n
+     */
+    static byte[] decodeAwsChunked(byte[] body) throws IOException {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream(body.length);
+        InputStream in = new java.io.ByteArrayInputStream(body);
+        while (true) {
+            String header = readLine(in);
+            int separator = header.indexOf(';');
+            int size = Integer.parseInt((separator >= 0 ? header.substring(0, separator) : header).strip(), 16);
+            if (size == 0) {
+                return decoded.toByteArray();
+            }
+            decoded.write(in.readNBytes(size));
+            readLine(in);
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private static String md5Hex(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
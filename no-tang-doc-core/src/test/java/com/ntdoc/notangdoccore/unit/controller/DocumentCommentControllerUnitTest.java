@@ -7,11 +7,14 @@ import com.ntdoc.notangdoccore.dto.common.ApiResponse;
 import com.ntdoc.notangdoccore.entity.*;
 import com.ntdoc.notangdoccore.repository.DocumentRepository;
 import com.ntdoc.notangdoccore.service.DocumentCommentService;
+import com.ntdoc.notangdoccore.service.cache.CacheInvalidationService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.*;
 import org.mockito.Mockito;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.MediaType;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
@@ -38,6 +41,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 /**
  * DocumentCommentController 单元测试（使用 @MockitoBean 而非 @MockBean）
  */
+@Import(ResourceVersionService.class)
 @WebMvcTest(controllers = {DocumentCommentController.class})
 @AutoConfigureMockMvc
 @Slf4j
@@ -51,6 +55,9 @@ public class DocumentCommentControllerUnitTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @MockitoBean
+    private CacheInvalidationService cacheInvalidationService;
+
     @MockitoBean
     private DocumentCommentService commentService;
     @MockitoBean
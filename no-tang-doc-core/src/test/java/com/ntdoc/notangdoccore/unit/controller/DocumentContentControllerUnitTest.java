@@ -0,0 +1,151 @@
+package com.ntdoc.notangdoccore.unit.controller;
+
+import com.ntdoc.notangdoccore.controller.DocumentContentController;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.exception.DocumentException;
+import com.ntdoc.notangdoccore.service.DocumentService;
+import com.ntdoc.notangdoccore.service.cache.CacheInvalidationService;
+import com.ntdoc.notangdoccore.service.impl.UserSyncServiceImpl;
+import com.ntdoc.notangdoccore.service.storage.ContentLinkService;
+import com.ntdoc.notangdoccore.service.storage.DocumentContentService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = { DocumentContentController.class })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("DocumentContentController单元测试")
+public class DocumentContentControllerUnitTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CacheInvalidationService cacheInvalidationService;
+
+    @MockitoBean
+    private DocumentService documentService;
+
+    @MockitoBean
+    private DocumentContentService documentContentService;
+
+    @MockitoBean
+    private ContentLinkService contentLinkService;
+
+    @MockitoBean
+    private UserSyncServiceImpl userSyncService;
+
+    @MockitoBean
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @MockitoBean
+    private OAuth2AuthorizedClientManager authorizedClientManager;
+
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        User owner = User.builder().id(1L).kcUserId("user-123").username("test_user").build();
+        document = Document.builder().id(100L).s3Key("user-123/docs/a.txt").originalFilename("a.txt")
+                .uploadedBy(owner).status(Document.DocumentStatus.ACTIVE).downloadCount(0).build();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：文档不存在或已删除 - 返回404")
+    void getContent_DocumentNotFound() throws Exception {
+        when(documentService.getDocumentById(100L, "user-123"))
+                .thenThrow(new DocumentException.DocumentNotFoundException(100L));
+
+        mockMvc.perform(get("/api/v1/documents/{id}/content", 100L).with(jwt().jwt(j -> j.subject("user-123"))))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value(404));
+
+        verify(documentContentService, never()).serve(any(), any(), any());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：写出内容前失败 - 错误响应不沿用已设置的内容响应头")
+    void getContent_FailureResetsContentHeaders() throws Exception {
+        when(documentService.getDocumentById(100L, "user-123")).thenReturn(document);
+        when(documentContentService.serve(any(), any(), any())).thenAnswer(invocation -> {
+            HttpServletResponse response = invocation.getArgument(2);
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentLengthLong(1234);
+            response.setHeader("Content-Encoding", "gzip");
+            response.setHeader("Content-Range", "bytes 0-1233/5000");
+            throw new IOException("disk read failed");
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/v1/documents/{id}/content", 100L)
+                        .with(jwt().jwt(j -> j.subject("user-123"))))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.code").value(500))
+                .andReturn();
+
+        assertThat(result.getResponse().getHeader("Content-Encoding")).isNull();
+        assertThat(result.getResponse().getHeader("Content-Range")).isNull();
+        assertThat(result.getResponse().getContentLengthLong()).isNotEqualTo(1234);
+        assertThat(result.getResponse().getContentType()).startsWith("application/json");
+        verify(documentService, never()).incrementDownloadCount(any());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：签名链接 - 签名无效返回403")
+    void getLinkedContent_InvalidSignature() throws Exception {
+        when(contentLinkService.resolve(100L, 4102444800L, "attachment", "bad"))
+                .thenThrow(new SecurityException("Invalid content link signature"));
+
+        mockMvc.perform(get("/api/public/documents/{id}/content", 100L)
+                        .param("expires", "4102444800")
+                        .param("disposition", "attachment")
+                        .param("signature", "bad")
+                        // 切片测试未加载 SecurityConfig（/api/public/** 放行），以任意令牌通过默认安全配置
+                        .with(jwt()))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.code").value(403));
+
+        verify(documentContentService, never()).serve(any(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：签名链接 - 按链接写出附件且不重复计下载次数")
+    void getLinkedContent_ServesAttachment() throws Exception {
+        when(contentLinkService.resolve(100L, 4102444800L, "attachment", "sig")).thenReturn(document);
+        when(documentContentService.serve(eq(document), eq(true), any(), any())).thenReturn(HttpServletResponse.SC_OK);
+
+        mockMvc.perform(get("/api/public/documents/{id}/content", 100L)
+                        .param("expires", "4102444800")
+                        .param("disposition", "attachment")
+                        .param("signature", "sig")
+                        .with(jwt()))
+                .andExpect(status().isOk());
+
+        verify(documentContentService).serve(eq(document), eq(true), any(), any());
+        verify(documentService, never()).incrementDownloadCount(any());
+    }
+}
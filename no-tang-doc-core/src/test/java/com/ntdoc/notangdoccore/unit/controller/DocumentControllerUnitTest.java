@@ -4,6 +4,8 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ntdoc.notangdoccore.controller.DocumentController;
 import com.ntdoc.notangdoccore.dto.common.ApiResponse;
+import com.ntdoc.notangdoccore.dto.document.BulkDeleteRequest;
+import com.ntdoc.notangdoccore.dto.document.BulkDeleteResponse;
 import com.ntdoc.notangdoccore.dto.document.DeleteDocumentResponse;
 import com.ntdoc.notangdoccore.dto.document.DocumentDownloadResponse;
 import com.ntdoc.notangdoccore.dto.document.DocumentUploadResponse;
@@ -11,13 +13,19 @@ import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.service.DocumentService;
 import com.ntdoc.notangdoccore.service.DocumentTagService;
+import com.ntdoc.notangdoccore.service.TagFacetService;
 import com.ntdoc.notangdoccore.service.FileStorageService;
+import com.ntdoc.notangdoccore.service.cache.CacheInvalidationService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.rendition.RenditionUrls;
+import com.ntdoc.notangdoccore.service.storage.ContentLinkService;
 import com.ntdoc.notangdoccore.service.impl.UserSyncServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
@@ -36,6 +44,8 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
@@ -43,6 +53,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+@Import(ResourceVersionService.class)
 @WebMvcTest(controllers = { DocumentController.class })
 @AutoConfigureMockMvc
 @Slf4j
@@ -56,6 +67,9 @@ public class DocumentControllerUnitTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @MockitoBean
+    private CacheInvalidationService cacheInvalidationService;
+
     @MockitoBean
     private DocumentService documentService;
 
@@ -68,6 +82,18 @@ public class DocumentControllerUnitTest {
     @MockitoBean
     private DocumentTagService tagService;
 
+    @MockitoBean
+    private TagFacetService tagFacetService;
+
+    @MockitoBean
+    private RenditionUrls renditionUrls;
+
+    @MockitoBean
+    private ContentLinkService contentLinkService;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
     @MockitoBean
     private ClientRegistrationRepository clientRegistrationRepository;
 
@@ -79,7 +105,11 @@ public class DocumentControllerUnitTest {
     @BeforeEach
     void setUp() {
         log.info("=== Test Begin ===");
-        reset(documentService, userSyncService, fileStorageService);
+        reset(documentService, userSyncService, fileStorageService, contentLinkService);
+        // 未压缩文档的分享链接即对象存储预签名 URL
+        when(contentLinkService.shareUrl(any(Document.class), any(Duration.class)))
+                .thenAnswer(inv -> fileStorageService.generateShareUrl(
+                        inv.<Document>getArgument(0).getS3Key(), inv.getArgument(1)));
 
         // 创建测试用户
         testUser = User.builder()
@@ -496,6 +526,44 @@ public class DocumentControllerUnitTest {
                 .andExpect(jsonPath("$.data.documents.length()").value(0));
     }
 
+    @Test
+    @Order(23)
+    @DisplayName("测试23：获取用户文档列表 - If-None-Match 命中返回304且不查询，写入后ETag变化")
+    void getUserDocuments_ConditionalGet() throws Exception {
+        log.info("Test: Get User Documents - Conditional GET");
+
+        when(documentService.getUserDocuments("user-123")).thenReturn(List.of());
+
+        String eTag = mockMvc.perform(
+                        get("/api/v1/documents")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("no-cache")))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(eTag).startsWith("W/\"");
+
+        mockMvc.perform(
+                        get("/api/v1/documents")
+                                .header("If-None-Match", eTag)
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(documentService, times(1)).getUserDocuments("user-123");
+
+        resourceVersionService.bump(ResourceVersionService.Scope.DOCUMENTS, "user-123");
+
+        mockMvc.perform(
+                        get("/api/v1/documents")
+                                .header("If-None-Match", eTag)
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)));
+        verify(documentService, times(2)).getUserDocuments("user-123");
+    }
+
     // ==================== 删除文档测试 ====================
 
     @Test
@@ -560,6 +628,38 @@ public class DocumentControllerUnitTest {
         verify(documentService, never()).deleteDocument(anyLong(), anyString());
     }
 
+    @Test
+    @Order(32)
+    @DisplayName("测试32：批量删除文档 - 部分成功")
+    void deleteDocuments_PartialSuccess() throws Exception {
+        log.info("Test: Bulk Delete Documents - Partial Success");
+
+        BulkDeleteResponse response = BulkDeleteResponse.builder()
+                .requested(2)
+                .deleted(1)
+                .results(List.of(
+                        BulkDeleteResponse.Result.builder().documentId(100L).status(BulkDeleteResponse.Status.DELETED).build(),
+                        BulkDeleteResponse.Result.builder().documentId(999L).status(BulkDeleteResponse.Status.NOT_FOUND).message("文档不存在").build()))
+                .build();
+        when(documentService.deleteDocuments(List.of(100L, 999L), "user-123")).thenReturn(response);
+
+        mockMvc.perform(
+                        post("/api/v1/documents/batch-delete")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        BulkDeleteRequest.builder().documentIds(List.of(100L, 999L)).build()))
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("部分文档删除失败"))
+                .andExpect(jsonPath("$.data.deleted").value(1))
+                .andExpect(jsonPath("$.data.results[1].status").value("NOT_FOUND"));
+
+        verify(documentService).deleteDocuments(List.of(100L, 999L), "user-123");
+    }
+
     // ==================== 生成分享链接测试 ====================
 
     @Test
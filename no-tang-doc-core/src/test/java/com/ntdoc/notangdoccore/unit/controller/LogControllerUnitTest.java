@@ -7,6 +7,8 @@ import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.entity.logenum.ActorType;
 import com.ntdoc.notangdoccore.entity.logenum.OperationStatus;
 import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+import com.ntdoc.notangdoccore.service.cache.CacheInvalidationService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
 import com.ntdoc.notangdoccore.service.impl.UserSyncServiceImpl;
 import com.ntdoc.notangdoccore.service.impl.LogServiceImpl;
 import jakarta.servlet.ServletException;
@@ -15,6 +17,7 @@ import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -32,6 +35,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 // LogController的单元测试
+@Import(ResourceVersionService.class)
 @WebMvcTest(controllers = LogController.class,
         excludeAutoConfiguration = {
         org.springframework.boot.autoconfigure.security.oauth2.client.OAuth2ClientAutoConfiguration.class,
@@ -48,6 +52,9 @@ public class LogControllerUnitTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @MockitoBean
+    private CacheInvalidationService cacheInvalidationService;
+
     @MockitoBean
     private LogServiceImpl logService;
 
@@ -9,11 +9,14 @@ import com.ntdoc.notangdoccore.dto.team.TeamResponse;
 import com.ntdoc.notangdoccore.entity.Team;
 import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.service.TeamService;
+import com.ntdoc.notangdoccore.service.cache.CacheInvalidationService;
+import com.ntdoc.notangdoccore.service.cache.ResourceVersionService;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.MediaType;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
@@ -34,6 +37,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+@Import(ResourceVersionService.class)
 @WebMvcTest(controllers = { TeamController.class })
 @AutoConfigureMockMvc
 @Slf4j
@@ -47,6 +51,9 @@ public class TeamControllerUnitTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @MockitoBean
+    private CacheInvalidationService cacheInvalidationService;
+
     @MockitoBean
     private TeamService teamService;
 